@@ -3,6 +3,8 @@ package com.avaje.ebean;
 import com.avaje.ebean.cache.ServerCacheManager;
 import com.avaje.ebean.config.ServerConfig;
 import com.avaje.ebean.text.csv.CsvReader;
+import com.avaje.ebean.text.csv.CsvWriter;
+import com.avaje.ebean.text.csv.CsvWriterFactory;
 import com.avaje.ebean.text.json.JsonContext;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -10,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.persistence.OptimisticLockException;
 import javax.persistence.PersistenceException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -945,6 +948,18 @@ public final class Ebean {
     return serverMgr.getDefaultServer().createCsvReader(beanType);
   }
 
+  /**
+   * Create a CsvWriter for a given beanType.
+   */
+  public static <T> CsvWriter<T> createCsvWriter(Class<T> beanType) {
+
+    EbeanServer server = serverMgr.getDefaultServer();
+    if (!(server instanceof CsvWriterFactory)) {
+      throw new UnsupportedOperationException("EbeanServer " + server.getName() + " does not support CsvWriter");
+    }
+    return ((CsvWriterFactory) server).createCsvWriter(beanType);
+  }
+
   /**
    * Create a named query.
    * <p>
@@ -1026,6 +1041,29 @@ public final class Ebean {
     return serverMgr.getDefaultServer().createQuery(beanType, eql);
   }
 
+  /**
+   * Execute a batch of queries returning a list of beans for each query.
+   * <p>
+   * The queries are executed using the same transaction.
+   * </p>
+   *
+   * <pre>{@code
+   *
+   *   List<List<?>> results = Ebean.findListBatch(customerQuery, productQuery, orderQuery);
+   *
+   * }</pre>
+   *
+   * @see QueryBatchFinder#findListBatch(List, Transaction)
+   */
+  public static List<List<?>> findListBatch(Query<?>... queries) {
+
+    EbeanServer server = serverMgr.getDefaultServer();
+    if (!(server instanceof QueryBatchFinder)) {
+      throw new UnsupportedOperationException("EbeanServer " + server.getName() + " does not support findListBatch");
+    }
+    return ((QueryBatchFinder) server).findListBatch(Arrays.asList(queries), null);
+  }
+
   /**
    * Create a query for a type of entity bean.
    * <p>
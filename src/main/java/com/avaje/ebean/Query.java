@@ -1213,6 +1213,19 @@ public interface Query<T> {
    */
   Query<T> setReadOnly(boolean readOnly);
 
+  /**
+   * Set to explicitly use (or not use) the read only DataSource when this query
+   * executes in an implicit transaction.
+   * <p>
+   * By default when a read only DataSource is configured queries executing in
+   * an implicit transaction use it unless there was a recent commit in the same
+   * thread. Set this to false for queries that must read from the main DataSource.
+   * </p>
+   *
+   * @see com.avaje.ebean.config.ServerConfig#setReadOnlyDataSource(javax.sql.DataSource)
+   */
+  Query<T> setUseReadOnlyDataSource(boolean useReadOnlyDataSource);
+
   /**
    * When set to true all the beans from this query are loaded into the bean
    * cache.
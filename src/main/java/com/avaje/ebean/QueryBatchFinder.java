@@ -0,0 +1,36 @@
+package com.avaje.ebean;
+
+import java.util.List;
+
+/**
+ * Executes a batch of queries using a single transaction.
+ * <p>
+ * Implemented by the EbeanServer. For a server other than the default server cast it
+ * to this interface to execute a batch of queries.
+ * </p>
+ *
+ * <pre>{@code
+ *
+ * Query<Customer> customers = ebeanServer.find(Customer.class).where().eq("status", ACTIVE).query();
+ * Query<Product> products = ebeanServer.find(Product.class).where().ilike("sku", "A%").query();
+ *
+ * List<List<?>> results = ((QueryBatchFinder) ebeanServer).findListBatch(Arrays.asList(customers, products), null);
+ * List<Customer> customerList = (List<Customer>) results.get(0);
+ *
+ * }</pre>
+ */
+public interface QueryBatchFinder {
+
+  /**
+   * Execute a batch of queries returning a list of beans for each query.
+   * <p>
+   * The queries are executed sequentially using the same transaction (and connection). When
+   * no transaction is supplied or active an implicit transaction is created for the batch.
+   * </p>
+   *
+   * @param queries     the queries to execute
+   * @param transaction the transaction to use (can be null).
+   * @return the lists of fetched beans in the same order as the queries.
+   */
+  List<List<?>> findListBatch(List<Query<?>> queries, Transaction transaction);
+}
@@ -115,4 +115,29 @@ public interface SqlQuery extends Serializable {
    */
   SqlQuery setBufferFetchSizeHint(int bufferFetchSizeHint);
 
+  /**
+   * Set this to true to use the query cache for findList() and findUnique().
+   * <p>
+   * The cached results are keyed by the sql and bind values and are invalidated when
+   * any table used in the sql is modified (via bean persisting, SqlUpdate, external
+   * modification or a change notified from another server in the cluster). Tables
+   * that are only used indirectly (for example via a view) do not invalidate the
+   * cached results.
+   * </p>
+   * <p>
+   * The SqlRow's put into and returned from the cache are shared and are read only
+   * (modifying them throws IllegalStateException). SqlQuery results are not cached
+   * when the ServerCacheManager does not implement ServerCacheSqlQuery.
+   * </p>
+   *
+   * <pre>{@code
+   *
+   *   List<SqlRow> totals = Ebean.createSqlQuery("select status, count(*) as total from o_order group by status")
+   *     .setUseQueryCache(true)
+   *     .findList();
+   *
+   * }</pre>
+   */
+  SqlQuery setUseQueryCache(boolean useQueryCache);
+
 }
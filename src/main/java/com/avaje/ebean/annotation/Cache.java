@@ -58,4 +58,24 @@ public @interface Cache {
    */
   boolean readOnly() default false;
 
+  /**
+   * Set this to true to warm (preload) the bean cache with all the beans of this type.
+   * <p>
+   * The bean cache, natural key cache and collection ids caches are loaded in the background
+   * after the server has started (unless ServerConfig cacheWarmOnStart is false). This is
+   * intended for bean types with a moderate number of rows that are frequently read.
+   * </p>
+   */
+  boolean warm() default false;
+
+  /**
+   * Set this to true to include the bean cache in the snapshot written to local disk.
+   * <p>
+   * With ServerConfig cacheSnapshotDirectory set the bean cache is periodically written to a
+   * file and reloaded on startup. Entries are validated against the version property in the
+   * database when reloaded so this requires the bean type to have a <code>@Version</code> property.
+   * </p>
+   */
+  boolean snapshot() default false;
+
 }
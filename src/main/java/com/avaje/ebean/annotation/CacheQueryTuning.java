@@ -52,4 +52,13 @@ public @interface CacheQueryTuning {
    * </p>
    */
   int trimFrequency() default 0;
+
+  /**
+   * The window (in seconds) before an entry reaches maxSecsToLive in which reading the entry
+   * triggers a background reload (refresh ahead).
+   * <p>
+   * This defaults to 0 which means no refresh ahead.
+   * </p>
+   */
+  int refreshAheadSecs() default 0;
 }
@@ -0,0 +1,28 @@
+package com.avaje.ebean.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional interface for a ServerCache that supports multi-get and multi-put.
+ * <p>
+ * Batch lazy loading and loading the bean cache from query results check for this interface.
+ * For caches that do not implement it each key is read or put individually. Remote cache
+ * implementations should implement this such that each operation is a single round trip.
+ * </p>
+ */
+public interface ServerCacheBulk {
+
+  /**
+   * Return the values for the given keys.
+   * <p>
+   * The returned map only contains entries for the keys found in the cache.
+   * </p>
+   */
+  Map<Object, Object> getAll(Set<Object> keys);
+
+  /**
+   * Put all the given keys and values into the cache.
+   */
+  void putAll(Map<Object, Object> keyValues);
+}
@@ -0,0 +1,25 @@
+package com.avaje.ebean.cache;
+
+import java.util.List;
+
+/**
+ * Optional interface for a ServerCacheManager that collects the statistics of all its caches.
+ * <p>
+ * MetaInfoManager checks for this interface and returns no cache statistics for
+ * a ServerCacheManager that does not implement it.
+ * </p>
+ */
+public interface ServerCacheManagerStatistics {
+
+  /**
+   * Collect and return the statistics of all the caches.
+   * <p>
+   * The statistics include the estimated memory used by each cache, the age of evicted
+   * entries and the put latency which can be used to size the caches.
+   * </p>
+   *
+   * @param reset
+   *          Set to true to reset the underlying statistics after collection.
+   */
+  List<ServerCacheStatistics> collectStatistics(boolean reset);
+}
@@ -12,6 +12,7 @@ public class ServerCacheOptions {
   private int maxIdleSecs;
   private int maxSecsToLive;
   private int trimFrequency;
+  private int refreshAheadSecs;
 
   /**
    * Construct with no set options.
@@ -28,6 +29,7 @@ public class ServerCacheOptions {
     this.maxIdleSecs = tuning.maxIdleSecs();
     this.maxSecsToLive = tuning.maxSecsToLive();
     this.trimFrequency = tuning.trimFrequency();
+    this.refreshAheadSecs = tuning.refreshAheadSecs();
   }
 
   /**
@@ -38,6 +40,7 @@ public class ServerCacheOptions {
     this.maxIdleSecs = cacheTuning.maxIdleSecs();
     this.maxSecsToLive = cacheTuning.maxSecsToLive();
     this.trimFrequency = cacheTuning.trimFrequency();
+    this.refreshAheadSecs = cacheTuning.refreshAheadSecs();
   }
 
   /**
@@ -57,6 +60,9 @@ public class ServerCacheOptions {
     if (trimFrequency == 0) {
       trimFrequency = defaults.getTrimFrequency();
     }
+    if (refreshAheadSecs == 0) {
+      refreshAheadSecs = defaults.getRefreshAheadSecs();
+    }
   }
 
   /**
@@ -69,6 +75,7 @@ public class ServerCacheOptions {
     copy.maxIdleSecs = maxIdleSecs;
     copy.maxSecsToLive = maxSecsToLive;
     copy.trimFrequency = trimFrequency;
+    copy.refreshAheadSecs = refreshAheadSecs;
     return copy;
   }
 
@@ -127,4 +134,22 @@ public class ServerCacheOptions {
   public void setTrimFrequency(int trimFrequency) {
     this.trimFrequency = trimFrequency;
   }
+
+  /**
+   * Return the refresh ahead window in seconds (0 means no refresh ahead).
+   */
+  public int getRefreshAheadSecs() {
+    return refreshAheadSecs;
+  }
+
+  /**
+   * Set the refresh ahead window in seconds.
+   * <p>
+   * Entries read within this window before they reach the maximum time to live are
+   * reloaded in the background. This requires maxSecsToLive to be set.
+   * </p>
+   */
+  public void setRefreshAheadSecs(int refreshAheadSecs) {
+    this.refreshAheadSecs = refreshAheadSecs;
+  }
 }
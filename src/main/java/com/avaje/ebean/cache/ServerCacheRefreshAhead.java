@@ -0,0 +1,22 @@
+package com.avaje.ebean.cache;
+
+/**
+ * Optional interface for a ServerCache that refreshes entries ahead of them expiring.
+ * <p>
+ * The bean and query caches check for this interface and register a ServerCacheRefresher
+ * when the cache is configured to refresh ahead. Caches that do not implement it expire
+ * entries as normal.
+ * </p>
+ */
+public interface ServerCacheRefreshAhead {
+
+  /**
+   * Return true if this cache is configured to refresh entries ahead of them expiring.
+   */
+  boolean isRefreshAhead();
+
+  /**
+   * Set the refresher used to reload entries ahead of them expiring.
+   */
+  void setRefresher(ServerCacheRefresher refresher);
+}
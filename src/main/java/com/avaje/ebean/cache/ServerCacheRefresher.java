@@ -0,0 +1,17 @@
+package com.avaje.ebean.cache;
+
+/**
+ * Reloads a cache entry in the background for refresh ahead.
+ * <p>
+ * This is registered on the bean and query caches and invoked by a cache that supports
+ * refresh ahead when an entry is read shortly before it expires.
+ * </p>
+ */
+public interface ServerCacheRefresher {
+
+  /**
+   * Reload the entry for the given key putting the new value into the cache (or removing
+   * the entry if the underlying data no longer exists).
+   */
+  void refresh(Object key);
+}
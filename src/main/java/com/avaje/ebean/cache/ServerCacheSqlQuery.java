@@ -0,0 +1,17 @@
+package com.avaje.ebean.cache;
+
+/**
+ * Optional interface for a ServerCacheManager that provides a cache for SqlQuery results.
+ * <p>
+ * The EbeanServer checks for this interface and SqlQuery results are not cached (the
+ * query cache setting on a SqlQuery is ignored) when the ServerCacheManager does not
+ * implement it.
+ * </p>
+ */
+public interface ServerCacheSqlQuery {
+
+  /**
+   * Return the cache for SqlQuery results.
+   */
+  ServerCache getSqlQueryCache();
+}
@@ -11,8 +11,16 @@ package com.avaje.ebean.cache;
  */
 public class ServerCacheStatistics {
 
+  /**
+   * The upper bounds (in seconds) of the eviction age buckets. The last bucket holds the
+   * entries evicted at an age of 1 hour or more.
+   */
+  private static final int[] EVICT_AGE_BUCKET_SECS = {10, 60, 600, 3600};
+
   protected String cacheName;
 
+  protected ServerCacheType cacheType;
+
   protected int maxSize;
 
   protected int size;
@@ -39,6 +47,20 @@ public class ServerCacheStatistics {
 
   protected long evictByLRU;
 
+  protected long warmLoadCount;
+
+  protected long warmTotalCount;
+
+  protected boolean warmComplete;
+
+  protected long estimatedBytes;
+
+  protected long putNanos;
+
+  protected long refreshCount;
+
+  protected long[] evictAgeCounts = new long[EVICT_AGE_BUCKET_SECS.length + 1];
+
   public String toString() {
     //noinspection StringBufferReplaceableByString
     StringBuilder sb = new StringBuilder(80);
@@ -57,6 +79,20 @@ public class ServerCacheStatistics {
     sb.append(" evictByLRU:").append(evictByLRU);
     sb.append(" evictionRunCount:").append(evictionRunCount);
     sb.append(" evictionRunMicros:").append(evictionRunMicros);
+    sb.append(" estimatedBytes:").append(estimatedBytes);
+    sb.append(" putMeanNanos:").append(getPutMeanNanos());
+    if (refreshCount > 0) {
+      sb.append(" refresh:").append(refreshCount);
+    }
+    sb.append(" evictAge:");
+    for (int i = 0; i < evictAgeCounts.length; i++) {
+      sb.append(i == 0 ? "[" : ",").append(evictAgeCounts[i]);
+    }
+    sb.append("]");
+    if (warmTotalCount > 0) {
+      sb.append(" warm:").append(warmLoadCount).append("/").append(warmTotalCount);
+      sb.append(warmComplete ? " complete" : " loading");
+    }
     return sb.toString();
   }
 
@@ -89,6 +125,20 @@ public class ServerCacheStatistics {
     this.cacheName = cacheName;
   }
 
+  /**
+   * Return the type of the cache (can be null for a cache not created via the ServerCacheManager).
+   */
+  public ServerCacheType getCacheType() {
+    return cacheType;
+  }
+
+  /**
+   * Set the type of the cache.
+   */
+  public void setCacheType(ServerCacheType cacheType) {
+    this.cacheType = cacheType;
+  }
+
   /**
    * Return the hit count. The number of successful gets.
    */
@@ -274,4 +324,144 @@ public class ServerCacheStatistics {
   public long getEvictByLRU() {
     return evictByLRU;
   }
+
+  /**
+   * Set the number of entries loaded by warming the cache.
+   */
+  public void setWarmLoadCount(long warmLoadCount) {
+    this.warmLoadCount = warmLoadCount;
+  }
+
+  /**
+   * Return the number of entries loaded by warming the cache.
+   */
+  public long getWarmLoadCount() {
+    return warmLoadCount;
+  }
+
+  /**
+   * Set the expected total number of entries to load when warming the cache.
+   */
+  public void setWarmTotalCount(long warmTotalCount) {
+    this.warmTotalCount = warmTotalCount;
+  }
+
+  /**
+   * Return the expected total number of entries to load when warming the cache (0 if not warmed).
+   */
+  public long getWarmTotalCount() {
+    return warmTotalCount;
+  }
+
+  /**
+   * Set true when warming the cache has completed.
+   */
+  public void setWarmComplete(boolean warmComplete) {
+    this.warmComplete = warmComplete;
+  }
+
+  /**
+   * Return true when warming the cache has completed.
+   */
+  public boolean isWarmComplete() {
+    return warmComplete;
+  }
+
+  /**
+   * Return the estimated memory used by the cache in bytes.
+   * <p>
+   * This is estimated by sampling entries of the cache and is an approximation suitable
+   * for sizing the cache (maxSize) rather than an exact measure.
+   * </p>
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  /**
+   * Set the estimated memory used by the cache in bytes.
+   */
+  public void setEstimatedBytes(long estimatedBytes) {
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  /**
+   * Return the estimated memory per entry in bytes.
+   */
+  public long getEstimatedBytesPerEntry() {
+    return (size == 0) ? 0 : estimatedBytes / size;
+  }
+
+  /**
+   * Return the total time in nanos spent in puts.
+   */
+  public long getPutNanos() {
+    return putNanos;
+  }
+
+  /**
+   * Set the total time in nanos spent in puts.
+   */
+  public void setPutNanos(long putNanos) {
+    this.putNanos = putNanos;
+  }
+
+  /**
+   * Return the mean put latency in nanos.
+   */
+  public long getPutMeanNanos() {
+    long count = insertCount + updateCount;
+    return (count == 0) ? 0 : putNanos / count;
+  }
+
+  /**
+   * Return the number of entries refreshed ahead of them expiring.
+   */
+  public long getRefreshCount() {
+    return refreshCount;
+  }
+
+  /**
+   * Set the number of entries refreshed ahead of them expiring.
+   */
+  public void setRefreshCount(long refreshCount) {
+    this.refreshCount = refreshCount;
+  }
+
+  /**
+   * Return the counts of evicted entries by age (time since the entry was put).
+   * <p>
+   * The buckets are under 10 seconds, under 1 minute, under 10 minutes, under 1 hour and
+   * 1 hour or more. Lots of young evictions suggests the maxSize is too small.
+   * </p>
+   */
+  public long[] getEvictAgeCounts() {
+    return evictAgeCounts;
+  }
+
+  /**
+   * Set the counts of evicted entries by age.
+   */
+  public void setEvictAgeCounts(long[] evictAgeCounts) {
+    this.evictAgeCounts = evictAgeCounts;
+  }
+
+  /**
+   * Return the index of the eviction age bucket for the given age in millis.
+   */
+  public static int evictAgeBucket(long ageMillis) {
+    for (int i = 0; i < EVICT_AGE_BUCKET_SECS.length; i++) {
+      if (ageMillis < EVICT_AGE_BUCKET_SECS[i] * 1000L) {
+        return i;
+      }
+    }
+    return EVICT_AGE_BUCKET_SECS.length;
+  }
+
+  /**
+   * Return the number of eviction age buckets.
+   */
+  public static int evictAgeBucketCount() {
+    return EVICT_AGE_BUCKET_SECS.length + 1;
+  }
 }
@@ -0,0 +1,21 @@
+package com.avaje.ebean.cache;
+
+/**
+ * Optional interface for a ServerCache that reports the progress of warming (preloading) via
+ * its statistics.
+ * <p>
+ * Cache warming checks for this interface and caches that do not implement it are warmed
+ * without reporting progress.
+ * </p>
+ */
+public interface ServerCacheWarmable {
+
+  /**
+   * Set the progress of warming (preloading) this cache which is reported via the statistics.
+   *
+   * @param loadCount  the number of entries loaded so far
+   * @param totalCount the expected total number of entries to load
+   * @param complete   true when the warming has completed
+   */
+  void setWarmProgress(long loadCount, long totalCount, boolean complete);
+}
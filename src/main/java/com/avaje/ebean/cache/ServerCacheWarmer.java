@@ -0,0 +1,30 @@
+package com.avaje.ebean.cache;
+
+/**
+ * Optional interface for a ServerCacheManager that can warm (preload) the caches on demand.
+ * <p>
+ * The default ServerCacheManager implements this interface. Cast the ServerCacheManager
+ * to this interface to warm the caches of a bean type.
+ * </p>
+ *
+ * <pre>{@code
+ *
+ *   ServerCacheManager cacheManager = Ebean.getServerCacheManager();
+ *   if (cacheManager instanceof ServerCacheWarmer) {
+ *     ((ServerCacheWarmer) cacheManager).warm(Country.class);
+ *   }
+ *
+ * }</pre>
+ */
+public interface ServerCacheWarmer {
+
+  /**
+   * Warm (preload) the bean cache, natural key cache and collection ids caches for the given bean type.
+   * <p>
+   * All the beans of the given type are loaded in chunks (throttled by ServerConfig
+   * cacheWarmMaxRowsPerSecond) with the progress reported via the bean cache statistics.
+   * This method returns when the warming has completed.
+   * </p>
+   */
+  void warm(Class<?> beanType);
+}
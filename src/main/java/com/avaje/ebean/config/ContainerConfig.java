@@ -14,6 +14,14 @@ public class ContainerConfig {
 
   protected Properties properties;
 
+  protected String clusterTransport;
+
+  protected int clusterCoalesceMillis;
+
+  protected int clusterCoalesceMaxIds = 1000;
+
+  protected boolean clusterCompactEncoding;
+
   /**
    * Return true if clustering is active.
    */
@@ -28,6 +36,79 @@ public class ContainerConfig {
     this.clusterActive = clusterActive;
   }
 
+  /**
+   * Return the built in cluster transport to use (null to use the ClusterBroadcastFactory found via ServiceLoader).
+   */
+  public String getClusterTransport() {
+    return clusterTransport;
+  }
+
+  /**
+   * Set the built in cluster transport to use.
+   * <ul>
+   * <li><code>loopback</code> - in JVM delivery between EbeanServer instances for testing and benchmarking</li>
+   * <li><code>socket</code> - UDP datagrams sent to the members given by <code>ebean.cluster.socket.members</code>
+   * and received on <code>ebean.cluster.socket.localHost</code> (defaults to loopback) and <code>ebean.cluster.socket.localPort</code></li>
+   * </ul>
+   * When not set a ClusterBroadcastFactory is expected to be found via ServiceLoader.
+   */
+  public void setClusterTransport(String clusterTransport) {
+    this.clusterTransport = clusterTransport;
+  }
+
+  /**
+   * Return the window in milliseconds over which transaction events are coalesced before being
+   * broadcast to the cluster (0 means each transaction is broadcast immediately).
+   */
+  public int getClusterCoalesceMillis() {
+    return clusterCoalesceMillis;
+  }
+
+  /**
+   * Set the window in milliseconds over which transaction events are coalesced before being broadcast.
+   * <p>
+   * With high write rates this reduces the number of (small) messages sent to the cluster at the cost
+   * of delaying the cache invalidation on the other members by up to this window. Defaults to 0 which
+   * means no coalescing.
+   * </p>
+   */
+  public void setClusterCoalesceMillis(int clusterCoalesceMillis) {
+    this.clusterCoalesceMillis = clusterCoalesceMillis;
+  }
+
+  /**
+   * Return the number of ids of a bean type above which a coalesced event is replaced by a table level event.
+   */
+  public int getClusterCoalesceMaxIds() {
+    return clusterCoalesceMaxIds;
+  }
+
+  /**
+   * Set the number of ids of a bean type above which the ids are replaced by a table level event
+   * (that clears the bean cache of that type on the other members). Defaults to 1000.
+   */
+  public void setClusterCoalesceMaxIds(int clusterCoalesceMaxIds) {
+    this.clusterCoalesceMaxIds = clusterCoalesceMaxIds;
+  }
+
+  /**
+   * Return true if the compact (varint) encoding is used for the ids of coalesced events.
+   */
+  public boolean isClusterCompactEncoding() {
+    return clusterCompactEncoding;
+  }
+
+  /**
+   * Set to true to use the compact (varint) encoding for the ids of coalesced events.
+   * <p>
+   * All the members of the cluster must be able to read the compact messages so this should
+   * only be turned on once all the members have been upgraded.
+   * </p>
+   */
+  public void setClusterCompactEncoding(boolean clusterCompactEncoding) {
+    this.clusterCompactEncoding = clusterCompactEncoding;
+  }
+
   /**
    * Return the deployment properties.
    */
@@ -48,6 +129,18 @@ public class ContainerConfig {
   public void loadFromProperties(Properties properties) {
     this.properties = properties;
     this.clusterActive = getProperty(properties, "ebean.cluster.active", clusterActive);
+    this.clusterTransport = properties.getProperty("ebean.cluster.transport", clusterTransport);
+    this.clusterCoalesceMillis = getProperty(properties, "ebean.cluster.coalesceMillis", clusterCoalesceMillis);
+    this.clusterCoalesceMaxIds = getProperty(properties, "ebean.cluster.coalesceMaxIds", clusterCoalesceMaxIds);
+    this.clusterCompactEncoding = getProperty(properties, "ebean.cluster.compactEncoding", clusterCompactEncoding);
+  }
+
+  /**
+   * Return the int property setting.
+   */
+  protected int getProperty(Properties properties, String key, int defaultValue) {
+    String value = properties.getProperty(key);
+    return (value == null) ? defaultValue : Integer.parseInt(value.trim());
   }
 
   /**
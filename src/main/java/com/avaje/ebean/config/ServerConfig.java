@@ -18,6 +18,7 @@ import com.avaje.ebean.event.TransactionEventListener;
 import com.avaje.ebean.event.changelog.ChangeLogListener;
 import com.avaje.ebean.event.changelog.ChangeLogPrepare;
 import com.avaje.ebean.event.changelog.ChangeLogRegister;
+import com.avaje.ebean.event.changelog.ChangeLogSink;
 import com.avaje.ebean.event.readaudit.ReadAuditLogger;
 import com.avaje.ebean.event.readaudit.ReadAuditPrepare;
 import com.avaje.ebean.meta.MetaInfoManager;
@@ -148,6 +149,11 @@ public class ServerConfig {
    */
   private JsonConfig.Include jsonInclude = JsonConfig.Include.ALL;
 
+  /**
+   * When true JSON Map properties hold the raw JSON content and only parse it on first access.
+   */
+  private boolean jsonLazyParse;
+
   /**
    * The database platform name. Used to imply a DatabasePlatform to use.
    */
@@ -255,6 +261,21 @@ public class ServerConfig {
    */
   private DataSourceConfig dataSourceConfig = new DataSourceConfig();
 
+  /**
+   * The optional read only data source (typically a read replica).
+   */
+  private DataSource readOnlyDataSource;
+
+  /**
+   * The optional read only data source config.
+   */
+  private DataSourceConfig readOnlyDataSourceConfig = new DataSourceConfig();
+
+  /**
+   * Millis after a commit in a thread that implicit queries in that thread use the main data source.
+   */
+  private int readOnlyAfterCommitMillis = 1000;
+
   /**
    * The db migration config (migration resource path etc).
    */
@@ -344,8 +365,18 @@ public class ServerConfig {
 
   private ChangeLogRegister changeLogRegister;
 
+  private boolean changeLogAsync;
+
+  private boolean changeLogCompact;
+
+  private ChangeLogSink changeLogSink;
+
+  private boolean transactionOutbox;
+
   private ReadAuditLogger readAuditLogger;
 
+  private boolean readAuditBuffered;
+
   private ReadAuditPrepare readAuditPrepare;
 
   private EncryptKeyManager encryptKeyManager;
@@ -364,6 +395,44 @@ public class ServerConfig {
 
   private boolean collectQueryOrigins = true;
 
+  /**
+   * Query execution time (micros) above which a query is captured as a slow query (-1 means disabled, 0 captures all).
+   */
+  private long slowQueryMicros = -1;
+
+  private boolean slowQueryExplain = true;
+
+  private int slowQueryBufferSize = 100;
+
+  private int slowQueryMaxPerMinute = 60;
+
+  /**
+   * Number of lazy loading queries for a node within the window that is reported as N+1 (0 means disabled).
+   */
+  private int lazyLoadDetectThreshold;
+
+  private long lazyLoadDetectWindowMillis = 10000;
+
+  private boolean lazyLoadDetectAutoTune = true;
+
+  /**
+   * Set to false to not warm the bean caches (of types with @Cache(warm=true)) on startup.
+   */
+  private boolean cacheWarmOnStart = true;
+
+  private int cacheWarmThreads = 2;
+
+  private int cacheWarmBatchSize = 1000;
+
+  private int cacheWarmMaxRowsPerSecond;
+
+  /**
+   * The directory the cache snapshot files are written to (null means no snapshots).
+   */
+  private String cacheSnapshotDirectory;
+
+  private int cacheSnapshotFrequency = 300;
+
   /**
    * The default PersistenceContextScope used if one is not explicitly set on a query.
    */
@@ -389,12 +458,14 @@ public class ServerConfig {
   private int cacheMaxSize = 10000;
   private int cacheMaxIdleTime = 600;
   private int cacheMaxTimeToLive = 60 * 60 * 6;
+  private int cacheRefreshAheadSecs;
 
   // defaults for the L2 query caching
 
   private int queryCacheMaxSize = 1000;
   private int queryCacheMaxIdleTime = 600;
   private int queryCacheMaxTimeToLive = 60 * 60 * 6;
+  private int queryCacheRefreshAheadSecs;
   private Object objectMapper;
 
   /**
@@ -487,6 +558,25 @@ public class ServerConfig {
     this.jsonInclude = jsonInclude;
   }
 
+  /**
+   * Return true if JSON Map properties parse their content lazily (on first access).
+   */
+  public boolean isJsonLazyParse() {
+    return jsonLazyParse;
+  }
+
+  /**
+   * Set to true for JSON Map properties (@DbJson, @DbJsonB) to hold the raw JSON content read
+   * from the database and only parse it on first access.
+   * <p>
+   * Beans that are read and then written as JSON (without accessing the map) have the raw
+   * content written as is, avoiding parsing the content into maps and writing it back out.
+   * </p>
+   */
+  public void setJsonLazyParse(boolean jsonLazyParse) {
+    this.jsonLazyParse = jsonLazyParse;
+  }
+
   /**
    * Return the name of the EbeanServer.
    */
@@ -824,6 +914,80 @@ public class ServerConfig {
     this.changeLogIncludeInserts = changeLogIncludeInserts;
   }
 
+  /**
+   * Return true if the change log uses the asynchronous batched pipeline (when no
+   * ChangeLogListener is set).
+   */
+  public boolean isChangeLogAsync() {
+    return changeLogAsync;
+  }
+
+  /**
+   * Set to true to use the asynchronous batched change log pipeline (when no ChangeLogListener is set).
+   * <p>
+   * Change sets are added to a bounded queue and a single background thread writes them in
+   * batches to the ChangeLogSink (by default a rolling file).
+   * </p>
+   */
+  public void setChangeLogAsync(boolean changeLogAsync) {
+    this.changeLogAsync = changeLogAsync;
+  }
+
+  /**
+   * Return true if the change log writes compact diffs for updates.
+   */
+  public boolean isChangeLogCompact() {
+    return changeLogCompact;
+  }
+
+  /**
+   * Set to true for the change log to write compact diffs for updates.
+   * <p>
+   * Unchanged values are skipped and changes to JSON properties (Map or JsonNode) are written as
+   * a JSON Patch of the changed paths rather than the full new and old documents.
+   * </p>
+   */
+  public void setChangeLogCompact(boolean changeLogCompact) {
+    this.changeLogCompact = changeLogCompact;
+  }
+
+  /**
+   * Return the ChangeLogSink used by the asynchronous change log pipeline.
+   */
+  public ChangeLogSink getChangeLogSink() {
+    return changeLogSink;
+  }
+
+  /**
+   * Set the ChangeLogSink used by the asynchronous change log pipeline.
+   * <p>
+   * When not set a rolling file sink is used (configured via the ebean.changeLog properties).
+   * </p>
+   */
+  public void setChangeLogSink(ChangeLogSink changeLogSink) {
+    this.changeLogSink = changeLogSink;
+  }
+
+  /**
+   * Return true if change sets and document store updates are written to a transactional outbox.
+   */
+  public boolean isTransactionOutbox() {
+    return transactionOutbox;
+  }
+
+  /**
+   * Set to true to write change sets and document store updates to an outbox table as part of
+   * the committing transaction.
+   * <p>
+   * A background relay drains the outbox table sending the change sets to the ChangeLogListener
+   * and the updates to the document store such that they are not lost if the JVM stops between
+   * commit and the post commit processing. Configured via the ebean.outbox properties.
+   * </p>
+   */
+  public void setTransactionOutbox(boolean transactionOutbox) {
+    this.transactionOutbox = transactionOutbox;
+  }
+
   /**
    * Return the ReadAuditLogger to use.
    */
@@ -840,6 +1004,26 @@ public class ServerConfig {
     this.readAuditLogger = readAuditLogger;
   }
 
+  /**
+   * Return true if read audit events are queued and written in batches on a background thread
+   * (when no ReadAuditLogger is set).
+   */
+  public boolean isReadAuditBuffered() {
+    return readAuditBuffered;
+  }
+
+  /**
+   * Set to true to use the buffered read audit logger (when no ReadAuditLogger is set).
+   * <p>
+   * Read events are added to a bounded queue and a background thread writes them to the same
+   * loggers as the default implementation aggregating events with the same context and writing
+   * each query plan once. Events are dropped (and counted) when the queue is full.
+   * </p>
+   */
+  public void setReadAuditBuffered(boolean readAuditBuffered) {
+    this.readAuditBuffered = readAuditBuffered;
+  }
+
   /**
    * Return the ReadAuditPrepare to use.
    */
@@ -1150,6 +1334,43 @@ public class ServerConfig {
     this.queryCacheMaxTimeToLive = queryCacheMaxTimeToLive;
   }
 
+  /**
+   * Return the L2 bean cache default refresh ahead window in seconds (0 for no refresh ahead).
+   */
+  public int getCacheRefreshAheadSecs() {
+    return cacheRefreshAheadSecs;
+  }
+
+  /**
+   * Set the L2 bean cache default refresh ahead window in seconds.
+   * <p>
+   * A bean cache entry that is read within this window before it expires (max time to live)
+   * is reloaded in the background while the existing entry continues to be used. This avoids
+   * the latency of a synchronous database load when a frequently read entry expires.
+   * </p>
+   */
+  public void setCacheRefreshAheadSecs(int cacheRefreshAheadSecs) {
+    this.cacheRefreshAheadSecs = cacheRefreshAheadSecs;
+  }
+
+  /**
+   * Return the L2 query cache default refresh ahead window in seconds (0 for no refresh ahead).
+   */
+  public int getQueryCacheRefreshAheadSecs() {
+    return queryCacheRefreshAheadSecs;
+  }
+
+  /**
+   * Set the L2 query cache default refresh ahead window in seconds.
+   * <p>
+   * A query cache entry that is read within this window before it expires (max time to live)
+   * has its query executed again in the background while the existing result continues to be used.
+   * </p>
+   */
+  public void setQueryCacheRefreshAheadSecs(int queryCacheRefreshAheadSecs) {
+    this.queryCacheRefreshAheadSecs = queryCacheRefreshAheadSecs;
+  }
+
   /**
    * Return the NamingConvention.
    * <p>
@@ -1242,6 +1463,64 @@ public class ServerConfig {
     this.dataSourceConfig = dataSourceConfig;
   }
 
+  /**
+   * Return the read only DataSource (typically a read replica).
+   */
+  public DataSource getReadOnlyDataSource() {
+    return readOnlyDataSource;
+  }
+
+  /**
+   * Set a read only DataSource (typically a read replica).
+   * <p>
+   * When set, queries that run in an implicit transaction (including findFuture queries,
+   * their secondary queries and lazy loading) use connections from the read only DataSource.
+   * Queries that run in an explicit or current transaction continue to use the transaction's
+   * connection. Use {@link com.avaje.ebean.Query#setUseReadOnlyDataSource(boolean)} to
+   * override this for a specific query.
+   * </p>
+   */
+  public void setReadOnlyDataSource(DataSource readOnlyDataSource) {
+    this.readOnlyDataSource = readOnlyDataSource;
+  }
+
+  /**
+   * Return the configuration used to build the read only DataSource.
+   */
+  public DataSourceConfig getReadOnlyDataSourceConfig() {
+    return readOnlyDataSourceConfig;
+  }
+
+  /**
+   * Set the configuration used to build the read only DataSource.
+   * <p>
+   * The read only DataSource is only created when this has a url set.
+   * </p>
+   */
+  public void setReadOnlyDataSourceConfig(DataSourceConfig readOnlyDataSourceConfig) {
+    this.readOnlyDataSourceConfig = readOnlyDataSourceConfig;
+  }
+
+  /**
+   * Return the time in millis after a commit that implicit queries in the same thread
+   * use the main DataSource rather than the read only DataSource.
+   */
+  public int getReadOnlyAfterCommitMillis() {
+    return readOnlyAfterCommitMillis;
+  }
+
+  /**
+   * Set the time in millis after a commit that implicit queries in the same thread
+   * use the main DataSource rather than the read only DataSource.
+   * <p>
+   * This provides 'read your writes' behaviour given replication lag on the read replica.
+   * Set to 0 to disable this.
+   * </p>
+   */
+  public void setReadOnlyAfterCommitMillis(int readOnlyAfterCommitMillis) {
+    this.readOnlyAfterCommitMillis = readOnlyAfterCommitMillis;
+  }
+
   /**
    * Return the JNDI name of the DataSource to use.
    */
@@ -1920,6 +2199,249 @@ public class ServerConfig {
     this.collectQueryOrigins = collectQueryOrigins;
   }
 
+  /**
+   * Return the query execution time in microseconds above which a query is captured as a slow query.
+   * <p>
+   * A value of -1 (the default) means slow query capture is disabled and 0 means all queries
+   * are captured (subject to the max per minute).
+   * </p>
+   */
+  public long getSlowQueryMicros() {
+    return slowQueryMicros;
+  }
+
+  /**
+   * Set the query execution time in microseconds above which a query is captured as a slow query.
+   * <p>
+   * Set to -1 (the default) to disable slow query capture and 0 to capture all queries
+   * (subject to the max per minute).
+   * </p>
+   * <p>
+   * Slow queries (find, findIterate, findEach and findRowCount) are captured with their sql,
+   * bind values, origin call stack and explain plan and can be later retrieved via
+   * {@link MetaInfoManager#collectSlowQueries(boolean)}. The explain plan is obtained in the
+   * background.
+   * </p>
+   *
+   * @see MetaInfoManager
+   */
+  public void setSlowQueryMicros(long slowQueryMicros) {
+    this.slowQueryMicros = slowQueryMicros;
+  }
+
+  /**
+   * Return true if the explain plan should be obtained for slow queries.
+   */
+  public boolean isSlowQueryExplain() {
+    return slowQueryExplain;
+  }
+
+  /**
+   * Set to false to not obtain the explain plan for slow queries.
+   * <p>
+   * The explain plan is only obtained for database platforms that support explain
+   * via a statement prefix (H2, Postgres, MySql etc).
+   * </p>
+   */
+  public void setSlowQueryExplain(boolean slowQueryExplain) {
+    this.slowQueryExplain = slowQueryExplain;
+  }
+
+  /**
+   * Return the maximum number of slow queries held (oldest are dropped).
+   */
+  public int getSlowQueryBufferSize() {
+    return slowQueryBufferSize;
+  }
+
+  /**
+   * Set the maximum number of slow queries held (oldest are dropped).
+   */
+  public void setSlowQueryBufferSize(int slowQueryBufferSize) {
+    this.slowQueryBufferSize = slowQueryBufferSize;
+  }
+
+  /**
+   * Return the maximum number of slow queries captured per minute.
+   */
+  public int getSlowQueryMaxPerMinute() {
+    return slowQueryMaxPerMinute;
+  }
+
+  /**
+   * Set the maximum number of slow queries captured per minute.
+   * <p>
+   * This limits the overhead of capturing (and explaining) slow queries when the
+   * database is generally slow.
+   * </p>
+   */
+  public void setSlowQueryMaxPerMinute(int slowQueryMaxPerMinute) {
+    this.slowQueryMaxPerMinute = slowQueryMaxPerMinute;
+  }
+
+  /**
+   * Return the number of lazy loading queries for an object graph node within the window
+   * at which N+1 lazy loading is reported.
+   * <p>
+   * A value of 0 (the default) means lazy loading detection is disabled.
+   * </p>
+   */
+  public int getLazyLoadDetectThreshold() {
+    return lazyLoadDetectThreshold;
+  }
+
+  /**
+   * Set the number of lazy loading queries for an object graph node (origin query point and
+   * path) within the window at which N+1 lazy loading is reported.
+   * <p>
+   * Offending nodes are logged and can be later retrieved via
+   * {@link MetaInfoManager#collectLazyLoadOffenders(boolean)}.
+   * </p>
+   *
+   * @see MetaInfoManager
+   */
+  public void setLazyLoadDetectThreshold(int lazyLoadDetectThreshold) {
+    this.lazyLoadDetectThreshold = lazyLoadDetectThreshold;
+  }
+
+  /**
+   * Return the time window in milliseconds used for lazy loading detection.
+   */
+  public long getLazyLoadDetectWindowMillis() {
+    return lazyLoadDetectWindowMillis;
+  }
+
+  /**
+   * Set the time window in milliseconds used for lazy loading detection (defaults to 10 seconds).
+   */
+  public void setLazyLoadDetectWindowMillis(long lazyLoadDetectWindowMillis) {
+    this.lazyLoadDetectWindowMillis = lazyLoadDetectWindowMillis;
+  }
+
+  /**
+   * Return true if detected N+1 lazy loading is passed to AutoTune.
+   */
+  public boolean isLazyLoadDetectAutoTune() {
+    return lazyLoadDetectAutoTune;
+  }
+
+  /**
+   * Set to false to not pass detected N+1 lazy loading to AutoTune.
+   * <p>
+   * When AutoTune profiling is on the offending path is included in the tuned fetch
+   * for the origin query (even when usage profiling has not been collected for it).
+   * </p>
+   */
+  public void setLazyLoadDetectAutoTune(boolean lazyLoadDetectAutoTune) {
+    this.lazyLoadDetectAutoTune = lazyLoadDetectAutoTune;
+  }
+
+  /**
+   * Return true if the bean caches of types with <code>@Cache(warm=true)</code> are warmed on startup.
+   */
+  public boolean isCacheWarmOnStart() {
+    return cacheWarmOnStart;
+  }
+
+  /**
+   * Set to false to not warm the bean caches on startup (defaults to true).
+   * <p>
+   * Bean types with <code>@Cache(warm=true)</code> are loaded into the bean cache (along with the
+   * natural key and collection ids caches) in background threads after the server has started.
+   * Caches can also be warmed on demand via {@link com.avaje.ebean.cache.ServerCacheWarmer#warm(Class)}.
+   * </p>
+   */
+  public void setCacheWarmOnStart(boolean cacheWarmOnStart) {
+    this.cacheWarmOnStart = cacheWarmOnStart;
+  }
+
+  /**
+   * Return the number of threads used to warm the caches.
+   */
+  public int getCacheWarmThreads() {
+    return cacheWarmThreads;
+  }
+
+  /**
+   * Set the number of threads used to warm the caches (defaults to 2). Each bean type is
+   * loaded by a single thread such that multiple bean types are loaded in parallel.
+   * <p>
+   * The threads are those of the server's BackgroundExecutor.
+   * </p>
+   */
+  public void setCacheWarmThreads(int cacheWarmThreads) {
+    this.cacheWarmThreads = cacheWarmThreads;
+  }
+
+  /**
+   * Return the number of beans put into the cache per chunk when warming.
+   */
+  public int getCacheWarmBatchSize() {
+    return cacheWarmBatchSize;
+  }
+
+  /**
+   * Set the number of beans put into the cache per chunk when warming (defaults to 1000).
+   * <p>
+   * This is also the number of ids used per query when loading the collection ids caches.
+   * </p>
+   */
+  public void setCacheWarmBatchSize(int cacheWarmBatchSize) {
+    this.cacheWarmBatchSize = cacheWarmBatchSize;
+  }
+
+  /**
+   * Return the maximum number of rows per second loaded per bean type when warming (0 means no limit).
+   */
+  public int getCacheWarmMaxRowsPerSecond() {
+    return cacheWarmMaxRowsPerSecond;
+  }
+
+  /**
+   * Set the maximum number of rows per second loaded per bean type when warming the caches.
+   * <p>
+   * This throttles the load on the database. A value of 0 (the default) means no limit.
+   * </p>
+   */
+  public void setCacheWarmMaxRowsPerSecond(int cacheWarmMaxRowsPerSecond) {
+    this.cacheWarmMaxRowsPerSecond = cacheWarmMaxRowsPerSecond;
+  }
+
+  /**
+   * Return the directory the cache snapshot files are written to (null when snapshots are not used).
+   */
+  public String getCacheSnapshotDirectory() {
+    return cacheSnapshotDirectory;
+  }
+
+  /**
+   * Set the directory that snapshots of the bean caches are written to.
+   * <p>
+   * The bean caches of types with <code>@Cache(snapshot=true)</code> are periodically written
+   * to this local directory and on shutdown. On startup the snapshots are reloaded with each
+   * entry validated against the current version in the database such that a restarted server
+   * does not start with cold caches.
+   * </p>
+   */
+  public void setCacheSnapshotDirectory(String cacheSnapshotDirectory) {
+    this.cacheSnapshotDirectory = cacheSnapshotDirectory;
+  }
+
+  /**
+   * Return the frequency in seconds that the cache snapshots are written.
+   */
+  public int getCacheSnapshotFrequency() {
+    return cacheSnapshotFrequency;
+  }
+
+  /**
+   * Set the frequency in seconds that the cache snapshots are written (defaults to 300).
+   * Set to 0 to only write the snapshots on shutdown.
+   */
+  public void setCacheSnapshotFrequency(int cacheSnapshotFrequency) {
+    this.cacheSnapshotFrequency = cacheSnapshotFrequency;
+  }
+
   /**
    * Returns the resource directory.
    */
@@ -2276,6 +2798,9 @@ public class ServerConfig {
    */
   protected void loadDataSourceSettings(PropertiesWrapper p) {
     dataSourceConfig.loadSettings(p.properties, name);
+    if (readOnlyDataSourceConfig != null) {
+      readOnlyDataSourceConfig.loadSettings(p.properties, name + "-readonly");
+    }
   }
 
   /**
@@ -2342,6 +2867,21 @@ public class ServerConfig {
 
     collectQueryStatsByNode = p.getBoolean("collectQueryStatsByNode", collectQueryStatsByNode);
     collectQueryOrigins = p.getBoolean("collectQueryOrigins", collectQueryOrigins);
+    slowQueryMicros = p.getLong("slowQueryMicros", slowQueryMicros);
+    slowQueryExplain = p.getBoolean("slowQueryExplain", slowQueryExplain);
+    slowQueryBufferSize = p.getInt("slowQueryBufferSize", slowQueryBufferSize);
+    slowQueryMaxPerMinute = p.getInt("slowQueryMaxPerMinute", slowQueryMaxPerMinute);
+    lazyLoadDetectThreshold = p.getInt("lazyLoadDetectThreshold", lazyLoadDetectThreshold);
+    lazyLoadDetectWindowMillis = p.getLong("lazyLoadDetectWindowMillis", lazyLoadDetectWindowMillis);
+    lazyLoadDetectAutoTune = p.getBoolean("lazyLoadDetectAutoTune", lazyLoadDetectAutoTune);
+    cacheWarmOnStart = p.getBoolean("cacheWarmOnStart", cacheWarmOnStart);
+    cacheWarmThreads = p.getInt("cacheWarmThreads", cacheWarmThreads);
+    cacheWarmBatchSize = p.getInt("cacheWarmBatchSize", cacheWarmBatchSize);
+    cacheWarmMaxRowsPerSecond = p.getInt("cacheWarmMaxRowsPerSecond", cacheWarmMaxRowsPerSecond);
+    cacheSnapshotDirectory = p.get("cacheSnapshotDirectory", cacheSnapshotDirectory);
+    cacheSnapshotFrequency = p.getInt("cacheSnapshotFrequency", cacheSnapshotFrequency);
+    cacheRefreshAheadSecs = p.getInt("cacheRefreshAheadSecs", cacheRefreshAheadSecs);
+    queryCacheRefreshAheadSecs = p.getInt("queryCacheRefreshAheadSecs", queryCacheRefreshAheadSecs);
 
     skipCacheAfterWrite = p.getBoolean("skipCacheAfterWrite", skipCacheAfterWrite);
     updateAllPropertiesInBatch = p.getBoolean("updateAllPropertiesInBatch", updateAllPropertiesInBatch);
@@ -2363,6 +2903,10 @@ public class ServerConfig {
     persistenceContextScope = PersistenceContextScope.valueOf(p.get("persistenceContextScope", "TRANSACTION"));
 
     changeLogIncludeInserts = p.getBoolean("changeLogIncludeInserts", changeLogIncludeInserts);
+    changeLogAsync = p.getBoolean("changeLogAsync", changeLogAsync);
+    changeLogCompact = p.getBoolean("changeLogCompact", changeLogCompact);
+    readAuditBuffered = p.getBoolean("readAuditBuffered", readAuditBuffered);
+    transactionOutbox = p.getBoolean("transactionOutbox", transactionOutbox);
     expressionEqualsWithNullAsNoop = p.getBoolean("expressionEqualsWithNullAsNoop", expressionEqualsWithNullAsNoop);
     expressionNativeIlike = p.getBoolean("expressionNativeIlike", expressionNativeIlike);
 
@@ -2371,6 +2915,7 @@ public class ServerConfig {
     asOfSysPeriod = p.get("asOfSysPeriod", asOfSysPeriod);
     historyTableSuffix = p.get("historyTableSuffix", historyTableSuffix);
     dataSourceJndiName = p.get("dataSourceJndiName", dataSourceJndiName);
+    readOnlyAfterCommitMillis = p.getInt("readOnlyAfterCommitMillis", readOnlyAfterCommitMillis);
     jdbcFetchSizeFindEach = p.getInt("jdbcFetchSizeFindEach", jdbcFetchSizeFindEach);
     jdbcFetchSizeFindList = p.getInt("jdbcFetchSizeFindList", jdbcFetchSizeFindList);
     databaseSequenceBatchSize = p.getInt("databaseSequenceBatchSize", databaseSequenceBatchSize);
@@ -2388,6 +2933,7 @@ public class ServerConfig {
     queryBatchSize = p.getInt("queryBatchSize", queryBatchSize);
 
     jsonInclude = p.getEnum(JsonConfig.Include.class, "jsonInclude", jsonInclude);
+    jsonLazyParse = p.getBoolean("jsonLazyParse", jsonLazyParse);
     String jsonDateTimeFormat = p.get("jsonDateTime", null);
     if (jsonDateTimeFormat != null) {
       jsonDateTime = JsonConfig.DateTime.valueOf(jsonDateTimeFormat);
@@ -176,6 +176,11 @@ public class DatabasePlatform {
 
   protected boolean supportsNativeIlike;
 
+  /**
+   * Prefix added to a query to obtain its explain plan (null when not supported).
+   */
+  protected String explainPrefix;
+
   /**
    * Instantiates a new database platform.
    */
@@ -207,6 +212,23 @@ public class DatabasePlatform {
     return supportsNativeIlike;
   }
 
+  /**
+   * Return the prefix added to a select statement to obtain the explain plan.
+   * <p>
+   * Returns null if the platform does not support explain via a prefix.
+   * </p>
+   */
+  public String getExplainPrefix() {
+    return explainPrefix;
+  }
+
+  /**
+   * Set the prefix added to a select statement to obtain the explain plan.
+   */
+  public void setExplainPrefix(String explainPrefix) {
+    this.explainPrefix = explainPrefix;
+  }
+
   /**
    * Return the maximum table name length.
    * <p>
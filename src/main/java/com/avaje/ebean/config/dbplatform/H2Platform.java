@@ -15,6 +15,7 @@ public class H2Platform extends DatabasePlatform {
   public H2Platform() {
     super();
     this.name = "h2";
+    this.explainPrefix = "explain ";
     this.dbEncrypt = new H2DbEncrypt();
     this.platformDdl = new H2Ddl(this);
     this.historySupport = new H2HistorySupport();
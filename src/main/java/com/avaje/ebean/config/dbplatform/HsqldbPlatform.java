@@ -14,6 +14,7 @@ public class HsqldbPlatform extends DatabasePlatform {
   public HsqldbPlatform() {
     super();
     this.name = "hsqldb";
+    this.explainPrefix = "explain plan for ";
     this.dbEncrypt = new H2DbEncrypt();
     this.platformDdl = new HsqldbDdl(this);
 
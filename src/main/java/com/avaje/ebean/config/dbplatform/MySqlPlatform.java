@@ -21,6 +21,7 @@ public class MySqlPlatform extends DatabasePlatform {
   public MySqlPlatform() {
     super();
     this.name = "mysql";
+    this.explainPrefix = "explain ";
     this.useExtraTransactionOnIterateSecondaryQueries = true;
     this.likeClause = "like ? escape''";
     this.selectCountWithAlias = true;
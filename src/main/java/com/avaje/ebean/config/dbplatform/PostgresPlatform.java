@@ -20,6 +20,7 @@ public class PostgresPlatform extends DatabasePlatform {
   public PostgresPlatform() {
     super();
     this.name = "postgres";
+    this.explainPrefix = "explain ";
     this.supportsNativeIlike = true;
     this.likeClause = "like ? escape''";
     this.selectCountWithAlias = true;
@@ -0,0 +1,27 @@
+package com.avaje.ebean.event.changelog;
+
+import java.io.IOException;
+
+/**
+ * The destination of the asynchronous change log pipeline.
+ * <p>
+ * The pipeline encodes batches of change sets (as JSON lines or a binary JSON format) and
+ * writes each batch to the sink with a single call from a single background thread.
+ * </p>
+ */
+public interface ChangeLogSink {
+
+  /**
+   * Write a batch of encoded bean changes.
+   * <p>
+   * The content buffer is reused by the pipeline so the bytes must be copied if they are
+   * retained after this method returns.
+   * </p>
+   */
+  void write(byte[] content, int offset, int length) throws IOException;
+
+  /**
+   * Close the sink (on shutdown after the last batch is written).
+   */
+  void close() throws IOException;
+}
@@ -1,5 +1,7 @@
 package com.avaje.ebean.meta;
 
+import com.avaje.ebean.cache.ServerCacheStatistics;
+
 import java.util.List;
 
 /**
@@ -23,6 +25,10 @@ public interface MetaInfoManager {
    * Note that this excludes the query plan statistics where there has been no
    * executions (since the last collection with reset).
    * </p>
+   * <p>
+   * Collecting with reset effectively gives windowed statistics (including the
+   * execution time percentiles) for the period since the last reset.
+   * </p>
    */
   List<MetaQueryPlanStatistic> collectQueryPlanStatistics(boolean reset);
 
@@ -39,4 +45,42 @@ public interface MetaInfoManager {
    */
   List<MetaObjectGraphNodeStats> collectNodeStatistics(boolean reset);
 
+  /**
+   * Collect and return the slow queries that have been captured.
+   * <p>
+   * Slow queries are captured when the query execution time exceeds
+   * {@link com.avaje.ebean.config.ServerConfig#getSlowQueryMicros()} and are held
+   * in a bounded buffer (with the oldest being dropped).
+   * </p>
+   *
+   * @param reset
+   *          Set to true to clear the captured slow queries after collection.
+   */
+  List<MetaSlowQuery> collectSlowQueries(boolean reset);
+
+  /**
+   * Collect and return the object graph nodes where excessive lazy loading (N+1) was detected.
+   * <p>
+   * Detection is enabled by setting
+   * {@link com.avaje.ebean.config.ServerConfig#setLazyLoadDetectThreshold(int)}.
+   * </p>
+   *
+   * @param reset
+   *          Set to true to reset the underlying counts after collection.
+   */
+  List<MetaLazyLoadOffender> collectLazyLoadOffenders(boolean reset);
+
+  /**
+   * Collect and return the statistics of the L2 caches.
+   * <p>
+   * This includes the estimated memory used per cache along with the eviction age
+   * distribution and put latency. This is empty when the ServerCacheManager does not
+   * implement {@link com.avaje.ebean.cache.ServerCacheManagerStatistics}.
+   * </p>
+   *
+   * @param reset
+   *          Set to true to reset the underlying statistics after collection.
+   */
+  List<ServerCacheStatistics> collectCacheStatistics(boolean reset);
+
 }
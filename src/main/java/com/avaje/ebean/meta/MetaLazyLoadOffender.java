@@ -0,0 +1,48 @@
+package com.avaje.ebean.meta;
+
+import com.avaje.ebean.bean.ObjectGraphNode;
+
+/**
+ * An object graph node where excessive lazy loading (N+1 queries) has been detected.
+ * <p>
+ * This is typically the result of code that iterates over beans (often each fetched by
+ * their own query) and navigates to an association that was not fetched. Each offender
+ * is a good candidate for adding a fetch path to the origin query.
+ * </p>
+ *
+ * @see MetaInfoManager#collectLazyLoadOffenders(boolean)
+ * @see com.avaje.ebean.config.ServerConfig#setLazyLoadDetectThreshold(int)
+ */
+public interface MetaLazyLoadOffender {
+
+  /**
+   * Return the ObjectGraphNode which has the origin point and relative path.
+   */
+  ObjectGraphNode getNode();
+
+  /**
+   * Return the total count of lazy loading queries executed for this node.
+   */
+  long getCount();
+
+  /**
+   * Return the total beans loaded by lazy loading queries for this node.
+   */
+  long getTotalBeans();
+
+  /**
+   * Return the maximum number of lazy loading queries executed within a single window.
+   */
+  long getMaxWindowCount();
+
+  /**
+   * Return the number of windows in which the lazy loading threshold was reached.
+   */
+  long getDetectedCount();
+
+  /**
+   * Return the time excessive lazy loading was last detected.
+   */
+  long getLastDetected();
+
+}
@@ -70,6 +70,15 @@ public interface MetaQueryPlanStatistic {
    */
   long getAvgTimeMicros();
 
+  /**
+   * Return the query execution time in microseconds at the given percentile (0 to 100).
+   * <p>
+   * For example, use 99 to get the p99 execution time. This is based on a histogram of
+   * the execution times and is accurate to within about 12.5%.
+   * </p>
+   */
+  long getPercentileTimeMicros(double percentile);
+
   /**
    * Return the average number of bean loaded per query.
    * <p>
@@ -0,0 +1,64 @@
+package com.avaje.ebean.meta;
+
+import com.avaje.ebean.bean.CallStack;
+
+/**
+ * A query execution that exceeded the slow query threshold.
+ * <p>
+ * This holds the sql, bind values, origin call stack and (when supported by the
+ * database platform) the explain plan captured at the time of the execution.
+ * </p>
+ *
+ * @see MetaInfoManager#collectSlowQueries(boolean)
+ * @see com.avaje.ebean.config.ServerConfig#setSlowQueryMicros(long)
+ */
+public interface MetaSlowQuery {
+
+  /**
+   * Return the bean type the query was for.
+   */
+  Class<?> getBeanType();
+
+  /**
+   * Return a string representation of the query plan hash.
+   */
+  String getQueryPlanHash();
+
+  /**
+   * Return the sql executed.
+   */
+  String getSql();
+
+  /**
+   * Return the bind values used.
+   * <p>
+   * Encryption keys used to bind encrypted properties are not included.
+   * </p>
+   */
+  String getBindLog();
+
+  /**
+   * Return the execution time in microseconds.
+   */
+  long getExecutionTimeMicros();
+
+  /**
+   * Return the time the slow query was captured.
+   */
+  long getCaptureTime();
+
+  /**
+   * Return the call stack of the code that executed the query (or the origin query for lazy loading).
+   */
+  CallStack getCallStack();
+
+  /**
+   * Return the explain plan output from the database.
+   * <p>
+   * This returns null if explain is not enabled, not supported by the database platform or has
+   * not yet completed (the explain is executed in the background).
+   * </p>
+   */
+  String getExplainPlan();
+
+}
@@ -0,0 +1,51 @@
+package com.avaje.ebean.text.csv;
+
+import java.util.Arrays;
+
+/**
+ * A row that failed to import during parallel CSV processing.
+ * <p>
+ * The row failed either converting the content into a bean or persisting the bean (in which
+ * case all the rows of the same commit fail with the same message).
+ * </p>
+ */
+public class CsvErrorRow {
+
+  private final long row;
+
+  private final String[] line;
+
+  private final String message;
+
+  public CsvErrorRow(long row, String[] line, String message) {
+    this.row = row;
+    this.line = line;
+    this.message = message;
+  }
+
+  /**
+   * Return the row number (starting at 1 and excluding any header).
+   */
+  public long getRow() {
+    return row;
+  }
+
+  /**
+   * Return the content of the row.
+   */
+  public String[] getLine() {
+    return line;
+  }
+
+  /**
+   * Return the error message.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return "row:" + row + " line:" + Arrays.toString(line) + " error:" + message;
+  }
+}
@@ -0,0 +1,70 @@
+package com.avaje.ebean.text.csv;
+
+import java.util.List;
+
+/**
+ * The result of parallel CSV processing.
+ */
+public class CsvImportResult {
+
+  private final long rowCount;
+
+  private final long savedCount;
+
+  private final long errorCount;
+
+  private final List<CsvErrorRow> errors;
+
+  private final long exeMillis;
+
+  public CsvImportResult(long rowCount, long savedCount, long errorCount, List<CsvErrorRow> errors, long exeMillis) {
+    this.rowCount = rowCount;
+    this.savedCount = savedCount;
+    this.errorCount = errorCount;
+    this.errors = errors;
+    this.exeMillis = exeMillis;
+  }
+
+  /**
+   * Return the number of rows read (excluding any header).
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Return the number of beans saved.
+   */
+  public long getSavedCount() {
+    return savedCount;
+  }
+
+  /**
+   * Return the number of rows that failed.
+   */
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * Return the rows that failed ordered by row number.
+   * <p>
+   * This is limited to maxErrors rows (see {@link CsvReader#setMaxErrors(int)}).
+   * </p>
+   */
+  public List<CsvErrorRow> getErrors() {
+    return errors;
+  }
+
+  /**
+   * Return the execution time in millis.
+   */
+  public long getExeMillis() {
+    return exeMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "rows:" + rowCount + " saved:" + savedCount + " errors:" + errorCount + " exeMillis:" + exeMillis;
+  }
+}
@@ -1,6 +1,8 @@
 package com.avaje.ebean.text.csv;
 
+import java.io.File;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.Locale;
 
 import com.avaje.ebean.text.StringParser;
@@ -170,4 +172,75 @@ public interface CsvReader<T> {
    */
   void process(Reader reader, CsvCallback<T> callback) throws Exception;
 
+  /**
+   * Set the number of threads used for parallel processing.
+   * <p>
+   * By default this is the number of available processors.
+   * </p>
+   */
+  void setParallelThreads(int parallelThreads);
+
+  /**
+   * Set the number of rows saved per transaction for parallel processing.
+   * <p>
+   * By default this is 1000. Each commit is a separate transaction using JDBC batching with
+   * the persistBatchSize.
+   * </p>
+   */
+  void setCommitSize(int commitSize);
+
+  /**
+   * Set the size in bytes of the chunks a file is split into for parallel processing.
+   * <p>
+   * By default this is 16MB. Each chunk is aligned to the start of a line.
+   * </p>
+   */
+  void setChunkBytes(int chunkBytes);
+
+  /**
+   * Set the maximum number of error rows returned by parallel processing.
+   * <p>
+   * By default this is 1000. Rows that fail beyond this are counted but not returned.
+   * </p>
+   */
+  void setMaxErrors(int maxErrors);
+
+  /**
+   * Process the CSV file in parallel saving the beans in separate transactions.
+   * <p>
+   * The file is memory mapped and split into line aligned chunks that are parsed, converted
+   * and saved by worker threads. Each commitSize rows are saved in their own transaction so
+   * a failure only rolls back the rows of that commit. Rows that fail conversion or saving are
+   * reported in the result rather than failing the whole import.
+   * </p>
+   * <p>
+   * The charset must be ASCII compatible (e.g. UTF-8 or ISO-8859-1) and quoted values must not
+   * contain line breaks. A CsvCallback is not used and an existing transaction is ignored.
+   * </p>
+   *
+   * <pre>{@code
+   *
+   *   CsvReader<Customer> csvReader = server.createCsvReader(Customer.class);
+   *   csvReader.setAddPropertiesFromHeader();
+   *   csvReader.setCommitSize(5000);
+   *
+   *   CsvImportResult result = csvReader.processParallel(new File("customers.csv"), StandardCharsets.UTF_8);
+   *   for (CsvErrorRow errorRow : result.getErrors()) {
+   *     ...
+   *   }
+   *
+   * }</pre>
+   */
+  CsvImportResult processParallel(File file, Charset charset) throws Exception;
+
+  /**
+   * Process the CSV content in parallel saving the beans in separate transactions.
+   * <p>
+   * The content is read on the calling thread and each commitSize lines are parsed, converted
+   * and saved by worker threads. This has the same restrictions as
+   * {@link #processParallel(File, Charset)}.
+   * </p>
+   */
+  CsvImportResult processParallel(Reader reader) throws Exception;
+
 }
\ No newline at end of file
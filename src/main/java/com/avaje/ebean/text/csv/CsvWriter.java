@@ -0,0 +1,93 @@
+package com.avaje.ebean.text.csv;
+
+import com.avaje.ebean.Query;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebean.text.StringFormatter;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Writes the beans of a query as CSV content.
+ * <p>
+ * The query is executed using findEach so the beans are streamed with constant memory
+ * regardless of the number of rows. The values are formatted using the same scalar type
+ * rules that the {@link CsvReader} uses to parse them such that the output can be read back.
+ * </p>
+ *
+ * <pre>{@code
+ *
+ *   CsvWriter<Customer> csvWriter = Ebean.createCsvWriter(Customer.class);
+ *   csvWriter.setPathProperties(PathProperties.parse("(id,status,name,billingAddress(line1,city))"));
+ *   csvWriter.addDateTime("anniversary", "dd-MMM-yyyy");
+ *
+ *   int rows = csvWriter.write(Ebean.find(Customer.class).where().eq("status", Status.ACTIVE).query(), outputStream, StandardCharsets.UTF_8);
+ *
+ * }</pre>
+ *
+ * <p>
+ * When no properties are defined the id and scalar properties of the bean type are written.
+ * </p>
+ *
+ * @param <T> the entity bean type
+ */
+public interface CsvWriter<T> {
+
+  /**
+   * Set whether to write a header row with the property names (defaults to true).
+   */
+  void setHeader(boolean header);
+
+  /**
+   * Set the separator character (defaults to comma).
+   */
+  void setSeparator(char separator);
+
+  /**
+   * Define the columns using PathProperties.
+   * <p>
+   * Nested paths are written using dot notation (e.g. billingAddress.city) and the
+   * PathProperties are also applied to the query such that only these properties are fetched.
+   * Columns added explicitly via addProperty() or addDateTime() take precedence.
+   * </p>
+   */
+  void setPathProperties(PathProperties pathProperties);
+
+  /**
+   * Add the property as the next column using the default formatting for its type.
+   */
+  void addProperty(String propertyName);
+
+  /**
+   * Add the property as the next column using a custom StringFormatter.
+   */
+  void addProperty(String propertyName, StringFormatter formatter);
+
+  /**
+   * Add a Date/Time/Timestamp property with a custom format using the default Locale.
+   */
+  void addDateTime(String propertyName, String dateTimeFormat);
+
+  /**
+   * Add a Date/Time/Timestamp property with a custom format and Locale.
+   */
+  void addDateTime(String propertyName, String dateTimeFormat, Locale locale);
+
+  /**
+   * Execute the query writing the beans to the output stream returning the number of rows.
+   * <p>
+   * The output stream is not closed.
+   * </p>
+   */
+  int write(Query<T> query, OutputStream outputStream, Charset charset);
+
+  /**
+   * Execute the query writing the beans to the writer returning the number of rows.
+   * <p>
+   * The writer is not closed.
+   * </p>
+   */
+  int write(Query<T> query, Writer writer);
+}
@@ -0,0 +1,22 @@
+package com.avaje.ebean.text.csv;
+
+/**
+ * Creates CsvWriters.
+ * <p>
+ * Implemented by the EbeanServer. For a server other than the default server cast it
+ * to this interface to create a CsvWriter.
+ * </p>
+ *
+ * <pre>{@code
+ *
+ *   CsvWriter<Customer> csvWriter = ((CsvWriterFactory) server).createCsvWriter(Customer.class);
+ *
+ * }</pre>
+ */
+public interface CsvWriterFactory {
+
+  /**
+   * Create a CsvWriter for a given beanType.
+   */
+  <T> CsvWriter<T> createCsvWriter(Class<T> beanType);
+}
@@ -173,6 +173,7 @@ class EJsonReader {
         case VALUE_STRING: return parser.getText();
         case VALUE_NUMBER_INT: return parser.getLongValue();
         case VALUE_NUMBER_FLOAT: return parser.getDecimalValue();
+        case VALUE_EMBEDDED_OBJECT: return parser.getEmbeddedObject();
       }
     }
 
@@ -219,6 +220,11 @@ class EJsonReader {
       setValue(parser.getDecimalValue());
       break;
 
+    case VALUE_EMBEDDED_OBJECT:
+      // binary value from a binary format such as Smile or CBOR
+      setValue(parser.getEmbeddedObject());
+      break;
+
     case VALUE_TRUE:
       setValue(Boolean.TRUE);
       break;
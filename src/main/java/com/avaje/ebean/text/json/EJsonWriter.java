@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import com.avaje.ebeaninternal.server.type.LazyJsonMap;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
@@ -75,6 +76,9 @@ class EJsonWriter {
       } else if (object instanceof Date) {
         writeDate(name, (Date) object);
 
+      } else if (object instanceof byte[]) {
+        writeBinary(name, (byte[]) object);
+
       } else if (object instanceof Map.Entry<?, ?>) {
         Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
         writeJson(entry.getKey().toString(), entry.getValue());
@@ -96,6 +100,14 @@ class EJsonWriter {
     }
   }
 
+  private void writeBinary(String name, byte[] object) throws IOException {
+    if (name == null) {
+      jsonGenerator.writeBinary(object);
+    } else {
+      jsonGenerator.writeBinaryField(name, object);
+    }
+  }
+
   private void writeDate(String name, Date object) throws IOException {
     if (name == null) {
       jsonGenerator.writeNumber(object.getTime());
@@ -202,6 +214,12 @@ class EJsonWriter {
     if (name != null) {
       jsonGenerator.writeFieldName(name);
     }
+    String rawJson = LazyJsonMap.rawJson(map);
+    if (rawJson != null && !jsonGenerator.canWriteBinaryNatively()) {
+      // not parsed so write the raw content as is (not for binary formats like Smile)
+      jsonGenerator.writeRawValue(rawJson);
+      return;
+    }
     jsonGenerator.writeStartObject();
     Set<Entry<Object, Object>> entrySet = map.entrySet();
     for (Entry<Object, Object> entry : entrySet) {
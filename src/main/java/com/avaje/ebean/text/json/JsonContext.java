@@ -1,11 +1,15 @@
 package com.avaje.ebean.text.json;
 
 import com.avaje.ebean.FetchPath;
+import com.avaje.ebean.Query;
 import com.avaje.ebean.plugin.BeanType;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Type;
@@ -204,6 +208,116 @@ public interface JsonContext {
    */
   String toJson(Object value, JsonWriteOptions options) throws JsonIOException;
 
+  /**
+   * Execute the query streaming the beans as a JSON array to the writer.
+   * <p>
+   * Each bean is written as it is read from the ResultSet and then discarded (via findEach)
+   * such that the memory used is bounded regardless of the number of beans returned.
+   * The properties written are the ones loaded by the query (select and fetch clauses).
+   * </p>
+   *
+   * @return the number of beans written
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> int toJson(Query<T> query, Writer writer) throws JsonIOException;
+
+  /**
+   * Execute the query streaming the beans as a JSON array to the writer using the FetchPath.
+   * <p>
+   * The FetchPath is applied to the query (such that only the properties written are fetched)
+   * as well as controlling the properties written.
+   * </p>
+   *
+   * @return the number of beans written
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> int toJson(Query<T> query, Writer writer, FetchPath fetchPath) throws JsonIOException;
+
+  /**
+   * Execute the query streaming the beans as a JSON array to the JsonGenerator.
+   *
+   * @return the number of beans written
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> int toJson(Query<T> query, JsonGenerator generator) throws JsonIOException;
+
+  /**
+   * Execute the query streaming the beans as a JSON array to the JsonGenerator using the FetchPath.
+   *
+   * @return the number of beans written
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> int toJson(Query<T> query, JsonGenerator generator, FetchPath fetchPath) throws JsonIOException;
+
+  /**
+   * Convert the input stream into a Bean of a specific type.
+   * <p>
+   * Use this with a binary format (see {@link #withFactory(JsonFactory)}).
+   * </p>
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> T toBean(Class<T> rootType, InputStream input) throws JsonIOException;
+
+  /**
+   * Convert the input stream into a Bean of a specific type additionally using JsonReadOptions.
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> T toBean(Class<T> rootType, InputStream input, JsonReadOptions options) throws JsonIOException;
+
+  /**
+   * Convert the input stream into a list of beans of a specific type.
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> List<T> toList(Class<T> rootType, InputStream input) throws JsonIOException;
+
+  /**
+   * Convert the input stream into a list of beans of a specific type additionally using JsonReadOptions.
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  <T> List<T> toList(Class<T> rootType, InputStream input, JsonReadOptions options) throws JsonIOException;
+
+  /**
+   * Write the bean or collection to the output stream.
+   * <p>
+   * Use this with a binary format (see {@link #withFactory(JsonFactory)}).
+   * </p>
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  void toJson(Object value, OutputStream output) throws JsonIOException;
+
+  /**
+   * Write the bean or collection to the output stream using the JsonWriteOptions.
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  void toJson(Object value, OutputStream output, JsonWriteOptions options) throws JsonIOException;
+
+  /**
+   * Return a JsonContext that reads and writes using the given Jackson JsonFactory.
+   * <p>
+   * This is typically used with a binary format such as Smile or CBOR to give compact payloads
+   * with the same bean semantics. Binary formats only support the InputStream and OutputStream
+   * (and JsonParser and JsonGenerator) methods.
+   * </p>
+   *
+   * <pre>{@code
+   *
+   *   JsonContext smile = server.json().withFactory(new SmileFactory());
+   *
+   *   ByteArrayOutputStream out = new ByteArrayOutputStream();
+   *   smile.toJson(customer, out);
+   *
+   *   Customer copy = smile.toBean(Customer.class, new ByteArrayInputStream(out.toByteArray()));
+   *
+   * }</pre>
+   */
+  JsonContext withFactory(JsonFactory jsonFactory);
+
   /**
    * Return true if the type is known as an Entity bean or a List Set or
    * Map of entity beans.
@@ -224,6 +338,20 @@ public interface JsonContext {
    */
   JsonParser createParser(Reader reader) throws JsonIOException;
 
+  /**
+   * Create and return a new JsonGenerator for the given output stream.
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  JsonGenerator createGenerator(OutputStream output) throws JsonIOException;
+
+  /**
+   * Create and return a new JsonParser for the given input stream.
+   *
+   * @throws JsonIOException When IOException occurs
+   */
+  JsonParser createParser(InputStream input) throws JsonIOException;
+
   /**
    * Write a scalar types known to Ebean to Jackson.
    * <p>
@@ -257,6 +257,13 @@ public class BindParams implements Serializable {
 		return positionedParameters;
 	}
 
+	/**
+	 * Return the named parameters.
+	 */
+	public Collection<Entry<String, Param>> namedParameters() {
+		return namedParameters.entrySet();
+	}
+
 	/**
 	 * Set the sql with named parameters replaced with place holder ?.
 	 */
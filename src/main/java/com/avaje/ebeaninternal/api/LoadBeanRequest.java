@@ -27,6 +27,11 @@ public class LoadBeanRequest extends LoadRequest {
 
   private final boolean loadCache;
 
+  /**
+   * Bean cache epoch captured before the load query is executed.
+   */
+  private final long beanCacheEpoch;
+
   /**
    * Construct for lazy load request.
    */
@@ -49,6 +54,7 @@ public class LoadBeanRequest extends LoadRequest {
     this.batch = loadBuffer.getBatch();
     this.lazyLoadProperty = lazyLoadProperty;
     this.loadCache = loadCache;
+    this.beanCacheEpoch = loadBuffer.getBeanDescriptor().cacheBeanEpoch();
   }
 
   @Override
@@ -158,7 +164,7 @@ public class LoadBeanRequest extends LoadRequest {
       EntityBean loadedBean = (EntityBean) list.get(i);
       loadedIds.add(desc.getId(loadedBean));
       if (isLoadCache()) {
-        desc.cacheBeanPut(loadedBean);
+        desc.cacheBeanPut(loadedBean, beanCacheEpoch);
       }
     }
 
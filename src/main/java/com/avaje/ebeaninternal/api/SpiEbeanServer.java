@@ -127,6 +127,12 @@ public interface SpiEbeanServer extends EbeanServer, BeanLoader, BeanCollectionL
    */
   SpiTransaction createQueryTransaction();
 
+  /**
+   * Create a ServerTransaction for query purposes explicitly choosing whether to use
+   * the read only DataSource (null means use the default behaviour).
+   */
+  SpiTransaction createQueryTransaction(Boolean useReadOnlyDataSource);
+
   /**
    * An event from another server in the cluster used to notify local
    * BeanListeners of remote inserts updates and deletes.
@@ -27,6 +27,13 @@ public class SpiExpressionValidation {
     }
   }
 
+  /**
+   * Register an expression (raw sql or sub-query) where the properties it depends on are not known.
+   */
+  public void validateRaw() {
+    // ignored for property validation
+  }
+
   /**
    * Return the set of properties considered as having unknown paths.
    */
@@ -531,6 +531,11 @@ public interface SpiQuery<T> extends Query<T> {
    */
   boolean isUseQueryCache();
 
+  /**
+   * Return the explicit choice to use the read only DataSource (null for the default).
+   */
+  Boolean getUseReadOnlyDataSource();
+
   /**
    * Return true if the beans from this query should be loaded into the bean
    * cache.
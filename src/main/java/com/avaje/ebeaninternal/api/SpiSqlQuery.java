@@ -39,6 +39,11 @@ public interface SpiSqlQuery extends SqlQuery {
    */
   int getBufferFetchSizeHint();
 
+  /**
+   * Return true if the query cache should be used.
+   */
+  boolean isUseQueryCache();
+
   /**
    * Set the PreparedStatement for the purposes of supporting cancel.
    */
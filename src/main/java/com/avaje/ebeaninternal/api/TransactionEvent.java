@@ -7,7 +7,9 @@ import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
 import com.avaje.ebeaninternal.server.transaction.DeleteByIdMap;
 
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Holds information for a transaction. There is one TransactionEvent instance
@@ -33,6 +35,11 @@ public class TransactionEvent implements Serializable {
 
   private transient DeleteByIdMap deleteByIdMap;
 
+  /**
+   * The base tables of all the inserted, updated and deleted beans (notify or not).
+   */
+  private transient Set<String> beanTables;
+
   /**
    * Create the TransactionEvent, one per Transaction.
    */
@@ -96,6 +103,10 @@ public class TransactionEvent implements Serializable {
    */
   public void add(PersistRequestBean<?> request) {
 
+    if (beanTables == null) {
+      beanTables = new HashSet<String>();
+    }
+    beanTables.add(request.getBeanDescriptor().getBaseTable());
     if (request.isNotify()) {
       // either a BeanListener or Cache is interested
       if (eventBeans == null) {
@@ -105,6 +116,23 @@ public class TransactionEvent implements Serializable {
     }
   }
 
+  /**
+   * Add the names of the tables modified in this transaction.
+   */
+  public void addModifiedTables(Set<String> tables) {
+    if (beanTables != null) {
+      tables.addAll(beanTables);
+    }
+    if (deleteByIdMap != null) {
+      deleteByIdMap.addBaseTables(tables);
+    }
+    if (eventTables != null) {
+      for (TransactionEventTable.TableIUD tableIUD : eventTables.values()) {
+        tables.add(tableIUD.getTableName());
+      }
+    }
+  }
+
   /**
    * Build and return the cache changeSet.
    */
@@ -1,6 +1,7 @@
 package com.avaje.ebeaninternal.server.autotune;
 
 import com.avaje.ebean.AutoTune;
+import com.avaje.ebean.bean.ObjectGraphNode;
 import com.avaje.ebeaninternal.api.SpiQuery;
 
 /**
@@ -30,6 +31,15 @@ public interface AutoTuneService extends AutoTune {
    */
   boolean tuneQuery(SpiQuery<?> query);
 
+  /**
+   * Notify of an object graph node where excessive lazy loading (N+1) was detected.
+   * <p>
+   * When profiling is on the path of the node is included in the tuned fetch of the
+   * origin query.
+   * </p>
+   */
+  void collectLazyLoadOffender(ObjectGraphNode node);
+
   /**
    * Fire a garbage collection (hint to the JVM). Assuming garbage collection
    * fires this will gather the usage profiling information.
@@ -1,5 +1,6 @@
 package com.avaje.ebeaninternal.server.autotune.service;
 
+import com.avaje.ebean.bean.ObjectGraphNode;
 import com.avaje.ebean.config.AutoTuneConfig;
 import com.avaje.ebean.config.ServerConfig;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
@@ -274,4 +275,14 @@ public class DefaultAutoTuneService implements AutoTuneService {
     return queryTuner.tuneQuery(query);
   }
 
+  /**
+   * Include the path of the node in the profiling of its origin query.
+   */
+  @Override
+  public void collectLazyLoadOffender(ObjectGraphNode node) {
+    if (profiling) {
+      profileManager.collectLazyLoadOffender(node);
+    }
+  }
+
 }
@@ -86,6 +86,18 @@ public class ProfileManager implements ProfilingListener {
     }
   }
 
+  /**
+   * Collect a node where excessive lazy loading was detected such that the node path
+   * is included in the tuned fetch of the origin query.
+   */
+  public void collectLazyLoadOffender(ObjectGraphNode node) {
+
+    ObjectGraphOrigin origin = node.getOriginQueryPoint();
+    if (origin != null && node.getPath() != null) {
+      getProfileOrigin(origin).collectLazyLoadOffender(node.getPath());
+    }
+  }
+
   /**
    * Collect usage statistics from a node in the object graph.
    * <p>
@@ -160,6 +160,13 @@ public class ProfileOrigin {
     }
   }
 
+  /**
+   * Mark the path as having excessive lazy loading.
+   */
+  public void collectLazyLoadOffender(String path) {
+    getNodeStats(path).markLazyLoadOffender();
+  }
+
   private ProfileOriginNodeUsage getNodeStats(String path) {
 
     synchronized (monitor) {
@@ -30,6 +30,8 @@ public class ProfileOriginNodeUsage {
 
   private boolean modified;
 
+  private boolean lazyLoadOffender;
+
   private final Set<String> aggregateUsed = new LinkedHashSet<String>();
 
   public ProfileOriginNodeUsage(String path) {
@@ -78,6 +80,11 @@ public class ProfileOriginNodeUsage {
         }
       }
 
+      if (lazyLoadOffender && path != null && aggregateUsed.isEmpty()) {
+        // N+1 lazy loading detected without usage profiling so fetch all properties
+        pathProps.addToPath(path, "*");
+      }
+
       if ((modified || addVersionProperty) && desc != null) {
         BeanProperty versionProp = desc.getVersionProperty();
         if (versionProp != null) {
@@ -107,6 +114,15 @@ public class ProfileOriginNodeUsage {
     }
   }
 
+  /**
+   * Mark this node as having excessive lazy loading (N+1).
+   */
+  protected void markLazyLoadOffender() {
+    synchronized (monitor) {
+      lazyLoadOffender = true;
+    }
+  }
+
   public String toString() {
     return "path[" + path + "] profileCount[" + profileCount + "] used[" + profileUsedCount + "] props" + aggregateUsed;
   }
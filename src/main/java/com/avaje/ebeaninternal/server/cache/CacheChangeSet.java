@@ -17,7 +17,7 @@ public class CacheChangeSet {
 
   private final List<CacheChange> entries = new ArrayList<CacheChange>();
 
-  private final Set<BeanDescriptor> queryCaches = new HashSet<BeanDescriptor>();
+  private final Map<BeanDescriptor<?>, QueryChange> queryChangeMap = new LinkedHashMap<BeanDescriptor<?>, QueryChange>();
 
   private final Map<ManyKey, ManyChange> manyChangeMap = new HashMap<ManyKey, ManyChange>();
 
@@ -41,8 +41,8 @@ public class CacheChangeSet {
    * Return the set of table changes to process invalidation for entities based on views.
    */
   public Set<String> apply() {
-    for (BeanDescriptor entry : queryCaches) {
-      entry.queryCacheClear();
+    for (QueryChange entry : queryChangeMap.values()) {
+      entry.apply();
     }
     for (CacheChange entry : entries) {
       entry.apply();
@@ -57,7 +57,21 @@ public class CacheChangeSet {
    * Add an entry to clear a query cache.
    */
   public void addClearQuery(BeanDescriptor<?> descriptor) {
-    queryCaches.add(descriptor);
+    query(descriptor).setClear();
+  }
+
+  /**
+   * Add an insert or delete of the given bean to invalidate matching query cache entries.
+   */
+  public void addQueryInsertDelete(BeanDescriptor<?> descriptor, Object id) {
+    query(descriptor).add(id, null);
+  }
+
+  /**
+   * Add an update of the given bean to invalidate matching query cache entries.
+   */
+  public void addQueryUpdate(BeanDescriptor<?> descriptor, Object id, Set<String> changedProperties) {
+    query(descriptor).add(id, changedProperties);
   }
 
   /**
@@ -117,6 +131,18 @@ public class CacheChangeSet {
     entries.add(new CacheChangeNaturalKeyPut(desc, id, val));
   }
 
+  /**
+   * Return the QueryChange for the given descriptor.
+   */
+  private QueryChange query(BeanDescriptor<?> desc) {
+    QueryChange queryChange = queryChangeMap.get(desc);
+    if (queryChange == null) {
+      queryChange = new QueryChange(desc);
+      queryChangeMap.put(desc, queryChange);
+    }
+    return queryChange;
+  }
+
   /**
    * Return the ManyChange for the given descriptor and property manyProperty.
    */
@@ -130,6 +156,65 @@ public class CacheChangeSet {
     return manyChange;
   }
 
+  /**
+   * Changes for a query cache of a given bean type.
+   * <p>
+   * Only the query cache entries that depend on the changed beans are removed unless there are
+   * too many changes (or a clear was explicitly added) in which case the query cache is cleared.
+   * </p>
+   */
+  private static class QueryChange implements CacheChange {
+
+    /**
+     * Maximum number of changes to target before clearing the query cache instead.
+     */
+    private static final int MAX_TARGETED = 100;
+
+    final BeanDescriptor<?> desc;
+
+    final List<Object> ids = new ArrayList<Object>();
+
+    final List<Set<String>> changedProperties = new ArrayList<Set<String>>();
+
+    boolean clear;
+
+    QueryChange(BeanDescriptor<?> desc) {
+      this.desc = desc;
+    }
+
+    /**
+     * Clear the query cache.
+     */
+    void setClear() {
+      this.clear = true;
+      ids.clear();
+      changedProperties.clear();
+    }
+
+    /**
+     * Add a change to a bean (changed properties is null for insert and delete).
+     */
+    void add(Object id, Set<String> changed) {
+      if (!clear) {
+        if (ids.size() >= MAX_TARGETED) {
+          setClear();
+        } else {
+          ids.add(id);
+          changedProperties.add(changed);
+        }
+      }
+    }
+
+    @Override
+    public void apply() {
+      if (clear) {
+        desc.queryCacheClear();
+      } else {
+        desc.queryCacheInvalidate(ids, changedProperties);
+      }
+    }
+  }
+
   /**
    * Changes for a specific many property.
    */
@@ -0,0 +1,162 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.bean.BeanCollection;
+import com.avaje.ebean.bean.EntityBean;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Estimates the retained size in bytes of the values held in the caches.
+ * <p>
+ * This is an approximation based on typical 64 bit JVM object sizes (with compressed oops).
+ * Large collections are estimated by sampling the first elements rather than walking them all.
+ * </p>
+ */
+public final class CacheSizeEstimator {
+
+  /**
+   * Estimated overhead of a cache entry (CacheEntry plus the ConcurrentHashMap node).
+   */
+  public static final int ENTRY_OVERHEAD = 72;
+
+  private static final int OBJECT_HEADER = 16;
+
+  private static final int REFERENCE = 4;
+
+  private static final int MAX_DEPTH = 4;
+
+  private static final int MAX_ELEMENT_SAMPLE = 16;
+
+  private CacheSizeEstimator() {
+  }
+
+  /**
+   * Return the estimated size in bytes of the cache entry (key and value).
+   */
+  public static long estimateEntry(Object key, Object value) {
+    return ENTRY_OVERHEAD + estimate(key) + estimate(value);
+  }
+
+  /**
+   * Return the estimated size in bytes of the given value.
+   */
+  public static long estimate(Object value) {
+    return estimate(value, 0);
+  }
+
+  private static long estimate(Object value, int depth) {
+
+    if (value == null || value instanceof Boolean || value instanceof Enum<?>) {
+      // shared instances
+      return 0;
+    }
+    if (value instanceof String) {
+      return 40 + 2 * ((String) value).length();
+    }
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Float || value instanceof Character) {
+      return 16;
+    }
+    if (value instanceof Long || value instanceof Double || value instanceof Date) {
+      // includes java.sql.Timestamp, Date and Time
+      return 24;
+    }
+    if (value instanceof BigDecimal) {
+      return 40 + estimate(((BigDecimal) value).unscaledValue(), depth);
+    }
+    if (value instanceof BigInteger) {
+      return 40 + (((BigInteger) value).bitLength() / 8) + 16;
+    }
+    if (value instanceof UUID) {
+      return 32;
+    }
+    if (value instanceof byte[]) {
+      return OBJECT_HEADER + ((byte[]) value).length;
+    }
+    if (value instanceof char[]) {
+      return OBJECT_HEADER + 2 * ((char[]) value).length;
+    }
+    if (depth >= MAX_DEPTH) {
+      return OBJECT_HEADER;
+    }
+    if (value instanceof CachedBeanData) {
+      return 48 + estimate(((CachedBeanData) value).getData(), depth + 1);
+    }
+    if (value instanceof CachedManyIds) {
+      return OBJECT_HEADER + estimate(((CachedManyIds) value).getIdList(), depth + 1);
+    }
+    if (value instanceof EntityBean) {
+      return estimateBean((EntityBean) value, depth);
+    }
+    if (value instanceof BeanCollection<?>) {
+      BeanCollection<?> beanCollection = (BeanCollection<?>) value;
+      if (!beanCollection.isPopulated()) {
+        // deferred (lazy loading) collection so only the proxy itself
+        return 48;
+      }
+      return 48 + estimateElements(beanCollection.getActualDetails(), depth);
+    }
+    if (value instanceof Map<?, ?>) {
+      return estimateMap((Map<?, ?>) value, depth);
+    }
+    if (value instanceof Collection<?>) {
+      Collection<?> collection = (Collection<?>) value;
+      return 40 + REFERENCE * collection.size() + estimateElements(collection, depth);
+    }
+    return OBJECT_HEADER;
+  }
+
+  /**
+   * Estimate the bean including its loaded property values. Associated beans are only counted
+   * when not yet at the maximum depth.
+   */
+  private static long estimateBean(EntityBean bean, int depth) {
+
+    int propertyCount = bean._ebean_getPropertyNames().length;
+    // the bean itself plus its intercept (which holds the loaded and dirty state)
+    long size = OBJECT_HEADER + REFERENCE * propertyCount + 64 + 2 * propertyCount;
+    for (int i = 0; i < propertyCount; i++) {
+      size += estimate(bean._ebean_getField(i), depth + 1);
+    }
+    return size;
+  }
+
+  private static long estimateMap(Map<?, ?> map, int depth) {
+
+    int size = map.size();
+    long total = 48 + 32L * size;
+    if (size == 0) {
+      return total;
+    }
+    int sampled = 0;
+    long sampleBytes = 0;
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      sampleBytes += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+      if (++sampled >= MAX_ELEMENT_SAMPLE) {
+        break;
+      }
+    }
+    return total + (sampleBytes * size / sampled);
+  }
+
+  private static long estimateElements(Collection<?> collection, int depth) {
+
+    int size = collection.size();
+    if (size == 0) {
+      return 0;
+    }
+    int sampled = 0;
+    long sampleBytes = 0;
+    Iterator<?> it = collection.iterator();
+    while (it.hasNext() && sampled < MAX_ELEMENT_SAMPLE) {
+      sampleBytes += estimate(it.next(), depth + 1);
+      sampled++;
+    }
+    return sampleBytes * size / sampled;
+  }
+}
@@ -0,0 +1,343 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.BackgroundExecutor;
+import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.deploy.BeanProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes snapshots of bean caches to local disk and reloads them on startup.
+ * <p>
+ * The bean caches of types with <code>@Cache(snapshot=true)</code> are written to a file per
+ * bean type (via a temporary file that then replaces it) using the Externalizable form of CachedBeanData. When reloaded each entry is
+ * validated against the version property in the database and only entries with a matching version
+ * are put back into the bean cache. This means bean types without a version property are not
+ * included in snapshots.
+ * </p>
+ * <p>
+ * Writes are serialised such that the periodic snapshot and the snapshot on shutdown do not
+ * write the same temporary file concurrently, and no snapshot is written after shutdown.
+ * </p>
+ */
+public final class CacheSnapshot {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+  private static final int MAGIC = 0xEBCA5A9E;
+
+  private static final int FORMAT_VERSION = 1;
+
+  /**
+   * The number of ids used per query when validating the reloaded entries.
+   */
+  private static final int VALIDATE_BATCH = 500;
+
+  private final SpiEbeanServer server;
+
+  private final File directory;
+
+  private final int frequencySecs;
+
+  /**
+   * Lock held while writing snapshots.
+   */
+  private final Object writeLock = new Object();
+
+  /**
+   * Set on shutdown after which snapshots are no longer written (guarded by writeLock).
+   */
+  private boolean shutdown;
+
+  public CacheSnapshot(SpiEbeanServer server, ServerConfig config) {
+    this.server = server;
+    this.directory = new File(config.getCacheSnapshotDirectory());
+    this.frequencySecs = config.getCacheSnapshotFrequency();
+  }
+
+  /**
+   * Reload the bean caches from the snapshot files in a background thread and then start the
+   * periodic snapshots and run the given task (typically warming the caches not restored).
+   */
+  public void restoreInBackground(final BackgroundExecutor executor, final Runnable afterRestore) {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        restore();
+        // started after the restore such that the files are not replaced before they are read
+        start(executor);
+        if (afterRestore != null) {
+          afterRestore.run();
+        }
+      }
+    });
+  }
+
+  /**
+   * Reload the bean caches from the snapshot files.
+   */
+  public void restore() {
+    for (BeanDescriptor<?> desc : snapshotTypes()) {
+      try {
+        restore(desc);
+      } catch (Exception e) {
+        logger.warn("Error restoring cache snapshot for " + desc.getFullName(), e);
+      }
+    }
+  }
+
+  /**
+   * Periodically write the snapshots (if a snapshot frequency is set).
+   */
+  public void start(BackgroundExecutor executor) {
+    if (frequencySecs > 0) {
+      executor.executePeriodically(new Runnable() {
+        @Override
+        public void run() {
+          snapshot();
+        }
+      }, frequencySecs, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Write the snapshots of the bean caches.
+   */
+  public void snapshot() {
+    synchronized (writeLock) {
+      if (!shutdown) {
+        snapshotAll();
+      }
+    }
+  }
+
+  /**
+   * Write the final snapshots of the bean caches (waiting for a periodic snapshot in progress).
+   */
+  public void shutdown() {
+    synchronized (writeLock) {
+      if (!shutdown) {
+        shutdown = true;
+        snapshotAll();
+      }
+    }
+  }
+
+  private void snapshotAll() {
+    for (BeanDescriptor<?> desc : snapshotTypes()) {
+      try {
+        write(desc);
+      } catch (Exception e) {
+        logger.warn("Error writing cache snapshot for " + desc.getFullName(), e);
+      }
+    }
+  }
+
+  private List<BeanDescriptor<?>> snapshotTypes() {
+    List<BeanDescriptor<?>> types = new ArrayList<BeanDescriptor<?>>();
+    for (BeanDescriptor<?> desc : server.getBeanDescriptors()) {
+      if (desc.isBeanCaching() && desc.getCacheOptions().isSnapshot()) {
+        if (isSupported(desc)) {
+          types.add(desc);
+        } else {
+          logger.debug("cache snapshot not supported for {} - requires a version property and scalar id", desc.getFullName());
+        }
+      }
+    }
+    return types;
+  }
+
+  private boolean isSupported(BeanDescriptor<?> desc) {
+    return desc.getVersionProperty() != null && desc.getIdProperty() != null && !desc.getIdBinder().isComplexId();
+  }
+
+  /**
+   * Write the snapshot of the bean cache for the given type returning the number of entries written.
+   */
+  public int snapshot(BeanDescriptor<?> desc) throws IOException {
+    synchronized (writeLock) {
+      return shutdown ? 0 : write(desc);
+    }
+  }
+
+  private int write(BeanDescriptor<?> desc) throws IOException {
+
+    ServerCache cache = server.getServerCacheManager().getBeanCache(desc.getBeanType());
+    if (!isSupported(desc) || !(cache instanceof DefaultServerCache)) {
+      return 0;
+    }
+    Map<Object, Object> entries = ((DefaultServerCache) cache).entries();
+
+    List<Map.Entry<Object, Object>> beanEntries = new ArrayList<Map.Entry<Object, Object>>(entries.size());
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      if (entry.getValue() instanceof CachedBeanData) {
+        beanEntries.add(entry);
+      }
+    }
+
+    // write to a temporary file that then replaces the snapshot file
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Unable to create cache snapshot directory " + directory);
+    }
+    File file = file(desc);
+    File tempFile = new File(directory, file.getName() + ".tmp");
+    FileOutputStream fileOut = new FileOutputStream(tempFile);
+    try {
+      ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fileOut));
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(signature(desc));
+      out.writeLong(System.currentTimeMillis());
+      out.writeInt(beanEntries.size());
+      for (Map.Entry<Object, Object> entry : beanEntries) {
+        out.writeObject(entry.getKey());
+        ((CachedBeanData) entry.getValue()).writeExternal(out);
+      }
+      out.flush();
+      fileOut.getFD().sync();
+    } finally {
+      fileOut.close();
+    }
+    replace(tempFile, file);
+
+    logger.debug("cache snapshot written for {} with {} entries", desc.getFullName(), beanEntries.size());
+    return beanEntries.size();
+  }
+
+  /**
+   * Reload the bean cache for the given type from its snapshot returning the number of entries restored.
+   * <p>
+   * Only entries whose version matches the version in the database are restored.
+   * </p>
+   */
+  public int restore(BeanDescriptor<?> desc) throws IOException, ClassNotFoundException {
+
+    File file = file(desc);
+    if (!isSupported(desc) || !file.exists()) {
+      return 0;
+    }
+
+    // entries updated after this point are rejected as stale by the bean cache
+    long epoch = desc.cacheBeanEpoch();
+
+    Map<Object, CachedBeanData> entries = read(desc, file);
+    if (entries == null) {
+      return 0;
+    }
+
+    int restored = 0;
+    List<Object> ids = new ArrayList<Object>(VALIDATE_BATCH);
+    for (Object id : entries.keySet()) {
+      ids.add(id);
+      if (ids.size() >= VALIDATE_BATCH) {
+        restored += restoreValid(desc, ids, entries, epoch);
+        ids.clear();
+      }
+    }
+    if (!ids.isEmpty()) {
+      restored += restoreValid(desc, ids, entries, epoch);
+    }
+    logger.info("cache snapshot restored for {} with {} of {} entries", desc.getFullName(), restored, entries.size());
+    return restored;
+  }
+
+  /**
+   * Put the entries whose version matches the current version in the database into the bean cache.
+   */
+  private int restoreValid(BeanDescriptor<?> desc, List<Object> ids, Map<Object, CachedBeanData> entries, long epoch) {
+
+    List<?> current = server.find(desc.getBeanType())
+        .select(desc.getVersionProperty().getName())
+        .setUseCache(false)
+        .where().idIn(ids)
+        .findList();
+
+    int restored = 0;
+    for (Object bean : current) {
+      EntityBean entityBean = (EntityBean) bean;
+      Object id = desc.getId(entityBean);
+      CachedBeanData data = entries.get(id);
+      if (data != null && data.getVersion() == desc.getVersion(entityBean)) {
+        desc.cacheBeanPutData(id, data, epoch);
+        restored++;
+      }
+    }
+    return restored;
+  }
+
+  /**
+   * Read the entries from the snapshot file (null if the file does not match the bean type).
+   */
+  private Map<Object, CachedBeanData> read(BeanDescriptor<?> desc, File file) throws IOException, ClassNotFoundException {
+
+    FileInputStream fileIn = new FileInputStream(file);
+    try {
+      ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(fileIn));
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !signature(desc).equals(in.readUTF())) {
+        // snapshot from a different version of the bean type so ignore it
+        logger.info("cache snapshot {} ignored as it does not match the current bean type", file);
+        return null;
+      }
+      // when the snapshot was taken
+      in.readLong();
+      int count = in.readInt();
+      Map<Object, CachedBeanData> entries = new LinkedHashMap<Object, CachedBeanData>(count * 2);
+      for (int i = 0; i < count; i++) {
+        Object id = in.readObject();
+        CachedBeanData data = new CachedBeanData();
+        data.readExternal(in);
+        entries.put(id, data);
+      }
+      return entries;
+    } finally {
+      fileIn.close();
+    }
+  }
+
+  /**
+   * Replace the snapshot file with the temporary file.
+   */
+  private void replace(File tempFile, File file) throws IOException {
+
+    if (!tempFile.renameTo(file)) {
+      // rename does not replace an existing file on some platforms
+      if (!file.delete() || !tempFile.renameTo(file)) {
+        throw new IOException("Unable to replace cache snapshot file " + file);
+      }
+    }
+  }
+
+  private File file(BeanDescriptor<?> desc) {
+    return new File(directory, server.getName() + "-" + desc.getFullName() + ".cache");
+  }
+
+  /**
+   * Return the signature of the bean type such that snapshots written for different properties are ignored.
+   */
+  private String signature(BeanDescriptor<?> desc) {
+    StringBuilder sb = new StringBuilder(desc.getFullName());
+    sb.append(':').append(desc.getIdProperty().getName());
+    for (BeanProperty prop : desc.propertiesNonMany()) {
+      sb.append(',').append(prop.getName());
+    }
+    return sb.toString();
+  }
+}
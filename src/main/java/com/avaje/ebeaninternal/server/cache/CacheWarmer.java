@@ -0,0 +1,203 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.BackgroundExecutor;
+import com.avaje.ebean.bean.BeanCollection;
+import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.cache.ServerCacheWarmable;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.deploy.BeanPropertyAssocMany;
+import com.avaje.ebeaninternal.server.deploy.InheritInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Warms (preloads) the bean caches along with the natural key and collection ids caches.
+ * <p>
+ * The ids of each bean type are read first and the beans are then loaded and put into the caches
+ * in chunks of the configured batch size such that no cursor is held open while throttling.
+ * Multiple bean types are warmed in parallel using the BackgroundExecutor when warming on startup.
+ * </p>
+ */
+public final class CacheWarmer {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+  private final SpiEbeanServer server;
+
+  private final BackgroundExecutor backgroundExecutor;
+
+  private final int threads;
+
+  private final int batchSize;
+
+  private final int maxRowsPerSecond;
+
+  public CacheWarmer(SpiEbeanServer server, BackgroundExecutor backgroundExecutor, ServerConfig config) {
+    this.server = server;
+    this.backgroundExecutor = backgroundExecutor;
+    this.threads = Math.max(1, config.getCacheWarmThreads());
+    this.batchSize = Math.max(1, config.getCacheWarmBatchSize());
+    this.maxRowsPerSecond = config.getCacheWarmMaxRowsPerSecond();
+  }
+
+  /**
+   * Warm the caches of the bean types with <code>@Cache(warm=true)</code> using the BackgroundExecutor.
+   */
+  public void warmOnStart() {
+
+    final Queue<BeanDescriptor<?>> warmTypes = new ConcurrentLinkedQueue<BeanDescriptor<?>>();
+    for (BeanDescriptor<?> desc : server.getBeanDescriptors()) {
+      if (desc.isBeanCaching() && desc.getCacheOptions().isWarm() && isInheritanceRoot(desc) && !isPopulated(desc)) {
+        warmTypes.add(desc);
+      }
+    }
+
+    // each task warms bean types from the queue limiting the number used in parallel
+    int tasks = Math.min(threads, warmTypes.size());
+    for (int i = 0; i < tasks; i++) {
+      backgroundExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          BeanDescriptor<?> desc;
+          while ((desc = warmTypes.poll()) != null) {
+            try {
+              warm(desc);
+            } catch (Throwable e) {
+              logger.error("Error warming cache for " + desc.getFullName(), e);
+            }
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Warm the caches for the given bean type (in the calling thread).
+   */
+  public void warm(Class<?> beanType) {
+
+    BeanDescriptor<?> desc = server.getBeanDescriptor(beanType);
+    if (desc == null) {
+      throw new IllegalArgumentException("No BeanDescriptor found for " + beanType);
+    }
+    if (!desc.isBeanCaching()) {
+      throw new IllegalStateException("Bean caching is not enabled for " + beanType);
+    }
+    warm(desc);
+  }
+
+  /**
+   * Return true if the bean cache already has entries (restored from a snapshot).
+   */
+  private boolean isPopulated(BeanDescriptor<?> desc) {
+    return server.getServerCacheManager().getBeanCache(desc.getBeanType()).size() > 0;
+  }
+
+  /**
+   * Return false for a type that is part of an inheritance hierarchy but not the root.
+   * The root type loads all the beans of the hierarchy.
+   */
+  private boolean isInheritanceRoot(BeanDescriptor<?> desc) {
+    InheritInfo inheritInfo = desc.getInheritInfo();
+    return inheritInfo == null || inheritInfo.isRoot();
+  }
+
+  /**
+   * Report the warming progress if supported by the cache implementation.
+   */
+  private static void setWarmProgress(ServerCache cache, long loadCount, long totalCount, boolean complete) {
+    if (cache instanceof ServerCacheWarmable) {
+      ((ServerCacheWarmable) cache).setWarmProgress(loadCount, totalCount, complete);
+    }
+  }
+
+  private <T> void warm(BeanDescriptor<T> desc) {
+
+    long startNanos = System.nanoTime();
+    ServerCache beanCache = server.getServerCacheManager().getBeanCache(desc.getBeanType());
+
+    // beans updated after this point are not put into the cache (as they are stale)
+    long epoch = desc.cacheBeanEpoch();
+    List<Object> ids = server.find(desc.getBeanType()).findIds();
+    int totalCount = ids.size();
+    setWarmProgress(beanCache, 0, totalCount, false);
+
+    long startMillis = System.currentTimeMillis();
+    int loadCount = 0;
+    for (int i = 0; i < totalCount; i += batchSize) {
+      List<Object> chunkIds = ids.subList(i, Math.min(i + batchSize, totalCount));
+      List<T> beans = server.find(desc.getBeanType())
+          .setUseCache(false)
+          .where().idIn(chunkIds)
+          .findList();
+
+      for (T bean : beans) {
+        // also puts the natural key cache entry
+        desc.cacheBeanPut((EntityBean) bean, epoch);
+      }
+      warmManyIds(desc, chunkIds);
+
+      loadCount += beans.size();
+      setWarmProgress(beanCache, loadCount, Math.max(totalCount, loadCount), false);
+      throttle(loadCount, startMillis);
+    }
+    setWarmProgress(beanCache, loadCount, Math.max(totalCount, loadCount), true);
+
+    long millis = (System.nanoTime() - startNanos) / 1000000L;
+    logger.info("Warmed cache for {} with {} beans in {} millis", desc.getFullName(), loadCount, millis);
+  }
+
+  /**
+   * Load the collection ids caches for the given chunk of ids.
+   */
+  private void warmManyIds(BeanDescriptor<?> desc, List<Object> ids) {
+
+    String idName = desc.getIdName();
+    for (BeanPropertyAssocMany<?> many : desc.propertiesMany()) {
+      String targetIdName = many.getTargetIdProperty();
+      if (idName == null || targetIdName == null) {
+        continue;
+      }
+      List<?> parents = server.find(desc.getBeanType())
+          .setUseCache(false)
+          .select(idName)
+          .fetch(many.getName(), targetIdName)
+          .where().idIn(ids)
+          .findList();
+
+      for (Object parent : parents) {
+        EntityBean parentBean = (EntityBean) parent;
+        Object value = many.getValue(parentBean);
+        if (value instanceof BeanCollection<?>) {
+          desc.cacheManyPropPut(many, (BeanCollection<?>) value, desc.getId(parentBean));
+        }
+      }
+    }
+  }
+
+  /**
+   * Sleep as necessary such that the rows loaded per second does not exceed the maximum.
+   */
+  private void throttle(int loadCount, long startMillis) {
+    if (maxRowsPerSecond <= 0) {
+      return;
+    }
+    long expectedMillis = (loadCount * 1000L) / maxRowsPerSecond;
+    long sleepMillis = expectedMillis - (System.currentTimeMillis() - startMillis);
+    if (sleepMillis > 0) {
+      try {
+        Thread.sleep(sleepMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.OrderBy;
+import com.avaje.ebeaninternal.api.SpiExpression;
+import com.avaje.ebeaninternal.api.SpiExpressionList;
+import com.avaje.ebeaninternal.api.SpiExpressionValidation;
+import com.avaje.ebeaninternal.api.SpiQuery;
+import com.avaje.ebeaninternal.api.SpiQuerySecondary;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.deploy.BeanProperty;
+import com.avaje.ebeaninternal.server.expression.IdInExpression;
+import com.avaje.ebeaninternal.server.querydefn.OrmQueryDetail;
+import com.avaje.ebeaninternal.server.querydefn.OrmQueryProperties;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The root properties and ids that a cached query result depends on.
+ * <p>
+ * This is derived from the predicates, order by and select/fetch clauses of the query and
+ * is used to only remove the query cache entries that an insert, update or delete could
+ * affect rather than clearing the entire query cache for the bean type.
+ * </p>
+ */
+public final class CachedQueryDependency {
+
+  /**
+   * Dependency for a query we know nothing about and hence is invalidated by any change.
+   */
+  public static final CachedQueryDependency ALL = new CachedQueryDependency(null, null);
+
+  /**
+   * The root properties used in predicates, order by and select/fetch (null means all properties).
+   */
+  private final Set<String> properties;
+
+  /**
+   * The ids the query is restricted to (null means not restricted by id).
+   */
+  private final Set<Object> ids;
+
+  private CachedQueryDependency(Set<String> properties, Set<Object> ids) {
+    this.properties = properties;
+    this.ids = ids;
+  }
+
+  /**
+   * Return the dependency of the given query.
+   */
+  public static CachedQueryDependency of(BeanDescriptor<?> desc, SpiQuery<?> query, SpiQuerySecondary secondary) {
+    if (query.isRawSql()) {
+      return ALL;
+    }
+    return new Builder(desc).build(query, secondary);
+  }
+
+  /**
+   * Return true if the cached query result should be invalidated by a change to the bean with the given id.
+   *
+   * @param id                the id of the inserted, updated or deleted bean
+   * @param changedProperties the properties changed by an update or null for an insert or delete
+   */
+  public boolean isInvalidatedBy(Object id, Set<String> changedProperties) {
+    if (ids != null && id != null && !ids.contains(id)) {
+      // the query can not include this bean
+      return false;
+    }
+    if (properties == null || changedProperties == null) {
+      return true;
+    }
+    for (String changed : changedProperties) {
+      if (properties.contains(changed)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "properties:" + (properties == null ? "*" : properties) + " ids:" + (ids == null ? "*" : ids);
+  }
+
+  /**
+   * Collects the root properties by visiting the expressions of the query.
+   */
+  private static class Builder extends SpiExpressionValidation {
+
+    private final BeanDescriptor<?> desc;
+
+    private final Set<String> properties = new HashSet<String>();
+
+    private boolean allProperties;
+
+    Builder(BeanDescriptor<?> desc) {
+      super(desc);
+      this.desc = desc;
+    }
+
+    @Override
+    public void validate(String propertyName) {
+      addPath(propertyName);
+    }
+
+    @Override
+    public void validateRaw() {
+      // raw sql or sub-query so we don't know which properties are used
+      allProperties = true;
+    }
+
+    private void addPath(String path) {
+      int pos = path.indexOf('.');
+      properties.add(pos == -1 ? path : path.substring(0, pos));
+    }
+
+    CachedQueryDependency build(SpiQuery<?> query, SpiQuerySecondary secondary) {
+
+      SpiExpressionList<?> where = query.getWhereExpressions();
+      if (where != null) {
+        where.validate(this);
+      }
+      SpiExpressionList<?> having = query.getHavingExpressions();
+      if (having != null) {
+        having.validate(this);
+      }
+      OrderBy<?> orderBy = query.getOrderBy();
+      if (orderBy != null) {
+        for (OrderBy.Property property : orderBy.getProperties()) {
+          addPath(property.getProperty());
+        }
+      }
+      BeanProperty softDelete = desc.getSoftDeleteProperty();
+      if (softDelete != null) {
+        // implicit predicate on the soft delete property
+        properties.add(softDelete.getName());
+      }
+
+      OrmQueryDetail detail = query.getDetail();
+      OrmQueryProperties base = detail.getChunk(null, false);
+      Set<String> included = (base == null) ? null : base.getIncluded();
+      if (included == null || included.contains("*")) {
+        allProperties = true;
+      } else {
+        for (String property : included) {
+          addPath(property);
+        }
+      }
+      for (String path : detail.getFetchPaths()) {
+        addPath(path);
+      }
+      if (secondary != null) {
+        addPaths(secondary.getQueryJoins());
+        addPaths(secondary.getLazyJoins());
+      }
+
+      return new CachedQueryDependency(allProperties ? null : properties, ids(query, where));
+    }
+
+    private void addPaths(List<OrmQueryProperties> joins) {
+      if (joins != null) {
+        for (OrmQueryProperties join : joins) {
+          addPath(join.getPath());
+        }
+      }
+    }
+
+    /**
+     * Return the ids when the query is restricted by id at the top level (otherwise null).
+     */
+    private Set<Object> ids(SpiQuery<?> query, SpiExpressionList<?> where) {
+
+      if (desc.getIdBinder().isComplexId()) {
+        // embedded ids are not compared
+        return null;
+      }
+      Object id = query.getId();
+      if (id != null) {
+        return convertIds(Collections.singletonList(id));
+      }
+      if (where != null) {
+        for (SpiExpression expr : where.getUnderlyingList()) {
+          if (expr instanceof IdInExpression) {
+            return convertIds(((IdInExpression) expr).getIdList());
+          }
+        }
+      }
+      return null;
+    }
+
+    private Set<Object> convertIds(List<?> idValues) {
+      try {
+        Set<Object> ids = new HashSet<Object>(idValues.size() * 2);
+        for (Object idValue : idValues) {
+          ids.add(desc.convertId(idValue));
+        }
+        return ids;
+      } catch (RuntimeException e) {
+        // not able to compare ids so treat as not restricted by id
+        return null;
+      }
+    }
+  }
+}
@@ -5,9 +5,11 @@ import com.avaje.ebean.annotation.CacheBeanTuning;
 import com.avaje.ebean.cache.ServerCache;
 import com.avaje.ebean.cache.ServerCacheFactory;
 import com.avaje.ebean.cache.ServerCacheOptions;
+import com.avaje.ebean.cache.ServerCacheStatistics;
 import com.avaje.ebean.cache.ServerCacheType;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -72,6 +74,17 @@ public class DefaultCacheHolder {
     return concMap.containsKey(beanType);
   }
 
+  /**
+   * Add the statistics of each of the caches to the list.
+   */
+  public void collectStatistics(List<ServerCacheStatistics> list, ServerCacheType type, boolean reset) {
+    for (ServerCache serverCache : concMap.values()) {
+      ServerCacheStatistics statistics = serverCache.getStatistics(reset);
+      statistics.setCacheType(type);
+      list.add(statistics);
+    }
+  }
+
   public void clearAll() {
     for (ServerCache serverCache : concMap.values()) {
       serverCache.clear();
@@ -3,8 +3,12 @@ package com.avaje.ebeaninternal.server.cache;
 import com.avaje.ebean.BackgroundExecutor;
 import com.avaje.ebean.EbeanServer;
 import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.cache.ServerCacheBulk;
+import com.avaje.ebean.cache.ServerCacheRefreshAhead;
 import com.avaje.ebean.cache.ServerCacheOptions;
+import com.avaje.ebean.cache.ServerCacheRefresher;
 import com.avaje.ebean.cache.ServerCacheStatistics;
+import com.avaje.ebean.cache.ServerCacheWarmable;
 import com.avaje.ebeaninternal.server.util.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,7 +18,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -25,7 +31,7 @@ import java.util.concurrent.TimeUnit;
  * The periodic trimming means that an LRU list does not have to be maintained.
  * </p>
  */
-public class DefaultServerCache implements ServerCache {
+public class DefaultServerCache implements ServerCache, ServerCacheBulk, ServerCacheRefreshAhead, ServerCacheWarmable {
 
   protected static final Logger logger = LoggerFactory.getLogger(DefaultServerCache.class);
 
@@ -34,6 +40,11 @@ public class DefaultServerCache implements ServerCache {
    */
   public static final CompareByLastAccess BY_LAST_ACCESS = new CompareByLastAccess();
 
+  /**
+   * The number of entries sampled to estimate the memory used by the cache.
+   */
+  protected static final int MEMORY_SAMPLE_SIZE = 100;
+
   /**
    * The underlying map (ConcurrentHashMap or similar)
    */
@@ -52,9 +63,28 @@ public class DefaultServerCache implements ServerCache {
   protected final LongAdder evictByLRU = new LongAdder();
   protected final LongAdder evictCount = new LongAdder();
   protected final LongAdder evictMicros = new LongAdder();
+  protected final LongAdder[] evictAgeCounts = newAdders(ServerCacheStatistics.evictAgeBucketCount());
+
+  protected final LongAdder putNanos = new LongAdder();
+  protected final LongAdder refreshCount = new LongAdder();
+
+  /**
+   * The keys with a refresh ahead in progress (single flight per key).
+   */
+  protected final ConcurrentHashMap<Object, Boolean> refreshing = new ConcurrentHashMap<Object, Boolean>();
+
+  protected volatile ServerCacheRefresher refresher;
+
+  protected BackgroundExecutor executor;
 
   protected final Object monitor = new Object();
 
+  protected volatile long warmLoadCount;
+
+  protected volatile long warmTotalCount;
+
+  protected volatile boolean warmComplete;
+
   protected final String name;
 
   protected int maxSize;
@@ -65,6 +95,8 @@ public class DefaultServerCache implements ServerCache {
 
   protected int maxSecsToLive;
 
+  protected int refreshAheadSecs;
+
   /**
    * Construct using a ConcurrentHashMap and cache options.
    */
@@ -77,6 +109,7 @@ public class DefaultServerCache implements ServerCache {
    */
   public DefaultServerCache(String name, Map<Object, CacheEntry> map, ServerCacheOptions options) {
     this(name, map, options.getMaxSize(), options.getMaxIdleSecs(), options.getMaxSecsToLive(), options.getTrimFrequency());
+    this.refreshAheadSecs = options.getRefreshAheadSecs();
   }
 
   /**
@@ -91,6 +124,14 @@ public class DefaultServerCache implements ServerCache {
     this.trimFrequency = determineTrim(maxIdleSecs, maxSecsToLive, trimFrequency);
   }
 
+  private static LongAdder[] newAdders(int count) {
+    LongAdder[] adders = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
   /**
    * Determine a good trimFrequency as half of maxIdleSecs (or maxSecsToLive).
    */
@@ -107,6 +148,13 @@ public class DefaultServerCache implements ServerCache {
     return 0;
   }
 
+  /**
+   * Set the executor used to refresh entries ahead of them expiring.
+   */
+  public void setBackgroundExecutor(BackgroundExecutor executor) {
+    this.executor = executor;
+  }
+
   public void periodicTrim(BackgroundExecutor executor) {
 
     EvictionRunnable trim = new EvictionRunnable();
@@ -139,6 +187,11 @@ public class DefaultServerCache implements ServerCache {
     long evictIdle = reset ? evictByIdle.sumThenReset() : evictByIdle.sum();
     long evictTTL = reset ? evictByTTL.sumThenReset() : evictByTTL.sum();
     long evictLRU = reset ? evictByLRU.sumThenReset() : evictByLRU.sum();
+    long[] evictAge = new long[evictAgeCounts.length];
+    for (int i = 0; i < evictAge.length; i++) {
+      evictAge[i] = reset ? evictAgeCounts[i].sumThenReset() : evictAgeCounts[i].sum();
+    }
+    long putTime = reset ? putNanos.sumThenReset() : putNanos.sum();
 
     int size = size();
 
@@ -155,10 +208,54 @@ public class DefaultServerCache implements ServerCache {
     cacheStats.setEvictByIdle(evictIdle);
     cacheStats.setEvictByTTL(evictTTL);
     cacheStats.setEvictByLRU(evictLRU);
+    cacheStats.setEvictAgeCounts(evictAge);
+    cacheStats.setPutNanos(putTime);
+    cacheStats.setRefreshCount(reset ? refreshCount.sumThenReset() : refreshCount.sum());
+    cacheStats.setEstimatedBytes(estimateBytes(size));
+
+    cacheStats.setWarmLoadCount(warmLoadCount);
+    cacheStats.setWarmTotalCount(warmTotalCount);
+    cacheStats.setWarmComplete(warmComplete);
 
     return cacheStats;
   }
 
+  /**
+   * Estimate the memory used by sampling entries of the cache.
+   */
+  protected long estimateBytes(int size) {
+    if (size == 0) {
+      return 0;
+    }
+    int sampled = 0;
+    long sampleBytes = 0;
+    for (CacheEntry entry : map.values()) {
+      // use the field rather than getValue() so as to not update the last access time
+      sampleBytes += CacheSizeEstimator.estimateEntry(entry.key, entry.value);
+      if (++sampled >= MEMORY_SAMPLE_SIZE) {
+        break;
+      }
+    }
+    return (sampled == 0) ? 0 : sampleBytes * size / sampled;
+  }
+
+  @Override
+  public void setWarmProgress(long loadCount, long totalCount, boolean complete) {
+    this.warmLoadCount = loadCount;
+    this.warmTotalCount = totalCount;
+    this.warmComplete = complete;
+  }
+
+  @Override
+  public boolean isRefreshAhead() {
+    return refreshAheadSecs > 0 && maxSecsToLive > 0;
+  }
+
+  @Override
+  public void setRefresher(ServerCacheRefresher refresher) {
+    this.refresher = refresher;
+  }
+
   @Override
   public int getHitRatio() {
 
@@ -195,6 +292,7 @@ public class DefaultServerCache implements ServerCache {
   @Override
   public Object get(Object key) {
 
+    // gets are not timed as they are frequent and timing would add to their latency
     CacheEntry entry = map.get(key);
     if (entry == null) {
       missCount.increment();
@@ -204,7 +302,51 @@ public class DefaultServerCache implements ServerCache {
       // Important that hitCount.increment() MUST be low latency under concurrent
       // use hence must use LongAdder or better here
       hitCount.increment();
-      return entry.getValue();
+      Object value = entry.getValue();
+      if (refresher != null && isRefreshAhead()) {
+        checkRefreshAhead(entry);
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Refresh the entry in the background if it is within the refresh ahead window.
+   */
+  protected void checkRefreshAhead(CacheEntry entry) {
+    long refreshAfter = entry.getCreateTime() + (maxSecsToLive - refreshAheadSecs) * 1000L;
+    // the last access time has just been set by getValue()
+    if (entry.getLastAccessTime() >= refreshAfter && executor != null) {
+      refreshAhead(entry.getKey());
+    }
+  }
+
+  /**
+   * Reload the entry in the background unless a reload of the key is already in progress.
+   * The existing value continues to be returned until the refresh puts the new value.
+   */
+  protected void refreshAhead(final Object key) {
+    final ServerCacheRefresher entryRefresher = refresher;
+    if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+      return;
+    }
+    refreshCount.increment();
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            entryRefresher.refresh(key);
+          } catch (Throwable e) {
+            logger.error("Error refreshing cache " + name + " entry " + key, e);
+          } finally {
+            refreshing.remove(key);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      // executor shutting down
+      refreshing.remove(key);
     }
   }
 
@@ -213,7 +355,9 @@ public class DefaultServerCache implements ServerCache {
    */
   @Override
   public Object put(Object key, Object value) {
+    long startNanos = System.nanoTime();
     CacheEntry entry = map.put(key, new CacheEntry(key, value));
+    putNanos.add(System.nanoTime() - startNanos);
     if (entry == null) {
       insertCount.increment();
       return null;
@@ -223,6 +367,31 @@ public class DefaultServerCache implements ServerCache {
     }
   }
 
+  /**
+   * Return the values for the given keys (only the keys found are in the returned map).
+   */
+  @Override
+  public Map<Object, Object> getAll(Set<Object> keys) {
+    Map<Object, Object> values = new LinkedHashMap<Object, Object>(keys.size() * 2);
+    for (Object key : keys) {
+      Object value = get(key);
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Put all the keys and values into the cache.
+   */
+  @Override
+  public void putAll(Map<Object, Object> keyValues) {
+    for (Map.Entry<Object, Object> entry : keyValues.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
   /**
    * Remove an entry from the cache.
    */
@@ -237,6 +406,20 @@ public class DefaultServerCache implements ServerCache {
     }
   }
 
+  /**
+   * Return a copy of the keys and values in the cache.
+   * <p>
+   * This does not update the last access time of the entries.
+   * </p>
+   */
+  public Map<Object, Object> entries() {
+    Map<Object, Object> copy = new LinkedHashMap<Object, Object>(map.size() * 2);
+    for (CacheEntry entry : map.values()) {
+      copy.put(entry.key, entry.value);
+    }
+    return copy;
+  }
+
   /**
    * Return the number of elements in the cache.
    */
@@ -280,8 +463,9 @@ public class DefaultServerCache implements ServerCache {
 
     ArrayList<CacheEntry> activeList = new ArrayList<CacheEntry>();
 
-    long idleExpire = System.currentTimeMillis() - (maxIdleSecs * 1000);
-    long ttlExpire = System.currentTimeMillis() - (maxSecsToLive * 1000);
+    long now = System.currentTimeMillis();
+    long idleExpire = now - (maxIdleSecs * 1000);
+    long ttlExpire = now - (maxSecsToLive * 1000);
 
     Iterator<CacheEntry> it = map.values().iterator();
     while (it.hasNext()) {
@@ -289,10 +473,12 @@ public class DefaultServerCache implements ServerCache {
       if (maxIdleSecs > 0 && idleExpire > cacheEntry.getLastAccessTime()) {
         it.remove();
         trimmedByIdle++;
+        evictAge(now, cacheEntry);
 
       } else if (maxSecsToLive > 0 && ttlExpire > cacheEntry.getCreateTime()) {
         it.remove();
         trimmedByTTL++;
+        evictAge(now, cacheEntry);
 
       } else if (trimForMaxSize > 0) {
         activeList.add(cacheEntry);
@@ -307,7 +493,10 @@ public class DefaultServerCache implements ServerCache {
         int trimSize = getTrimSize();
         for (int i = trimSize; i < activeList.size(); i++) {
           // remove if still in the cache
-          map.remove(activeList.get(i).getKey());
+          CacheEntry removed = map.remove(activeList.get(i).getKey());
+          if (removed != null) {
+            evictAge(now, removed);
+          }
         }
       }
     }
@@ -328,6 +517,13 @@ public class DefaultServerCache implements ServerCache {
     }
   }
 
+  /**
+   * Record the age of the evicted entry.
+   */
+  private void evictAge(long now, CacheEntry entry) {
+    evictAgeCounts[ServerCacheStatistics.evictAgeBucket(now - entry.getCreateTime())].increment();
+  }
+
   /**
    * Runnable that calls the eviction routine.
    */
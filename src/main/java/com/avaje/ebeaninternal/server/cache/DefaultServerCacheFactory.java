@@ -32,6 +32,7 @@ class DefaultServerCacheFactory implements ServerCacheFactory {
 
     DefaultServerCache cache = new DefaultServerCache(cacheKey, cacheOptions);
     if (executor != null) {
+      cache.setBackgroundExecutor(executor);
       cache.periodicTrim(executor);
     }
     return cache;
@@ -3,14 +3,26 @@ package com.avaje.ebeaninternal.server.cache;
 import com.avaje.ebean.cache.ServerCache;
 import com.avaje.ebean.cache.ServerCacheFactory;
 import com.avaje.ebean.cache.ServerCacheManager;
+import com.avaje.ebean.cache.ServerCacheManagerStatistics;
 import com.avaje.ebean.cache.ServerCacheOptions;
+import com.avaje.ebean.cache.ServerCacheSqlQuery;
+import com.avaje.ebean.cache.ServerCacheStatistics;
 import com.avaje.ebean.cache.ServerCacheType;
+import com.avaje.ebean.cache.ServerCacheWarmer;
+
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
  * Manages the bean and query caches.
  */
-public class DefaultServerCacheManager implements ServerCacheManager {
+public class DefaultServerCacheManager implements ServerCacheManager, ServerCacheManagerStatistics, ServerCacheSqlQuery, ServerCacheWarmer {
+
+  /**
+   * Name of the cache holding SqlQuery results.
+   */
+  private static final String SQL_QUERY_CACHE = "sqlQuery";
 
   private final DefaultCacheHolder beanCache;
 
@@ -22,6 +34,8 @@ public class DefaultServerCacheManager implements ServerCacheManager {
 
   private final boolean localL2Caching;
 
+  private CacheWarmer cacheWarmer;
+
   /**
    * Create with a cache factory and default cache options.
    */
@@ -40,6 +54,31 @@ public class DefaultServerCacheManager implements ServerCacheManager {
     this(true, new DefaultServerCacheFactory(), new ServerCacheOptions(), new ServerCacheOptions());
   }
 
+  /**
+   * Set the CacheWarmer used to warm the caches on demand.
+   */
+  public void setCacheWarmer(CacheWarmer cacheWarmer) {
+    this.cacheWarmer = cacheWarmer;
+  }
+
+  @Override
+  public void warm(Class<?> beanType) {
+    if (cacheWarmer == null) {
+      throw new IllegalStateException("Cache warming is not available until the server is started");
+    }
+    cacheWarmer.warm(beanType);
+  }
+
+  @Override
+  public List<ServerCacheStatistics> collectStatistics(boolean reset) {
+    List<ServerCacheStatistics> list = new ArrayList<ServerCacheStatistics>();
+    beanCache.collectStatistics(list, ServerCacheType.BEAN, reset);
+    naturalKeyCache.collectStatistics(list, ServerCacheType.NATURAL_KEY, reset);
+    collectionIdsCache.collectStatistics(list, ServerCacheType.COLLECTION_IDS, reset);
+    queryCache.collectStatistics(list, ServerCacheType.QUERY, reset);
+    return list;
+  }
+
   public boolean isLocalL2Caching() {
     return localL2Caching;
   }
@@ -81,6 +120,14 @@ public class DefaultServerCacheManager implements ServerCacheManager {
     return queryCache.getCache(beanType.getName(), ServerCacheType.QUERY);
   }
 
+  /**
+   * Return the cache for SqlQuery results.
+   */
+  @Override
+  public ServerCache getSqlQueryCache() {
+    return queryCache.getCache(SQL_QUERY_CACHE, ServerCacheType.QUERY);
+  }
+
   /**
    * Return the bean cache for a given bean type.
    */
@@ -0,0 +1,48 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.cache.ServerCacheBulk;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multi-get and multi-put on a ServerCache using ServerCacheBulk when the cache implements it
+ * and otherwise a get or put per key.
+ */
+public final class ServerCacheBulkHelp {
+
+  private ServerCacheBulkHelp() {
+  }
+
+  /**
+   * Return the values for the given keys (only the keys found are in the returned map).
+   */
+  public static Map<Object, Object> getAll(ServerCache cache, Set<Object> keys) {
+    if (cache instanceof ServerCacheBulk) {
+      return ((ServerCacheBulk) cache).getAll(keys);
+    }
+    Map<Object, Object> values = new LinkedHashMap<Object, Object>(keys.size() * 2);
+    for (Object key : keys) {
+      Object value = cache.get(key);
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Put all the keys and values into the cache.
+   */
+  public static void putAll(ServerCache cache, Map<Object, Object> keyValues) {
+    if (cache instanceof ServerCacheBulk) {
+      ((ServerCacheBulk) cache).putAll(keyValues);
+    } else {
+      for (Map.Entry<Object, Object> entry : keyValues.entrySet()) {
+        cache.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+}
@@ -0,0 +1,370 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.SqlRow;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebeaninternal.api.BindParams;
+import com.avaje.ebeaninternal.api.SpiSqlQuery;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.query.DefaultSqlRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Query cache for SqlQuery and RawSql results where the entries are invalidated by the tables they depend on.
+ * <p>
+ * The tables a query depends on are not parsed as such. Instead every identifier in the sql is
+ * collected and an entry is invalidated when a modified table name matches one of them. This can
+ * invalidate more than strictly necessary (a column with the same name as a table) but will not
+ * miss a table referenced directly in the sql. Tables referenced indirectly via a view are not
+ * detected.
+ * </p>
+ * <p>
+ * SqlQuery results are held in a dedicated cache whereas RawSql results are held in the query
+ * cache of the bean type with only their table dependencies registered here.
+ * </p>
+ * <p>
+ * As with the bean and query caches the epoch is captured before the query executes and a
+ * result read before an invalidation is not put into the cache.
+ * </p>
+ * <p>
+ * The cache for SqlQuery results is null when the ServerCacheManager does not provide one in
+ * which case only the RawSql dependencies are registered.
+ * </p>
+ */
+public final class SqlQueryCache {
+
+  private static final Logger queryLog = LoggerFactory.getLogger("org.avaje.ebean.cache.QUERY");
+
+  /**
+   * Maximum number of table dependencies held before all entries are invalidated.
+   */
+  private static final int MAX_DEPENDENCIES = 10000;
+
+  private final ServerCache cache;
+
+  /**
+   * The identifiers (potential table names) each cached result depends on.
+   */
+  private final ConcurrentHashMap<Dependent, Set<String>> dependencies = new ConcurrentHashMap<Dependent, Set<String>>();
+
+  /**
+   * Epoch incremented on each invalidation.
+   */
+  private final AtomicLong epoch = new AtomicLong();
+
+  /**
+   * The epoch of the last invalidation keyed by table name.
+   */
+  private final ConcurrentHashMap<String, Long> tableInvalidations = new ConcurrentHashMap<String, Long>();
+
+  /**
+   * Results read before this epoch are stale (all results invalidated).
+   */
+  private final AtomicLong invalidationFloor = new AtomicLong();
+
+  /**
+   * Set once a result has been read for the cache (from then on table changes need to be processed).
+   */
+  private volatile boolean active;
+
+  public SqlQueryCache(ServerCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Return true if SqlQuery results can be cached.
+   */
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  /**
+   * Return true if results have been read for the cache (and hence table changes need to be processed).
+   */
+  public boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Return the current epoch which should be captured before executing the query.
+   */
+  public long epoch() {
+    active = true;
+    return epoch.get();
+  }
+
+  /**
+   * Return the cache key for the SqlQuery.
+   */
+  public Object key(SpiSqlQuery query) {
+
+    List<Object> key = new ArrayList<Object>(6);
+    key.add(query.getQuery());
+    key.add(query.getFirstRow());
+    key.add(query.getMaxRows());
+    BindParams bindParams = query.getBindParams();
+    List<Object> positioned = new ArrayList<Object>();
+    for (BindParams.Param param : bindParams.positionedParameters()) {
+      positioned.add(param.getInValue());
+    }
+    key.add(positioned);
+    Map<String, Object> named = new LinkedHashMap<String, Object>();
+    for (Map.Entry<String, BindParams.Param> entry : bindParams.namedParameters()) {
+      named.put(entry.getKey(), entry.getValue().getInValue());
+    }
+    key.add(named);
+    return key;
+  }
+
+  /**
+   * Return the cached SqlQuery result (or null).
+   */
+  @SuppressWarnings("unchecked")
+  public List<SqlRow> get(Object key) {
+    List<SqlRow> rows = (List<SqlRow>) cache.get(key);
+    if (queryLog.isDebugEnabled()) {
+      queryLog.debug("   GET SqlQuery({}) - {}", key, (rows == null) ? "cache miss" : "hit");
+    }
+    return rows;
+  }
+
+  /**
+   * Put the SqlQuery result read at the given epoch into the cache (not put if stale).
+   * <p>
+   * The rows are shared by the callers and are set to be read only.
+   * </p>
+   */
+  public List<SqlRow> put(Object key, String sql, List<SqlRow> rows, long readEpoch) {
+    for (SqlRow row : rows) {
+      if (row instanceof DefaultSqlRow) {
+        ((DefaultSqlRow) row).setReadOnly();
+      }
+    }
+    List<SqlRow> readOnly = Collections.unmodifiableList(rows);
+    Set<String> identifiers = identifiers(sql);
+    if (isStale(identifiers, readEpoch)) {
+      if (queryLog.isDebugEnabled()) {
+        queryLog.debug("   PUT SqlQuery({}) - rejected stale", key);
+      }
+      return readOnly;
+    }
+    Dependent dependent = new Dependent(null, key);
+    register(dependent, identifiers);
+    if (queryLog.isDebugEnabled()) {
+      queryLog.debug("   PUT SqlQuery({})", key);
+    }
+    cache.put(key, readOnly);
+    recheck(dependent, identifiers, readEpoch);
+    return readOnly;
+  }
+
+  /**
+   * Register the table dependencies of a RawSql query result read at the given epoch and held
+   * in the query cache of the bean type.
+   */
+  public void registerRawSql(BeanDescriptor<?> desc, Object key, String sql, long readEpoch) {
+    Dependent dependent = new Dependent(desc, key);
+    Set<String> identifiers = identifiers(sql);
+    register(dependent, identifiers);
+    recheck(dependent, identifiers, readEpoch);
+  }
+
+  private void register(Dependent dependent, Set<String> identifiers) {
+    if (dependencies.size() >= MAX_DEPENDENCIES) {
+      // dependencies of entries evicted from the caches have built up
+      removeAll();
+    }
+    dependencies.put(dependent, identifiers);
+  }
+
+  /**
+   * Remove the result if the tables were invalidated after the read started (the invalidation
+   * may not have seen the dependency registered).
+   */
+  private void recheck(Dependent dependent, Set<String> identifiers, long readEpoch) {
+    if (isStale(identifiers, readEpoch) || dependencies.get(dependent) != identifiers) {
+      if (queryLog.isDebugEnabled()) {
+        queryLog.debug("   REMOVE {} - invalidated during put", dependent);
+      }
+      dependencies.remove(dependent, identifiers);
+      dependent.remove(cache);
+    }
+  }
+
+  /**
+   * Return true if a result read at the given epoch is stale (a table it may depend on was
+   * invalidated after the read started).
+   */
+  private boolean isStale(Set<String> identifiers, long readEpoch) {
+    if (readEpoch < invalidationFloor.get()) {
+      return true;
+    }
+    if (!tableInvalidations.isEmpty()) {
+      for (String identifier : identifiers) {
+        Long invalidated = tableInvalidations.get(identifier);
+        if (invalidated != null && invalidated > readEpoch) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Record the invalidation of the tables such that results read before it are not put.
+   */
+  private void invalidated(Set<String> tables) {
+    Long next = epoch.incrementAndGet();
+    for (String table : tables) {
+      Long current = tableInvalidations.putIfAbsent(table, next);
+      // concurrent invalidations can complete out of order so only ever increase
+      while (current != null && current < next && !tableInvalidations.replace(table, current, next)) {
+        current = tableInvalidations.get(table);
+      }
+    }
+  }
+
+  /**
+   * Clear all the SqlQuery and RawSql results.
+   */
+  public void clear() {
+    long next = epoch.incrementAndGet();
+    long current;
+    do {
+      current = invalidationFloor.get();
+      if (current >= next) {
+        break;
+      }
+    } while (!invalidationFloor.compareAndSet(current, next));
+    tableInvalidations.clear();
+    removeAll();
+  }
+
+  private void removeAll() {
+    for (Dependent dependent : dependencies.keySet()) {
+      dependent.remove(cache);
+    }
+    dependencies.clear();
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Invalidate the results that depend on the given table.
+   */
+  public void invalidate(String tableName) {
+    if (tableName != null && active) {
+      invalidate(Collections.singleton(tableName));
+    }
+  }
+
+  /**
+   * Invalidate the results that depend on any of the given tables.
+   */
+  public void invalidate(Collection<String> tableNames) {
+
+    if (!active || tableNames.isEmpty()) {
+      return;
+    }
+    Set<String> tables = normalise(tableNames);
+    // record before removing such that a concurrent put sees either the invalidation or is removed
+    invalidated(tables);
+    Iterator<Map.Entry<Dependent, Set<String>>> it = dependencies.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Dependent, Set<String>> entry = it.next();
+      if (!Collections.disjoint(tables, entry.getValue())) {
+        it.remove();
+        entry.getKey().remove(cache);
+        if (queryLog.isDebugEnabled()) {
+          queryLog.debug("   REMOVE {} - tables:{}", entry.getKey(), tables);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the table names in lower case and without schema qualification.
+   */
+  private static Set<String> normalise(Collection<String> tableNames) {
+    Set<String> tables = new HashSet<String>();
+    for (String tableName : tableNames) {
+      if (tableName != null) {
+        tables.add(unqualified(tableName.toLowerCase()));
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * Return the identifiers in the sql (lower case and without schema qualification).
+   */
+  static Set<String> identifiers(String sql) {
+
+    Set<String> identifiers = new HashSet<String>();
+    for (String token : sql.toLowerCase().split("[^a-z0-9_$.]+")) {
+      if (!token.isEmpty()) {
+        identifiers.add(unqualified(token));
+      }
+    }
+    return identifiers;
+  }
+
+  private static String unqualified(String name) {
+    int pos = name.lastIndexOf('.');
+    return (pos == -1) ? name : name.substring(pos + 1);
+  }
+
+  /**
+   * A cached result that is either a SqlQuery result or a RawSql result in the query cache of a bean type.
+   */
+  private static final class Dependent {
+
+    private final BeanDescriptor<?> desc;
+
+    private final Object key;
+
+    Dependent(BeanDescriptor<?> desc, Object key) {
+      this.desc = desc;
+      this.key = key;
+    }
+
+    void remove(ServerCache sqlCache) {
+      if (desc == null) {
+        sqlCache.remove(key);
+      } else {
+        desc.queryCacheRemove(key);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Dependent that = (Dependent) o;
+      return (desc == null ? that.desc == null : desc.equals(that.desc)) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (desc == null ? 0 : desc.hashCode()) + key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return (desc == null ? "SqlQuery" : desc.getName()) + "(" + key + ")";
+    }
+  }
+}
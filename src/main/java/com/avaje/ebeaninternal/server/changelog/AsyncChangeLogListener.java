@@ -0,0 +1,370 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import com.avaje.ebean.event.changelog.BeanChange;
+import com.avaje.ebean.event.changelog.ChangeLogListener;
+import com.avaje.ebean.event.changelog.ChangeLogSink;
+import com.avaje.ebean.event.changelog.ChangeSet;
+import com.avaje.ebean.plugin.Plugin;
+import com.avaje.ebean.plugin.SpiServer;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous change log pipeline that writes batches of change sets to a ChangeLogSink.
+ * <p>
+ * Change sets are added to a bounded lock free queue and a single background thread drains
+ * the queue encoding up to batchSize change sets into a reused buffer that is written to the
+ * sink with a single write. Each bean change is written as a JSON document with the transaction
+ * details (as per DefaultChangeLogListener) followed by a new line (JSON lines). Override
+ * {@link #createJsonFactory()} to use a binary format such as Smile in which case the documents
+ * are written without new lines.
+ * </p>
+ * <p>
+ * When the queue is full the overflow policy either blocks the caller until there is space
+ * (back pressure) or drops the change set. The number of dropped change sets is counted.
+ * </p>
+ * <p>
+ * Configured by the properties:
+ * </p>
+ * <ul>
+ * <li>ebean.changeLog.queueSize - the maximum number of queued change sets (default 10000)</li>
+ * <li>ebean.changeLog.batchSize - the maximum change sets per write (default 500)</li>
+ * <li>ebean.changeLog.overflow - BLOCK or DROP (default BLOCK)</li>
+ * <li>ebean.changeLog.directory - the directory of the default file sink (default changelog)</li>
+ * <li>ebean.changeLog.name - the file name of the default file sink (default changelog)</li>
+ * <li>ebean.changeLog.maxFileBytes - the size at which the file is rolled (default 100MB)</li>
+ * <li>ebean.changeLog.fsync - NONE, BATCH or INTERVAL (default INTERVAL)</li>
+ * <li>ebean.changeLog.fsyncMillis - the fsync interval (default 1000)</li>
+ * </ul>
+ */
+public class AsyncChangeLogListener implements ChangeLogListener, Plugin {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncChangeLogListener.class);
+
+  /**
+   * The policy when the queue is full.
+   */
+  public enum Overflow {
+
+    /**
+     * Block the caller until there is space in the queue.
+     */
+    BLOCK,
+
+    /**
+     * Drop the change set.
+     */
+    DROP
+  }
+
+  /**
+   * Buffers larger than this are not retained between batches.
+   */
+  private static final int MAX_RETAINED_BUFFER = 4 * 1024 * 1024;
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final ConcurrentLinkedQueue<ChangeSet> queue = new ConcurrentLinkedQueue<ChangeSet>();
+
+  private final AtomicInteger queueCount = new AtomicInteger();
+
+  private final LongAdder queuedCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+  private final LongAdder blockedCount = new LongAdder();
+  private final LongAdder writtenCount = new LongAdder();
+  private final LongAdder beanChangeCount = new LongAdder();
+  private final LongAdder batchCount = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+
+  protected ChangeLogSink sink;
+
+  protected ChangeJsonBuilder jsonBuilder;
+
+  protected JsonFactory jsonFactory;
+
+  protected int queueSize = 10000;
+
+  protected int batchSize = 500;
+
+  protected Overflow overflow = Overflow.BLOCK;
+
+  private boolean newLines;
+
+  private Buffer buffer = new Buffer();
+
+  private volatile boolean running;
+
+  private Thread writer;
+
+  /**
+   * Create using the sink (or a file sink configured from properties when null).
+   */
+  public AsyncChangeLogListener(ChangeLogSink sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public void configure(SpiServer server) {
+
+    jsonBuilder = new ChangeJsonBuilder(server.json(), server.getServerConfig().isChangeLogCompact(), server.getServerConfig().getClassLoadConfig());
+    jsonFactory = createJsonFactory();
+    jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // documents are separated by new lines (not the default space)
+    jsonFactory.setRootValueSeparator(null);
+    newLines = !jsonFactory.canHandleBinaryNatively();
+
+    Properties properties = server.getServerConfig().getProperties();
+    if (properties == null) {
+      properties = new Properties();
+    }
+    queueSize = Integer.parseInt(properties.getProperty("ebean.changeLog.queueSize", String.valueOf(queueSize)));
+    batchSize = Integer.parseInt(properties.getProperty("ebean.changeLog.batchSize", String.valueOf(batchSize)));
+    overflow = Overflow.valueOf(properties.getProperty("ebean.changeLog.overflow", overflow.name()).toUpperCase());
+    if (sink == null) {
+      sink = createFileSink(properties);
+    }
+
+    running = true;
+    writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "ebean-changelog-" + server.getName());
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Return the JsonFactory used to encode the bean changes.
+   * <p>
+   * Override to return a binary format factory (such as SmileFactory).
+   * </p>
+   */
+  protected JsonFactory createJsonFactory() {
+    return new JsonFactory();
+  }
+
+  /**
+   * Create the default file sink from the properties.
+   */
+  protected ChangeLogSink createFileSink(Properties properties) {
+
+    File directory = new File(properties.getProperty("ebean.changeLog.directory", "changelog"));
+    String name = properties.getProperty("ebean.changeLog.name", "changelog");
+    long maxFileBytes = Long.parseLong(properties.getProperty("ebean.changeLog.maxFileBytes", String.valueOf(100 * 1024 * 1024)));
+    FileChangeLogSink.Fsync fsync = FileChangeLogSink.Fsync.valueOf(properties.getProperty("ebean.changeLog.fsync", "INTERVAL").toUpperCase());
+    long fsyncMillis = Long.parseLong(properties.getProperty("ebean.changeLog.fsyncMillis", "1000"));
+    try {
+      return new FileChangeLogSink(directory, name, maxFileBytes, fsync, fsyncMillis);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to create change log file sink", e);
+    }
+  }
+
+  @Override
+  public void online(boolean online) {
+    // nothing to do
+  }
+
+  /**
+   * Write the remaining change sets and close the sink.
+   */
+  @Override
+  public void shutdown() {
+
+    running = false;
+    if (writer != null) {
+      LockSupport.unpark(writer);
+      try {
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      if (sink != null) {
+        sink.close();
+      }
+    } catch (IOException e) {
+      logger.error("Error closing change log sink", e);
+    }
+    logger.debug("change log shutdown {}", this);
+  }
+
+  /**
+   * Add the change set to the queue (applying the overflow policy when full).
+   */
+  @Override
+  public void log(ChangeSet changeSet) {
+
+    while (queueCount.incrementAndGet() > queueSize) {
+      queueCount.decrementAndGet();
+      if (overflow == Overflow.DROP || !running) {
+        droppedCount.increment();
+        return;
+      }
+      blockedCount.increment();
+      LockSupport.parkNanos(BLOCK_PARK_NANOS);
+    }
+    queue.add(changeSet);
+    queuedCount.increment();
+    if (queueCount.get() == 1) {
+      // the writer may be idle
+      LockSupport.unpark(writer);
+    }
+  }
+
+  private void writeLoop() {
+    while (running || !queue.isEmpty()) {
+      ChangeSet changeSet = queue.poll();
+      if (changeSet == null) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      } else {
+        writeBatch(changeSet);
+      }
+    }
+  }
+
+  /**
+   * Encode the change set and up to batchSize queued change sets writing them to the sink.
+   */
+  private void writeBatch(ChangeSet changeSet) {
+
+    int count = 0;
+    int beanChanges = 0;
+    try {
+      JsonGenerator gen = jsonFactory.createGenerator(buffer, JsonEncoding.UTF8);
+      do {
+        queueCount.decrementAndGet();
+        count++;
+        List<BeanChange> changes = changeSet.getChanges();
+        for (int i = 0; i < changes.size(); i++) {
+          jsonBuilder.writeBeanChange(gen, changes.get(i), changeSet, i);
+          if (newLines) {
+            gen.writeRaw('\n');
+          }
+        }
+        beanChanges += changes.size();
+      } while (count < batchSize && (changeSet = queue.poll()) != null);
+
+      gen.flush();
+      sink.write(buffer.array(), 0, buffer.size());
+      bytesWritten.add(buffer.size());
+      writtenCount.add(count);
+      beanChangeCount.add(beanChanges);
+      batchCount.increment();
+
+    } catch (Exception e) {
+      errorCount.add(count);
+      logger.error("Error writing " + count + " change sets to the change log", e);
+    } finally {
+      if (buffer.array().length > MAX_RETAINED_BUFFER) {
+        buffer = new Buffer();
+      } else {
+        buffer.reset();
+      }
+    }
+  }
+
+  /**
+   * Return the number of change sets queued.
+   */
+  public long getQueuedCount() {
+    return queuedCount.sum();
+  }
+
+  /**
+   * Return the number of change sets dropped as the queue was full.
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Return the number of times a caller was blocked as the queue was full.
+   */
+  public long getBlockedCount() {
+    return blockedCount.sum();
+  }
+
+  /**
+   * Return the number of change sets written.
+   */
+  public long getWrittenCount() {
+    return writtenCount.sum();
+  }
+
+  /**
+   * Return the number of bean changes written.
+   */
+  public long getBeanChangeCount() {
+    return beanChangeCount.sum();
+  }
+
+  /**
+   * Return the number of batches written.
+   */
+  public long getBatchCount() {
+    return batchCount.sum();
+  }
+
+  /**
+   * Return the bytes written.
+   */
+  public long getBytesWritten() {
+    return bytesWritten.sum();
+  }
+
+  /**
+   * Return the number of change sets that failed to be written.
+   */
+  public long getErrorCount() {
+    return errorCount.sum();
+  }
+
+  /**
+   * Return the current number of change sets in the queue.
+   */
+  public int getQueueDepth() {
+    return queueCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "queued:" + getQueuedCount() + " written:" + getWrittenCount() + " beanChanges:" + getBeanChangeCount()
+        + " batches:" + getBatchCount() + " bytes:" + getBytesWritten() + " dropped:" + getDroppedCount()
+        + " blocked:" + getBlockedCount() + " errors:" + getErrorCount();
+  }
+
+  /**
+   * Buffer reused between batches.
+   */
+  private static class Buffer extends ByteArrayOutputStream {
+
+    Buffer() {
+      super(64 * 1024);
+    }
+
+    byte[] array() {
+      return buf;
+    }
+  }
+}
@@ -1,15 +1,19 @@
 package com.avaje.ebeaninternal.server.changelog;
 
 import com.avaje.ebean.ValuePair;
+import com.avaje.ebean.config.ClassLoadConfig;
 import com.avaje.ebean.event.changelog.BeanChange;
 import com.avaje.ebean.event.changelog.ChangeSet;
 import com.avaje.ebean.event.changelog.ChangeType;
+import com.avaje.ebean.text.json.EJson;
 import com.avaje.ebean.text.json.JsonContext;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -21,8 +25,37 @@ public class ChangeJsonBuilder {
 
   protected final JsonContext json;
 
+  /**
+   * When true only the changed paths of JSON object properties are written.
+   */
+  protected final boolean compact;
+
+  /**
+   * True when jackson-databind is present such that values can be JsonNode.
+   */
+  protected final boolean objectMapperPresent;
+
   protected ChangeJsonBuilder(JsonContext json) {
+    this(json, false);
+  }
+
+  protected ChangeJsonBuilder(JsonContext json, boolean compact) {
+    this(json, compact, new ClassLoadConfig());
+  }
+
+  /**
+   * Construct specifying if compact diffs are written for updates and the ClassLoadConfig
+   * used to detect if JsonNode values are supported.
+   * <p>
+   * In compact mode unchanged values are skipped and a change to a JSON object property
+   * (Map or JsonNode) is written as a JSON Patch of the changed paths rather than the full
+   * new and old objects.
+   * </p>
+   */
+  protected ChangeJsonBuilder(JsonContext json, boolean compact, ClassLoadConfig classLoadConfig) {
     this.json = json;
+    this.compact = compact;
+    this.objectMapperPresent = classLoadConfig.isJacksonObjectMapperPresent();
   }
 
   /**
@@ -110,21 +143,70 @@ public class ChangeJsonBuilder {
   protected void writeValuePairs(BeanChange bean, JsonGenerator gen) throws IOException {
 
     for (Map.Entry<String, ValuePair> entry : bean.getValues().entrySet()) {
-      gen.writeFieldName(entry.getKey());
-      gen.writeStartObject();
       ValuePair value = entry.getValue();
       Object newValue = value.getNewValue();
+      Object oldValue = value.getOldValue();
+      if (compact && oldValue != null) {
+        if (oldValue.equals(newValue)) {
+          // not actually changed
+          continue;
+        }
+        Map<?, ?> newMap = jsonObject(newValue);
+        Map<?, ?> oldMap = (newMap == null) ? null : jsonObject(oldValue);
+        if (oldMap != null) {
+          gen.writeFieldName(entry.getKey());
+          gen.writeStartObject();
+          gen.writeFieldName("patch");
+          JsonPatch.write(gen, newMap, oldMap);
+          gen.writeEndObject();
+          continue;
+        }
+      }
+      gen.writeFieldName(entry.getKey());
+      gen.writeStartObject();
       if (newValue != null) {
         gen.writeFieldName("new");
-        json.writeScalar(gen, newValue);
+        writeValue(gen, newValue);
       }
-      Object oldValue = value.getOldValue();
       if (oldValue != null) {
         gen.writeFieldName("old");
-        json.writeScalar(gen, oldValue);
+        writeValue(gen, oldValue);
       }
       gen.writeEndObject();
     }
   }
 
+  /**
+   * Write a value (with JSON property values written as JSON).
+   */
+  protected void writeValue(JsonGenerator gen, Object value) throws IOException {
+    if (value instanceof Map || value instanceof Collection) {
+      EJson.write(value, gen);
+    } else if (isJsonNode(value)) {
+      gen.writeRawValue(value.toString());
+    } else {
+      json.writeScalar(gen, value);
+    }
+  }
+
+  private boolean isJsonNode(Object value) {
+    return objectMapperPresent && value instanceof JsonNode;
+  }
+
+  /**
+   * Return the value as a Map if it is a JSON object (Map or JsonNode object) or null if not.
+   */
+  private Map<?, ?> jsonObject(Object value) throws IOException {
+    if (value instanceof Map) {
+      return (Map<?, ?>) value;
+    }
+    if (isJsonNode(value)) {
+      Object parsed = EJson.parse(value.toString());
+      if (parsed instanceof Map) {
+        return (Map<?, ?>) parsed;
+      }
+    }
+    return null;
+  }
+
 }
@@ -0,0 +1,135 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import com.avaje.ebean.ValuePair;
+import com.avaje.ebean.event.changelog.BeanChange;
+import com.avaje.ebean.event.changelog.ChangeSet;
+import com.avaje.ebean.event.changelog.ChangeType;
+import com.avaje.ebean.event.changelog.TxnState;
+import com.avaje.ebean.text.json.EJson;
+import com.avaje.ebean.text.json.JsonContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads a whole change set as a single JSON document.
+ * <p>
+ * Used to store change sets (for example in the transaction outbox) such that they can later be
+ * read back and sent to the ChangeLogListener. Scalar values are read back as their JSON types
+ * (String, Long, BigDecimal, Boolean) rather than the original Java types.
+ * </p>
+ */
+public class ChangeSetJson extends ChangeJsonBuilder {
+
+  public ChangeSetJson(JsonContext json) {
+    super(json);
+  }
+
+  /**
+   * Return the change set as JSON.
+   */
+  public String write(ChangeSet changeSet) throws IOException {
+
+    StringWriter writer = new StringWriter(400);
+    JsonGenerator gen = jsonFactory.createGenerator(writer);
+
+    gen.writeStartObject();
+    gen.writeStringField("txnId", changeSet.getTxnId());
+    gen.writeNumberField("txnBatch", changeSet.getTxnBatch());
+    TxnState txnState = changeSet.getTxnState();
+    if (txnState != null) {
+      gen.writeStringField("txnState", txnState.name());
+    }
+    String source = changeSet.getSource();
+    if (source != null) {
+      gen.writeStringField("source", source);
+    }
+    String userId = changeSet.getUserId();
+    if (userId != null) {
+      gen.writeStringField("userId", userId);
+    }
+    String userIpAddress = changeSet.getUserIpAddress();
+    if (userIpAddress != null) {
+      gen.writeStringField("userIpAddress", userIpAddress);
+    }
+    Map<String, String> userContext = changeSet.getUserContext();
+    if (userContext != null && !userContext.isEmpty()) {
+      gen.writeObjectFieldStart("userContext");
+      for (Map.Entry<String, String> entry : userContext.entrySet()) {
+        gen.writeStringField(entry.getKey(), entry.getValue());
+      }
+      gen.writeEndObject();
+    }
+
+    gen.writeArrayFieldStart("changes");
+    for (BeanChange bean : changeSet.getChanges()) {
+      gen.writeStartObject();
+      gen.writeStringField("object", bean.getTable());
+      gen.writeFieldName("objectId");
+      json.writeScalar(gen, bean.getId());
+      gen.writeStringField("change", bean.getType().name());
+      gen.writeNumberField("eventTime", bean.getEventTime());
+      if (bean.getValues() != null) {
+        gen.writeObjectFieldStart("values");
+        writeValuePairs(bean, gen);
+        gen.writeEndObject();
+      }
+      gen.writeEndObject();
+    }
+    gen.writeEndArray();
+    gen.writeEndObject();
+
+    gen.flush();
+    gen.close();
+    return writer.toString();
+  }
+
+  /**
+   * Read the change set from JSON.
+   */
+  @SuppressWarnings("unchecked")
+  public ChangeSet read(String content) throws IOException {
+
+    Map<String, Object> map = EJson.parseObject(content);
+
+    ChangeSet changeSet = new ChangeSet((String) map.get("txnId"), ((Number) map.get("txnBatch")).longValue());
+    String txnState = (String) map.get("txnState");
+    if (txnState != null) {
+      changeSet.setTxnState(TxnState.valueOf(txnState));
+    }
+    changeSet.setSource((String) map.get("source"));
+    changeSet.setUserId((String) map.get("userId"));
+    changeSet.setUserIpAddress((String) map.get("userIpAddress"));
+    Map<String, Object> userContext = (Map<String, Object>) map.get("userContext");
+    if (userContext != null) {
+      Map<String, String> context = new LinkedHashMap<String, String>();
+      for (Map.Entry<String, Object> entry : userContext.entrySet()) {
+        context.put(entry.getKey(), (String) entry.getValue());
+      }
+      changeSet.setUserContext(context);
+    }
+
+    List<Object> changes = (List<Object>) map.get("changes");
+    for (Object change : changes) {
+      Map<String, Object> beanMap = (Map<String, Object>) change;
+      Map<String, ValuePair> values = null;
+      Map<String, Object> valuesMap = (Map<String, Object>) beanMap.get("values");
+      if (valuesMap != null) {
+        values = new LinkedHashMap<String, ValuePair>();
+        for (Map.Entry<String, Object> entry : valuesMap.entrySet()) {
+          Map<String, Object> pair = (Map<String, Object>) entry.getValue();
+          values.put(entry.getKey(), new ValuePair(pair.get("new"), pair.get("old")));
+        }
+      }
+      ChangeType type = ChangeType.valueOf((String) beanMap.get("change"));
+      BeanChange beanChange = new BeanChange((String) beanMap.get("object"), beanMap.get("objectId"), type, values);
+      beanChange.setEventTime(((Number) beanMap.get("eventTime")).longValue());
+      changeSet.addBeanChange(beanChange);
+    }
+    return changeSet;
+  }
+}
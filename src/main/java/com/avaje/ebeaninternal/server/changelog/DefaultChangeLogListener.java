@@ -55,7 +55,7 @@ public class DefaultChangeLogListener implements ChangeLogListener, Plugin {
    */
   @Override
   public void configure(SpiServer server) {
-    jsonBuilder = new ChangeJsonBuilder(server.json());
+    jsonBuilder = new ChangeJsonBuilder(server.json(), server.getServerConfig().isChangeLogCompact(), server.getServerConfig().getClassLoadConfig());
 
     Properties properties = server.getServerConfig().getProperties();
     if (properties != null) {
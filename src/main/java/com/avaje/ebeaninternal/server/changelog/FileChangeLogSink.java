@@ -0,0 +1,145 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import com.avaje.ebean.event.changelog.ChangeLogSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * ChangeLogSink that appends to a file rolling it when it reaches a maximum size.
+ * <p>
+ * The current file is <code>{name}.log</code> in the directory and when rolled it is renamed to
+ * <code>{name}-{yyyyMMdd-HHmmss-SSS}.log</code>. The fsync policy controls when the written
+ * content is forced to disk.
+ * </p>
+ */
+public class FileChangeLogSink implements ChangeLogSink {
+
+  private static final Logger logger = LoggerFactory.getLogger(FileChangeLogSink.class);
+
+  /**
+   * When the written content is forced to disk.
+   */
+  public enum Fsync {
+
+    /**
+     * Leave it to the operating system.
+     */
+    NONE,
+
+    /**
+     * Force after every batch.
+     */
+    BATCH,
+
+    /**
+     * Force after a batch when the fsync interval has elapsed since the last force.
+     */
+    INTERVAL
+  }
+
+  private final File directory;
+
+  private final String name;
+
+  private final long maxFileBytes;
+
+  private final Fsync fsync;
+
+  private final long fsyncIntervalMillis;
+
+  private FileOutputStream out;
+
+  private FileChannel channel;
+
+  private long fileBytes;
+
+  private long lastFsync;
+
+  public FileChangeLogSink(File directory, String name, long maxFileBytes, Fsync fsync, long fsyncIntervalMillis) throws IOException {
+    this.directory = directory;
+    this.name = name;
+    this.maxFileBytes = maxFileBytes;
+    this.fsync = fsync;
+    this.fsyncIntervalMillis = fsyncIntervalMillis;
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Unable to create change log directory " + directory.getAbsolutePath());
+    }
+    open();
+  }
+
+  /**
+   * Return the current file.
+   */
+  public File getFile() {
+    return new File(directory, name + ".log");
+  }
+
+  private void open() throws IOException {
+    File file = getFile();
+    out = new FileOutputStream(file, true);
+    channel = out.getChannel();
+    fileBytes = file.length();
+  }
+
+  @Override
+  public void write(byte[] content, int offset, int length) throws IOException {
+
+    if (maxFileBytes > 0 && fileBytes > 0 && fileBytes + length > maxFileBytes) {
+      roll();
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(content, offset, length);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    fileBytes += length;
+
+    switch (fsync) {
+      case BATCH:
+        channel.force(false);
+        break;
+      case INTERVAL:
+        long now = System.currentTimeMillis();
+        if (now - lastFsync >= fsyncIntervalMillis) {
+          channel.force(false);
+          lastFsync = now;
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Close the current file, rename it and open a new one.
+   */
+  private void roll() throws IOException {
+
+    closeFile();
+    String suffix = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+    File rolled = new File(directory, name + "-" + suffix + ".log");
+    if (!getFile().renameTo(rolled)) {
+      logger.warn("Unable to roll change log file to " + rolled.getAbsolutePath());
+    }
+    open();
+  }
+
+  private void closeFile() throws IOException {
+    if (fsync != Fsync.NONE) {
+      channel.force(false);
+    }
+    out.close();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeFile();
+  }
+}
@@ -0,0 +1,75 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import com.avaje.ebean.text.json.EJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the difference between two JSON objects (as Maps) in JSON Patch (RFC 6902) form.
+ * <p>
+ * Nested objects are compared recursively such that only the changed paths are written with
+ * add, remove and replace operations. Arrays and other values are replaced as a whole.
+ * </p>
+ */
+class JsonPatch {
+
+  /**
+   * Write the operations that change the old object into the new object as a JSON array.
+   */
+  static void write(JsonGenerator gen, Map<?, ?> newMap, Map<?, ?> oldMap) throws IOException {
+    gen.writeStartArray();
+    writeOperations(gen, "", newMap, oldMap);
+    gen.writeEndArray();
+  }
+
+  private static void writeOperations(JsonGenerator gen, String prefix, Map<?, ?> newMap, Map<?, ?> oldMap) throws IOException {
+
+    for (Map.Entry<?, ?> entry : oldMap.entrySet()) {
+      if (!newMap.containsKey(entry.getKey())) {
+        writeOperation(gen, "remove", path(prefix, entry.getKey()), null, false);
+      }
+    }
+    for (Map.Entry<?, ?> entry : newMap.entrySet()) {
+      Object key = entry.getKey();
+      Object newValue = entry.getValue();
+      String path = path(prefix, key);
+      if (!oldMap.containsKey(key)) {
+        writeOperation(gen, "add", path, newValue, true);
+      } else {
+        Object oldValue = oldMap.get(key);
+        if (newValue instanceof Map && oldValue instanceof Map) {
+          writeOperations(gen, path, (Map<?, ?>) newValue, (Map<?, ?>) oldValue);
+        } else if (newValue == null ? oldValue != null : !newValue.equals(oldValue)) {
+          writeOperation(gen, "replace", path, newValue, true);
+        }
+      }
+    }
+  }
+
+  private static void writeOperation(JsonGenerator gen, String op, String path, Object value, boolean withValue) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("op", op);
+    gen.writeStringField("path", path);
+    if (withValue) {
+      gen.writeFieldName("value");
+      EJson.write(value, gen);
+    }
+    gen.writeEndObject();
+  }
+
+  /**
+   * Return the JSON pointer for the key escaping '~' and '/'.
+   */
+  private static String path(String prefix, Object key) {
+    String name = String.valueOf(key);
+    if (name.indexOf('~') > -1) {
+      name = name.replace("~", "~0");
+    }
+    if (name.indexOf('/') > -1) {
+      name = name.replace("/", "~1");
+    }
+    return prefix + "/" + name;
+  }
+}
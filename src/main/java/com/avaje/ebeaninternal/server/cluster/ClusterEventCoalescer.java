@@ -0,0 +1,163 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import com.avaje.ebeaninternal.server.lib.DaemonScheduleThreadPool;
+import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the transaction events over a short window such that many small transactions
+ * are broadcast to the cluster as a single event.
+ * <p>
+ * Repeated ids are removed and when the ids of a bean type exceed the maximum they are
+ * replaced by a table level event (which clears the caches of that bean type on the other
+ * members of the cluster).
+ * </p>
+ */
+public class ClusterEventCoalescer {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClusterEventCoalescer.class);
+
+  private final ClusterBroadcast broadcast;
+
+  private final int windowMillis;
+
+  private final int maxIds;
+
+  private final boolean compactEncoding;
+
+  private final DaemonScheduleThreadPool executor;
+
+  private final Object monitor = new Object();
+
+  /**
+   * The pending (merged) event per EbeanServer name.
+   */
+  private Map<String, RemoteTransactionEvent> pending = new LinkedHashMap<String, RemoteTransactionEvent>();
+
+  private final LongAdder eventCount = new LongAdder();
+  private final LongAdder broadcastCount = new LongAdder();
+  private final LongAdder duplicateIdCount = new LongAdder();
+  private final LongAdder tableCollapseCount = new LongAdder();
+  private final LongAdder bytesSaved = new LongAdder();
+
+  public ClusterEventCoalescer(ClusterBroadcast broadcast, int windowMillis, int maxIds, boolean compactEncoding) {
+    this.broadcast = broadcast;
+    this.windowMillis = windowMillis;
+    this.maxIds = maxIds;
+    this.compactEncoding = compactEncoding;
+    this.executor = new DaemonScheduleThreadPool(1, 10, "ebean-cluster-coalesce");
+  }
+
+  /**
+   * Add the event to be broadcast at the end of the current window.
+   */
+  public void add(RemoteTransactionEvent event) {
+    eventCount.increment();
+    synchronized (monitor) {
+      RemoteTransactionEvent merged = pending.get(event.getServerName());
+      if (merged == null) {
+        boolean startWindow = pending.isEmpty();
+        merged = new RemoteTransactionEvent(event.getServerName());
+        pending.put(event.getServerName(), merged);
+        if (startWindow) {
+          executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+              flush();
+            }
+          }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+      }
+      merged.merge(event);
+    }
+  }
+
+  /**
+   * Broadcast the pending events.
+   */
+  public void flush() {
+
+    Map<String, RemoteTransactionEvent> events;
+    synchronized (monitor) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      events = pending;
+      pending = new LinkedHashMap<String, RemoteTransactionEvent>();
+    }
+    for (RemoteTransactionEvent event : events.values()) {
+      try {
+        tableCollapseCount.add(event.coalesce(maxIds, duplicateIdCount));
+        if (compactEncoding) {
+          event.setCompactEncoding(bytesSaved);
+        }
+        broadcastCount.increment();
+        broadcast.broadcast(event);
+      } catch (Exception e) {
+        logger.error("Error broadcasting coalesced transaction event", e);
+      }
+    }
+  }
+
+  /**
+   * Broadcast any pending events and stop.
+   */
+  public void shutdown() {
+    executor.shutdown();
+    flush();
+  }
+
+  /**
+   * Return the number of transaction events added.
+   */
+  public long getEventCount() {
+    return eventCount.sum();
+  }
+
+  /**
+   * Return the number of (coalesced) events broadcast.
+   */
+  public long getBroadcastCount() {
+    return broadcastCount.sum();
+  }
+
+  /**
+   * Return the number of messages saved by coalescing (events added less events broadcast).
+   */
+  public long getMessagesSaved() {
+    return eventCount.sum() - broadcastCount.sum();
+  }
+
+  /**
+   * Return the number of repeated ids removed.
+   */
+  public long getDuplicateIdCount() {
+    return duplicateIdCount.sum();
+  }
+
+  /**
+   * Return the number of times the ids of a bean type were replaced by a table level event.
+   */
+  public long getTableCollapseCount() {
+    return tableCollapseCount.sum();
+  }
+
+  /**
+   * Return the bytes saved by the compact encoding.
+   */
+  public long getBytesSaved() {
+    return bytesSaved.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "events:" + getEventCount() + " broadcast:" + getBroadcastCount() + " duplicateIds:" + getDuplicateIdCount()
+        + " tableCollapse:" + getTableCollapseCount() + " bytesSaved:" + getBytesSaved();
+  }
+}
@@ -25,21 +25,42 @@ public class ClusterManager {
 
   private final ClusterBroadcast broadcast;
 
+  /**
+   * Coalesces events across transactions before broadcast (null when not coalescing).
+   */
+  private final ClusterEventCoalescer coalescer;
+
   private boolean started;
 
   public ClusterManager(ContainerConfig config) {
     if (!config.isClusterActive()) {
       broadcast = null;
+      coalescer = null;
     } else {
-      ClusterBroadcastFactory factory = createFactory();
+      ClusterBroadcastFactory factory = createFactory(config.getClusterTransport());
       broadcast = factory.create(this, config.getProperties());
+      if (config.getClusterCoalesceMillis() > 0) {
+        coalescer = new ClusterEventCoalescer(broadcast, config.getClusterCoalesceMillis(), config.getClusterCoalesceMaxIds(), config.isClusterCompactEncoding());
+      } else {
+        coalescer = null;
+      }
     }
   }
 
   /**
-   * Return the ClusterTransportFactory via ServiceLoader.
+   * Return the built in transport factory or otherwise the ClusterTransportFactory via ServiceLoader.
    */
-  private ClusterBroadcastFactory createFactory() {
+  private ClusterBroadcastFactory createFactory(String transport) {
+
+    if ("loopback".equalsIgnoreCase(transport)) {
+      return new LoopbackClusterBroadcastFactory();
+    }
+    if ("socket".equalsIgnoreCase(transport)) {
+      return new SocketClusterBroadcastFactory();
+    }
+    if (transport != null) {
+      throw new IllegalStateException("Unknown cluster transport [" + transport + "] expecting loopback or socket");
+    }
 
     ServiceLoader<ClusterBroadcastFactory> load = ServiceLoader.load(ClusterBroadcastFactory.class);
     ClusterBroadcastFactory factory = null;
@@ -76,6 +97,13 @@ public class ClusterManager {
     }
   }
 
+  /**
+   * Return the coalescer with its statistics (null when events are not coalesced).
+   */
+  public ClusterEventCoalescer getCoalescer() {
+    return coalescer;
+  }
+
   /**
    * Return true if clustering is on.
    */
@@ -91,7 +119,11 @@ public class ClusterManager {
       if (clusterLogger.isDebugEnabled()) {
         clusterLogger.debug("sending: {}", event);
       }
-      broadcast.broadcast(event);
+      if (coalescer != null) {
+        coalescer.add(event);
+      } else {
+        broadcast.broadcast(event);
+      }
     }
   }
 
@@ -101,6 +133,10 @@ public class ClusterManager {
   public void shutdown() {
     if (broadcast != null) {
       logger.info("ClusterManager shutdown ");
+      if (coalescer != null) {
+        coalescer.shutdown();
+        logger.info("cluster event coalescing {}", coalescer);
+      }
       broadcast.shutdown();
     }
   }
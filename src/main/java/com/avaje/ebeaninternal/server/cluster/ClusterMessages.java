@@ -0,0 +1,126 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
+import com.avaje.ebeaninternal.server.transaction.BeanPersistIds;
+import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes transaction events into frames for the built in transports and decodes received frames.
+ * <p>
+ * A frame holds the EbeanServer name followed by a number of BinaryMessages each prefixed by
+ * their length. A large event is split across multiple frames (each frame is independent).
+ * </p>
+ */
+public final class ClusterMessages {
+
+  private static final Logger clusterLogger = LoggerFactory.getLogger("org.avaje.ebean.Cluster");
+
+  private ClusterMessages() {
+  }
+
+  /**
+   * Encode the event into frames of no more than (approximately) maxFrameBytes.
+   */
+  public static List<byte[]> encode(RemoteTransactionEvent event, int maxFrameBytes) throws IOException {
+
+    BinaryMessageList messageList = new BinaryMessageList();
+    event.writeBinaryMessage(messageList);
+
+    List<byte[]> frames = new ArrayList<byte[]>(1);
+    List<byte[]> frameMessages = new ArrayList<byte[]>();
+    // writeUTF length prefix plus the encoded server name and the message count
+    int headerSize = 2 + event.getServerName().getBytes("UTF-8").length + 4;
+    int frameSize = headerSize;
+    for (BinaryMessage message : messageList.getList()) {
+      byte[] bytes = message.getByteArray();
+      if (!frameMessages.isEmpty() && frameSize + 4 + bytes.length > maxFrameBytes) {
+        frames.add(frame(event.getServerName(), frameMessages));
+        frameMessages.clear();
+        frameSize = headerSize;
+      }
+      frameMessages.add(bytes);
+      frameSize += 4 + bytes.length;
+    }
+    if (!frameMessages.isEmpty()) {
+      frames.add(frame(event.getServerName(), frameMessages));
+    }
+    return frames;
+  }
+
+  private static byte[] frame(String serverName, List<byte[]> messages) throws IOException {
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream os = new DataOutputStream(buffer);
+    os.writeUTF(serverName);
+    os.writeInt(messages.size());
+    for (byte[] message : messages) {
+      os.writeInt(message.length);
+      os.write(message);
+    }
+    os.flush();
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Decode the frame and process it as a remote transaction event on the matching EbeanServer.
+   */
+  public static void receive(ClusterManager manager, byte[] frame, int length) throws IOException {
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame, 0, length));
+    String serverName = in.readUTF();
+    EbeanServer server = manager.getServer(serverName);
+    if (server == null) {
+      clusterLogger.debug("ignoring message for unknown server {}", serverName);
+      return;
+    }
+
+    SpiEbeanServer spiServer = (SpiEbeanServer) server;
+    RemoteTransactionEvent event = new RemoteTransactionEvent(spiServer);
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      int messageLength = in.readInt();
+      if (messageLength < 0 || messageLength > in.available()) {
+        throw new IOException("Invalid cluster message length " + messageLength + " with " + in.available() + " bytes remaining");
+      }
+      byte[] message = new byte[messageLength];
+      in.readFully(message);
+      read(spiServer, event, new DataInputStream(new ByteArrayInputStream(message)));
+    }
+    if (clusterLogger.isDebugEnabled()) {
+      clusterLogger.debug("received: {}", event);
+    }
+    if (!event.isEmpty()) {
+      event.run();
+    }
+  }
+
+  private static void read(SpiEbeanServer server, RemoteTransactionEvent event, DataInputStream in) throws IOException {
+
+    int type = in.readInt();
+    switch (type) {
+      case BinaryMessage.TYPE_BEANIUD:
+        event.addBeanPersistIds(BeanPersistIds.readBinaryMessage(server, in));
+        break;
+      case BinaryMessage.TYPE_BEANIUD_COMPACT:
+        event.addBeanPersistIds(BeanPersistIds.readCompactBinaryMessage(server, in));
+        break;
+      case BinaryMessage.TYPE_TABLEIUD:
+        event.addTableIUD(TableIUD.readBinaryMessage(in));
+        break;
+      default:
+        throw new IOException("Unexpected message type " + type);
+    }
+  }
+}
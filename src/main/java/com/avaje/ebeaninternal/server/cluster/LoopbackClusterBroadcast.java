@@ -0,0 +1,93 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import com.avaje.ebeaninternal.server.lib.DaemonThreadFactory;
+import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cluster broadcast between ClusterManagers in the same JVM.
+ * <p>
+ * Members join a named group (property <code>ebean.cluster.loopback.group</code>) and events are
+ * encoded and decoded exactly as per a network transport but delivered in memory. Each member
+ * processes received events in its own thread. This is intended for testing and benchmarking
+ * cache invalidation with multiple EbeanServer instances in one JVM.
+ * </p>
+ */
+public class LoopbackClusterBroadcast implements ClusterBroadcast {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoopbackClusterBroadcast.class);
+
+  private static final ConcurrentHashMap<String, List<LoopbackClusterBroadcast>> groups = new ConcurrentHashMap<String, List<LoopbackClusterBroadcast>>();
+
+  private final ClusterManager manager;
+
+  private final List<LoopbackClusterBroadcast> group;
+
+  private final ExecutorService receiver;
+
+  public LoopbackClusterBroadcast(ClusterManager manager, String groupName) {
+    this.manager = manager;
+    this.group = group(groupName);
+    this.receiver = Executors.newSingleThreadExecutor(new DaemonThreadFactory("ebean-cluster-loopback-"));
+  }
+
+  private static List<LoopbackClusterBroadcast> group(String groupName) {
+    List<LoopbackClusterBroadcast> group = groups.get(groupName);
+    if (group == null) {
+      group = new CopyOnWriteArrayList<LoopbackClusterBroadcast>();
+      List<LoopbackClusterBroadcast> existing = groups.putIfAbsent(groupName, group);
+      if (existing != null) {
+        group = existing;
+      }
+    }
+    return group;
+  }
+
+  @Override
+  public void startup() {
+    group.add(this);
+  }
+
+  @Override
+  public void shutdown() {
+    group.remove(this);
+    receiver.shutdown();
+  }
+
+  @Override
+  public void broadcast(RemoteTransactionEvent remoteTransEvent) {
+    try {
+      List<byte[]> frames = ClusterMessages.encode(remoteTransEvent, Integer.MAX_VALUE);
+      for (LoopbackClusterBroadcast member : group) {
+        if (member != this) {
+          member.deliver(frames);
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Error encoding transaction event " + remoteTransEvent, e);
+    }
+  }
+
+  private void deliver(final List<byte[]> frames) {
+    receiver.execute(new Runnable() {
+      @Override
+      public void run() {
+        for (byte[] frame : frames) {
+          try {
+            ClusterMessages.receive(manager, frame, frame.length);
+          } catch (Exception e) {
+            logger.error("Error processing cluster message", e);
+          }
+        }
+      }
+    });
+  }
+}
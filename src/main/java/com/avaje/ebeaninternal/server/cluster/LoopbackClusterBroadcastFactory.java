@@ -0,0 +1,15 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import java.util.Properties;
+
+/**
+ * Creates the in JVM loopback cluster broadcast.
+ */
+public class LoopbackClusterBroadcastFactory implements ClusterBroadcastFactory {
+
+  @Override
+  public ClusterBroadcast create(ClusterManager manager, Properties properties) {
+    String groupName = (properties == null) ? null : properties.getProperty("ebean.cluster.loopback.group");
+    return new LoopbackClusterBroadcast(manager, groupName == null ? "default" : groupName);
+  }
+}
@@ -0,0 +1,140 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cluster broadcast using UDP datagrams sent to each of the configured members.
+ * <p>
+ * Each member listens on a local port and sends to the other members listed as host:port.
+ * Delivery is not guaranteed (as per UDP) so this is intended for use on a local network or
+ * localhost such as testing and benchmarking multiple instances.
+ * </p>
+ * <p>
+ * The socket is bound to the loopback address unless a local host (address) is configured
+ * such that by default the port is not reachable from other machines.
+ * </p>
+ * <pre>{@code
+ *
+ *   ebean.cluster.active=true
+ *   ebean.cluster.transport=socket
+ *   ebean.cluster.socket.localHost=127.0.0.1
+ *   ebean.cluster.socket.localPort=9601
+ *   ebean.cluster.socket.members=localhost:9602,localhost:9603
+ *
+ * }</pre>
+ */
+public class SocketClusterBroadcast implements ClusterBroadcast {
+
+  private static final Logger logger = LoggerFactory.getLogger(SocketClusterBroadcast.class);
+
+  /**
+   * Maximum datagram payload (leaving room for IP and UDP headers).
+   */
+  static final int MAX_FRAME_BYTES = 65000;
+
+  private final ClusterManager manager;
+
+  private final InetSocketAddress localAddress;
+
+  private final List<InetSocketAddress> members;
+
+  private DatagramSocket socket;
+
+  private Thread listener;
+
+  private volatile boolean running;
+
+  public SocketClusterBroadcast(ClusterManager manager, InetSocketAddress localAddress, List<InetSocketAddress> members) {
+    this.manager = manager;
+    this.localAddress = localAddress;
+    this.members = members;
+  }
+
+  /**
+   * Parse the members from a comma delimited list of host:port.
+   */
+  static List<InetSocketAddress> parseMembers(String members) {
+    List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+    if (members != null) {
+      for (String member : members.split(",")) {
+        member = member.trim();
+        if (!member.isEmpty()) {
+          int pos = member.lastIndexOf(':');
+          if (pos == -1) {
+            throw new IllegalArgumentException("Expected host:port for cluster member but got " + member);
+          }
+          addresses.add(new InetSocketAddress(member.substring(0, pos), Integer.parseInt(member.substring(pos + 1))));
+        }
+      }
+    }
+    return addresses;
+  }
+
+  @Override
+  public void startup() {
+    try {
+      socket = new DatagramSocket(localAddress);
+    } catch (SocketException e) {
+      throw new IllegalStateException("Unable to listen on cluster address " + localAddress, e);
+    }
+    running = true;
+    listener = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        listen();
+      }
+    }, "ebean-cluster-socket-" + localAddress.getPort());
+    listener.setDaemon(true);
+    listener.start();
+    logger.info("cluster listening on {} members {}", localAddress, members);
+  }
+
+  private void listen() {
+    byte[] buffer = new byte[MAX_FRAME_BYTES];
+    while (running) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+        ClusterMessages.receive(manager, packet.getData(), packet.getLength());
+      } catch (IOException e) {
+        if (running) {
+          logger.error("Error receiving cluster message", e);
+        }
+      } catch (RuntimeException e) {
+        logger.error("Error processing cluster message", e);
+      }
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    running = false;
+    if (socket != null) {
+      // unblocks the listener
+      socket.close();
+    }
+  }
+
+  @Override
+  public void broadcast(RemoteTransactionEvent remoteTransEvent) {
+    try {
+      for (byte[] frame : ClusterMessages.encode(remoteTransEvent, MAX_FRAME_BYTES)) {
+        for (InetSocketAddress member : members) {
+          socket.send(new DatagramPacket(frame, frame.length, member));
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Error sending transaction event " + remoteTransEvent, e);
+    }
+  }
+}
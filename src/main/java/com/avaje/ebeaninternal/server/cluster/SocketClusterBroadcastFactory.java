@@ -0,0 +1,39 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Properties;
+
+/**
+ * Creates the UDP socket cluster broadcast.
+ */
+public class SocketClusterBroadcastFactory implements ClusterBroadcastFactory {
+
+  @Override
+  public ClusterBroadcast create(ClusterManager manager, Properties properties) {
+    if (properties == null) {
+      throw new IllegalStateException("ebean.cluster.socket.localPort and ebean.cluster.socket.members properties are required");
+    }
+    String localPort = properties.getProperty("ebean.cluster.socket.localPort");
+    if (localPort == null) {
+      throw new IllegalStateException("ebean.cluster.socket.localPort property is required");
+    }
+    String localHost = properties.getProperty("ebean.cluster.socket.localHost");
+    InetSocketAddress localAddress = new InetSocketAddress(localAddress(localHost), Integer.parseInt(localPort.trim()));
+    String members = properties.getProperty("ebean.cluster.socket.members");
+    return new SocketClusterBroadcast(manager, localAddress, SocketClusterBroadcast.parseMembers(members));
+  }
+
+  /**
+   * Return the address to bind to which defaults to the loopback address.
+   */
+  static InetAddress localAddress(String localHost) {
+    try {
+      // a null host returns the loopback address
+      return InetAddress.getByName(localHost == null ? null : localHost.trim());
+    } catch (UnknownHostException e) {
+      throw new IllegalStateException("Unknown ebean.cluster.socket.localHost " + localHost, e);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable length encoding of int and long values for compact cluster messages.
+ * <p>
+ * Values are written 7 bits per byte with the high bit set when more bytes follow such that
+ * small values take a single byte. Signed values use zig-zag encoding so that small negative
+ * values are also small.
+ * </p>
+ */
+public final class VarInt {
+
+  private VarInt() {
+  }
+
+  /**
+   * Write an unsigned (non-negative) value.
+   */
+  public static void writeUnsigned(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  /**
+   * Read an unsigned value.
+   */
+  public static long readUnsigned(DataInput in) throws IOException {
+    long value = 0;
+    int shift = 0;
+    while (shift < 64) {
+      int b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+      shift += 7;
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * Write a signed value using zig-zag encoding.
+   */
+  public static void writeSigned(DataOutput out, long value) throws IOException {
+    writeUnsigned(out, (value << 1) ^ (value >> 63));
+  }
+
+  /**
+   * Read a signed value written using zig-zag encoding.
+   */
+  public static long readSigned(DataInput in) throws IOException {
+    long raw = readUnsigned(in);
+    return (raw >>> 1) ^ -(raw & 1);
+  }
+
+  /**
+   * Return the number of bytes used to write the unsigned value.
+   */
+  public static int sizeOfUnsigned(long value) {
+    int size = 1;
+    while ((value & ~0x7FL) != 0) {
+      size++;
+      value >>>= 7;
+    }
+    return size;
+  }
+
+  /**
+   * Return the number of bytes used to write the signed value.
+   */
+  public static int sizeOfSigned(long value) {
+    return sizeOfUnsigned((value << 1) ^ (value >> 63));
+  }
+}
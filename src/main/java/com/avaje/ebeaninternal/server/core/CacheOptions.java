@@ -16,6 +16,8 @@ public class CacheOptions {
   private final boolean enableQueryCache;
   private final boolean readOnly;
   private final String naturalKey;
+  private final boolean warm;
+  private final boolean snapshot;
 
   /**
    * Construct for no caching.
@@ -25,6 +27,8 @@ public class CacheOptions {
     enableQueryCache = false;
     readOnly = false;
     naturalKey = null;
+    warm = false;
+    snapshot = false;
   }
 
   /**
@@ -35,6 +39,8 @@ public class CacheOptions {
     enableQueryCache = cache.enableQueryCache();
     readOnly = cache.readOnly();
     this.naturalKey = naturalKey;
+    this.warm = cache.warm();
+    this.snapshot = cache.snapshot();
   }
 
   /**
@@ -58,6 +64,20 @@ public class CacheOptions {
     return readOnly;
   }
 
+  /**
+   * Return true if the bean cache should be warmed on startup.
+   */
+  public boolean isWarm() {
+    return warm;
+  }
+
+  /**
+   * Return true if the bean cache should be included in the cache snapshot.
+   */
+  public boolean isSnapshot() {
+    return snapshot;
+  }
+
   /**
    * Return the natural key property name.
    */
@@ -33,8 +33,11 @@ public class DefaultBeanLoader {
 
   private final boolean onIterateUseExtraTxn;
 
-  protected DefaultBeanLoader(DefaultServer server) {
+  private final LazyLoadDetector lazyLoadDetector;
+
+  protected DefaultBeanLoader(DefaultServer server, LazyLoadDetector lazyLoadDetector) {
     this.server = server;
+    this.lazyLoadDetector = lazyLoadDetector;
     this.onIterateUseExtraTxn = server.getDatabasePlatform().useExtraTransactionOnIterateSecondaryQueries();
   }
 
@@ -86,6 +89,9 @@ public class DefaultBeanLoader {
     SpiQuery<?> query = loadRequest.createQuery(server, batchSize);
 
     executeQuery(loadRequest, query);
+    if (loadRequest.isLazy()) {
+      lazyLoadDetector.collect(query.getParentNode(), batch.size());
+    }
 
     loadRequest.postLoad();
 
@@ -209,6 +215,9 @@ public class DefaultBeanLoader {
     loadRequest.configureQuery(query, idList);
 
     List<?> list = executeQuery(loadRequest, query);
+    if (loadRequest.isLazy()) {
+      lazyLoadDetector.collect(query.getParentNode(), list.size());
+    }
     loadRequest.postLoad(list);
 
     // log the query (for testing secondary queries)
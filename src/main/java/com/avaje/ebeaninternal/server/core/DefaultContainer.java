@@ -157,12 +157,14 @@ public class DefaultContainer implements SpiContainer {
     beanOptions.setMaxSize(serverConfig.getCacheMaxSize());
     beanOptions.setMaxIdleSecs(serverConfig.getCacheMaxIdleTime());
     beanOptions.setMaxSecsToLive(serverConfig.getCacheMaxTimeToLive());
+    beanOptions.setRefreshAheadSecs(serverConfig.getCacheRefreshAheadSecs());
 
     // reasonable default settings for the query cache per bean type
     ServerCacheOptions queryOptions = new ServerCacheOptions();
     queryOptions.setMaxSize(serverConfig.getQueryCacheMaxSize());
     queryOptions.setMaxIdleSecs(serverConfig.getQueryCacheMaxIdleTime());
     queryOptions.setMaxSecsToLive(serverConfig.getQueryCacheMaxTimeToLive());
+    queryOptions.setRefreshAheadSecs(serverConfig.getQueryCacheRefreshAheadSecs());
 
     boolean localL2Caching = false;
     ServerCachePlugin plugin = serverConfig.getServerCachePlugin();
@@ -251,6 +253,27 @@ public class DefaultContainer implements SpiContainer {
     if (config.getDataSource() == null) {
       config.setDataSource(getDataSourceFromConfig(config));
     }
+    if (config.getReadOnlyDataSource() == null) {
+      config.setReadOnlyDataSource(getReadOnlyDataSourceFromConfig(config));
+    }
+  }
+
+  /**
+   * Return the read only DataSource if one has been configured (with a url).
+   */
+  private DataSource getReadOnlyDataSourceFromConfig(ServerConfig config) {
+
+    DataSourceConfig roConfig = config.getReadOnlyDataSourceConfig();
+    if (DbOffline.isSet() || roConfig == null || roConfig.getUrl() == null) {
+      return null;
+    }
+
+    DataSourceFactory factory = config.service(DataSourceFactory.class);
+    if (factory == null) {
+      throw new IllegalStateException("No DataSourceFactory service implementation found in class path."
+          + " Probably missing dependency to avaje-datasource?");
+    }
+    return factory.createPool(config.getName() + "-readonly", roConfig);
   }
 
   private DataSource getDataSourceFromConfig(ServerConfig config) {
@@ -3,10 +3,15 @@ package com.avaje.ebeaninternal.server.core;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.avaje.ebean.cache.ServerCacheManager;
+import com.avaje.ebean.cache.ServerCacheManagerStatistics;
+import com.avaje.ebean.cache.ServerCacheStatistics;
 import com.avaje.ebean.meta.MetaBeanInfo;
 import com.avaje.ebean.meta.MetaQueryPlanStatistic;
 import com.avaje.ebean.meta.MetaInfoManager;
+import com.avaje.ebean.meta.MetaLazyLoadOffender;
 import com.avaje.ebean.meta.MetaObjectGraphNodeStats;
+import com.avaje.ebean.meta.MetaSlowQuery;
 
 /**
  * DefaultServer based implementation of MetaInfoManager.
@@ -55,5 +60,24 @@ public class DefaultMetaInfoManager implements MetaInfoManager {
     }
     return list;
   }
-  
+
+  @Override
+  public List<MetaSlowQuery> collectSlowQueries(boolean reset) {
+    return server.collectSlowQueries(reset);
+  }
+
+  @Override
+  public List<MetaLazyLoadOffender> collectLazyLoadOffenders(boolean reset) {
+    return server.lazyLoadDetector.collectOffenders(reset);
+  }
+
+  @Override
+  public List<ServerCacheStatistics> collectCacheStatistics(boolean reset) {
+    ServerCacheManager cacheManager = server.getServerCacheManager();
+    if (cacheManager instanceof ServerCacheManagerStatistics) {
+      return ((ServerCacheManagerStatistics) cacheManager).collectStatistics(reset);
+    }
+    return new ArrayList<ServerCacheStatistics>();
+  }
+
 }
@@ -18,10 +18,13 @@ import com.avaje.ebean.event.BeanPersistController;
 import com.avaje.ebean.event.readaudit.ReadAuditLogger;
 import com.avaje.ebean.event.readaudit.ReadAuditPrepare;
 import com.avaje.ebean.meta.MetaInfoManager;
+import com.avaje.ebean.meta.MetaSlowQuery;
 import com.avaje.ebean.plugin.BeanType;
 import com.avaje.ebean.plugin.Plugin;
 import com.avaje.ebean.plugin.SpiServer;
 import com.avaje.ebean.text.csv.CsvReader;
+import com.avaje.ebean.text.csv.CsvWriter;
+import com.avaje.ebean.text.csv.CsvWriterFactory;
 import com.avaje.ebean.text.json.JsonContext;
 import com.avaje.ebeaninternal.api.LoadBeanRequest;
 import com.avaje.ebeaninternal.api.LoadManyRequest;
@@ -31,10 +34,15 @@ import com.avaje.ebeaninternal.api.SpiBackgroundExecutor;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
 import com.avaje.ebeaninternal.api.SpiQuery;
 import com.avaje.ebeaninternal.api.SpiQuery.Type;
+import com.avaje.ebeaninternal.api.SpiSqlQuery;
 import com.avaje.ebeaninternal.api.SpiTransaction;
 import com.avaje.ebeaninternal.api.TransactionEventTable;
 import com.avaje.ebeaninternal.server.autotune.AutoTuneService;
 import com.avaje.ebeaninternal.server.core.timezone.DataTimeZone;
+import com.avaje.ebeaninternal.server.cache.SqlQueryCache;
+import com.avaje.ebeaninternal.server.cache.CacheSnapshot;
+import com.avaje.ebeaninternal.server.cache.CacheWarmer;
+import com.avaje.ebeaninternal.server.cache.DefaultServerCacheManager;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptorManager;
 import com.avaje.ebeaninternal.server.deploy.BeanProperty;
@@ -56,6 +64,7 @@ import com.avaje.ebeaninternal.server.querydefn.DefaultOrmUpdate;
 import com.avaje.ebeaninternal.server.querydefn.DefaultRelationalQuery;
 import com.avaje.ebeaninternal.server.querydefn.DefaultUpdateQuery;
 import com.avaje.ebeaninternal.server.text.csv.TCsvReader;
+import com.avaje.ebeaninternal.server.text.csv.TCsvWriter;
 import com.avaje.ebeaninternal.server.transaction.DefaultPersistenceContext;
 import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
 import com.avaje.ebeaninternal.server.transaction.TransactionManager;
@@ -84,7 +93,7 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * The default server side implementation of EbeanServer.
  */
-public final class DefaultServer implements SpiServer, SpiEbeanServer {
+public final class DefaultServer implements SpiServer, SpiEbeanServer, CsvWriterFactory, QueryBatchFinder {
 
   private static final Logger logger = LoggerFactory.getLogger(DefaultServer.class);
 
@@ -147,6 +156,8 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
 
   private final DefaultBeanLoader beanLoader;
 
+  protected final LazyLoadDetector lazyLoadDetector;
+
   private final EncryptKeyManager encryptKeyManager;
 
   private final JsonContext jsonContext;
@@ -154,6 +165,13 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
   private final DocumentStore documentStore;
 
   private final MetaInfoManager metaInfoManager;
+
+  private final CacheWarmer cacheWarmer;
+
+  /**
+   * Snapshots of the bean caches to local disk (null when not used).
+   */
+  private final CacheSnapshot cacheSnapshot;
   
   /**
    * The default PersistenceContextScope used if it is not explicitly set on a query.
@@ -224,7 +242,8 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     this.readAuditPrepare = config.getReadAuditPrepare();
     this.readAuditLogger = config.getReadAuditLogger();
 
-    this.beanLoader = new DefaultBeanLoader(this);
+    this.lazyLoadDetector = new LazyLoadDetector(serverConfig, autoTuneService);
+    this.beanLoader = new DefaultBeanLoader(this, lazyLoadDetector);
     this.jsonContext = config.createJsonContext(this);
     this.dataTimeZone = config.getDataTimeZone();
 
@@ -236,6 +255,12 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     this.serverPlugins = config.getPlugins();
     this.ddlGenerator = new DdlGenerator(this, serverConfig);
 
+    this.cacheWarmer = new CacheWarmer(this, backgroundExecutor, serverConfig);
+    if (serverCacheManager instanceof DefaultServerCacheManager) {
+      ((DefaultServerCacheManager) serverCacheManager).setCacheWarmer(cacheWarmer);
+    }
+    this.cacheSnapshot = (serverConfig.getCacheSnapshotDirectory() == null) ? null : new CacheSnapshot(this, serverConfig);
+
     configureServerPlugins();
     
     // Register with the JVM Shutdown hook
@@ -351,6 +376,18 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
         runner.run(serverConfig.getDataSource());
       }
     }
+    Runnable warmOnStart = !serverConfig.isCacheWarmOnStart() ? null : new Runnable() {
+      @Override
+      public void run() {
+        cacheWarmer.warmOnStart();
+      }
+    };
+    if (cacheSnapshot != null) {
+      // warm the caches of the types not restored from a snapshot after the restore
+      cacheSnapshot.restoreInBackground(backgroundExecutor, warmOnStart);
+    } else if (warmOnStart != null) {
+      warmOnStart.run();
+    }
   }
 
   /**
@@ -385,6 +422,9 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     }
     shutdownPlugins();
 
+    if (cacheSnapshot != null) {
+      cacheSnapshot.shutdown();
+    }
     autoTuneService.shutdown();
     // shutdown background threads
     backgroundExecutor.shutdown();
@@ -880,6 +920,15 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     return new TCsvReader<T>(this, descriptor);
   }
 
+  @Override
+  public <T> CsvWriter<T> createCsvWriter(Class<T> beanType) {
+    BeanDescriptor<T> descriptor = getBeanDescriptor(beanType);
+    if (descriptor == null) {
+      throw new NullPointerException("BeanDescriptor for " + beanType.getName() + " not found");
+    }
+    return new TCsvWriter<T>(descriptor);
+  }
+
   public <T> UpdateQuery<T> update(Class<T> beanType) {
     return new DefaultUpdateQuery<T>(createQuery(beanType));
   }
@@ -962,7 +1011,7 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     return findId(query, t);
   }
 
-  <T> SpiOrmQueryRequest<T> createQueryRequest(Type type, Query<T> query, Transaction t) {
+  <T> OrmQueryRequest<T> createQueryRequest(Type type, Query<T> query, Transaction t) {
 
     SpiQuery<T> spiQuery = (SpiQuery<T>) query;
     spiQuery.setType(type);
@@ -971,7 +1020,7 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     return createQueryRequest(spiQuery, t);
   }
 
-  private <T> SpiOrmQueryRequest<T> createQueryRequest(SpiQuery<T> query, Transaction t) {
+  private <T> OrmQueryRequest<T> createQueryRequest(SpiQuery<T> query, Transaction t) {
 
     query.setDefaultRawSqlIfRequired();
     if (query.isAutoTunable() && !autoTuneService.tuneQuery(query)) {
@@ -1218,7 +1267,7 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     SpiQuery<T> copy = ((SpiQuery<T>) q).copy();
     copy.setFutureFetch(true);
 
-    Transaction newTxn = createTransaction();
+    Transaction newTxn = createQueryTransaction(OrmQueryRequest.useReadOnlyDataSource(copy, Type.ROWCOUNT));
 
     CallableQueryRowCount<T> call = new CallableQueryRowCount<T>(this, copy, newTxn);
 
@@ -1239,7 +1288,7 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     List<Object> idList = Collections.synchronizedList(new ArrayList<Object>());
     copy.setIdList(idList);
 
-    Transaction newTxn = createTransaction();
+    Transaction newTxn = createQueryTransaction(OrmQueryRequest.useReadOnlyDataSource(copy, Type.ID_LIST));
 
     CallableQueryIds<T> call = new CallableQueryIds<T>(this, copy, newTxn);
     QueryFutureIds<T> queryFuture = new QueryFutureIds<T>(call);
@@ -1263,7 +1312,7 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     }
 
     // Create a new transaction solely to execute the findList() at some future time
-    Transaction newTxn = createTransaction();
+    Transaction newTxn = createQueryTransaction(OrmQueryRequest.useReadOnlyDataSource(spiQuery, Type.LIST));
     CallableQueryList<T> call = new CallableQueryList<T>(this, spiQuery, newTxn);
     QueryFutureList<T> queryFuture = new QueryFutureList<T>(call);
     backgroundExecutor.execute(queryFuture.getFutureTask());
@@ -1347,6 +1396,63 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     }
   }
 
+  /**
+   * Return the read only DataSource choice for the transaction shared by a batch of queries.
+   * <p>
+   * The main DataSource is used if any query requires it (explicitly or for update), otherwise
+   * the read only DataSource if any query explicitly requests it, otherwise the default.
+   * </p>
+   */
+  private Boolean batchUseReadOnlyDataSource(List<Query<?>> queries) {
+    Boolean choice = null;
+    for (Query<?> query : queries) {
+      Boolean useReadOnly = OrmQueryRequest.useReadOnlyDataSource((SpiQuery<?>) query, Type.LIST);
+      if (Boolean.FALSE.equals(useReadOnly)) {
+        return Boolean.FALSE;
+      }
+      if (useReadOnly != null) {
+        choice = useReadOnly;
+      }
+    }
+    return choice;
+  }
+
+  @Override
+  public List<List<?>> findListBatch(List<Query<?>> queries, Transaction t) {
+
+    List<List<?>> results = new ArrayList<List<?>>(queries.size());
+    SpiTransaction trans = (SpiTransaction) t;
+    if (trans == null) {
+      trans = transactionScopeManager.get();
+    }
+    if (trans != null || queries.size() < 2) {
+      for (Query<?> query : queries) {
+        results.add(findList(query, trans));
+      }
+      return results;
+    }
+
+    // create an implicit transaction shared by all the queries
+    trans = transactionManager.createQueryTransaction(batchUseReadOnlyDataSource(queries));
+    try {
+      for (Query<?> query : queries) {
+        results.add(findList(query, trans));
+      }
+      trans.commit();
+      return results;
+
+    } finally {
+      if (trans.isActive()) {
+        // a prior exception was thrown
+        try {
+          trans.end();
+        } catch (Exception e) {
+          logger.error("Error trying to end a transaction (after a prior exception thrown)", e);
+        }
+      }
+    }
+  }
+
   public SqlRow findUnique(SqlQuery query, Transaction t) {
 
     // no findId() method for SqlQuery...
@@ -1381,6 +1487,36 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
 
   public List<SqlRow> findList(SqlQuery query, Transaction t) {
 
+    SpiSqlQuery sqlQuery = (SpiSqlQuery) query;
+    if (sqlQuery.isUseQueryCache() && beanDescriptorManager.getSqlQueryCache().isEnabled()) {
+      return findListWithQueryCache(sqlQuery, t);
+    }
+    return findListDirect(query, t);
+  }
+
+  /**
+   * Find the SqlQuery results using the query cache.
+   */
+  private List<SqlRow> findListWithQueryCache(SpiSqlQuery query, Transaction t) {
+
+    SpiTransaction trans = (t != null) ? (SpiTransaction) t : transactionScopeManager.get();
+    if (trans != null && trans.isSkipCache()) {
+      // the transaction has made changes that the cached results would not include
+      return findListDirect(query, t);
+    }
+    SqlQueryCache queryCache = beanDescriptorManager.getSqlQueryCache();
+    Object key = queryCache.key(query);
+    List<SqlRow> cached = queryCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    // capture the epoch before the query executes such that a stale result is not put
+    long readEpoch = queryCache.epoch();
+    return queryCache.put(key, query.getQuery(), findListDirect(query, t), readEpoch);
+  }
+
+  private List<SqlRow> findListDirect(SqlQuery query, Transaction t) {
+
     RelationalQueryRequest request = new RelationalQueryRequest(this, relationalQueryEngine, query, t);
 
     try {
@@ -1953,6 +2089,17 @@ public final class DefaultServer implements SpiServer, SpiEbeanServer {
     return transactionManager.createQueryTransaction();
   }
 
+  public SpiTransaction createQueryTransaction(Boolean useReadOnlyDataSource) {
+    return transactionManager.createQueryTransaction(useReadOnlyDataSource);
+  }
+
+
+  /**
+   * Return the captured slow queries.
+   */
+  List<MetaSlowQuery> collectSlowQueries(boolean reset) {
+    return cqueryEngine.collectSlowQueries(reset);
+  }
 
   /**
    * Create a CallStack object.
@@ -18,6 +18,7 @@ import com.avaje.ebeaninternal.api.SpiBackgroundExecutor;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
 import com.avaje.ebeaninternal.server.autotune.AutoTuneService;
 import com.avaje.ebeaninternal.server.autotune.service.AutoTuneServiceFactory;
+import com.avaje.ebeaninternal.server.changelog.AsyncChangeLogListener;
 import com.avaje.ebeaninternal.server.changelog.DefaultChangeLogListener;
 import com.avaje.ebeaninternal.server.changelog.DefaultChangeLogPrepare;
 import com.avaje.ebeaninternal.server.changelog.DefaultChangeLogRegister;
@@ -38,6 +39,7 @@ import com.avaje.ebeaninternal.server.persist.DefaultPersister;
 import com.avaje.ebeaninternal.server.query.CQueryEngine;
 import com.avaje.ebeaninternal.server.query.DefaultOrmQueryEngine;
 import com.avaje.ebeaninternal.server.query.DefaultRelationalQueryEngine;
+import com.avaje.ebeaninternal.server.readaudit.BufferedReadAuditLogger;
 import com.avaje.ebeaninternal.server.readaudit.DefaultReadAuditLogger;
 import com.avaje.ebeaninternal.server.readaudit.DefaultReadAuditPrepare;
 import com.avaje.ebeaninternal.server.text.json.DJsonContext;
@@ -137,7 +139,7 @@ public class InternalConfiguration {
 
     this.dataTimeZone = initDataTimeZone();
     this.binder = getBinder(typeManager, databasePlatform, dataTimeZone);
-    this.cQueryEngine = new CQueryEngine(serverConfig, databasePlatform, binder, asOfTableMapping, draftTableMap);
+    this.cQueryEngine = new CQueryEngine(serverConfig, databasePlatform, binder, asOfTableMapping, draftTableMap, backgroundExecutor);
   }
 
   /**
@@ -205,6 +207,9 @@ public class InternalConfiguration {
    * Return the ChangeLogListener to use with a default implementation if none defined.
    */
   public ChangeLogListener changeLogListener(ChangeLogListener listener) {
+    if (listener == null && serverConfig.isChangeLogAsync()) {
+      return plugin(new AsyncChangeLogListener(serverConfig.getChangeLogSink()));
+    }
     return plugin((listener != null) ? listener : new DefaultChangeLogListener());
   }
 
@@ -213,6 +218,9 @@ public class InternalConfiguration {
    */
   public ReadAuditLogger getReadAuditLogger() {
     ReadAuditLogger found = bootupClasses.getReadAuditLogger();
+    if (found == null && serverConfig.isReadAuditBuffered()) {
+      return plugin(new BufferedReadAuditLogger());
+    }
     return plugin(found != null ? found : new DefaultReadAuditLogger());
   }
 
@@ -338,6 +346,14 @@ public class InternalConfiguration {
    */
   public TransactionManager createTransactionManager(DocStoreUpdateProcessor indexUpdateProcessor) {
 
+    TransactionManager transactionManager = newTransactionManager(indexUpdateProcessor);
+    // the outbox relay is started and stopped with the plugins
+    plugin(transactionManager.getOutbox());
+    return transactionManager;
+  }
+
+  private TransactionManager newTransactionManager(DocStoreUpdateProcessor indexUpdateProcessor) {
+
     boolean localL2 = cacheManager.isLocalL2Caching();
     if (serverConfig.isExplicitTransactionBeginMode()) {
       return new ExplicitTransactionManager(localL2, serverConfig, clusterManager, backgroundExecutor, indexUpdateProcessor, beanDescriptorManager, this.getBootupClasses());
@@ -0,0 +1,270 @@
+package com.avaje.ebeaninternal.server.core;
+
+import com.avaje.ebean.bean.ObjectGraphNode;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebean.meta.MetaLazyLoadOffender;
+import com.avaje.ebeaninternal.server.autotune.AutoTuneService;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+import com.avaje.ebeaninternal.server.util.LongMaxUpdater;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects excessive lazy loading (N+1 queries) per ObjectGraphNode.
+ * <p>
+ * Lazy loading queries are counted per node (origin query point and relative path)
+ * within a time window. When the count within a window reaches the threshold the node
+ * is reported as an offender and optionally passed to AutoTune such that the path is
+ * included in the tuned fetch of the origin query.
+ * </p>
+ * <p>
+ * The counters are bounded. Counters of nodes with no detections are removed when their
+ * window has ended once there are more than MAX_NODES and on collectOffenders() with reset.
+ * </p>
+ */
+public class LazyLoadDetector {
+
+  private static final Logger logger = LoggerFactory.getLogger(LazyLoadDetector.class);
+
+  /**
+   * Maximum number of node counters held before the counters are pruned.
+   */
+  static final int MAX_NODES = 10000;
+
+  private final int threshold;
+
+  private final long windowMillis;
+
+  private final AutoTuneService autoTuneService;
+
+  private final ConcurrentHashMap<ObjectGraphNode, NodeCounter> nodeCounters = new ConcurrentHashMap<ObjectGraphNode, NodeCounter>();
+
+  /**
+   * Create with the AutoTuneService to notify of offenders (null to not notify AutoTune).
+   */
+  public LazyLoadDetector(ServerConfig serverConfig, AutoTuneService autoTuneService) {
+    this.threshold = serverConfig.getLazyLoadDetectThreshold();
+    this.windowMillis = serverConfig.getLazyLoadDetectWindowMillis();
+    this.autoTuneService = serverConfig.isLazyLoadDetectAutoTune() ? autoTuneService : null;
+  }
+
+  /**
+   * Return true if lazy loading detection is enabled.
+   */
+  public boolean isEnabled() {
+    return threshold > 0;
+  }
+
+  /**
+   * Collect a lazy loading query execution for the given node.
+   *
+   * @param node  the node relative to the origin point
+   * @param beans the number of beans (or collections) the lazy loading query loaded
+   */
+  public void collect(ObjectGraphNode node, long beans) {
+
+    if (threshold < 1 || node == null || node.getOriginQueryPoint() == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    NodeCounter counter = nodeCounters.get(node);
+    if (counter == null) {
+      if (nodeCounters.size() >= MAX_NODES) {
+        prune(now);
+      }
+      counter = new NodeCounter(node);
+      NodeCounter existing = nodeCounters.putIfAbsent(node, counter);
+      if (existing != null) {
+        counter = existing;
+      }
+    }
+    if (counter.add(beans, now)) {
+      detected(counter);
+    }
+  }
+
+  /**
+   * Remove counters such that the number of counters is bounded.
+   * <p>
+   * Idle counters with no detections are removed first, then all counters with no detections
+   * and finally all the counters.
+   * </p>
+   */
+  private void prune(long now) {
+    removeUndetected(now, true);
+    if (nodeCounters.size() >= MAX_NODES) {
+      removeUndetected(now, false);
+      if (nodeCounters.size() >= MAX_NODES) {
+        nodeCounters.clear();
+      }
+    }
+  }
+
+  private void removeUndetected(long now, boolean idleOnly) {
+    Iterator<NodeCounter> it = nodeCounters.values().iterator();
+    while (it.hasNext()) {
+      NodeCounter counter = it.next();
+      if (counter.detectedCount.get() == 0 && (!idleOnly || counter.isIdle(now))) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Return the number of node counters held.
+   */
+  int size() {
+    return nodeCounters.size();
+  }
+
+  private void detected(NodeCounter counter) {
+
+    logger.warn("N+1 lazy loading detected - {} lazy loading queries within {} millis for {}", threshold, windowMillis, counter.node);
+    if (autoTuneService != null) {
+      autoTuneService.collectLazyLoadOffender(counter.node);
+    }
+  }
+
+  /**
+   * Return the nodes where excessive lazy loading has been detected.
+   */
+  public List<MetaLazyLoadOffender> collectOffenders(boolean reset) {
+
+    if (reset) {
+      // the idle counters with no detections hold nothing after the reset
+      removeUndetected(System.currentTimeMillis(), true);
+    }
+    List<MetaLazyLoadOffender> list = new ArrayList<MetaLazyLoadOffender>();
+    for (NodeCounter counter : nodeCounters.values()) {
+      MetaLazyLoadOffender offender = counter.get(reset);
+      if (offender.getDetectedCount() > 0) {
+        list.add(offender);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Lazy loading counters for a given node.
+   */
+  private class NodeCounter {
+
+    private final ObjectGraphNode node;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalBeans = new LongAdder();
+
+    private final LongMaxUpdater maxWindowCount = new LongMaxUpdater();
+
+    private final AtomicLong detectedCount = new AtomicLong();
+
+    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+    private final AtomicLong windowCount = new AtomicLong();
+
+    private volatile long lastDetected;
+
+    NodeCounter(ObjectGraphNode node) {
+      this.node = node;
+    }
+
+    /**
+     * Add a lazy loading query returning true if this reached the threshold for the current window.
+     */
+    boolean add(long beans, long now) {
+
+      count.increment();
+      totalBeans.add(beans);
+
+      long start = windowStart.get();
+      if (now - start > windowMillis && windowStart.compareAndSet(start, now)) {
+        // racey but near enough as we don't want locks
+        windowCount.set(0);
+      }
+      long inWindow = windowCount.incrementAndGet();
+      maxWindowCount.update(inWindow);
+      if (inWindow == threshold) {
+        detectedCount.incrementAndGet();
+        lastDetected = now;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Return true if the window of this counter has ended.
+     */
+    boolean isIdle(long now) {
+      return now - windowStart.get() > windowMillis;
+    }
+
+    MetaLazyLoadOffender get(boolean reset) {
+      if (reset) {
+        return new Snapshot(node, count.sumThenReset(), totalBeans.sumThenReset(), maxWindowCount.maxThenReset(),
+            detectedCount.getAndSet(0), lastDetected);
+      } else {
+        return new Snapshot(node, count.sum(), totalBeans.sum(), maxWindowCount.max(), detectedCount.get(), lastDetected);
+      }
+    }
+  }
+
+  private static class Snapshot implements MetaLazyLoadOffender {
+
+    private final ObjectGraphNode node;
+    private final long count;
+    private final long totalBeans;
+    private final long maxWindowCount;
+    private final long detectedCount;
+    private final long lastDetected;
+
+    Snapshot(ObjectGraphNode node, long count, long totalBeans, long maxWindowCount, long detectedCount, long lastDetected) {
+      this.node = node;
+      this.count = count;
+      this.totalBeans = totalBeans;
+      this.maxWindowCount = maxWindowCount;
+      this.detectedCount = detectedCount;
+      this.lastDetected = lastDetected;
+    }
+
+    public String toString() {
+      return node + " count[" + count + "] beans[" + totalBeans + "] maxWindow[" + maxWindowCount + "] detected[" + detectedCount + "]";
+    }
+
+    @Override
+    public ObjectGraphNode getNode() {
+      return node;
+    }
+
+    @Override
+    public long getCount() {
+      return count;
+    }
+
+    @Override
+    public long getTotalBeans() {
+      return totalBeans;
+    }
+
+    @Override
+    public long getMaxWindowCount() {
+      return maxWindowCount;
+    }
+
+    @Override
+    public long getDetectedCount() {
+      return detectedCount;
+    }
+
+    @Override
+    public long getLastDetected() {
+      return lastDetected;
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.avaje.ebeaninternal.api.SpiQuery;
 import com.avaje.ebeaninternal.api.SpiQuery.Type;
 import com.avaje.ebeaninternal.api.SpiQuerySecondary;
 import com.avaje.ebeaninternal.api.SpiTransaction;
+import com.avaje.ebeaninternal.server.cache.CachedQueryDependency;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
 import com.avaje.ebeaninternal.server.deploy.BeanProperty;
 import com.avaje.ebeaninternal.server.deploy.BeanPropertyAssocMany;
@@ -63,6 +64,16 @@ public final class OrmQueryRequest<T> extends BeanRequest implements BeanQueryRe
 
   private HashQuery cacheKey;
 
+  /**
+   * Bean cache epoch used to reject stale bean cache puts.
+   */
+  private final long beanCacheEpoch;
+
+  /**
+   * Epoch of the RawSql table dependencies used to reject stale query cache puts.
+   */
+  private final long rawSqlCacheEpoch;
+
   private CQueryPlanKey queryPlanKey;
 
   private SpiQuerySecondary secondaryQueries;
@@ -78,6 +89,15 @@ public final class OrmQueryRequest<T> extends BeanRequest implements BeanQueryRe
     this.queryEngine = queryEngine;
     this.query = query;
     this.readOnly = query.isReadOnly();
+    this.beanCacheEpoch = beanDescriptor.cacheBeanEpoch();
+    this.rawSqlCacheEpoch = (rawSql != null && query.isUseQueryCache()) ? beanDescriptor.queryCacheRawSqlEpoch() : 0;
+  }
+
+  /**
+   * Return the bean cache epoch captured before the query was executed.
+   */
+  public long getBeanCacheEpoch() {
+    return beanCacheEpoch;
   }
 
   /**
@@ -205,7 +225,7 @@ public final class OrmQueryRequest<T> extends BeanRequest implements BeanQueryRe
       transaction = ebeanServer.getCurrentServerTransaction();
       if (transaction == null) {
         // create an implicit transaction to execute this query
-        transaction = ebeanServer.createQueryTransaction();
+        transaction = ebeanServer.createQueryTransaction(useReadOnlyDataSource(query, query.getType()));
         createdTransaction = true;
       }
     }
@@ -213,6 +233,30 @@ public final class OrmQueryRequest<T> extends BeanRequest implements BeanQueryRe
     loadContext = new DLoadContext(this, secondaryQueries);
   }
 
+  /**
+   * Return the read only DataSource choice for an implicit transaction executing the query.
+   * <p>
+   * Only find queries that are not for update can use the read only DataSource. Bulk update
+   * and delete queries always use the main DataSource.
+   * </p>
+   */
+  public static Boolean useReadOnlyDataSource(SpiQuery<?> query, SpiQuery.Type type) {
+    if (type == null || query.isForUpdate()) {
+      return Boolean.FALSE;
+    }
+    switch (type) {
+      case BEAN:
+      case LIST:
+      case SET:
+      case MAP:
+      case ID_LIST:
+      case ROWCOUNT:
+        return query.getUseReadOnlyDataSource();
+      default:
+        return Boolean.FALSE;
+    }
+  }
+
   /**
    * Return the JsonReadOptions taking into account lazy loading and persistence context.
    */
@@ -471,7 +515,12 @@ public final class OrmQueryRequest<T> extends BeanRequest implements BeanQueryRe
   }
 
   public void putToQueryCache(BeanCollection<T> queryResult) {
-    beanDescriptor.queryCachePut(cacheKey, queryResult);
+    beanDescriptor.queryCachePut(cacheKey, queryResult, CachedQueryDependency.of(beanDescriptor, query, secondaryQueries), beanCacheEpoch);
+    beanDescriptor.queryCacheRegisterRefresh(cacheKey, query);
+    if (rawSql != null && rawSql.getSql() != null) {
+      // also invalidated by changes to the tables used in the raw sql
+      beanDescriptor.queryCacheRegisterRawSql(cacheKey, rawSql.getSql().getUnparsedSql(), rawSqlCacheEpoch);
+    }
   }
 
   /**
@@ -42,6 +42,7 @@ import com.avaje.ebeaninternal.api.SpiQuery;
 import com.avaje.ebeaninternal.api.SpiUpdatePlan;
 import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
 import com.avaje.ebeaninternal.server.cache.CacheChangeSet;
+import com.avaje.ebeaninternal.server.cache.CachedQueryDependency;
 import com.avaje.ebeaninternal.server.cache.CachedBeanData;
 import com.avaje.ebeaninternal.server.cache.CachedManyIds;
 import com.avaje.ebeaninternal.server.core.CacheOptions;
@@ -90,6 +91,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -1094,10 +1096,66 @@ public class BeanDescriptor<T> implements MetaBeanInfo, BeanType<T> {
   }
 
   /**
-   * Put a query result into the query cache.
+   * Put a query result read at the given epoch into the query cache with the properties and ids it depends on.
    */
-  public void queryCachePut(Object id, BeanCollection<T> query) {
-    cacheHelp.queryCachePut(id, query);
+  public void queryCachePut(Object id, BeanCollection<T> query, CachedQueryDependency dependency, long readEpoch) {
+    cacheHelp.queryCachePut(id, query, dependency, readEpoch);
+  }
+
+  /**
+   * Remove an entry from the query cache.
+   */
+  public void queryCacheRemove(Object id) {
+    cacheHelp.queryCacheRemove(id);
+  }
+
+  /**
+   * Register the query of a cached query result for refresh ahead (when enabled on the query cache).
+   */
+  public void queryCacheRegisterRefresh(Object id, SpiQuery<T> query) {
+    cacheHelp.queryCacheRegisterRefresh(id, query);
+  }
+
+  /**
+   * Return the epoch of the RawSql table dependencies which should be captured before executing a read.
+   */
+  public long queryCacheRawSqlEpoch() {
+    return owner.getSqlQueryCache().epoch();
+  }
+
+  /**
+   * Register the table dependencies of a cached RawSql query result read at the given epoch.
+   */
+  public void queryCacheRegisterRawSql(Object id, String sql, long readEpoch) {
+    owner.getSqlQueryCache().registerRawSql(this, id, sql, readEpoch);
+  }
+
+  /**
+   * Remove the query cache entries that depend on the changed beans.
+   */
+  public void queryCacheInvalidate(List<Object> ids, List<Set<String>> changedProperties) {
+    cacheHelp.queryCacheInvalidate(ids, changedProperties);
+  }
+
+  /**
+   * Return the number of times the query cache was fully cleared.
+   */
+  public long getQueryCacheFullClearCount() {
+    return cacheHelp.getQueryCacheFullClearCount();
+  }
+
+  /**
+   * Return the number of times only the dependent query cache entries were removed.
+   */
+  public long getQueryCacheTargetedClearCount() {
+    return cacheHelp.getQueryCacheTargetedClearCount();
+  }
+
+  /**
+   * Return the number of query cache entries removed by targeted invalidation.
+   */
+  public long getQueryCacheTargetedRemoveCount() {
+    return cacheHelp.getQueryCacheTargetedRemoveCount();
   }
 
   /**
@@ -1114,6 +1172,13 @@ public class BeanDescriptor<T> implements MetaBeanInfo, BeanType<T> {
     return cacheHelp.manyPropLoad(many, bc, parentId, readOnly);
   }
 
+  /**
+   * Load the beanCollections from the cache using a single multi-get returning the ones loaded.
+   */
+  public Set<BeanCollection<?>> cacheManyPropLoadAll(BeanPropertyAssocMany<?> many, List<BeanCollection<?>> collections, Boolean readOnly) {
+    return cacheHelp.manyPropLoadAll(many, collections, readOnly);
+  }
+
   /**
    * Put the beanCollection into the cache.
    */
@@ -1178,11 +1243,63 @@ public class BeanDescriptor<T> implements MetaBeanInfo, BeanType<T> {
     cacheHelp.beanCachePut(bean);
   }
 
+  /**
+   * Put a bean read at the given bean cache epoch into the bean cache.
+   * <p>
+   * The put is rejected if the bean was invalidated after the read started.
+   * </p>
+   */
+  public void cacheBeanPut(EntityBean bean, long readEpoch) {
+    cacheHelp.beanCachePut(bean, readEpoch);
+  }
+
+  /**
+   * Put the beans read at the given bean cache epoch into the bean cache using multi-puts.
+   */
+  public void cacheBeanPutAll(Collection<?> beans, long readEpoch) {
+    cacheHelp.beanCachePutAll(beans, readEpoch);
+  }
+
+  /**
+   * Put beans of this exact type into the cache using multi-puts.
+   */
+  void cacheBeanPutAllDirect(List<EntityBean> beans, long readEpoch) {
+    cacheHelp.beanCachePutAllDirect(beans, readEpoch);
+  }
+
+  /**
+   * Put cached bean data (for example reloaded from a snapshot) read at the given epoch into the bean cache.
+   */
+  public void cacheBeanPutData(Object id, CachedBeanData data, long readEpoch) {
+    cacheHelp.beanCachePutData(id, data, readEpoch);
+  }
+
   /**
    * Put a bean into the cache as the correct type.
    */
-  void cacheBeanPutDirect(EntityBean bean) {
-    cacheHelp.beanCachePutDirect(bean);
+  void cacheBeanPutDirect(EntityBean bean, long readEpoch) {
+    cacheHelp.beanCachePutDirect(bean, readEpoch);
+  }
+
+  /**
+   * Return the current bean cache epoch which should be captured before executing a read.
+   */
+  public long cacheBeanEpoch() {
+    return cacheHelp.beanCacheEpoch();
+  }
+
+  /**
+   * Return the invalidation state of the caches (for the root type of an inheritance hierarchy).
+   */
+  BeanDescriptorCacheState cacheState() {
+    return cacheHelp.state();
+  }
+
+  /**
+   * Return the number of bean cache puts rejected as stale.
+   */
+  public long getBeanCacheStalePutCount() {
+    return cacheHelp.getBeanCacheStalePutCount();
   }
 
   /**
@@ -1215,6 +1332,13 @@ public class BeanDescriptor<T> implements MetaBeanInfo, BeanType<T> {
     return cacheBeanLoad(bean, ebi, id, context);
   }
 
+  /**
+   * Load the beans from the cache using a single multi-get returning the ones loaded.
+   */
+  public Set<EntityBeanIntercept> cacheBeanLoadAll(List<EntityBeanIntercept> batch, PersistenceContext context) {
+    return cacheHelp.beanCacheLoadAll(batch, context);
+  }
+
   /**
    * Try to hit the cache using the natural key.
    */
@@ -2391,6 +2515,13 @@ public class BeanDescriptor<T> implements MetaBeanInfo, BeanType<T> {
     return softDelete;
   }
 
+  /**
+   * Return the soft delete property (null if soft delete is not used).
+   */
+  public BeanProperty getSoftDeleteProperty() {
+    return softDeleteProperty;
+  }
+
   public void setSoftDeleteValue(EntityBean bean) {
     softDeleteProperty.setSoftDeleteValue(bean);
   }
@@ -2881,6 +3012,13 @@ public class BeanDescriptor<T> implements MetaBeanInfo, BeanType<T> {
     jsonHelp.jsonWriteDirtyProperties(writeJson, bean, dirtyProps);
   }
 
+  /**
+   * Return the plan for writing this bean type as JSON with the included properties.
+   */
+  public JsonWritePlan jsonWritePlan(boolean explicitAllProps, Set<String> includeProps) {
+    return jsonHelp.jsonWritePlan(explicitAllProps, includeProps);
+  }
+
   public void jsonWrite(WriteJson writeJson, EntityBean bean) throws IOException {
     jsonHelp.jsonWrite(writeJson, bean, null);
   }
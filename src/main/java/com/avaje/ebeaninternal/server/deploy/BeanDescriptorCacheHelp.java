@@ -6,13 +6,17 @@ import com.avaje.ebean.bean.EntityBeanIntercept;
 import com.avaje.ebean.bean.PersistenceContext;
 import com.avaje.ebean.cache.ServerCache;
 import com.avaje.ebean.cache.ServerCacheManager;
+import com.avaje.ebean.cache.ServerCacheRefreshAhead;
+import com.avaje.ebean.cache.ServerCacheRefresher;
 import com.avaje.ebeaninternal.api.SpiQuery;
 import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
 import com.avaje.ebeaninternal.server.cache.CacheChangeSet;
+import com.avaje.ebeaninternal.server.cache.CachedQueryDependency;
 import com.avaje.ebeaninternal.server.cache.CachedBeanData;
 import com.avaje.ebeaninternal.server.cache.CachedBeanDataFromBean;
 import com.avaje.ebeaninternal.server.cache.CachedBeanDataToBean;
 import com.avaje.ebeaninternal.server.cache.CachedManyIds;
+import com.avaje.ebeaninternal.server.cache.ServerCacheBulkHelp;
 import com.avaje.ebeaninternal.server.core.CacheOptions;
 import com.avaje.ebeaninternal.server.core.PersistRequest;
 import com.avaje.ebeaninternal.server.core.PersistRequestBean;
@@ -23,9 +27,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Helper for BeanDescriptor that manages the bean, query and collection caches.
@@ -36,6 +45,11 @@ final class BeanDescriptorCacheHelp<T> {
 
   private static final Logger logger = LoggerFactory.getLogger(BeanDescriptorCacheHelp.class);
 
+  /**
+   * Maximum number of query dependencies held before the query cache is cleared.
+   */
+  private static final int MAX_QUERY_DEPENDENCIES = 10000;
+
   private static final Logger queryLog = LoggerFactory.getLogger("org.avaje.ebean.cache.QUERY");
   private static final Logger beanLog = LoggerFactory.getLogger("org.avaje.ebean.cache.BEAN");
   private static final Logger manyLog = LoggerFactory.getLogger("org.avaje.ebean.cache.COLL");
@@ -63,6 +77,18 @@ final class BeanDescriptorCacheHelp<T> {
   private final ServerCache naturalKeyCache;
   private final ServerCache queryCache;
 
+  private final boolean queryRefreshAhead;
+
+  /**
+   * The invalidation state of the caches when this is the root type (otherwise null).
+   */
+  private final BeanDescriptorCacheState rootState;
+
+  /**
+   * The invalidation state of the caches (held by the root type of an inheritance hierarchy).
+   */
+  private BeanDescriptorCacheState state;
+
   /**
    * Set to true if all persist changes need to notify the cache.
    */
@@ -84,11 +110,17 @@ final class BeanDescriptorCacheHelp<T> {
     this.cacheSharableBeans = cacheSharableBeans;
     this.propertiesOneImported = propertiesOneImported;
     this.naturalKeyProperty = cacheOptions.getNaturalKey();
+    this.rootState = isInheritRoot(desc) ? new BeanDescriptorCacheState() : null;
 
     if (!cacheOptions.isEnableQueryCache()) {
       this.queryCache = null;
+      this.queryRefreshAhead = false;
     } else {
       this.queryCache = cacheManager.getQueryCache(beanType);
+      this.queryRefreshAhead = isInheritRoot(desc) && isRefreshAhead(queryCache);
+      if (queryRefreshAhead) {
+        ((ServerCacheRefreshAhead) queryCache).setRefresher(new QueryRefresher());
+      }
     }
 
     if (cacheOptions.isEnableBeanCache()) {
@@ -98,12 +130,43 @@ final class BeanDescriptorCacheHelp<T> {
       } else {
         this.naturalKeyCache = null;
       }
+      if (isInheritRoot(desc) && isRefreshAhead(beanCache)) {
+        ((ServerCacheRefreshAhead) beanCache).setRefresher(new BeanRefresher());
+      }
     } else {
       this.beanCache = null;
       this.naturalKeyCache = null;
     }
   }
 
+  /**
+   * Return true if the descriptor is the root of an inheritance hierarchy (or not using inheritance).
+   * The caches are shared by the hierarchy and refreshed via the root type.
+   */
+  private static boolean isInheritRoot(BeanDescriptor<?> desc) {
+    return desc.inheritInfo == null || desc.inheritInfo.isRoot();
+  }
+
+  /**
+   * Return true if the cache supports and is configured to refresh ahead.
+   */
+  private static boolean isRefreshAhead(ServerCache cache) {
+    return cache instanceof ServerCacheRefreshAhead && ((ServerCacheRefreshAhead) cache).isRefreshAhead();
+  }
+
+  /**
+   * Return the invalidation state of the caches which is shared by the inheritance hierarchy.
+   */
+  BeanDescriptorCacheState state() {
+    if (rootState != null) {
+      return rootState;
+    }
+    if (state == null) {
+      state = desc.inheritInfo.getRoot().desc().cacheState();
+    }
+    return state;
+  }
+
   /**
    * Derive the cache notify flags.
    */
@@ -167,10 +230,84 @@ final class BeanDescriptorCacheHelp<T> {
       if (queryLog.isDebugEnabled()) {
         queryLog.debug("   CLEAR {}", cacheName);
       }
+      BeanDescriptorCacheState state = state();
+      state.queryCacheFullClears.increment();
+      state.queryInvalidated();
+      state.queryDependencies.clear();
+      state.queryRefresh.clear();
       queryCache.clear();
     }
   }
 
+  /**
+   * Remove an entry from the query cache.
+   */
+  void queryCacheRemove(Object id) {
+    if (queryCache != null) {
+      if (queryLog.isDebugEnabled()) {
+        queryLog.debug("   REMOVE {}({})", cacheName, id);
+      }
+      BeanDescriptorCacheState state = state();
+      state.queryInvalidated();
+      state.queryDependencies.remove(id);
+      state.queryRefresh.remove(id);
+      queryCache.remove(id);
+    }
+  }
+
+  /**
+   * Remove the query cache entries that depend on the changed beans.
+   *
+   * @param ids               the ids of the inserted, updated or deleted beans
+   * @param changedProperties the changed properties of each bean (null entries for insert and delete)
+   */
+  void queryCacheInvalidate(List<Object> ids, List<Set<String>> changedProperties) {
+    if (queryCache == null) {
+      return;
+    }
+    BeanDescriptorCacheState state = state();
+    state.queryCacheTargetedClears.increment();
+    state.queryInvalidated();
+    Iterator<Map.Entry<Object, CachedQueryDependency>> it = state.queryDependencies.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Object, CachedQueryDependency> entry = it.next();
+      CachedQueryDependency dependency = entry.getValue();
+      for (int i = 0; i < ids.size(); i++) {
+        if (dependency.isInvalidatedBy(ids.get(i), changedProperties.get(i))) {
+          if (queryLog.isDebugEnabled()) {
+            queryLog.debug("   REMOVE {}({}) - {}", cacheName, entry.getKey(), dependency);
+          }
+          it.remove();
+          state.queryRefresh.remove(entry.getKey());
+          queryCache.remove(entry.getKey());
+          state.queryCacheTargetedRemoves.increment();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the number of times the query cache was fully cleared.
+   */
+  long getQueryCacheFullClearCount() {
+    return state().queryCacheFullClears.sum();
+  }
+
+  /**
+   * Return the number of times only the dependent query cache entries were removed.
+   */
+  long getQueryCacheTargetedClearCount() {
+    return state().queryCacheTargetedClears.sum();
+  }
+
+  /**
+   * Return the number of query cache entries removed by targeted invalidation.
+   */
+  long getQueryCacheTargetedRemoveCount() {
+    return state().queryCacheTargetedRemoves.sum();
+  }
+
   /**
    * Add query cache clear to the changeSet.
    */
@@ -200,16 +337,52 @@ final class BeanDescriptorCacheHelp<T> {
   }
 
   /**
-   * Put a query result into the query cache.
+   * Put a query result read at the given epoch into the query cache with the properties and ids
+   * it depends on (rejected if the query cache was invalidated after the read started).
    */
-  void queryCachePut(Object id, BeanCollection<T> query) {
+  void queryCachePut(Object id, Object query, CachedQueryDependency dependency, long readEpoch) {
     if (queryCache == null) {
       throw new IllegalStateException("No query cache enabled on " + desc + ". Need explicit @Cache(enableQueryCache=true)");
     }
+    BeanDescriptorCacheState state = state();
+    if (state.queryDependencies.size() >= MAX_QUERY_DEPENDENCIES) {
+      // dependencies of entries evicted from the query cache have built up (not an invalidation
+      // so concurrent puts are not rejected, their re-check sees the dependency removed)
+      state.queryCacheFullClears.increment();
+      state.queryDependencies.clear();
+      state.queryRefresh.clear();
+      queryCache.clear();
+    }
+    if (state.isQueryStale(readEpoch)) {
+      if (queryLog.isDebugEnabled()) {
+        queryLog.debug("   PUT {}({}) - rejected stale", cacheName, id);
+      }
+      return;
+    }
     if (queryLog.isDebugEnabled()) {
-      queryLog.debug("   PUT {}({})", cacheName, id);
+      queryLog.debug("   PUT {}({}) - {}", cacheName, id, dependency);
     }
+    // register the dependency before the put so a concurrent invalidation can remove it
+    CachedQueryDependency queryDependency = (dependency == null) ? CachedQueryDependency.ALL : dependency;
+    state.queryDependencies.put(id, queryDependency);
     queryCache.put(id, query);
+    if (state.isQueryStale(readEpoch) || state.queryDependencies.get(id) != queryDependency) {
+      // invalidated concurrently with the put (which may not have seen the dependency)
+      if (queryLog.isDebugEnabled()) {
+        queryLog.debug("   PUT {}({}) - removed as invalidated during put", cacheName, id);
+      }
+      state.queryDependencies.remove(id, queryDependency);
+      queryCache.remove(id);
+    }
+  }
+
+  /**
+   * Register the query of a query cache entry such that it can be refreshed ahead of the entry expiring.
+   */
+  void queryCacheRegisterRefresh(Object id, SpiQuery<T> query) {
+    if (queryRefreshAhead) {
+      state().queryRefresh.put(id, query.copy());
+    }
   }
 
 
@@ -255,6 +428,36 @@ final class BeanDescriptorCacheHelp<T> {
       // not in cache so return unsuccessful
       return false;
     }
+    manyPropLoad(many, bc, entry, readOnly);
+    return true;
+  }
+
+  /**
+   * Load the bean collections from the cache using a single multi-get returning the ones loaded.
+   */
+  Set<BeanCollection<?>> manyPropLoadAll(BeanPropertyAssocMany<?> many, List<BeanCollection<?>> collections, Boolean readOnly) {
+
+    Map<Object, BeanCollection<?>> byParentId = new LinkedHashMap<Object, BeanCollection<?>>(collections.size() * 2);
+    for (BeanCollection<?> bc : collections) {
+      byParentId.put(desc.getId(bc.getOwnerBean()), bc);
+    }
+
+    ServerCache collectionIdsCache = cacheManager.getCollectionIdsCache(beanType, many.getName());
+    Map<Object, Object> entries = ServerCacheBulkHelp.getAll(collectionIdsCache, byParentId.keySet());
+    if (manyLog.isDebugEnabled()) {
+      manyLog.debug("   GET ALL {}.{} - hits:{} of {}", cacheName, many.getName(), entries.size(), byParentId.size());
+    }
+
+    Set<BeanCollection<?>> loaded = Collections.newSetFromMap(new IdentityHashMap<BeanCollection<?>, Boolean>());
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      BeanCollection<?> bc = byParentId.get(entry.getKey());
+      manyPropLoad(many, bc, (CachedManyIds) entry.getValue(), readOnly);
+      loaded.add(bc);
+    }
+    return loaded;
+  }
+
+  private void manyPropLoad(BeanPropertyAssocMany<?> many, BeanCollection<?> bc, CachedManyIds entry, Boolean readOnly) {
 
     Object ownerBean = bc.getOwnerBean();
     EntityBeanIntercept ebi = ((EntityBean) ownerBean)._ebean_getIntercept();
@@ -269,7 +472,6 @@ final class BeanDescriptorCacheHelp<T> {
       Object refBean = targetDescriptor.createReference(readOnly, false, id, persistenceContext);
       many.add(bc, (EntityBean) refBean);
     }
-    return true;
   }
 
   /**
@@ -375,6 +577,7 @@ final class BeanDescriptorCacheHelp<T> {
       if (beanLog.isDebugEnabled()) {
         beanLog.debug("   CLEAR {}", cacheName);
       }
+      invalidateAll();
       beanCache.clear();
     }
   }
@@ -384,41 +587,214 @@ final class BeanDescriptorCacheHelp<T> {
   }
 
   /**
-   * Put a bean into the bean cache.
+   * Return the current bean cache epoch to be captured before a read (query or lazy load).
+   */
+  long beanCacheEpoch() {
+    return state().epoch();
+  }
+
+  /**
+   * Return the number of bean cache puts rejected as stale.
+   */
+  long getBeanCacheStalePutCount() {
+    return state().beanCacheStalePuts.sum();
+  }
+
+  /**
+   * Record the invalidation of the bean with the given id.
+   */
+  private void invalidate(Object id) {
+    state().beanInvalidated(id);
+  }
+
+  /**
+   * Reject all reads that started before now and prune the invalidation epochs.
+   */
+  private void invalidateAll() {
+    state().beanInvalidatedAll();
+  }
+
+  /**
+   * Return true if data read from the given epoch is stale for the given bean.
+   * <p>
+   * That is, the bean was invalidated (updated or deleted) after the read started or the
+   * cached data has a later version.
+   * </p>
+   */
+  private boolean isStalePut(Object id, long readEpoch, CachedBeanData beanData) {
+
+    BeanDescriptorCacheState state = state();
+    if (state.isBeanStale(readEpoch)) {
+      return true;
+    }
+    Long invalidated = state.beanInvalidation(id);
+    if (invalidated == null) {
+      // not recently invalidated
+      return false;
+    }
+    if (invalidated > readEpoch) {
+      return true;
+    }
+    // recently invalidated so also check we don't replace newer data
+    CachedBeanData existing = (CachedBeanData) beanCache.get(id);
+    return existing != null && beanData.getVersion() > 0 && existing.getVersion() > beanData.getVersion();
+  }
+
+  /**
+   * Put a bean into the bean cache (where the epoch it was read at is not known).
    */
   void beanCachePut(EntityBean bean) {
+    beanCachePut(bean, Long.MAX_VALUE);
+  }
+
+  /**
+   * Put a bean read at the given epoch into the bean cache (rejected if stale).
+   */
+  void beanCachePut(EntityBean bean, long readEpoch) {
 
     if (desc.inheritInfo != null) {
-      desc.descOf(bean.getClass()).cacheBeanPutDirect(bean);
+      desc.descOf(bean.getClass()).cacheBeanPutDirect(bean, readEpoch);
     } else {
-      beanCachePutDirect(bean);
+      beanCachePutDirect(bean, readEpoch);
+    }
+  }
+
+  /**
+   * Put the beans read at the given epoch into the bean cache (taking into account inheritance).
+   */
+  void beanCachePutAll(Collection<?> beans, long readEpoch) {
+
+    if (desc.inheritInfo == null) {
+      List<EntityBean> list = new ArrayList<EntityBean>(beans.size());
+      for (Object bean : beans) {
+        list.add((EntityBean) bean);
+      }
+      beanCachePutAllDirect(list, readEpoch);
+      return;
+    }
+    // group the beans by their actual type
+    Map<BeanDescriptor<?>, List<EntityBean>> byType = new LinkedHashMap<BeanDescriptor<?>, List<EntityBean>>();
+    for (Object bean : beans) {
+      BeanDescriptor<?> beanDesc = desc.descOf(bean.getClass());
+      List<EntityBean> list = byType.get(beanDesc);
+      if (list == null) {
+        list = new ArrayList<EntityBean>();
+        byType.put(beanDesc, list);
+      }
+      list.add((EntityBean) bean);
+    }
+    for (Map.Entry<BeanDescriptor<?>, List<EntityBean>> entry : byType.entrySet()) {
+      entry.getKey().cacheBeanPutAllDirect(entry.getValue(), readEpoch);
     }
   }
 
   /**
    * Put the bean into the bean cache.
    */
-  void beanCachePutDirect(EntityBean bean) {
+  void beanCachePutDirect(EntityBean bean, long readEpoch) {
 
-    CachedBeanData beanData = beanExtractData(desc, bean);
+    beanCachePutData(desc.getId(bean), beanExtractData(desc, bean), readEpoch);
+  }
+
+  /**
+   * Put the cached bean data read at the given epoch into the bean cache (rejected if stale).
+   */
+  void beanCachePutData(Object id, CachedBeanData beanData, long readEpoch) {
+
+    Map<Object, CachedBeanData> beanData1 = new LinkedHashMap<Object, CachedBeanData>(2);
+    beanData1.put(id, beanData);
+    beanCachePutAllData(beanData1, readEpoch);
+  }
+
+  /**
+   * Put the beans (all of this type) read at the given epoch into the bean and natural key caches
+   * using a single multi-put for each cache.
+   */
+  void beanCachePutAllDirect(List<EntityBean> beans, long readEpoch) {
+
+    Map<Object, CachedBeanData> beanData = new LinkedHashMap<Object, CachedBeanData>(beans.size() * 2);
+    for (EntityBean bean : beans) {
+      beanData.put(desc.getId(bean), beanExtractData(desc, bean));
+    }
+    beanCachePutAllData(beanData, readEpoch);
+  }
+
+  /**
+   * Put the cached bean data (keyed by id) read at the given epoch into the bean and natural key
+   * caches rejecting the stale entries.
+   * <p>
+   * After the put the entries are checked again and removed if invalidated during the put (as
+   * the invalidation may have removed the entry before it was put).
+   * </p>
+   */
+  private void beanCachePutAllData(Map<Object, CachedBeanData> beanData, long readEpoch) {
+
+    Map<Object, Object> beanDataMap = new LinkedHashMap<Object, Object>(beanData.size() * 2);
+    Map<Object, Object> naturalKeyMap = (naturalKeyProperty == null) ? null : new LinkedHashMap<Object, Object>();
+    for (Map.Entry<Object, CachedBeanData> entry : beanData.entrySet()) {
+      Object id = entry.getKey();
+      CachedBeanData data = entry.getValue();
+      if (isStalePut(id, readEpoch, data)) {
+        if (beanLog.isDebugEnabled()) {
+          beanLog.debug("   PUT {}({}) - rejected stale data:{}", cacheName, id, data);
+        }
+        state().beanCacheStalePuts.increment();
+        continue;
+      }
+      beanDataMap.put(id, data);
+      if (naturalKeyMap != null) {
+        Object naturalKey = data.getData(naturalKeyProperty);
+        if (naturalKey != null) {
+          naturalKeyMap.put(naturalKey, id);
+        }
+      }
+    }
+    if (beanDataMap.isEmpty()) {
+      return;
+    }
 
-    Object id = desc.getId(bean);
+    ServerCache cache = getBeanCache();
     if (beanLog.isDebugEnabled()) {
-      beanLog.debug("   PUT {}({}) data:{}", cacheName, id, beanData);
+      beanLog.debug("   PUT {} - data:{}", cacheName, beanDataMap);
+    }
+    ServerCacheBulkHelp.putAll(cache, beanDataMap);
+    if (naturalKeyMap != null && !naturalKeyMap.isEmpty()) {
+      if (natLog.isDebugEnabled()) {
+        natLog.debug(" PUT {} - {}", cacheName, naturalKeyMap);
+      }
+      ServerCacheBulkHelp.putAll(naturalKeyCache, naturalKeyMap);
     }
-    getBeanCache().put(id, beanData);
 
-    if (naturalKeyProperty != null) {
-      Object naturalKey = beanData.getData(naturalKeyProperty);
-      if (naturalKey != null) {
-        if (natLog.isDebugEnabled()) {
-          natLog.debug(" PUT {}({}, {})", cacheName, naturalKey, id);
+    for (Object id : beanDataMap.keySet()) {
+      if (isInvalidatedAfter(id, readEpoch)) {
+        if (beanLog.isDebugEnabled()) {
+          beanLog.debug("   REMOVE {}({}) - invalidated during put", cacheName, id);
+        }
+        state().beanCacheStalePuts.increment();
+        cache.remove(id);
+        if (naturalKeyMap != null) {
+          for (Map.Entry<Object, Object> naturalKey : naturalKeyMap.entrySet()) {
+            if (id.equals(naturalKey.getValue())) {
+              naturalKeyCache.remove(naturalKey.getKey());
+            }
+          }
         }
-        naturalKeyCache.put(naturalKey, id);
       }
     }
   }
 
+  /**
+   * Return true if the bean was invalidated after the given read epoch.
+   */
+  private boolean isInvalidatedAfter(Object id, long readEpoch) {
+    BeanDescriptorCacheState state = state();
+    if (state.isBeanStale(readEpoch)) {
+      return true;
+    }
+    Long invalidated = state.beanInvalidation(id);
+    return invalidated != null && invalidated > readEpoch;
+  }
+
   CachedBeanData beanCacheGetData(Object id) {
     return (CachedBeanData) getBeanCache().get(id);
   }
@@ -540,6 +916,7 @@ final class BeanDescriptorCacheHelp<T> {
    */
   void beanCacheRemove(Object id) {
     if (beanCache != null) {
+      invalidate(id);
       if (beanLog.isDebugEnabled()) {
         beanLog.debug("   REMOVE {}({})", cacheName, id);
       }
@@ -562,6 +939,36 @@ final class BeanDescriptorCacheHelp<T> {
       }
       return false;
     }
+    return beanCacheLoad(bean, ebi, id, cacheData, context);
+  }
+
+  /**
+   * Load the beans from the cache using a single multi-get returning the ones loaded.
+   */
+  Set<EntityBeanIntercept> beanCacheLoadAll(List<EntityBeanIntercept> batch, PersistenceContext context) {
+
+    Map<Object, EntityBeanIntercept> byId = new LinkedHashMap<Object, EntityBeanIntercept>(batch.size() * 2);
+    for (EntityBeanIntercept ebi : batch) {
+      byId.put(desc.getId(ebi.getOwner()), ebi);
+    }
+
+    Map<Object, Object> entries = ServerCacheBulkHelp.getAll(getBeanCache(), byId.keySet());
+    if (beanLog.isDebugEnabled()) {
+      beanLog.debug("   LOAD ALL {} - hits:{} of {}", cacheName, entries.size(), byId.size());
+    }
+
+    Set<EntityBeanIntercept> loaded = Collections.newSetFromMap(new IdentityHashMap<EntityBeanIntercept, Boolean>());
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      EntityBeanIntercept ebi = byId.get(entry.getKey());
+      if (beanCacheLoad(ebi.getOwner(), ebi, entry.getKey(), (CachedBeanData) entry.getValue(), context)) {
+        loaded.add(ebi);
+      }
+    }
+    return loaded;
+  }
+
+  private boolean beanCacheLoad(EntityBean bean, EntityBeanIntercept ebi, Object id, CachedBeanData cacheData, PersistenceContext context) {
+
     int lazyLoadProperty = ebi.getLazyLoadPropertyIndex();
     if (lazyLoadProperty > -1 && !cacheData.isLoaded(ebi.getLazyLoadProperty())) {
       if (beanLog.isTraceEnabled()) {
@@ -581,6 +988,9 @@ final class BeanDescriptorCacheHelp<T> {
    * Add appropriate cache changes to support delete by id.
    */
   void handleDelete(Object id, CacheChangeSet changeSet) {
+    if (queryCache != null) {
+      changeSet.addQueryInsertDelete(desc, id);
+    }
     if (beanCache != null) {
       changeSet.addBeanRemove(desc, id);
     }
@@ -591,7 +1001,9 @@ final class BeanDescriptorCacheHelp<T> {
    * Add appropriate cache changes to support delete bean.
    */
   void handleDelete(Object id, PersistRequestBean<T> deleteRequest, CacheChangeSet changeSet) {
-    queryCacheClear(changeSet);
+    if (queryCache != null) {
+      changeSet.addQueryInsertDelete(desc, id);
+    }
     if (beanCache != null) {
       changeSet.addBeanRemove(desc, id);
     }
@@ -602,7 +1014,9 @@ final class BeanDescriptorCacheHelp<T> {
    * Add appropriate cache changes to support insert.
    */
   void handleInsert(PersistRequestBean<T> insertRequest, CacheChangeSet changeSet) {
-    queryCacheClear(changeSet);
+    if (queryCache != null) {
+      changeSet.addQueryInsertDelete(desc, desc.getId(insertRequest.getEntityBean()));
+    }
     cacheDeleteImported(false, insertRequest.getEntityBean(), changeSet);
     changeSet.addBeanInsert(desc.getBaseTable());
   }
@@ -618,7 +1032,9 @@ final class BeanDescriptorCacheHelp<T> {
    */
   void handleUpdate(Object id, PersistRequestBean<T> updateRequest, CacheChangeSet changeSet) {
 
-    queryCacheClear(changeSet);
+    if (queryCache != null) {
+      changeSet.addQueryUpdate(desc, id, changedProperties(updateRequest));
+    }
 
     if (beanCache == null) {
       // query caching only
@@ -663,6 +1079,33 @@ final class BeanDescriptorCacheHelp<T> {
     }
   }
 
+  /**
+   * Return the names of the properties changed by the update (including many properties and version).
+   */
+  private Set<String> changedProperties(PersistRequestBean<T> updateRequest) {
+
+    Set<String> changed = new HashSet<String>();
+    boolean[] dirtyProperties = updateRequest.getDirtyProperties();
+    if (dirtyProperties != null) {
+      for (int i = 0; i < dirtyProperties.length; i++) {
+        if (dirtyProperties[i]) {
+          changed.add(desc.propertiesIndex[i].getName());
+        }
+      }
+    }
+    List<BeanPropertyAssocMany<?>> manyCollections = updateRequest.getUpdatedManyCollections();
+    if (manyCollections != null) {
+      for (int i = 0; i < manyCollections.size(); i++) {
+        changed.add(manyCollections.get(i).getName());
+      }
+    }
+    BeanProperty versionProperty = desc.getVersionProperty();
+    if (versionProperty != null) {
+      changed.add(versionProperty.getName());
+    }
+    return changed;
+  }
+
   /**
    * Invalidate parts of cache due to SqlUpdate or external modification etc.
    */
@@ -687,6 +1130,7 @@ final class BeanDescriptorCacheHelp<T> {
   void cacheBeanUpdate(Object id, Map<String, Object> changes, boolean updateNaturalKey, long version) {
 
     ServerCache cache = getBeanCache();
+    invalidate(id);
     CachedBeanData existingData = (CachedBeanData) cache.get(id);
     if (existingData != null) {
       long currentVersion = existingData.getVersion();
@@ -718,4 +1162,81 @@ final class BeanDescriptorCacheHelp<T> {
     }
   }
 
+
+  /**
+   * Reloads a bean cache entry ahead of it expiring.
+   */
+  private class BeanRefresher implements ServerCacheRefresher {
+
+    @Override
+    public void refresh(Object id) {
+      // capture the epoch such that a concurrent invalidation rejects the put as stale
+      long readEpoch = beanCacheEpoch();
+      T bean = desc.getEbeanServer().find(desc.getBeanType())
+          .setUseCache(false)
+          .setId(id)
+          .findUnique();
+
+      if (bean == null) {
+        if (beanLog.isDebugEnabled()) {
+          beanLog.debug("   REFRESH {}({}) - not found", cacheName, id);
+        }
+        invalidate(id);
+        getBeanCache().remove(id);
+      } else {
+        if (beanLog.isDebugEnabled()) {
+          beanLog.debug("   REFRESH {}({})", cacheName, id);
+        }
+        beanCachePut((EntityBean) bean, readEpoch);
+      }
+    }
+  }
+
+  /**
+   * Executes the query of a query cache entry again ahead of the entry expiring.
+   */
+  private class QueryRefresher implements ServerCacheRefresher {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void refresh(Object id) {
+      BeanDescriptorCacheState state = state();
+      // capture the epoch such that a concurrent invalidation rejects the put as stale
+      long readEpoch = state.epoch();
+      SpiQuery<T> query = (SpiQuery<T>) state.queryRefresh.get(id);
+      CachedQueryDependency dependency = state.queryDependencies.get(id);
+      if (query == null || dependency == null) {
+        // invalidated or not registered
+        return;
+      }
+
+      SpiQuery<T> copy = query.copy();
+      copy.setUseQueryCache(false);
+      Object result;
+      switch (query.getType()) {
+        case LIST:
+          result = desc.getEbeanServer().findList(copy, null);
+          break;
+        case SET:
+          result = desc.getEbeanServer().findSet(copy, null);
+          break;
+        case MAP:
+          result = desc.getEbeanServer().findMap(copy, null);
+          break;
+        default:
+          // other query types are not refreshed and expire as normal
+          return;
+      }
+
+      if (!(result instanceof BeanCollection<?>)) {
+        queryCacheRemove(id);
+        return;
+      }
+      // an empty result is also put such that the entry reflects the rows no longer existing
+      if (queryLog.isDebugEnabled()) {
+        queryLog.debug("   REFRESH {}({})", cacheName, id);
+      }
+      queryCachePut(id, result, dependency, readEpoch);
+    }
+  }
 }
@@ -0,0 +1,135 @@
+package com.avaje.ebeaninternal.server.deploy;
+
+import com.avaje.ebeaninternal.api.SpiQuery;
+import com.avaje.ebeaninternal.server.cache.CachedQueryDependency;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalidation state of the bean and query caches.
+ * <p>
+ * The caches are shared by an inheritance hierarchy so this state is held by the helper of the
+ * root type and used by the helpers of all the types in the hierarchy.
+ * </p>
+ */
+final class BeanDescriptorCacheState {
+
+  /**
+   * Maximum number of bean invalidation epochs held before they are pruned.
+   */
+  private static final int MAX_BEAN_INVALIDATIONS = 10000;
+
+  /**
+   * The dependencies of the cached query results keyed by query cache key.
+   */
+  final ConcurrentHashMap<Object, CachedQueryDependency> queryDependencies = new ConcurrentHashMap<Object, CachedQueryDependency>();
+
+  /**
+   * The queries of the cached query results keyed by query cache key (only when the query cache refreshes ahead).
+   */
+  final ConcurrentHashMap<Object, SpiQuery<?>> queryRefresh = new ConcurrentHashMap<Object, SpiQuery<?>>();
+
+  final LongAdder queryCacheFullClears = new LongAdder();
+  final LongAdder queryCacheTargetedClears = new LongAdder();
+  final LongAdder queryCacheTargetedRemoves = new LongAdder();
+
+  final LongAdder beanCacheStalePuts = new LongAdder();
+
+  /**
+   * Epoch incremented on each invalidation. Reads capture this before executing such that
+   * a put of data read before an invalidation can be rejected as stale.
+   */
+  private final AtomicLong epoch = new AtomicLong();
+
+  /**
+   * The epoch of the last query cache invalidation.
+   */
+  private final AtomicLong queryInvalidation = new AtomicLong();
+
+  /**
+   * The epoch of the last invalidation keyed by bean id.
+   */
+  private final ConcurrentHashMap<Object, Long> beanInvalidations = new ConcurrentHashMap<Object, Long>();
+
+  /**
+   * Reads that started before this epoch are rejected (invalidations before it have been pruned).
+   */
+  private final AtomicLong beanInvalidationFloor = new AtomicLong();
+
+  /**
+   * Return the current epoch to be captured before a read.
+   */
+  long epoch() {
+    return epoch.get();
+  }
+
+  /**
+   * Increment and return the epoch for an invalidation.
+   */
+  long nextEpoch() {
+    return epoch.incrementAndGet();
+  }
+
+  /**
+   * Record an invalidation of the query cache.
+   */
+  void queryInvalidated() {
+    setMax(queryInvalidation, nextEpoch());
+  }
+
+  /**
+   * Return true if a query result read at the given epoch is stale (the query cache was
+   * invalidated after the read started).
+   */
+  boolean isQueryStale(long readEpoch) {
+    return readEpoch < queryInvalidation.get();
+  }
+
+  /**
+   * Record the invalidation of the bean with the given id.
+   */
+  void beanInvalidated(Object id) {
+    if (beanInvalidations.size() >= MAX_BEAN_INVALIDATIONS) {
+      beanInvalidatedAll();
+    }
+    beanInvalidations.put(id, nextEpoch());
+  }
+
+  /**
+   * Reject all bean reads that started before now and prune the invalidation epochs.
+   */
+  void beanInvalidatedAll() {
+    setMax(beanInvalidationFloor, nextEpoch());
+    beanInvalidations.clear();
+  }
+
+  /**
+   * Return true if bean data read at the given epoch is stale for all beans.
+   */
+  boolean isBeanStale(long readEpoch) {
+    return readEpoch < beanInvalidationFloor.get();
+  }
+
+  /**
+   * Return the epoch of the last invalidation of the bean with the given id (null if not recently invalidated).
+   */
+  Long beanInvalidation(Object id) {
+    return beanInvalidations.get(id);
+  }
+
+  /**
+   * Set the value if it is greater than the current value (as concurrent invalidations can
+   * complete out of order).
+   */
+  static void setMax(AtomicLong value, long newValue) {
+    long current;
+    do {
+      current = value.get();
+      if (current >= newValue) {
+        return;
+      }
+    } while (!value.compareAndSet(current, newValue));
+  }
+}
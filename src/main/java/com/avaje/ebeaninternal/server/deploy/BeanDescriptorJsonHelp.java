@@ -12,18 +12,61 @@ import com.fasterxml.jackson.core.JsonToken;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BeanDescriptorJsonHelp<T> {
 
   private final BeanDescriptor<T> desc;
 
+  /**
+   * Limit on the number of cached plans (distinct sets of included properties).
+   */
+  private static final int MAX_INCLUDE_PLANS = 1000;
+
   private final InheritInfo inheritInfo;
 
+  private final ConcurrentHashMap<Set<String>, JsonWritePlan> includePlans = new ConcurrentHashMap<Set<String>, JsonWritePlan>();
+
+  private JsonWritePlan loadedPlan;
+
+  private JsonWritePlan allPlan;
+
   public BeanDescriptorJsonHelp(BeanDescriptor<T> desc) {
     this.desc = desc;
     this.inheritInfo = desc.inheritInfo;
   }
 
+  /**
+   * Return the plan for writing the included properties (created once and cached).
+   *
+   * @param explicitAllProps true when all properties are explicitly included
+   * @param includeProps     the included properties or null to write the loaded properties
+   */
+  JsonWritePlan jsonWritePlan(boolean explicitAllProps, Set<String> includeProps) {
+    if (explicitAllProps) {
+      if (allPlan == null) {
+        // benign race creating the same immutable plan
+        allPlan = JsonWritePlan.all(desc);
+      }
+      return allPlan;
+    }
+    if (includeProps == null) {
+      if (loadedPlan == null) {
+        loadedPlan = JsonWritePlan.loaded(desc);
+      }
+      return loadedPlan;
+    }
+    JsonWritePlan plan = includePlans.get(includeProps);
+    if (plan == null) {
+      plan = JsonWritePlan.include(desc, includeProps);
+      if (includePlans.size() < MAX_INCLUDE_PLANS) {
+        includePlans.put(includeProps, plan);
+      }
+    }
+    return plan;
+  }
+
   public void jsonWrite(WriteJson writeJson, EntityBean bean, String key) throws IOException {
 
     writeJson.writeStartObject(key);
@@ -5,7 +5,9 @@ import com.avaje.ebean.Model;
 import com.avaje.ebean.RawSqlBuilder;
 import com.avaje.ebean.bean.BeanCollection;
 import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.cache.ServerCache;
 import com.avaje.ebean.cache.ServerCacheManager;
+import com.avaje.ebean.cache.ServerCacheSqlQuery;
 import com.avaje.ebean.config.EncryptKey;
 import com.avaje.ebean.config.EncryptKeyManager;
 import com.avaje.ebean.config.NamingConvention;
@@ -23,6 +25,7 @@ import com.avaje.ebean.plugin.BeanType;
 import com.avaje.ebeaninternal.api.ConcurrencyMode;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
 import com.avaje.ebeaninternal.api.TransactionEventTable;
+import com.avaje.ebeaninternal.server.cache.SqlQueryCache;
 import com.avaje.ebeaninternal.server.core.InternString;
 import com.avaje.ebeaninternal.server.core.InternalConfiguration;
 import com.avaje.ebeaninternal.server.core.Message;
@@ -70,6 +73,7 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.net.URL;
+import java.util.Collection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -160,6 +164,8 @@ public class BeanDescriptorManager implements BeanDescriptorMap {
 
   private final ServerCacheManager cacheManager;
 
+  private final SqlQueryCache sqlQueryCache;
+
   private final BackgroundExecutor backgroundExecutor;
 
   private final int dbSequenceBatchSize;
@@ -192,6 +198,7 @@ public class BeanDescriptorManager implements BeanDescriptorMap {
     this.serverConfig = config.getServerConfig();
     this.serverName = InternString.intern(serverConfig.getName());
     this.cacheManager = config.getCacheManager();
+    this.sqlQueryCache = new SqlQueryCache(sqlQueryCache(cacheManager));
     this.docStoreFactory = config.getDocStoreFactory();
     this.dbSequenceBatchSize = serverConfig.getDatabaseSequenceBatchSize();
     this.backgroundExecutor = config.getBackgroundExecutor();
@@ -281,6 +288,30 @@ public class BeanDescriptorManager implements BeanDescriptorMap {
     return cacheManager;
   }
 
+  /**
+   * Return the cache for SqlQuery results or null if the cache manager does not provide one.
+   */
+  private static ServerCache sqlQueryCache(ServerCacheManager cacheManager) {
+    if (cacheManager instanceof ServerCacheSqlQuery) {
+      return ((ServerCacheSqlQuery) cacheManager).getSqlQueryCache();
+    }
+    return null;
+  }
+
+  /**
+   * Return the query cache for SqlQuery and RawSql results.
+   */
+  public SqlQueryCache getSqlQueryCache() {
+    return sqlQueryCache;
+  }
+
+  /**
+   * Invalidate the SqlQuery and RawSql query cache entries that depend on the given tables.
+   */
+  public void sqlQueryCacheInvalidate(Collection<String> tableNames) {
+    sqlQueryCache.invalidate(tableNames);
+  }
+
   public NamingConvention getNamingConvention() {
     return namingConvention;
   }
@@ -417,6 +448,7 @@ public class BeanDescriptorManager implements BeanDescriptorMap {
   public void cacheNotify(TransactionEventTable.TableIUD tableIUD) {
 
     String tableName = tableIUD.getTableName().toLowerCase();
+    sqlQueryCache.invalidate(tableName);
     List<BeanDescriptor<?>> normalBeanTypes = tableToDescMap.get(tableName);
     if (normalBeanTypes != null) {
       // 'normal' entity beans based on a "base table"
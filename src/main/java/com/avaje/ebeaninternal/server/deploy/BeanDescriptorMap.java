@@ -3,6 +3,7 @@ package com.avaje.ebeaninternal.server.deploy;
 import com.avaje.ebean.cache.ServerCacheManager;
 import com.avaje.ebean.config.EncryptKey;
 import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebeaninternal.server.cache.SqlQueryCache;
 import com.avaje.ebeaninternal.server.deploy.id.IdBinder;
 import com.avaje.ebeaninternal.server.deploy.meta.DeployBeanDescriptor;
 import com.avaje.ebeanservice.docstore.api.DocStoreBeanAdapter;
@@ -30,6 +31,11 @@ public interface BeanDescriptorMap {
    */
   ServerCacheManager getCacheManager();
 
+  /**
+   * Return the query cache for SqlQuery and RawSql results.
+   */
+  SqlQueryCache getSqlQueryCache();
+
   /**
    * Return the BeanDescriptor for a given class.
    */
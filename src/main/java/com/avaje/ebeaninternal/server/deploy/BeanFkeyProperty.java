@@ -1,6 +1,7 @@
 package com.avaje.ebeaninternal.server.deploy;
 
 import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.text.StringFormatter;
 import com.avaje.ebean.text.StringParser;
 import com.avaje.ebeaninternal.api.SpiExpressionRequest;
 import com.avaje.ebeaninternal.server.el.ElPropertyValue;
@@ -175,6 +176,10 @@ public final class BeanFkeyProperty implements ElPropertyValue {
     throw new RuntimeException("ElPropertyDeploy only - not implemented");
   }
 
+  public StringFormatter getStringFormatter() {
+    throw new RuntimeException("ElPropertyDeploy only - not implemented");
+  }
+
   @Override
   public Object convert(Object value) {
     throw new RuntimeException("ElPropertyDeploy only - not implemented");
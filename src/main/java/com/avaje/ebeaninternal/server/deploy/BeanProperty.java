@@ -7,6 +7,7 @@ import com.avaje.ebean.config.EncryptKey;
 import com.avaje.ebean.config.dbplatform.DbEncryptFunction;
 import com.avaje.ebean.config.dbplatform.DbType;
 import com.avaje.ebean.plugin.Property;
+import com.avaje.ebean.text.StringFormatter;
 import com.avaje.ebean.text.StringParser;
 import com.avaje.ebeaninternal.api.SpiExpressionRequest;
 import com.avaje.ebeaninternal.server.core.InternString;
@@ -35,6 +36,7 @@ import com.avaje.ebeanservice.docstore.api.mapping.DocPropertyOptions;
 import com.avaje.ebeanservice.docstore.api.mapping.DocPropertyType;
 import com.avaje.ebeanservice.docstore.api.support.DocStructure;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -139,6 +141,11 @@ public class BeanProperty implements ElPropertyValue, Property {
    */
   final String name;
 
+  /**
+   * The name pre-encoded for writing as a JSON field name.
+   */
+  final SerializedString jsonName;
+
   final int propertyIndex;
 
   /**
@@ -264,6 +271,7 @@ public class BeanProperty implements ElPropertyValue, Property {
 
     this.descriptor = descriptor;
     this.name = InternString.intern(deploy.getName());
+    this.jsonName = new SerializedString(name);
     this.propertyIndex = deploy.getPropertyIndex();
     this.unidirectionalShadow = deploy.isUndirectionalShadow();
     this.discriminator = deploy.isDiscriminator();
@@ -364,6 +372,7 @@ public class BeanProperty implements ElPropertyValue, Property {
 
     this.descriptor = source.descriptor;
     this.name = InternString.intern(source.getName());
+    this.jsonName = source.jsonName;
     this.propertyIndex = source.propertyIndex;
     this.dbColumn = InternString.intern(override.getDbColumn());
     // override with sqlFormula not currently supported
@@ -923,6 +932,10 @@ public class BeanProperty implements ElPropertyValue, Property {
     return scalarType;
   }
 
+  public StringFormatter getStringFormatter() {
+    return scalarType;
+  }
+
   public boolean isDateTimeCapable() {
     return scalarType != null && scalarType.isDateTimeCapable();
   }
@@ -1281,10 +1294,10 @@ public class BeanProperty implements ElPropertyValue, Property {
     }
     Object value = getValueIntercept(bean);
     if (value == null) {
-      writeJson.writeNullField(name);
+      writeJson.writeNullField(jsonName);
     } else {
       if (scalarType != null) {
-        writeJson.writeFieldName(name);
+        writeJson.writeFieldName(jsonName);
         scalarType.jsonWrite(writeJson.gen(), value);
       } else {
         writeJson.writeValueUsingObjectMapper(name, value);
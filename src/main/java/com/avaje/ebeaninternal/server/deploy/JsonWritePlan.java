@@ -0,0 +1,114 @@
+package com.avaje.ebeaninternal.server.deploy;
+
+import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.bean.EntityBeanIntercept;
+import com.avaje.ebeaninternal.server.text.json.WriteJson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The properties of a bean type to write as JSON for a given set of included properties.
+ * <p>
+ * This is resolved once per bean type and included properties (PathProperties) and cached on
+ * the BeanDescriptor such that writing each bean iterates only the included properties rather
+ * than checking every property against the included set. When no properties are explicitly
+ * included the loaded state of each property is checked by property index.
+ * </p>
+ */
+public final class JsonWritePlan {
+
+  private static final BeanProperty[] EMPTY = new BeanProperty[0];
+
+  private final BeanProperty idProperty;
+
+  private final BeanProperty[] properties;
+
+  private final BeanProperty[] transientProperties;
+
+  /**
+   * True to only write the loaded properties (and treat references as id only).
+   */
+  private final boolean loadedOnly;
+
+  /**
+   * Create for writing the loaded properties.
+   */
+  static JsonWritePlan loaded(BeanDescriptor<?> desc) {
+    return new JsonWritePlan(desc.getIdProperty(), desc.propertiesNonTransient(), desc.propertiesTransient(), true);
+  }
+
+  /**
+   * Create for writing all the properties.
+   */
+  static JsonWritePlan all(BeanDescriptor<?> desc) {
+    return new JsonWritePlan(desc.getIdProperty(), desc.propertiesNonTransient(), desc.propertiesTransient(), false);
+  }
+
+  /**
+   * Create for writing the explicitly included properties.
+   */
+  static JsonWritePlan include(BeanDescriptor<?> desc, Set<String> includeProps) {
+    BeanProperty id = desc.getIdProperty();
+    if (id != null && !includeProps.contains(id.getName())) {
+      id = null;
+    }
+    return new JsonWritePlan(id, filter(desc.propertiesNonTransient(), includeProps), filter(desc.propertiesTransient(), includeProps), false);
+  }
+
+  private static BeanProperty[] filter(BeanProperty[] props, Set<String> includeProps) {
+    List<BeanProperty> list = new ArrayList<BeanProperty>();
+    for (BeanProperty prop : props) {
+      if (includeProps.contains(prop.getName())) {
+        list.add(prop);
+      }
+    }
+    return list.isEmpty() ? EMPTY : list.toArray(new BeanProperty[list.size()]);
+  }
+
+  private JsonWritePlan(BeanProperty idProperty, BeanProperty[] properties, BeanProperty[] transientProperties, boolean loadedOnly) {
+    this.idProperty = idProperty;
+    this.properties = properties;
+    this.transientProperties = transientProperties;
+    this.loadedOnly = loadedOnly;
+  }
+
+  /**
+   * Write the properties of the bean.
+   */
+  public void write(WriteJson writeJson, EntityBean bean) throws IOException {
+
+    if (!loadedOnly) {
+      if (idProperty != null) {
+        idProperty.jsonWrite(writeJson, bean);
+      }
+      for (BeanProperty prop : properties) {
+        prop.jsonWrite(writeJson, bean);
+      }
+      for (BeanProperty prop : transientProperties) {
+        prop.jsonWrite(writeJson, bean);
+      }
+      return;
+    }
+
+    EntityBeanIntercept ebi = bean._ebean_getIntercept();
+    if (idProperty != null && ebi.isLoadedProperty(idProperty.getPropertyIndex())) {
+      idProperty.jsonWrite(writeJson, bean);
+    }
+    if (ebi.isReference()) {
+      // only the id is written for a reference
+      return;
+    }
+    for (BeanProperty prop : properties) {
+      if (ebi.isLoadedProperty(prop.getPropertyIndex())) {
+        prop.jsonWrite(writeJson, bean);
+      }
+    }
+    // by default include transient properties
+    for (BeanProperty prop : transientProperties) {
+      prop.jsonWrite(writeJson, bean);
+    }
+  }
+}
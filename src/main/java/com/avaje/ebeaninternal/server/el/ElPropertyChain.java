@@ -1,6 +1,7 @@
 package com.avaje.ebeaninternal.server.el;
 
 import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.text.StringFormatter;
 import com.avaje.ebean.text.StringParser;
 import com.avaje.ebeaninternal.api.SpiExpressionRequest;
 import com.avaje.ebeaninternal.server.deploy.BeanProperty;
@@ -221,6 +222,10 @@ public class ElPropertyChain implements ElPropertyValue {
     return scalarType;
   }
 
+  public StringFormatter getStringFormatter() {
+    return scalarType;
+  }
+
   public Object convert(Object value) {
     // just convert using the last one in the chain
     return lastElPropertyValue.convert(value);
@@ -1,6 +1,7 @@
 package com.avaje.ebeaninternal.server.el;
 
 import com.avaje.ebean.plugin.ExpressionPath;
+import com.avaje.ebean.text.StringFormatter;
 import com.avaje.ebeaninternal.api.SpiExpressionRequest;
 
 /**
@@ -57,4 +58,9 @@ public interface ElPropertyValue extends ElPropertyDeploy, ExpressionPath {
    */
   Object pathGetNested(Object bean);
 
+  /**
+   * Return the default StringFormatter for the scalar property (null if not a scalar property).
+   */
+  StringFormatter getStringFormatter();
+
 }
@@ -22,6 +22,13 @@ public class IdInExpression extends NonPrepareExpression {
     this.idList = idList;
   }
 
+  /**
+   * Return the id values.
+   */
+  public List<?> getIdList() {
+    return idList;
+  }
+
   @Override
   public String nestedPath(BeanDescriptor<?> desc) {
     return null;
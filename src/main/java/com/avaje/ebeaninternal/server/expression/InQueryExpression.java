@@ -5,6 +5,7 @@ import com.avaje.ebeaninternal.api.HashQueryPlanBuilder;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
 import com.avaje.ebeaninternal.api.SpiExpression;
 import com.avaje.ebeaninternal.api.SpiExpressionRequest;
+import com.avaje.ebeaninternal.api.SpiExpressionValidation;
 import com.avaje.ebeaninternal.api.SpiQuery;
 import com.avaje.ebeaninternal.server.query.CQuery;
 
@@ -88,6 +89,12 @@ class InQueryExpression extends AbstractExpression implements UnsupportedDocStor
     request.append(") ");
   }
 
+  @Override
+  public void validate(SpiExpressionValidation validation) {
+    super.validate(validation);
+    validation.validateRaw();
+  }
+
   @Override
   public void addBindValues(SpiExpressionRequest request) {
 
@@ -37,7 +37,7 @@ class RawExpression extends NonPrepareExpression {
 
   @Override
   public void validate(SpiExpressionValidation validation) {
-    // always ignored
+    validation.validateRaw();
   }
 
   @Override
@@ -14,6 +14,7 @@ import com.avaje.ebeaninternal.server.querydefn.OrmQueryProperties;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Default implementation of LoadBeanContext.
@@ -181,14 +182,22 @@ public class DLoadBeanContext extends DLoadBaseContext implements LoadBeanContex
         return;
       }
 
-      if (context.hitCache) {
-        // check each of the beans in the batch to see if they are in the L2 cache.
-        Iterator<EntityBeanIntercept> iterator = list.iterator();
-        while (iterator.hasNext()) {
-          EntityBeanIntercept batchEbi = iterator.next();
-          if (batchEbi != ebi && context.desc.cacheBeanLoad(batchEbi, persistenceContext)) {
-            // bean successfully loaded from L2 cache so remove from batch load
-            iterator.remove();
+      if (context.hitCache && list.size() > 1) {
+        // check the other beans in the batch against the L2 cache with a single multi-get
+        List<EntityBeanIntercept> others = new ArrayList<EntityBeanIntercept>(list.size());
+        for (EntityBeanIntercept batchEbi : list) {
+          if (batchEbi != ebi) {
+            others.add(batchEbi);
+          }
+        }
+        Set<EntityBeanIntercept> loaded = context.desc.cacheBeanLoadAll(others, persistenceContext);
+        if (!loaded.isEmpty()) {
+          // beans successfully loaded from L2 cache so remove from batch load
+          Iterator<EntityBeanIntercept> iterator = list.iterator();
+          while (iterator.hasNext()) {
+            if (loaded.contains(iterator.next())) {
+              iterator.remove();
+            }
           }
         }
       }
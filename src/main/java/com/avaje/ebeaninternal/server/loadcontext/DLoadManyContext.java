@@ -15,7 +15,11 @@ import com.avaje.ebeaninternal.server.deploy.BeanPropertyAssocMany;
 import com.avaje.ebeaninternal.server.querydefn.OrmQueryProperties;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DLoadManyContext extends DLoadBaseContext implements LoadManyContext {
 
@@ -199,6 +203,37 @@ public class DLoadManyContext extends DLoadBaseContext implements LoadManyContex
       return context.fullPath;
     }
 
+    /**
+     * Check the other beanCollections in the batch against the L2 cache (multi-get per parent type)
+     * removing the ones loaded from the batch.
+     */
+    private void loadManyFromCache(BeanCollection<?> bc) {
+
+      Map<BeanDescriptor<?>, List<BeanCollection<?>>> byParentDesc = new LinkedHashMap<BeanDescriptor<?>, List<BeanCollection<?>>>();
+      for (BeanCollection<?> batchBc : list) {
+        if (batchBc != bc) {
+          BeanDescriptor<?> parentDesc = context.desc.getBeanDescriptor(batchBc.getOwnerBean().getClass());
+          List<BeanCollection<?>> collections = byParentDesc.get(parentDesc);
+          if (collections == null) {
+            collections = new ArrayList<BeanCollection<?>>();
+            byParentDesc.put(parentDesc, collections);
+          }
+          collections.add(batchBc);
+        }
+      }
+      for (Map.Entry<BeanDescriptor<?>, List<BeanCollection<?>>> entry : byParentDesc.entrySet()) {
+        Set<BeanCollection<?>> loaded = entry.getKey().cacheManyPropLoadAll(context.property, entry.getValue(), context.parent.isReadOnly());
+        if (!loaded.isEmpty()) {
+          Iterator<BeanCollection<?>> iterator = list.iterator();
+          while (iterator.hasNext()) {
+            if (loaded.contains(iterator.next())) {
+              iterator.remove();
+            }
+          }
+        }
+      }
+    }
+
     public void loadMany(BeanCollection<?> bc, boolean onlyIds) {
 
       synchronized (this) {
@@ -212,10 +247,11 @@ public class DLoadManyContext extends DLoadBaseContext implements LoadManyContex
             list.remove(bc);
             return;
           }
+          if (list.size() > 1) {
+            loadManyFromCache(bc);
+          }
         }
 
-        // Should reduce the list by checking each beanCollection in the L2 first before executing the query
-
         LoadManyRequest req = new LoadManyRequest(this, onlyIds, useCache);
         context.parent.getEbeanServer().loadMany(req);
       }
@@ -3,6 +3,7 @@ package com.avaje.ebeaninternal.server.query;
 import com.avaje.ebeaninternal.server.core.QueryIterator;
 import com.avaje.ebean.Version;
 import com.avaje.ebean.bean.BeanCollection;
+import com.avaje.ebean.bean.CallStack;
 import com.avaje.ebean.bean.EntityBean;
 import com.avaje.ebean.bean.EntityBeanIntercept;
 import com.avaje.ebean.bean.NodeUsageCollector;
@@ -52,7 +53,7 @@ import java.util.concurrent.TimeUnit;
  * the key object used in reading the flat resultSet back into Objects.
  * </p>
  */
-public class CQuery<T> implements DbReadContext, CancelableQuery {
+public class CQuery<T> implements DbReadContext, CancelableQuery, CQuerySlowQueryCapture.Source {
 
   private static final Logger logger = LoggerFactory.getLogger(CQuery.class);
 
@@ -177,6 +178,11 @@ public class CQuery<T> implements DbReadContext, CancelableQuery {
 
   private long executionTimeMicros;
 
+  /**
+   * Slow query capture checked at the end of findIterate (null when not enabled).
+   */
+  private CQuerySlowQueryCapture slowQueryCapture;
+
   /**
    * Flag set when findIterate is being read audited.
    */
@@ -493,6 +499,35 @@ public class CQuery<T> implements DbReadContext, CancelableQuery {
     return executionTimeMicros;
   }
 
+  /**
+   * Return the query plan used.
+   */
+  public CQueryPlan getQueryPlan() {
+    return queryPlan;
+  }
+
+  /**
+   * Return the call stack of the origin query or otherwise the current call stack.
+   */
+  public CallStack getOriginCallStack() {
+    if (objectGraphNode != null && objectGraphNode.getOriginQueryPoint() != null) {
+      return objectGraphNode.getOriginQueryPoint().getCallStack();
+    }
+    return request.getServer().createCallStack();
+  }
+
+  /**
+   * Execute the explain statement for this query (using the same bind values) on the given
+   * connection returning the explain output with a line per row.
+   * <p>
+   * The connection should not be the connection of the query transaction such that a failing
+   * explain does not impact that transaction.
+   * </p>
+   */
+  public String explain(Connection conn, String explainPrefix) throws SQLException {
+    return CQuerySlowQueryCapture.explain(conn, explainPrefix + sql, queryPlan, predicates);
+  }
+
   public boolean readBean() throws SQLException {
 
     boolean result = hasNext();
@@ -568,6 +603,23 @@ public class CQuery<T> implements DbReadContext, CancelableQuery {
     }
   }
 
+  /**
+   * Set the slow query capture to check when the iteration completes (findIterate and findEach).
+   */
+  void setSlowQueryCapture(CQuerySlowQueryCapture slowQueryCapture) {
+    this.slowQueryCapture = slowQueryCapture;
+  }
+
+  /**
+   * Update the execution statistics and check for a slow query when the iteration completes.
+   */
+  void iterateComplete() {
+    updateExecutionStatistics();
+    if (slowQueryCapture != null) {
+      slowQueryCapture.check(this);
+    }
+  }
+
   public QueryIterator<T> readIterate(int bufferSize, OrmQueryRequest<T> request) {
 
     if (bufferSize > 0) {
@@ -99,7 +99,7 @@ public class CQueryBuilder {
     if (queryPlan != null) {
       // skip building the SqlTree and Sql string
       predicates.prepare(false);
-      return new CQueryUpdate(type, request, predicates, queryPlan.getSql());
+      return new CQueryUpdate(type, request, predicates, queryPlan);
     }
 
     predicates.prepare(true);
@@ -116,7 +116,7 @@ public class CQueryBuilder {
     // cache the query plan
     queryPlan = new CQueryPlan(request, sql, sqlTree, false, false, predicates.getLogWhereSql());
     request.putQueryPlan(queryPlan);
-    return new CQueryUpdate(type, request, predicates, sql);
+    return new CQueryUpdate(type, request, predicates, queryPlan);
   }
 
   private <T> String buildDeleteSql(OrmQueryRequest<T> request, String rootTableAlias, CQueryPredicates predicates, SqlTree sqlTree) {
@@ -247,7 +247,7 @@ public class CQueryBuilder {
       // skip building the SqlTree and Sql string
       predicates.prepare(false);
       String sql = queryPlan.getSql();
-      return new CQueryRowCount(request, predicates, sql);
+      return new CQueryRowCount(request, predicates, queryPlan, sql);
     }
 
     predicates.prepare(true);
@@ -270,7 +270,7 @@ public class CQueryBuilder {
     queryPlan = new CQueryPlan(request, sql, sqlTree, false, s.isIncludesRowNumberColumn(), predicates.getLogWhereSql());
     request.putQueryPlan(queryPlan);
 
-    return new CQueryRowCount(request, predicates, sql);
+    return new CQueryRowCount(request, predicates, queryPlan, sql);
   }
 
   /**
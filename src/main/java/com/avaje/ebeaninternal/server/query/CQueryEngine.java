@@ -1,6 +1,8 @@
 package com.avaje.ebeaninternal.server.query;
 
+import com.avaje.ebean.BackgroundExecutor;
 import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebean.meta.MetaSlowQuery;
 import com.avaje.ebeaninternal.server.core.QueryIterator;
 import com.avaje.ebean.ValuePair;
 import com.avaje.ebean.Version;
@@ -46,13 +48,23 @@ public class CQueryEngine {
 
   private final CQueryHistorySupport historySupport;
 
-  public CQueryEngine(ServerConfig serverConfig, DatabasePlatform dbPlatform, Binder binder, Map<String, String> asOfTableMapping, Map<String, String> draftTableMap) {
+  private final CQuerySlowQueryCapture slowQueryCapture;
+
+  public CQueryEngine(ServerConfig serverConfig, DatabasePlatform dbPlatform, Binder binder, Map<String, String> asOfTableMapping, Map<String, String> draftTableMap, BackgroundExecutor backgroundExecutor) {
     this.defaultFetchSizeFindEach = serverConfig.getJdbcFetchSizeFindEach();
     this.defaultFetchSizeFindList = serverConfig.getJdbcFetchSizeFindList();
     this.forwardOnlyHintOnFindIterate = dbPlatform.isForwardOnlyHintOnFindIterate();
 
     this.historySupport = new CQueryHistorySupport(dbPlatform.getHistorySupport(), asOfTableMapping, serverConfig.getAsOfSysPeriod());
     this.queryBuilder = new CQueryBuilder(dbPlatform, binder, historySupport, new CQueryDraftSupport(draftTableMap));
+    this.slowQueryCapture = new CQuerySlowQueryCapture(serverConfig, dbPlatform, backgroundExecutor);
+  }
+
+  /**
+   * Return the captured slow queries.
+   */
+  public List<MetaSlowQuery> collectSlowQueries(boolean reset) {
+    return slowQueryCapture.collect(reset);
   }
 
   public <T> CQuery<T> buildQuery(OrmQueryRequest<T> request) {
@@ -136,6 +148,9 @@ public class CQueryEngine {
     try {
 
       int rowCount = rcQuery.findRowCount();
+      if (slowQueryCapture.isEnabled()) {
+        slowQueryCapture.check(rcQuery);
+      }
 
       if (request.isLogSql()) {
         logGeneratedSql(request, rcQuery.getGeneratedSql(), rcQuery.getBindLog());
@@ -164,6 +179,10 @@ public class CQueryEngine {
 
     CQuery<T> cquery = queryBuilder.buildQuery(request);
     request.setCancelableQuery(cquery);
+    if (slowQueryCapture.isEnabled()) {
+      // checked when the iteration completes
+      cquery.setSlowQueryCapture(slowQueryCapture);
+    }
 
     try {
       if (defaultFetchSizeFindEach > 0) {
@@ -233,6 +252,9 @@ public class CQueryEngine {
       }
 
       List<Version<T>> versions = cquery.readVersions();
+      if (slowQueryCapture.isEnabled()) {
+        slowQueryCapture.check(cquery);
+      }
       // just order in memory rather than use NULLS LAST as that
       // is not universally supported, not expect huge list here
       Collections.sort(versions, OrderVersionDesc.INSTANCE);
@@ -324,6 +346,9 @@ public class CQueryEngine {
       }
 
       BeanCollection<T> beanCollection = cquery.readCollection();
+      if (slowQueryCapture.isEnabled()) {
+        slowQueryCapture.check(cquery);
+      }
       if (request.isLogSummary()) {
         logFindManySummary(cquery);
       }
@@ -373,6 +398,10 @@ public class CQueryEngine {
         bean = cquery.next();
       }
 
+      if (slowQueryCapture.isEnabled()) {
+        slowQueryCapture.check(cquery);
+      }
+
       if (request.isLogSummary()) {
         logFindBeanSummary(cquery);
       }
@@ -36,7 +36,7 @@ class CQueryIteratorSimple<T> implements QueryIterator<T> {
   }
 
   public void close() {
-    cquery.updateExecutionStatistics();
+    cquery.iterateComplete();
     cquery.close();
     request.endTransIfRequired();
   }
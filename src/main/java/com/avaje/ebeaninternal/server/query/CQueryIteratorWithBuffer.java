@@ -56,7 +56,7 @@ class CQueryIteratorWithBuffer<T> implements QueryIterator<T> {
   }
 
   public void close() {
-    cquery.updateExecutionStatistics();
+    cquery.iterateComplete();
     cquery.close();
     request.endTransIfRequired();
   }
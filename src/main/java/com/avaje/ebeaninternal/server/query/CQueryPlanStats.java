@@ -10,6 +10,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import com.avaje.ebean.bean.ObjectGraphNode;
 import com.avaje.ebean.meta.MetaQueryPlanOriginCount;
 import com.avaje.ebean.meta.MetaQueryPlanStatistic;
+import com.avaje.ebeaninternal.server.util.LatencyHistogram;
 import com.avaje.ebeaninternal.server.util.LongAdder;
 import com.avaje.ebeaninternal.server.util.LongMaxUpdater;
 
@@ -28,6 +29,8 @@ public final class CQueryPlanStats {
 
   private final LongMaxUpdater maxTime = new LongMaxUpdater();
 
+  private final LatencyHistogram timeHistogram = new LatencyHistogram();
+
   private final AtomicLong startTime = new AtomicLong(System.currentTimeMillis());
 
   private long lastQueryTime;
@@ -52,6 +55,7 @@ public final class CQueryPlanStats {
     totalBeans.add(loadedBeanCount);
     totalTime.add(timeMicros);
     maxTime.update(timeMicros);
+    timeHistogram.record(timeMicros);
 
     // not safe but should be atomic
     lastQueryTime = System.currentTimeMillis();
@@ -80,6 +84,7 @@ public final class CQueryPlanStats {
     totalBeans.reset();
     totalTime.reset();
     maxTime.reset();
+    timeHistogram.reset();
     startTime.set(System.currentTimeMillis());
 
     if (origins != null) {
@@ -106,9 +111,9 @@ public final class CQueryPlanStats {
     // not guaranteed to be consistent due to time gaps between getting each value out of LongAdders but can live with that
     // relative to the cost of making sure count and totalTime etc are all guaranteed to be consistent
     if (reset) {
-      return new Snapshot(queryPlan, count.sumThenReset(), totalTime.sumThenReset(), totalBeans.sumThenReset(), maxTime.maxThenReset(), startTime.getAndSet(System.currentTimeMillis()), lastQueryTime, origins);
+      return new Snapshot(queryPlan, count.sumThenReset(), totalTime.sumThenReset(), totalBeans.sumThenReset(), maxTime.maxThenReset(), startTime.getAndSet(System.currentTimeMillis()), lastQueryTime, origins, timeHistogram.counts(true));
     }
-    return new Snapshot(queryPlan, count.sum(), totalTime.sum(), totalBeans.sum(), maxTime.max(), startTime.get(), lastQueryTime, origins);
+    return new Snapshot(queryPlan, count.sum(), totalTime.sum(), totalBeans.sum(), maxTime.max(), startTime.get(), lastQueryTime, origins, timeHistogram.counts(false));
   }
 
   /**
@@ -171,9 +176,10 @@ public final class CQueryPlanStats {
     private final long startTime;
     private final long lastQueryTime;
     private final List<MetaQueryPlanOriginCount> origins;
+    private final long[] timeHistogram;
 
     public Snapshot(CQueryPlan queryPlan, long count, long totalTime, long totalBeans, long maxTime, long startTime, long lastQueryTime,
-                    List<MetaQueryPlanOriginCount> origins) {
+                    List<MetaQueryPlanOriginCount> origins, long[] timeHistogram) {
 
       this.queryPlan = queryPlan;
       this.count = count;
@@ -183,10 +189,11 @@ public final class CQueryPlanStats {
       this.startTime = startTime;
       this.lastQueryTime = lastQueryTime;
       this.origins = origins;
+      this.timeHistogram = timeHistogram;
     }
 
     public String toString() {
-      return queryPlan + " count:" + count + " time:" + totalTime + " maxTime:" + maxTime + " beans:" + totalBeans
+      return queryPlan + " count:" + count + " time:" + totalTime + " maxTime:" + maxTime + " p99:" + getPercentileTimeMicros(99) + " beans:" + totalBeans
           + " start:" + startTime + " lastQuery:" + lastQueryTime + " origins:" + origins;
     }
 
@@ -245,6 +252,13 @@ public final class CQueryPlanStats {
       return count < 1 ? 0 : totalTime / count;
     }
 
+    @Override
+    public long getPercentileTimeMicros(double percentile) {
+      long value = LatencyHistogram.percentile(timeHistogram, percentile);
+      // bucket values err on the high side so limit by the actual max
+      return (count < 1) ? value : Math.min(value, maxTime);
+    }
+
     @Override
     public long getAvgLoadedBeans() {
       return count < 1 ? 0 : totalBeans / count;
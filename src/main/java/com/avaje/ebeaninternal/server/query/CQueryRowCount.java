@@ -1,5 +1,7 @@
 package com.avaje.ebeaninternal.server.query;
 
+import com.avaje.ebean.bean.CallStack;
+import com.avaje.ebean.bean.ObjectGraphNode;
 import com.avaje.ebeaninternal.api.SpiQuery;
 import com.avaje.ebeaninternal.api.SpiTransaction;
 import com.avaje.ebeaninternal.server.core.OrmQueryRequest;
@@ -14,7 +16,7 @@ import java.sql.SQLException;
 /**
  * Executes the select row count query.
  */
-public class CQueryRowCount {
+public class CQueryRowCount implements CQuerySlowQueryCapture.Source {
 
   /**
    * The overall find request wrapper object.
@@ -25,6 +27,8 @@ public class CQueryRowCount {
 
   private final SpiQuery<?> query;
 
+  private final CQueryPlan queryPlan;
+
   /**
    * Where clause predicates.
    */
@@ -54,9 +58,10 @@ public class CQueryRowCount {
   /**
    * Create the Sql select based on the request.
    */
-  public CQueryRowCount(OrmQueryRequest<?> request, CQueryPredicates predicates, String sql) {
+  public CQueryRowCount(OrmQueryRequest<?> request, CQueryPredicates predicates, CQueryPlan queryPlan, String sql) {
     this.request = request;
     this.query = request.getQuery();
+    this.queryPlan = queryPlan;
     this.sql = sql;
 
     query.setGeneratedSql(sql);
@@ -95,6 +100,30 @@ public class CQueryRowCount {
     return sql;
   }
 
+  @Override
+  public CQueryPlan getQueryPlan() {
+    return queryPlan;
+  }
+
+  @Override
+  public long getQueryExecutionTimeMicros() {
+    return executionTimeMicros;
+  }
+
+  @Override
+  public CallStack getOriginCallStack() {
+    ObjectGraphNode node = query.getParentNode();
+    if (node != null && node.getOriginQueryPoint() != null) {
+      return node.getOriginQueryPoint().getCallStack();
+    }
+    return request.getServer().createCallStack();
+  }
+
+  @Override
+  public String explain(Connection conn, String explainPrefix) throws SQLException {
+    return CQuerySlowQueryCapture.explain(conn, explainPrefix + sql, queryPlan, predicates);
+  }
+
   /**
    * Execute the query returning the row count.
    */
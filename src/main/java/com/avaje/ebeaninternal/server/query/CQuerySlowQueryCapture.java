@@ -0,0 +1,324 @@
+package com.avaje.ebeaninternal.server.query;
+
+import com.avaje.ebean.BackgroundExecutor;
+import com.avaje.ebean.bean.CallStack;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebean.config.dbplatform.DatabasePlatform;
+import com.avaje.ebean.meta.MetaSlowQuery;
+import com.avaje.ebeaninternal.server.type.DataBind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Captures queries that exceed the slow query threshold into a bounded ring buffer.
+ * <p>
+ * Capturing is rate limited (per minute) so that a generally slow database does
+ * not result in the overhead of capturing and explaining every query.
+ * </p>
+ */
+public class CQuerySlowQueryCapture {
+
+  /**
+   * A query (find, findIterate/findEach or findRowCount) that can be captured as a slow query.
+   */
+  interface Source {
+
+    /**
+     * Return the query plan of the executed query.
+     */
+    CQueryPlan getQueryPlan();
+
+    /**
+     * Return the bind log of the executed query.
+     */
+    String getBindLog();
+
+    /**
+     * Return the execution time of the query in microseconds.
+     */
+    long getQueryExecutionTimeMicros();
+
+    /**
+     * Return the origin call stack of the query.
+     */
+    CallStack getOriginCallStack();
+
+    /**
+     * Execute the explain for the query (with the same bind values) on the given connection.
+     */
+    String explain(Connection conn, String explainPrefix) throws SQLException;
+  }
+
+  private static final Logger logger = LoggerFactory.getLogger(CQuerySlowQueryCapture.class);
+
+  private static final Logger slowQueryLogger = LoggerFactory.getLogger("org.avaje.ebean.SlowQuery");
+
+  private static final long ONE_MINUTE = 60000L;
+
+  private final long slowQueryMicros;
+
+  private final String explainPrefix;
+
+  /**
+   * Used to obtain the DataSource to execute explain on (separate from the query transaction).
+   */
+  private final ServerConfig serverConfig;
+
+  /**
+   * Executes the explain in the background.
+   */
+  private final BackgroundExecutor backgroundExecutor;
+
+  private final int maxPerMinute;
+
+  private final AtomicReferenceArray<SlowQuery> buffer;
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+  private final AtomicInteger windowCount = new AtomicInteger();
+
+  public CQuerySlowQueryCapture(ServerConfig serverConfig, DatabasePlatform dbPlatform, BackgroundExecutor backgroundExecutor) {
+    this.serverConfig = serverConfig;
+    this.backgroundExecutor = backgroundExecutor;
+    this.slowQueryMicros = serverConfig.getSlowQueryMicros();
+    this.explainPrefix = serverConfig.isSlowQueryExplain() ? dbPlatform.getExplainPrefix() : null;
+    this.maxPerMinute = serverConfig.getSlowQueryMaxPerMinute();
+    this.buffer = new AtomicReferenceArray<SlowQuery>(Math.max(1, serverConfig.getSlowQueryBufferSize()));
+  }
+
+  /**
+   * Return true if slow query capture is enabled.
+   */
+  public boolean isEnabled() {
+    return slowQueryMicros > -1;
+  }
+
+  /**
+   * Check the execution time of the query and capture it if it is a slow query.
+   * <p>
+   * The explain is executed in the background on a separate connection such that the query
+   * thread does not hold a second connection, the explain does not run inside the locks and
+   * isolation of the query transaction and errors do not impact that transaction. The explain
+   * plan of the captured query is set when the explain completes.
+   * </p>
+   */
+  public void check(Source query) {
+
+    long exeMicros = query.getQueryExecutionTimeMicros();
+    if (slowQueryMicros < 0 || exeMicros < slowQueryMicros || !tryAcquire()) {
+      return;
+    }
+    try {
+      CQueryPlan queryPlan = query.getQueryPlan();
+      SlowQuery slowQuery = new SlowQuery(queryPlan, query.getBindLog(), exeMicros, query.getOriginCallStack());
+      buffer.set((int) (sequence.getAndIncrement() % buffer.length()), slowQuery);
+      if (slowQueryLogger.isInfoEnabled()) {
+        slowQueryLogger.info("exeMicros[{}] sql[{}] bind[{}]", exeMicros, queryPlan.getSql(), slowQuery.getBindLog());
+      }
+      if (explainPrefix != null && !queryPlan.isRawSql()) {
+        backgroundExecutor.execute(new Explain(query, slowQuery));
+      }
+
+    } catch (Exception e) {
+      logger.error("Error capturing slow query", e);
+    }
+  }
+
+  /**
+   * Execute the explain statement returning the explain output with a line per row.
+   */
+  static String explain(Connection conn, String explainSql, CQueryPlan queryPlan, CQueryPredicates predicates) throws SQLException {
+
+    PreparedStatement explainStmt = conn.prepareStatement(explainSql);
+    ResultSet rset = null;
+    try {
+      DataBind dataBind = queryPlan.bindEncryptedProperties(explainStmt, conn);
+      predicates.bind(dataBind);
+
+      StringBuilder sb = new StringBuilder(200);
+      rset = explainStmt.executeQuery();
+      int columnCount = rset.getMetaData().getColumnCount();
+      while (rset.next()) {
+        for (int i = 1; i <= columnCount; i++) {
+          if (i > 1) {
+            sb.append(" | ");
+          }
+          sb.append(rset.getString(i));
+        }
+        sb.append("\n");
+      }
+      return sb.toString();
+
+    } finally {
+      UtilJdbc.close(rset);
+      UtilJdbc.close(explainStmt);
+    }
+  }
+
+  private String explain(Source query) {
+    DataSource dataSource = serverConfig.getDataSource();
+    if (dataSource == null) {
+      return null;
+    }
+    Connection conn = null;
+    try {
+      conn = dataSource.getConnection();
+      return query.explain(conn, explainPrefix);
+    } catch (Exception e) {
+      logger.debug("Error obtaining explain for slow query", e);
+      return "explain failed: " + e.getMessage();
+    } finally {
+      close(conn);
+    }
+  }
+
+  /**
+   * Background task that obtains the explain plan of a captured slow query.
+   */
+  private class Explain implements Runnable {
+
+    private final Source query;
+
+    private final SlowQuery slowQuery;
+
+    Explain(Source query, SlowQuery slowQuery) {
+      this.query = query;
+      this.slowQuery = slowQuery;
+    }
+
+    @Override
+    public void run() {
+      slowQuery.setExplainPlan(explain(query));
+    }
+  }
+
+  private void close(Connection conn) {
+    if (conn != null) {
+      try {
+        if (!conn.getAutoCommit()) {
+          conn.rollback();
+        }
+        conn.close();
+      } catch (SQLException e) {
+        logger.debug("Error closing explain connection", e);
+      }
+    }
+  }
+
+  /**
+   * Return true if a slow query can be captured given the max per minute rate limit.
+   */
+  private boolean tryAcquire() {
+    long now = System.currentTimeMillis();
+    long start = windowStart.get();
+    if (now - start > ONE_MINUTE && windowStart.compareAndSet(start, now)) {
+      // racey but near enough as we don't want locks
+      windowCount.set(0);
+    }
+    return windowCount.incrementAndGet() <= maxPerMinute;
+  }
+
+  /**
+   * Return the captured slow queries (oldest first) optionally clearing them.
+   */
+  public List<MetaSlowQuery> collect(boolean reset) {
+
+    List<SlowQuery> list = new ArrayList<SlowQuery>(buffer.length());
+    for (int i = 0; i < buffer.length(); i++) {
+      SlowQuery slowQuery = reset ? buffer.getAndSet(i, null) : buffer.get(i);
+      if (slowQuery != null) {
+        list.add(slowQuery);
+      }
+    }
+    Collections.sort(list);
+    return new ArrayList<MetaSlowQuery>(list);
+  }
+
+  /**
+   * A captured slow query.
+   */
+  static class SlowQuery implements MetaSlowQuery, Comparable<SlowQuery> {
+
+    private final CQueryPlan queryPlan;
+    private final String bindLog;
+    private final long executionTimeMicros;
+    private final long captureTime;
+    private final CallStack callStack;
+    private volatile String explainPlan;
+
+    SlowQuery(CQueryPlan queryPlan, String bindLog, long executionTimeMicros, CallStack callStack) {
+      this.queryPlan = queryPlan;
+      this.bindLog = bindLog;
+      this.executionTimeMicros = executionTimeMicros;
+      this.captureTime = System.currentTimeMillis();
+      this.callStack = callStack;
+    }
+
+    void setExplainPlan(String explainPlan) {
+      this.explainPlan = explainPlan;
+    }
+
+    public String toString() {
+      return queryPlan + " exeMicros:" + executionTimeMicros + " bind:" + bindLog + " callStack:" + callStack;
+    }
+
+    @Override
+    public int compareTo(SlowQuery other) {
+      return captureTime < other.captureTime ? -1 : (captureTime == other.captureTime ? 0 : 1);
+    }
+
+    @Override
+    public Class<?> getBeanType() {
+      return queryPlan.getBeanType();
+    }
+
+    @Override
+    public String getQueryPlanHash() {
+      return queryPlan.getPlanKey().toString();
+    }
+
+    @Override
+    public String getSql() {
+      return queryPlan.getSql();
+    }
+
+    @Override
+    public String getBindLog() {
+      return bindLog;
+    }
+
+    @Override
+    public long getExecutionTimeMicros() {
+      return executionTimeMicros;
+    }
+
+    @Override
+    public long getCaptureTime() {
+      return captureTime;
+    }
+
+    @Override
+    public CallStack getCallStack() {
+      return callStack;
+    }
+
+    @Override
+    public String getExplainPlan() {
+      return explainPlan;
+    }
+  }
+}
@@ -20,6 +20,8 @@ public class CQueryUpdate {
 
   private final SpiQuery<?> query;
 
+  private final CQueryPlan queryPlan;
+
   /**
    * Where clause predicates.
    */
@@ -46,11 +48,12 @@ public class CQueryUpdate {
   /**
    * Create the Sql select based on the request.
    */
-  public CQueryUpdate(String type, OrmQueryRequest<?> request, CQueryPredicates predicates, String sql) {
+  public CQueryUpdate(String type, OrmQueryRequest<?> request, CQueryPredicates predicates, CQueryPlan queryPlan) {
     this.type = type;
     this.request = request;
     this.query = request.getQuery();
-    this.sql = sql;
+    this.queryPlan = queryPlan;
+    this.sql = queryPlan.getSql();
     query.setGeneratedSql(sql);
     this.desc = request.getBeanDescriptor();
     this.predicates = predicates;
@@ -103,7 +106,8 @@ public class CQueryUpdate {
       rowCount = pstmt.executeUpdate();
 
       long exeNano = System.nanoTime() - startNano;
-      executionTimeMicros = (int) exeNano / 1000;
+      executionTimeMicros = (int) (exeNano / 1000);
+      queryPlan.executionTime(0, executionTimeMicros, null);
 
       return rowCount;
 
@@ -106,9 +106,7 @@ public class DefaultOrmQueryEngine implements OrmQueryEngine {
       // load the individual beans into the bean cache
       BeanDescriptor<T> descriptor = request.getBeanDescriptor();
       Collection<T> c = result.getActualDetails();
-      for (T bean : c) {
-        descriptor.cacheBeanPut((EntityBean) bean);
-      }
+      descriptor.cacheBeanPutAll(c, request.getBeanCacheEpoch());
     }
 
     if (!result.isEmpty() && query.isUseQueryCache()) {
@@ -136,7 +134,7 @@ public class DefaultOrmQueryEngine implements OrmQueryEngine {
     }
 
     if (result != null && request.isUseBeanCache()) {
-      request.getBeanDescriptor().cacheBeanPut((EntityBean) result);
+      request.getBeanDescriptor().cacheBeanPut((EntityBean) result, request.getBeanCacheEpoch());
     }
 
     return result;
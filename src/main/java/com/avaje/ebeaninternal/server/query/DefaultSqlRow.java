@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Timestamp;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -40,6 +41,11 @@ public class DefaultSqlRow implements SqlRow {
    */
   final Map<String, Object> map;
 
+  /**
+   * Set when the row is shared (held in the query cache) and must not be modified.
+   */
+  private boolean readOnly;
+
   /**
    * Create with an initialCapacity and loadFactor.
    * <p>
@@ -55,11 +61,35 @@ public class DefaultSqlRow implements SqlRow {
     this.dbTrueValue = dbTrueValue;
   }
 
+  /**
+   * Set the row to be read only such that modifications throw IllegalStateException.
+   * <p>
+   * Used for rows held in the query cache which are shared by the callers.
+   * </p>
+   */
+  public void setReadOnly() {
+    this.readOnly = true;
+  }
+
+  /**
+   * Return true if the row is read only.
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  private void checkReadOnly() {
+    if (readOnly) {
+      throw new IllegalStateException("This SqlRow is readOnly");
+    }
+  }
+
   public Iterator<String> keys() {
-    return map.keySet().iterator();
+    return keySet().iterator();
   }
 
   public Object remove(Object name) {
+    checkReadOnly();
     name = ((String) name).toLowerCase();
     return map.remove(name);
   }
@@ -78,6 +108,7 @@ public class DefaultSqlRow implements SqlRow {
   }
 
   private Object setInternal(String name, Object newValue) {
+    checkReadOnly();
     // MapBean properties are always lowercase
     name = name.toLowerCase();
 
@@ -148,6 +179,7 @@ public class DefaultSqlRow implements SqlRow {
   // Normal map methods...
 
   public void clear() {
+    checkReadOnly();
     map.clear();
   }
 
@@ -161,7 +193,7 @@ public class DefaultSqlRow implements SqlRow {
   }
 
   public Set<Map.Entry<String, Object>> entrySet() {
-    return map.entrySet();
+    return readOnly ? Collections.unmodifiableSet(map.entrySet()) : map.entrySet();
   }
 
   public boolean isEmpty() {
@@ -169,10 +201,11 @@ public class DefaultSqlRow implements SqlRow {
   }
 
   public Set<String> keySet() {
-    return map.keySet();
+    return readOnly ? Collections.unmodifiableSet(map.keySet()) : map.keySet();
   }
 
   public void putAll(Map<? extends String, ?> t) {
+    checkReadOnly();
     map.putAll(t);
   }
 
@@ -181,7 +214,7 @@ public class DefaultSqlRow implements SqlRow {
   }
 
   public Collection<Object> values() {
-    return map.values();
+    return readOnly ? Collections.unmodifiableCollection(map.values()) : map.values();
   }
 
 }
@@ -172,6 +172,8 @@ public class DefaultOrmQuery<T> implements SpiQuery<T> {
 
   private Boolean useQueryCache;
 
+  private Boolean useReadOnlyDataSource;
+
   private Boolean readOnly;
 
   private PersistenceContextScope persistenceContextScope;
@@ -574,6 +576,7 @@ public class DefaultOrmQuery<T> implements SpiQuery<T> {
     copy.loadBeanCache = loadBeanCache;
     copy.excludeBeanCache = excludeBeanCache;
     copy.useQueryCache = useQueryCache;
+    copy.useReadOnlyDataSource = useReadOnlyDataSource;
     copy.readOnly = readOnly;
     if (detail != null) {
       copy.detail = detail.copy();
@@ -974,6 +977,17 @@ public class DefaultOrmQuery<T> implements SpiQuery<T> {
     return this;
   }
 
+  @Override
+  public Boolean getUseReadOnlyDataSource() {
+    return useReadOnlyDataSource;
+  }
+
+  @Override
+  public DefaultOrmQuery<T> setUseReadOnlyDataSource(boolean useReadOnlyDataSource) {
+    this.useReadOnlyDataSource = useReadOnlyDataSource;
+    return this;
+  }
+
   @Override
   public boolean isLoadBeanCache() {
     // not using L2 cache for asDraft() query
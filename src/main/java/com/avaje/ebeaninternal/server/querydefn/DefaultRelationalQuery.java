@@ -34,6 +34,8 @@ public class DefaultRelationalQuery implements SpiSqlQuery {
 
   private int bufferFetchSizeHint;
 
+  private boolean useQueryCache;
+
   /**
    * Bind parameters when using the query language.
    */
@@ -124,6 +126,15 @@ public class DefaultRelationalQuery implements SpiSqlQuery {
     return bufferFetchSizeHint;
   }
 
+  public DefaultRelationalQuery setUseQueryCache(boolean useQueryCache) {
+    this.useQueryCache = useQueryCache;
+    return this;
+  }
+
+  public boolean isUseQueryCache() {
+    return useQueryCache;
+  }
+
   public String getQuery() {
     return query;
   }
@@ -0,0 +1,453 @@
+package com.avaje.ebeaninternal.server.readaudit;
+
+import com.avaje.ebean.event.readaudit.ReadAuditQueryPlan;
+import com.avaje.ebean.event.readaudit.ReadEvent;
+import com.avaje.ebean.plugin.Plugin;
+import com.avaje.ebean.plugin.SpiServer;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ReadAuditLogger that queues the read events and writes them in batches on a background thread.
+ * <p>
+ * The calling thread only adds the event to a bounded lock free queue. A single background
+ * thread drains the queue and writes the events in JSON format to the same loggers as
+ * DefaultReadAuditLogger using a reused buffer and generator. Within a batch the read events
+ * that share the same context (source, user, bean type, query and bind values) are aggregated
+ * into a single event with the ids merged - typically the many events from a findEach or the
+ * lazy loading batches of a single request. The eventTime of an aggregated event is that of the
+ * latest event merged into it.
+ * </p>
+ * <p>
+ * Query plans are only written the first time each queryKey is seen. When the queue is full
+ * events are dropped and counted rather than blocking the query (a dropped query plan is
+ * queued again the next time its queryKey is seen).
+ * </p>
+ * <p>
+ * Configured by the properties:
+ * </p>
+ * <ul>
+ * <li>ebean.readAudit.queueSize - the maximum number of queued events (default 10000)</li>
+ * <li>ebean.readAudit.batchSize - the maximum events aggregated per batch (default 1000)</li>
+ * <li>ebean.readAudit.maxQueryPlans - the number of queryKeys remembered as written (default 10000)</li>
+ * </ul>
+ */
+public class BufferedReadAuditLogger extends DefaultReadAuditLogger implements Plugin {
+
+  /**
+   * Buffers larger than this are not retained between events.
+   */
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /**
+   * Queue of ReadEvent and ReadAuditQueryPlan.
+   */
+  private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<Object>();
+
+  private final AtomicInteger queueCount = new AtomicInteger();
+
+  /**
+   * The queryKeys of the query plans already queued.
+   */
+  private final ConcurrentHashMap<String, Boolean> queryPlans = new ConcurrentHashMap<String, Boolean>();
+
+  private final LongAdder queuedCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+  private final LongAdder writtenCount = new LongAdder();
+  private final LongAdder aggregatedCount = new LongAdder();
+  private final LongAdder queryPlanCount = new LongAdder();
+  private final LongAdder batchCount = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+
+  protected int queueSize = 10000;
+
+  protected int batchSize = 1000;
+
+  protected int maxQueryPlans = 10000;
+
+  private StringWriter buffer = new StringWriter(defaultQueryBuffer);
+
+  private volatile boolean running;
+
+  private Thread writer;
+
+  @Override
+  public void configure(SpiServer server) {
+
+    jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // each event is logged separately so no separator between them
+    jsonFactory.setRootValueSeparator(null);
+
+    Properties properties = server.getServerConfig().getProperties();
+    if (properties == null) {
+      properties = new Properties();
+    }
+    queueSize = Integer.parseInt(properties.getProperty("ebean.readAudit.queueSize", String.valueOf(queueSize)));
+    batchSize = Integer.parseInt(properties.getProperty("ebean.readAudit.batchSize", String.valueOf(batchSize)));
+    maxQueryPlans = Integer.parseInt(properties.getProperty("ebean.readAudit.maxQueryPlans", String.valueOf(maxQueryPlans)));
+
+    running = true;
+    writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "ebean-readaudit-" + server.getName());
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void online(boolean online) {
+    // nothing to do
+  }
+
+  /**
+   * Write the remaining events.
+   */
+  @Override
+  public void shutdown() {
+
+    running = false;
+    if (writer != null) {
+      LockSupport.unpark(writer);
+      try {
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    appLogger.debug("read audit shutdown {}", this);
+  }
+
+  /**
+   * Queue the query plan if its queryKey has not been seen before.
+   */
+  @Override
+  public void queryPlan(ReadAuditQueryPlan queryPlan) {
+
+    String queryKey = queryPlan.getQueryKey();
+    if (queryKey != null) {
+      if (queryPlans.containsKey(queryKey)) {
+        return;
+      }
+      if (queryPlans.size() >= maxQueryPlans) {
+        // unlikely but bounded, plans may be written again after this
+        queryPlans.clear();
+      }
+      if (queryPlans.putIfAbsent(queryKey, Boolean.TRUE) != null) {
+        return;
+      }
+    }
+    if (!add(queryPlan) && queryKey != null) {
+      // not written so queue it again when next seen
+      queryPlans.remove(queryKey);
+    }
+  }
+
+  @Override
+  public void auditBean(ReadEvent beanEvent) {
+    add(beanEvent);
+  }
+
+  @Override
+  public void auditMany(ReadEvent readMany) {
+    add(readMany);
+  }
+
+  /**
+   * Add the event to the queue dropping it when the queue is full.
+   *
+   * @return false if the event was dropped
+   */
+  private boolean add(Object event) {
+
+    if (queueCount.incrementAndGet() > queueSize || !running) {
+      queueCount.decrementAndGet();
+      droppedCount.increment();
+      return false;
+    }
+    queue.add(event);
+    queuedCount.increment();
+    if (queueCount.get() == 1) {
+      // the writer may be idle
+      LockSupport.unpark(writer);
+    }
+    return true;
+  }
+
+  private void writeLoop() {
+    while (running || !queue.isEmpty()) {
+      Object event = queue.poll();
+      if (event == null) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      } else {
+        writeBatch(event);
+      }
+    }
+  }
+
+  /**
+   * Write the event and up to batchSize queued events.
+   * <p>
+   * Query plans are written as they are polled (ahead of the read events that use them) and the
+   * read events are aggregated and written at the end of the batch.
+   * </p>
+   */
+  private void writeBatch(Object event) {
+
+    int count = 0;
+    Map<EventKey, ReadEvent> events = new LinkedHashMap<EventKey, ReadEvent>();
+    try {
+      JsonGenerator gen = jsonFactory.createGenerator(buffer);
+      do {
+        queueCount.decrementAndGet();
+        count++;
+        if (event instanceof ReadEvent) {
+          aggregate(events, (ReadEvent) event);
+        } else {
+          writeQueryPlan(gen, (ReadAuditQueryPlan) event);
+          log(gen, true);
+          queryPlanCount.increment();
+        }
+      } while (count < batchSize && (event = queue.poll()) != null);
+
+      for (ReadEvent readEvent : events.values()) {
+        writeReadEvent(gen, readEvent);
+        log(gen, false);
+      }
+      writtenCount.add(count);
+      aggregatedCount.add(events.size());
+      batchCount.increment();
+
+    } catch (Exception e) {
+      errorCount.add(count);
+      appLogger.error("Error writing " + count + " read audit events", e);
+    } finally {
+      if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+        buffer = new StringWriter(defaultQueryBuffer);
+      } else {
+        buffer.getBuffer().setLength(0);
+      }
+    }
+  }
+
+  /**
+   * Log the content of the buffer and reset it.
+   */
+  private void log(JsonGenerator gen, boolean queryPlan) throws IOException {
+    gen.flush();
+    StringBuffer content = buffer.getBuffer();
+    if (queryPlan) {
+      logQueryPlan(content.toString());
+    } else {
+      logReadEvent(content.toString());
+    }
+    content.setLength(0);
+  }
+
+  /**
+   * Log the query plan JSON content.
+   */
+  protected void logQueryPlan(String json) {
+    queryLogger.info(json);
+  }
+
+  /**
+   * Log the (aggregated) read event JSON content.
+   */
+  protected void logReadEvent(String json) {
+    auditLogger.info(json);
+  }
+
+  /**
+   * Merge the event into an existing event with the same context or add it.
+   */
+  private void aggregate(Map<EventKey, ReadEvent> events, ReadEvent event) {
+
+    EventKey key = new EventKey(event);
+    ReadEvent existing = events.get(key);
+    if (existing == null) {
+      events.put(key, event);
+      return;
+    }
+    if (!(existing instanceof MergedEvent)) {
+      // merge into a copy such that the original event is not mutated
+      existing = new MergedEvent(existing);
+      events.put(key, existing);
+    }
+    addIds(existing.getIds(), event);
+    if (event.getEventTime() > existing.getEventTime()) {
+      existing.setEventTime(event.getEventTime());
+    }
+  }
+
+  private static void addIds(List<Object> ids, ReadEvent event) {
+    if (event.getId() != null) {
+      ids.add(event.getId());
+    }
+    if (event.getIds() != null) {
+      ids.addAll(event.getIds());
+    }
+  }
+
+  /**
+   * Return the number of events and query plans queued.
+   */
+  public long getQueuedCount() {
+    return queuedCount.sum();
+  }
+
+  /**
+   * Return the number of events and query plans dropped as the queue was full.
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Return the number of events and query plans written.
+   */
+  public long getWrittenCount() {
+    return writtenCount.sum();
+  }
+
+  /**
+   * Return the number of read events logged after aggregation.
+   */
+  public long getAggregatedCount() {
+    return aggregatedCount.sum();
+  }
+
+  /**
+   * Return the number of query plans logged.
+   */
+  public long getQueryPlanCount() {
+    return queryPlanCount.sum();
+  }
+
+  /**
+   * Return the number of batches written.
+   */
+  public long getBatchCount() {
+    return batchCount.sum();
+  }
+
+  /**
+   * Return the number of events that failed to be written.
+   */
+  public long getErrorCount() {
+    return errorCount.sum();
+  }
+
+  /**
+   * Return the current number of events in the queue.
+   */
+  public int getQueueDepth() {
+    return queueCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "queued:" + getQueuedCount() + " written:" + getWrittenCount() + " aggregated:" + getAggregatedCount()
+        + " plans:" + getQueryPlanCount() + " batches:" + getBatchCount() + " dropped:" + getDroppedCount()
+        + " errors:" + getErrorCount();
+  }
+
+  /**
+   * Read event with the ids of the aggregated events.
+   */
+  private static class MergedEvent extends ReadEvent {
+
+    MergedEvent(ReadEvent first) {
+      super(first.getBeanType(), first.getQueryKey(), first.getBindLog());
+      setSource(first.getSource());
+      setUserId(first.getUserId());
+      setUserIpAddress(first.getUserIpAddress());
+      setUserContext(first.getUserContext());
+      setEventTime(first.getEventTime());
+      setIds(new ArrayList<Object>());
+      addIds(getIds(), first);
+    }
+  }
+
+  /**
+   * The context of a read event that events are aggregated by.
+   */
+  private static class EventKey {
+
+    private final String source;
+    private final String userId;
+    private final String userIpAddress;
+    private final Map<String, String> userContext;
+    private final String beanType;
+    private final String queryKey;
+    private final String bindLog;
+    private final int hash;
+
+    EventKey(ReadEvent event) {
+      this.source = event.getSource();
+      this.userId = event.getUserId();
+      this.userIpAddress = event.getUserIpAddress();
+      this.userContext = event.getUserContext();
+      this.beanType = event.getBeanType();
+      this.queryKey = event.getQueryKey();
+      this.bindLog = event.getBindLog();
+      int hc = hash(source);
+      hc = hc * 92821 + hash(userId);
+      hc = hc * 92821 + hash(userIpAddress);
+      hc = hc * 92821 + hash(userContext);
+      hc = hc * 92821 + hash(beanType);
+      hc = hc * 92821 + hash(queryKey);
+      hc = hc * 92821 + hash(bindLog);
+      this.hash = hc;
+    }
+
+    private static int hash(Object value) {
+      return (value == null) ? 0 : value.hashCode();
+    }
+
+    private static boolean same(Object a, Object b) {
+      return (a == null) ? b == null : a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof EventKey)) {
+        return false;
+      }
+      EventKey other = (EventKey) obj;
+      return hash == other.hash
+          && same(beanType, other.beanType)
+          && same(queryKey, other.queryKey)
+          && same(bindLog, other.bindLog)
+          && same(userId, other.userId)
+          && same(source, other.source)
+          && same(userIpAddress, other.userIpAddress)
+          && same(userContext, other.userContext);
+    }
+  }
+}
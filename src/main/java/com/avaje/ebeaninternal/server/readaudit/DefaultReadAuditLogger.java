@@ -18,11 +18,11 @@ import java.util.Map;
  */
 public class DefaultReadAuditLogger implements ReadAuditLogger {
 
-  private static final Logger appLogger = LoggerFactory.getLogger(DefaultReadAuditLogger.class);
+  protected static final Logger appLogger = LoggerFactory.getLogger(DefaultReadAuditLogger.class);
 
-  private static final Logger queryLogger = LoggerFactory.getLogger("org.avaje.ebean.ReadAuditQuery");
+  protected static final Logger queryLogger = LoggerFactory.getLogger("org.avaje.ebean.ReadAuditQuery");
 
-  private static final Logger auditLogger = LoggerFactory.getLogger("org.avaje.ebean.ReadAudit");
+  protected static final Logger auditLogger = LoggerFactory.getLogger("org.avaje.ebean.ReadAudit");
 
   protected final JsonFactory jsonFactory = new JsonFactory();
 
@@ -38,21 +38,7 @@ public class DefaultReadAuditLogger implements ReadAuditLogger {
     try {
       StringWriter writer = new StringWriter(defaultQueryBuffer);
       JsonGenerator gen = jsonFactory.createGenerator(writer);
-
-      gen.writeStartObject();
-      String beanType = queryPlan.getBeanType();
-      if (beanType != null) {
-        gen.writeStringField("beanType", beanType);
-      }
-      String queryKey = queryPlan.getQueryKey();
-      if (queryKey != null) {
-        gen.writeStringField("queryKey", queryKey);
-      }
-      String sql = queryPlan.getSql();
-      if (sql != null) {
-        gen.writeStringField("sql", sql);
-      }
-      gen.writeEndObject();
+      writeQueryPlan(gen, queryPlan);
       gen.flush();
       gen.close();
 
@@ -63,6 +49,27 @@ public class DefaultReadAuditLogger implements ReadAuditLogger {
     }
   }
 
+  /**
+   * Write the query plan details as a JSON object.
+   */
+  protected void writeQueryPlan(JsonGenerator gen, ReadAuditQueryPlan queryPlan) throws IOException {
+
+    gen.writeStartObject();
+    String beanType = queryPlan.getBeanType();
+    if (beanType != null) {
+      gen.writeStringField("beanType", beanType);
+    }
+    String queryKey = queryPlan.getQueryKey();
+    if (queryKey != null) {
+      gen.writeStringField("queryKey", queryKey);
+    }
+    String sql = queryPlan.getSql();
+    if (sql != null) {
+      gen.writeStringField("sql", sql);
+    }
+    gen.writeEndObject();
+  }
+
   /**
    * Write the bean read event details in JSON format to the logger.
    */
@@ -99,6 +106,16 @@ public class DefaultReadAuditLogger implements ReadAuditLogger {
    */
   protected void writeDetails(JsonGenerator gen, ReadEvent event) throws IOException {
 
+    writeReadEvent(gen, event);
+    gen.flush();
+    gen.close();
+  }
+
+  /**
+   * Write the read bean or read many beans event as a JSON object.
+   */
+  protected void writeReadEvent(JsonGenerator gen, ReadEvent event) throws IOException {
+
     gen.writeStartObject();
     String source = event.getSource();
     if (source != null) {
@@ -134,8 +151,6 @@ public class DefaultReadAuditLogger implements ReadAuditLogger {
     }
 
     gen.writeEndObject();
-    gen.flush();
-    gen.close();
   }
 
 }
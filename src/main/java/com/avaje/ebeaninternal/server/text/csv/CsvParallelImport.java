@@ -0,0 +1,446 @@
+package com.avaje.ebeaninternal.server.text.csv;
+
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.Transaction;
+import com.avaje.ebean.text.csv.CsvErrorRow;
+import com.avaje.ebean.text.csv.CsvImportResult;
+import com.avaje.ebeaninternal.server.lib.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel processing of CSV content for TCsvReader.
+ * <p>
+ * The content is split into line aligned chunks (memory mapped for files) that are parsed,
+ * converted and saved by worker threads. Each commitSize rows are saved in a separate batched
+ * transaction. Rows that fail are collected by chunk and line and converted into absolute row
+ * numbers once all the chunks have been processed (and their line counts are known).
+ * </p>
+ */
+class CsvParallelImport<T> {
+
+  private static final Logger logger = LoggerFactory.getLogger(CsvParallelImport.class);
+
+  private final EbeanServer server;
+
+  private final TCsvReader<T> csvReader;
+
+  private final int threads;
+
+  private final int commitSize;
+
+  private final int chunkBytes;
+
+  private final int persistBatchSize;
+
+  private final int maxErrors;
+
+  private final int logInfoFrequency;
+
+  /**
+   * The number of lines in each chunk keyed by chunk index.
+   */
+  private final ConcurrentHashMap<Integer, Integer> chunkLines = new ConcurrentHashMap<Integer, Integer>();
+
+  private final List<ChunkError> errors = new ArrayList<ChunkError>();
+
+  private final AtomicLong rowCount = new AtomicLong();
+
+  private final AtomicLong savedCount = new AtomicLong();
+
+  private final AtomicLong errorCount = new AtomicLong();
+
+  private final ExecutorService executor;
+
+  /**
+   * Limits the chunks in flight such that the reading does not get too far ahead of the workers.
+   */
+  private final Semaphore inFlight;
+
+  private final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+  private final long startTime = System.currentTimeMillis();
+
+  CsvParallelImport(EbeanServer server, TCsvReader<T> csvReader, int threads, int commitSize, int chunkBytes,
+                    int persistBatchSize, int maxErrors, int logInfoFrequency) {
+    this.server = server;
+    this.csvReader = csvReader;
+    this.threads = Math.max(1, threads);
+    this.commitSize = Math.max(1, commitSize);
+    this.chunkBytes = Math.max(1024, chunkBytes);
+    this.persistBatchSize = persistBatchSize;
+    this.maxErrors = maxErrors;
+    this.logInfoFrequency = logInfoFrequency;
+    this.executor = Executors.newFixedThreadPool(this.threads, new DaemonThreadFactory("ebean-csv"));
+    this.inFlight = new Semaphore(this.threads * 2);
+  }
+
+  /**
+   * Process the file memory mapping it in line aligned chunks.
+   */
+  CsvImportResult processFile(File file, Charset charset) throws Exception {
+
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      long size = channel.size();
+      long start = 0;
+      if (csvReader.isHasHeader()) {
+        start = nextLineStart(channel, 0, size);
+        ByteBuffer headerBytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, start);
+        readHeader(new CsvUtilReader(new StringReader(charset.decode(headerBytes).toString())).readNext());
+      }
+
+      int chunk = 0;
+      while (start < size) {
+        long end = (start + chunkBytes >= size) ? size : nextLineStart(channel, start + chunkBytes - 1, size);
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        submit(new FileChunk(chunk++, buffer, charset));
+        start = end;
+      }
+      return complete();
+
+    } finally {
+      executor.shutdownNow();
+      raf.close();
+    }
+  }
+
+  /**
+   * Process the reader with each commitSize lines as a chunk.
+   */
+  CsvImportResult processReader(Reader reader) throws Exception {
+
+    try {
+      BufferedReader lineReader = new BufferedReader(reader);
+      if (csvReader.isHasHeader()) {
+        String header = lineReader.readLine();
+        if (header != null) {
+          readHeader(new CsvUtilReader(new StringReader(header)).readNext());
+        }
+      }
+
+      int chunk = 0;
+      StringBuilder content = new StringBuilder();
+      int lines = 0;
+      String line;
+      while ((line = lineReader.readLine()) != null) {
+        content.append(line).append('\n');
+        if (++lines == commitSize) {
+          submit(new LinesChunk(chunk++, content.toString()));
+          content.setLength(0);
+          lines = 0;
+        }
+      }
+      if (lines > 0) {
+        submit(new LinesChunk(chunk, content.toString()));
+      }
+      return complete();
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void readHeader(String[] header) {
+    if (header != null) {
+      csvReader.readHeader(header);
+    }
+  }
+
+  /**
+   * Return the position after the next line feed at or after the given position.
+   */
+  private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  private void submit(final Chunk chunk) throws InterruptedException {
+    inFlight.acquire();
+    futures.add(executor.submit(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          processChunk(chunk);
+        } finally {
+          inFlight.release();
+        }
+      }
+    }));
+  }
+
+  /**
+   * Wait for all the chunks and return the result.
+   */
+  private CsvImportResult complete() throws Exception {
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        throw (cause instanceof Exception) ? (Exception) cause : e;
+      }
+    }
+
+    long exeMillis = System.currentTimeMillis() - startTime;
+    CsvImportResult result = new CsvImportResult(rowCount.get(), savedCount.get(), errorCount.get(), errorRows(), exeMillis);
+    logger.info("Csv parallel finished, " + result);
+    return result;
+  }
+
+  /**
+   * Return the error rows converting chunk lines into absolute row numbers.
+   */
+  private List<CsvErrorRow> errorRows() {
+
+    long[] chunkStart = new long[chunkLines.size() + 1];
+    for (int i = 1; i < chunkStart.length; i++) {
+      Integer lines = chunkLines.get(i - 1);
+      chunkStart[i] = chunkStart[i - 1] + (lines == null ? 0 : lines);
+    }
+
+    List<CsvErrorRow> rows = new ArrayList<CsvErrorRow>(errors.size());
+    for (ChunkError error : errors) {
+      rows.add(new CsvErrorRow(chunkStart[error.chunk] + error.line, error.content, error.message));
+    }
+    Collections.sort(rows, new Comparator<CsvErrorRow>() {
+      @Override
+      public int compare(CsvErrorRow o1, CsvErrorRow o2) {
+        return o1.getRow() < o2.getRow() ? -1 : (o1.getRow() == o2.getRow() ? 0 : 1);
+      }
+    });
+    if (rows.size() > maxErrors) {
+      rows = new ArrayList<CsvErrorRow>(rows.subList(0, maxErrors));
+    }
+    return rows;
+  }
+
+  /**
+   * Parse, convert and save the rows of the chunk.
+   */
+  private void processChunk(Chunk chunk) {
+
+    CsvUtilReader utilReader = new CsvUtilReader(chunk.reader());
+    int columnCount = csvReader.getColumnCount();
+
+    List<T> beans = new ArrayList<T>(commitSize);
+    List<Integer> beanLines = new ArrayList<Integer>(commitSize);
+    List<String[]> beanContent = new ArrayList<String[]>(commitSize);
+
+    int line = 0;
+    try {
+      String[] content;
+      while ((content = utilReader.readNext()) != null) {
+        line++;
+        logProgress(rowCount.incrementAndGet());
+        if (content.length != columnCount) {
+          addError(chunk.index, line, content, "Expected [" + columnCount + "] columns but instead we have [" + content.length + "]");
+          continue;
+        }
+        try {
+          beans.add(csvReader.buildBean(content));
+          beanLines.add(line);
+          beanContent.add(content);
+        } catch (RuntimeException e) {
+          addError(chunk.index, line, content, String.valueOf(e.getMessage()));
+        }
+        if (beans.size() >= commitSize) {
+          save(chunk.index, beans, beanLines, beanContent);
+        }
+      }
+      if (!beans.isEmpty()) {
+        save(chunk.index, beans, beanLines, beanContent);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading csv chunk " + chunk.index, e);
+    } finally {
+      chunkLines.put(chunk.index, line);
+    }
+  }
+
+  /**
+   * Save the beans in their own transaction clearing the lists.
+   */
+  private void save(int chunk, List<T> beans, List<Integer> beanLines, List<String[]> beanContent) {
+
+    Transaction transaction = server.createTransaction();
+    try {
+      if (persistBatchSize > 1) {
+        transaction.setBatchMode(true);
+        transaction.setBatchSize(persistBatchSize);
+        transaction.setBatchGetGeneratedKeys(false);
+      } else {
+        transaction.setBatchMode(false);
+      }
+      for (T bean : beans) {
+        server.save(bean, transaction);
+      }
+      transaction.commit();
+      savedCount.addAndGet(beans.size());
+
+    } catch (RuntimeException e) {
+      if (transaction.isActive()) {
+        transaction.rollback(e);
+      }
+      String message = "Error saving rows: " + e.getMessage();
+      for (int i = 0; i < beans.size(); i++) {
+        addError(chunk, beanLines.get(i), beanContent.get(i), message);
+      }
+    } finally {
+      transaction.end();
+      beans.clear();
+      beanLines.clear();
+      beanContent.clear();
+    }
+  }
+
+  private void addError(int chunk, int line, String[] content, String message) {
+    if (errorCount.incrementAndGet() <= maxErrors) {
+      synchronized (errors) {
+        errors.add(new ChunkError(chunk, line, content, message));
+      }
+    }
+  }
+
+  private void logProgress(long row) {
+    if (logInfoFrequency > 0 && row % logInfoFrequency == 0) {
+      logger.info("processed " + row + " rows");
+    }
+  }
+
+  /**
+   * An error on a line of a chunk.
+   */
+  private static class ChunkError {
+
+    final int chunk;
+    final int line;
+    final String[] content;
+    final String message;
+
+    ChunkError(int chunk, int line, String[] content, String message) {
+      this.chunk = chunk;
+      this.line = line;
+      this.content = content;
+      this.message = message;
+    }
+  }
+
+  /**
+   * A line aligned chunk of the CSV content.
+   */
+  private static abstract class Chunk {
+
+    final int index;
+
+    Chunk(int index) {
+      this.index = index;
+    }
+
+    abstract Reader reader();
+  }
+
+  /**
+   * A chunk of a memory mapped file decoded by the worker thread.
+   */
+  private static class FileChunk extends Chunk {
+
+    private final ByteBuffer buffer;
+
+    private final Charset charset;
+
+    FileChunk(int index, ByteBuffer buffer, Charset charset) {
+      super(index);
+      this.buffer = buffer;
+      this.charset = charset;
+    }
+
+    @Override
+    Reader reader() {
+      return new CharBufferReader(charset.decode(buffer));
+    }
+  }
+
+  /**
+   * A chunk of lines read from a Reader.
+   */
+  private static class LinesChunk extends Chunk {
+
+    private final String content;
+
+    LinesChunk(int index, String content) {
+      super(index);
+      this.content = content;
+    }
+
+    @Override
+    Reader reader() {
+      return new StringReader(content);
+    }
+  }
+
+  /**
+   * Reader of a CharBuffer (without copying it into a String).
+   */
+  private static class CharBufferReader extends Reader {
+
+    private final CharBuffer buffer;
+
+    CharBufferReader(CharBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.get(cbuf, off, count);
+      return count;
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.avaje.ebeaninternal.server.text.csv;
 
+import java.io.File;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.sql.Types;
 import java.text.DateFormat;
 import java.text.ParseException;
@@ -18,6 +20,7 @@ import com.avaje.ebean.text.StringParser;
 import com.avaje.ebean.text.TextException;
 import com.avaje.ebean.text.TimeStringParser;
 import com.avaje.ebean.text.csv.CsvCallback;
+import com.avaje.ebean.text.csv.CsvImportResult;
 import com.avaje.ebean.text.csv.CsvReader;
 import com.avaje.ebean.text.csv.DefaultCsvCallback;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
@@ -55,6 +58,23 @@ public class TCsvReader<T> implements CsvReader<T> {
 
 	private boolean addPropertiesFromHeader;
 
+	/**
+	 * The number of threads used for parallel processing.
+	 */
+	private int parallelThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The number of rows per transaction for parallel processing.
+	 */
+	private int commitSize = 1000;
+
+	/**
+	 * The size of the file chunks for parallel processing.
+	 */
+	private int chunkBytes = 16 * 1024 * 1024;
+
+	private int maxErrors = 1000;
+
 	public TCsvReader(EbeanServer server, BeanDescriptor<T> descriptor) {
 		this.server = server;
 		this.descriptor = descriptor;
@@ -80,6 +100,22 @@ public class TCsvReader<T> implements CsvReader<T> {
 		this.persistBatchSize = persistBatchSize;
 	}
 
+	public void setParallelThreads(int parallelThreads) {
+		this.parallelThreads = parallelThreads;
+	}
+
+	public void setCommitSize(int commitSize) {
+		this.commitSize = commitSize;
+	}
+
+	public void setChunkBytes(int chunkBytes) {
+		this.chunkBytes = chunkBytes;
+	}
+
+	public void setMaxErrors(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
 	public void setIgnoreHeader() {
 		setHasHeader(true, false);
 	}
@@ -123,8 +159,7 @@ public class TCsvReader<T> implements CsvReader<T> {
 			locale = defaultLocale;
 		}
 
-		SimpleDateFormat sdf = new SimpleDateFormat(dateTimeFormat, locale);
-		DateTimeParser parser = new DateTimeParser(sdf, dateTimeFormat, elProp);
+		DateTimeParser parser = new DateTimeParser(dateTimeFormat, locale, elProp);
 
 		CsvColumn column = new CsvColumn(elProp, parser);
 		columnList.add(column);
@@ -217,6 +252,47 @@ public class TCsvReader<T> implements CsvReader<T> {
 		}
 	}
 
+	public CsvImportResult processParallel(File file, Charset charset) throws Exception {
+		if (file == null) {
+			throw new NullPointerException("file is null?");
+		}
+		return createParallelImport().processFile(file, charset);
+	}
+
+	public CsvImportResult processParallel(Reader reader) throws Exception {
+		if (reader == null) {
+			throw new NullPointerException("reader is null?");
+		}
+		return createParallelImport().processReader(reader);
+	}
+
+	private CsvParallelImport<T> createParallelImport() {
+		return new CsvParallelImport<T>(server, this, parallelThreads, commitSize, chunkBytes, persistBatchSize, maxErrors, logInfoFrequency);
+	}
+
+	/**
+	 * Return true if the content has a header row.
+	 */
+	boolean isHasHeader() {
+		return hasHeader;
+	}
+
+	/**
+	 * Read the header adding the properties from it if required.
+	 */
+	void readHeader(String[] line) {
+		if (addPropertiesFromHeader) {
+			addPropertiesFromHeader(line);
+		}
+	}
+
+	/**
+	 * Return the number of columns expected.
+	 */
+	int getColumnCount() {
+		return columnList.size();
+	}
+
 	private void addPropertiesFromHeader(String[] line) {
 		for (int i = 0; i < line.length; i++) {
 			ElPropertyValue elProp = descriptor.getElGetValue(line[i]);
@@ -248,22 +324,27 @@ public class TCsvReader<T> implements CsvReader<T> {
 	protected T buildBeanFromLineContent(int row, String[] line) {
 
 		try {
-			EntityBean entityBean = descriptor.createEntityBean();
-			T bean = (T) entityBean;
-
-			int columnPos = 0;
-			for (; columnPos < line.length; columnPos++) {
-				convertAndSetColumn(columnPos, line[columnPos], entityBean);
-			}
+			return buildBean(line);
 
-			return bean;
-			
 		} catch (RuntimeException e) {
 			String msg = "Error at line: " + row + " line[" + Arrays.toString(line) + "]";
 			throw new RuntimeException(msg, e);
 		}
 	}
 
+	/**
+	 * Build the bean from the line content (thread safe for parallel processing).
+	 */
+	@SuppressWarnings("unchecked")
+	T buildBean(String[] line) {
+
+		EntityBean entityBean = descriptor.createEntityBean();
+		for (int columnPos = 0; columnPos < line.length; columnPos++) {
+			convertAndSetColumn(columnPos, line[columnPos], entityBean);
+		}
+		return (T) entityBean;
+	}
+
 	protected void convertAndSetColumn(int columnPos, String strValue, EntityBean bean) {
 
 		strValue = strValue.trim();
@@ -316,22 +397,31 @@ public class TCsvReader<T> implements CsvReader<T> {
 	 * A StringParser for converting custom date/time/datetime strings into
 	 * appropriate java types (Date, Calendar, SQL Date, Time, Timestamp, JODA
 	 * etc).
+	 * <p>
+	 * The DateFormat is held per thread as it is not thread safe and rows are
+	 * converted by multiple threads with parallel processing.
+	 * </p>
 	 */
 	private static class DateTimeParser implements StringParser {
 
-		private final DateFormat dateFormat;
+		private final ThreadLocal<DateFormat> dateFormat;
 		private final ExpressionPath path;
 		private final String format;
 
-		DateTimeParser(DateFormat dateFormat, String format, ExpressionPath path) {
-			this.dateFormat = dateFormat;
+		DateTimeParser(final String format, final Locale locale, ExpressionPath path) {
 			this.path = path;
 			this.format = format;
+			this.dateFormat = new ThreadLocal<DateFormat>() {
+				@Override
+				protected DateFormat initialValue() {
+					return new SimpleDateFormat(format, locale);
+				}
+			};
 		}
 
 		public Object parse(String value) {
 			try {
-				Date dt = dateFormat.parse(value);
+				Date dt = dateFormat.get().parse(value);
 				return path.parseDateTime(dt.getTime());
 
 			} catch (ParseException e) {
@@ -0,0 +1,272 @@
+package com.avaje.ebeaninternal.server.text.csv;
+
+import com.avaje.ebean.Query;
+import com.avaje.ebean.QueryEachConsumer;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebean.text.StringFormatter;
+import com.avaje.ebean.text.TextException;
+import com.avaje.ebean.text.csv.CsvWriter;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.deploy.BeanProperty;
+import com.avaje.ebeaninternal.server.el.ElPropertyValue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implementation of the CsvWriter.
+ */
+public class TCsvWriter<T> implements CsvWriter<T> {
+
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  private final BeanDescriptor<T> descriptor;
+
+  private final List<CsvColumn> columnList = new ArrayList<CsvColumn>();
+
+  private PathProperties pathProperties;
+
+  private boolean header = true;
+
+  private char separator = CsvUtilReader.DEFAULT_SEPARATOR;
+
+  public TCsvWriter(BeanDescriptor<T> descriptor) {
+    this.descriptor = descriptor;
+  }
+
+  public void setHeader(boolean header) {
+    this.header = header;
+  }
+
+  public void setSeparator(char separator) {
+    this.separator = separator;
+  }
+
+  public void setPathProperties(PathProperties pathProperties) {
+    this.pathProperties = pathProperties;
+  }
+
+  public void addProperty(String propertyName) {
+    addProperty(propertyName, null);
+  }
+
+  public void addProperty(String propertyName, StringFormatter formatter) {
+    columnList.add(createColumn(propertyName, formatter));
+  }
+
+  public void addDateTime(String propertyName, String dateTimeFormat) {
+    addDateTime(propertyName, dateTimeFormat, Locale.getDefault());
+  }
+
+  public void addDateTime(String propertyName, String dateTimeFormat, Locale locale) {
+
+    ElPropertyValue elProp = getElProperty(propertyName);
+    if (!elProp.isDateTimeCapable()) {
+      throw new TextException("Property " + propertyName + " is not DateTime capable");
+    }
+    DateFormat dateFormat = new SimpleDateFormat(dateTimeFormat, (locale == null) ? Locale.getDefault() : locale);
+    columnList.add(new CsvColumn(propertyName, elProp, new DateTimeFormatter(dateFormat, elProp.getStringFormatter())));
+  }
+
+  private ElPropertyValue getElProperty(String propertyName) {
+    ElPropertyValue elProp = descriptor.getElGetValue(propertyName);
+    if (elProp == null) {
+      throw new TextException("Property [" + propertyName + "] not found");
+    }
+    return elProp;
+  }
+
+  private CsvColumn createColumn(String propertyName, StringFormatter formatter) {
+
+    ElPropertyValue elProp = getElProperty(propertyName);
+    if (formatter == null) {
+      formatter = elProp.getStringFormatter();
+      if (formatter == null) {
+        throw new TextException("Property [" + propertyName + "] is not a scalar property");
+      }
+    }
+    return new CsvColumn(propertyName, elProp, formatter);
+  }
+
+  public int write(Query<T> query, OutputStream outputStream, Charset charset) {
+    Writer writer = Channels.newWriter(Channels.newChannel(outputStream), charset.newEncoder(), BUFFER_SIZE);
+    return write(query, writer);
+  }
+
+  public int write(Query<T> query, Writer writer) {
+
+    final CsvColumn[] columns = columns();
+    if (pathProperties != null) {
+      pathProperties.apply(query);
+    }
+
+    final BufferedWriter out = new BufferedWriter(writer, BUFFER_SIZE);
+    final int[] rows = new int[1];
+    try {
+      if (header) {
+        for (int i = 0; i < columns.length; i++) {
+          writeValue(out, i, columns[i].name);
+        }
+        out.write('\n');
+      }
+
+      query.findEach(new QueryEachConsumer<T>() {
+        @Override
+        public void accept(T bean) {
+          try {
+            for (int i = 0; i < columns.length; i++) {
+              writeValue(out, i, columns[i].format(bean));
+            }
+            out.write('\n');
+            rows[0]++;
+          } catch (IOException e) {
+            throw new TextException(e);
+          }
+        }
+      });
+
+      out.flush();
+      return rows[0];
+
+    } catch (IOException e) {
+      throw new TextException(e);
+    }
+  }
+
+  /**
+   * Return the columns explicitly added, from the PathProperties or otherwise the id and scalar properties.
+   */
+  private CsvColumn[] columns() {
+
+    if (!columnList.isEmpty()) {
+      return columnList.toArray(new CsvColumn[columnList.size()]);
+    }
+
+    List<CsvColumn> columns = new ArrayList<CsvColumn>();
+    if (pathProperties != null) {
+      for (PathProperties.Props props : pathProperties.getPathProps()) {
+        String path = props.getPath();
+        for (String property : props.getProperties()) {
+          String propertyName = (path == null) ? property : path + "." + property;
+          ElPropertyValue elProp = getElProperty(propertyName);
+          if (!elProp.isAssocProperty()) {
+            // associated beans are written via their nested path
+            columns.add(createColumn(propertyName, null));
+          }
+        }
+      }
+    } else {
+      BeanProperty idProperty = descriptor.getIdProperty();
+      if (idProperty != null && !idProperty.isEmbedded()) {
+        columns.add(createColumn(idProperty.getName(), null));
+      }
+      for (BeanProperty property : descriptor.propertiesBaseScalar()) {
+        if (!property.isTransient()) {
+          columns.add(createColumn(property.getName(), null));
+        }
+      }
+    }
+    return columns.toArray(new CsvColumn[columns.size()]);
+  }
+
+  /**
+   * Write the value quoting it if it contains the separator, a quote or line break or if it has
+   * leading or trailing whitespace (which the reader trims).
+   */
+  private void writeValue(Writer out, int columnPos, String value) throws IOException {
+
+    if (columnPos > 0) {
+      out.write(separator);
+    }
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+    if (!requiresQuotes(value)) {
+      out.write(value);
+      return;
+    }
+    out.write(CsvUtilReader.DEFAULT_QUOTE_CHARACTER);
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == CsvUtilReader.DEFAULT_QUOTE_CHARACTER) {
+        out.write(c);
+      }
+      out.write(c);
+    }
+    out.write(CsvUtilReader.DEFAULT_QUOTE_CHARACTER);
+  }
+
+  private boolean requiresQuotes(String value) {
+
+    if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == separator || c == CsvUtilReader.DEFAULT_QUOTE_CHARACTER || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A column of the csv content.
+   */
+  private static class CsvColumn {
+
+    private final String name;
+    private final ElPropertyValue path;
+    private final StringFormatter formatter;
+
+    CsvColumn(String name, ElPropertyValue path, StringFormatter formatter) {
+      this.name = name;
+      this.path = path;
+      this.formatter = formatter;
+    }
+
+    /**
+     * Return the formatted value of the property for the bean.
+     */
+    String format(Object bean) {
+      Object value = path.pathGet(bean);
+      return (value == null) ? null : formatter.format(value);
+    }
+  }
+
+  /**
+   * A StringFormatter for writing Date and Calendar values with a custom format.
+   * Other date time types use the default formatting of the scalar type.
+   */
+  private static class DateTimeFormatter implements StringFormatter {
+
+    private final DateFormat dateFormat;
+    private final StringFormatter defaultFormatter;
+
+    DateTimeFormatter(DateFormat dateFormat, StringFormatter defaultFormatter) {
+      this.dateFormat = dateFormat;
+      this.defaultFormatter = defaultFormatter;
+    }
+
+    public String format(Object value) {
+      if (value instanceof Date) {
+        return dateFormat.format((Date) value);
+      }
+      if (value instanceof Calendar) {
+        return dateFormat.format(((Calendar) value).getTime());
+      }
+      return defaultFormatter.format(value);
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.avaje.ebeaninternal.server.text.json;
 
 import com.avaje.ebean.FetchPath;
+import com.avaje.ebean.Query;
+import com.avaje.ebean.QueryEachConsumer;
 import com.avaje.ebean.bean.EntityBean;
 import com.avaje.ebean.config.JsonConfig;
 import com.avaje.ebean.plugin.BeanType;
@@ -23,6 +25,8 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -86,6 +90,27 @@ public class DJsonContext implements JsonContext {
     }
   }
 
+  public JsonGenerator createGenerator(OutputStream output) throws JsonIOException {
+    try {
+      return jsonFactory.createGenerator(output);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  public JsonParser createParser(InputStream input) throws JsonIOException {
+    try {
+      return jsonFactory.createParser(input);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  @Override
+  public JsonContext withFactory(JsonFactory jsonFactory) {
+    return new DJsonContext(server, jsonFactory, typeManager);
+  }
+
   public <T> T toBean(Class<T> cls, String json) throws JsonIOException {
     return toBean(cls, new StringReader(json));
   }
@@ -103,6 +128,16 @@ public class DJsonContext implements JsonContext {
     return toBean(cls, createParser(jsonReader), options);
   }
 
+  @Override
+  public <T> T toBean(Class<T> cls, InputStream input) throws JsonIOException {
+    return toBean(cls, createParser(input));
+  }
+
+  @Override
+  public <T> T toBean(Class<T> cls, InputStream input, JsonReadOptions options) throws JsonIOException {
+    return toBean(cls, createParser(input), options);
+  }
+
   public <T> T toBean(Class<T> cls, JsonParser parser) throws JsonIOException {
     return toBean(cls, parser, null);
   }
@@ -151,6 +186,16 @@ public class DJsonContext implements JsonContext {
     return toList(cls, createParser(jsonReader), options);
   }
 
+  @Override
+  public <T> List<T> toList(Class<T> cls, InputStream input) throws JsonIOException {
+    return toList(cls, createParser(input));
+  }
+
+  @Override
+  public <T> List<T> toList(Class<T> cls, InputStream input, JsonReadOptions options) throws JsonIOException {
+    return toList(cls, createParser(input), options);
+  }
+
   public <T> List<T> toList(Class<T> cls, JsonParser src) throws JsonIOException {
     return toList(cls, src, null);
   }
@@ -253,6 +298,18 @@ public class DJsonContext implements JsonContext {
     toJsonWithClose(o, createGenerator(writer), options);
   }
 
+  @Override
+  public void toJson(Object o, OutputStream output) throws JsonIOException {
+    // close generator
+    toJsonWithClose(o, createGenerator(output), null);
+  }
+
+  @Override
+  public void toJson(Object o, OutputStream output, JsonWriteOptions options) throws JsonIOException {
+    // close generator
+    toJsonWithClose(o, createGenerator(output), options);
+  }
+
   /**
    * Write to the JsonGenerator and close when complete.
    */
@@ -325,6 +382,63 @@ public class DJsonContext implements JsonContext {
     }
   }
 
+  @Override
+  public <T> int toJson(Query<T> query, Writer writer) throws JsonIOException {
+    return toJsonQuery(query, createGenerator(writer), null, true);
+  }
+
+  @Override
+  public <T> int toJson(Query<T> query, Writer writer, FetchPath fetchPath) throws JsonIOException {
+    return toJsonQuery(query, createGenerator(writer), fetchPath, true);
+  }
+
+  @Override
+  public <T> int toJson(Query<T> query, JsonGenerator generator) throws JsonIOException {
+    return toJsonQuery(query, generator, null, false);
+  }
+
+  @Override
+  public <T> int toJson(Query<T> query, JsonGenerator generator, FetchPath fetchPath) throws JsonIOException {
+    return toJsonQuery(query, generator, fetchPath, false);
+  }
+
+  /**
+   * Execute the query using findEach writing each bean to the generator as it is read.
+   */
+  private <T> int toJsonQuery(Query<T> query, final JsonGenerator gen, FetchPath fetchPath, boolean close) throws JsonIOException {
+
+    if (fetchPath != null) {
+      query.apply(fetchPath);
+    }
+    final WriteJson writeJson = createWriteJson(gen, (fetchPath == null) ? null : JsonWriteOptions.pathProperties(fetchPath));
+    final int[] count = new int[1];
+    try {
+      gen.writeStartArray();
+      query.findEach(new QueryEachConsumer<T>() {
+        @Override
+        public void accept(T bean) {
+          try {
+            getDescriptor(bean.getClass()).jsonWrite(writeJson, (EntityBean) bean, null);
+            count[0]++;
+          } catch (IOException e) {
+            // stops the iteration and closes the underlying ResultSet
+            throw new JsonIOException(e);
+          }
+        }
+      });
+      gen.writeEndArray();
+      if (close) {
+        gen.close();
+      } else {
+        gen.flush();
+      }
+      return count[0];
+
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
   private WriteJson createWriteJson(JsonGenerator gen, JsonWriteOptions options) {
     FetchPath pathProps = (options == null) ? null : options.getPathProperties();
     Map<String, JsonWriteBeanVisitor<?>> visitors = (options == null) ? null : options.getVisitorMap();
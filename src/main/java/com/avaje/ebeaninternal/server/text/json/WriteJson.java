@@ -8,9 +8,10 @@ import com.avaje.ebean.text.json.JsonWriteBeanVisitor;
 import com.avaje.ebean.text.json.JsonWriter;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
-import com.avaje.ebeaninternal.server.deploy.BeanProperty;
+import com.avaje.ebeaninternal.server.deploy.JsonWritePlan;
 import com.avaje.ebeaninternal.server.util.ArrayStack;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
@@ -38,6 +39,15 @@ public class WriteJson implements JsonWriter {
 
   private final JsonConfig.Include include;
 
+  /**
+   * The descriptor and included properties of the last plan (for consecutive beans of the same type and path).
+   */
+  private BeanDescriptor<?> lastPlanDesc;
+
+  private Set<String> lastPlanProps;
+
+  private JsonWritePlan lastPlan;
+
   /**
    * Construct for full bean use (normal).
    */
@@ -174,6 +184,31 @@ public class WriteJson implements JsonWriter {
     }
   }
 
+  /**
+   * Write a pre-encoded field name.
+   */
+  public void writeFieldName(SerializableString name) {
+    try {
+      generator.writeFieldName(name);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  /**
+   * Write a null field with a pre-encoded name (if nulls are included).
+   */
+  public void writeNullField(SerializableString name) {
+    if (isIncludeNull()) {
+      try {
+        generator.writeFieldName(name);
+        generator.writeNull();
+      } catch (IOException e) {
+        throw new JsonIOException(e);
+      }
+    }
+  }
+
   @Override
   public void writeNullField(String name) {
     if (isIncludeNull()) {
@@ -400,6 +435,24 @@ public class WriteJson implements JsonWriter {
     return new WriteBean(desc, explicitAllProps, currentIncludeProps, bean, visitor);
   }
 
+  /**
+   * Return the plan for writing the bean type with the included properties.
+   * <p>
+   * The last plan is remembered as consecutive beans are typically of the same type and path.
+   * </p>
+   */
+  JsonWritePlan writePlan(BeanDescriptor<?> desc, boolean explicitAllProps, Set<String> includeProps) {
+    if (includeProps == null) {
+      return desc.jsonWritePlan(explicitAllProps, null);
+    }
+    if (desc != lastPlanDesc || includeProps != lastPlanProps) {
+      lastPlanDesc = desc;
+      lastPlanProps = includeProps;
+      lastPlan = desc.jsonWritePlan(false, includeProps);
+    }
+    return lastPlan;
+  }
+
   public void writeValueUsingObjectMapper(String name, Object value) {
 
     if (!isIncludeEmpty()) {
@@ -448,58 +501,12 @@ public class WriteJson implements JsonWriter {
       this.visitor = visitor;
     }
 
-    private boolean isReferenceOnly() {
-      return !explicitAllProps && currentIncludeProps == null && currentBean._ebean_getIntercept().isReference();
-    }
-
-    private boolean isIncludeProperty(BeanProperty prop) {
-      if (explicitAllProps)
-        return true;
-      if (currentIncludeProps != null) {
-        // explicitly controlled by pathProperties
-        return currentIncludeProps.contains(prop.getName());
-      } else {
-        // include only loaded properties
-        return currentBean._ebean_getIntercept().isLoadedProperty(prop.getPropertyIndex());
-      }
-    }
-
-    private boolean isIncludeTransientProperty(BeanProperty prop) {
-      if (!explicitAllProps && currentIncludeProps != null) {
-        // explicitly controlled by pathProperties
-        return currentIncludeProps.contains(prop.getName());
-      } else {
-        // by default include transient properties
-        return true;
-      }
-    }
-
     @SuppressWarnings("unchecked")
     public void write(WriteJson writeJson) {
 
       try {
-        BeanProperty beanProp = desc.getIdProperty();
-        if (beanProp != null) {
-          if (isIncludeProperty(beanProp)) {
-            beanProp.jsonWrite(writeJson, currentBean);
-          }
-        }
-
-        if (!isReferenceOnly()) {
-          // render all the properties and invoke lazy loading if required
-          BeanProperty[] props = desc.propertiesNonTransient();
-          for (int j = 0; j < props.length; j++) {
-            if (isIncludeProperty(props[j])) {
-              props[j].jsonWrite(writeJson, currentBean);
-            }
-          }
-          props = desc.propertiesTransient();
-          for (int j = 0; j < props.length; j++) {
-            if (isIncludeTransientProperty(props[j])) {
-              props[j].jsonWrite(writeJson, currentBean);
-            }
-          }
-        }
+        // the properties to write are resolved once per bean type and included properties
+        writeJson.writePlan(desc, explicitAllProps, currentIncludeProps).write(writeJson, currentBean);
 
         if (visitor != null) {
           visitor.visit(currentBean, writeJson);
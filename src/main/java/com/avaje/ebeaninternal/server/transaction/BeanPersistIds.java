@@ -1,17 +1,23 @@
 package com.avaje.ebeaninternal.server.transaction;
 
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
 import com.avaje.ebeaninternal.server.cluster.BinaryMessage;
 import com.avaje.ebeaninternal.server.cluster.BinaryMessageList;
+import com.avaje.ebeaninternal.server.cluster.VarInt;
 import com.avaje.ebeaninternal.server.core.PersistRequest;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
 import com.avaje.ebeaninternal.server.deploy.id.IdBinder;
+import com.avaje.ebeaninternal.server.util.LongAdder;
 
 import java.io.DataInput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
@@ -29,6 +35,10 @@ import java.util.List;
  */
 public class BeanPersistIds {
 
+  private static final int ENCODING_BINDER = 0;
+  private static final int ENCODING_LONG = 1;
+  private static final int ENCODING_INT = 2;
+
   private final BeanDescriptor<?> beanDescriptor;
 
   private final String descriptorId;
@@ -54,12 +64,53 @@ public class BeanPersistIds {
     return bp;
   }
 
+  /**
+   * Read a message written using the compact encoding (TYPE_BEANIUD_COMPACT).
+   */
+  public static BeanPersistIds readCompactBinaryMessage(SpiEbeanServer server, DataInput dataInput) throws IOException {
+
+    String descriptorId = dataInput.readUTF();
+    BeanDescriptor<?> desc = server.getBeanDescriptorById(descriptorId);
+    BeanPersistIds bp = new BeanPersistIds(desc);
+    bp.readCompact(dataInput);
+    return bp;
+  }
+
+  private void readCompact(DataInput dataInput) throws IOException {
+
+    int iudType = dataInput.readByte();
+    int encoding = dataInput.readByte();
+    int count = checkCount(VarInt.readUnsigned(dataInput), dataInput);
+
+    List<Object> idList = new ArrayList<Object>(count);
+    if (encoding == ENCODING_BINDER) {
+      IdBinder idBinder = beanDescriptor.getIdBinder();
+      for (int i = 0; i < count; i++) {
+        idList.add(idBinder.readData(dataInput));
+      }
+    } else {
+      long previous = 0;
+      for (int i = 0; i < count; i++) {
+        previous += VarInt.readSigned(dataInput);
+        if (encoding == ENCODING_INT) {
+          idList.add((int) previous);
+        } else {
+          idList.add(previous);
+        }
+      }
+    }
+    setIdList(iudType, idList);
+  }
+
   private void read(DataInput dataInput) throws IOException {
 
     IdBinder idBinder = beanDescriptor.getIdBinder();
 
     int iudType = dataInput.readInt();
-    List<Object> idList = readIdList(dataInput, idBinder);
+    setIdList(iudType, readIdList(dataInput, idBinder));
+  }
+
+  private void setIdList(int iudType, List<Object> idList) {
     switch (iudType) {
       case 0:
         insertIds = idList;
@@ -92,6 +143,95 @@ public class BeanPersistIds {
     writeIdList(beanDescriptor, 2, deleteIds, msgList);
   }
 
+  /**
+   * Write the contents using the compact encoding adding the number of bytes saved
+   * (relative to the standard encoding) to the given counter.
+   * <p>
+   * Integer and Long ids are sorted and written as variable length deltas. Other id types
+   * are written as per the standard encoding.
+   * </p>
+   */
+  void writeCompactBinaryMessage(BinaryMessageList msgList, LongAdder bytesSaved) throws IOException {
+
+    writeCompactIdList(0, insertIds, msgList, bytesSaved);
+    writeCompactIdList(1, updateIds, msgList, bytesSaved);
+    writeCompactIdList(2, deleteIds, msgList, bytesSaved);
+  }
+
+  private void writeCompactIdList(int iudType, List<Object> idList, BinaryMessageList msgList, LongAdder bytesSaved) throws IOException {
+
+    if (idList == null || idList.isEmpty()) {
+      return;
+    }
+    int encoding = encoding(idList);
+    IdBinder idBinder = beanDescriptor.getIdBinder();
+
+    for (int start = 0; start < idList.size(); start += 100) {
+      List<Object> chunk = idList.subList(start, Math.min(idList.size(), start + 100));
+
+      BinaryMessage m = new BinaryMessage(chunk.size() * 2 + 20);
+      DataOutputStream os = m.getOs();
+      os.writeInt(BinaryMessage.TYPE_BEANIUD_COMPACT);
+      os.writeUTF(descriptorId);
+      os.writeByte(iudType);
+      os.writeByte(encoding);
+      VarInt.writeUnsigned(os, chunk.size());
+
+      long idBytesSaved = 0;
+      if (encoding == ENCODING_BINDER) {
+        for (Object id : chunk) {
+          idBinder.writeData(os, id);
+        }
+      } else {
+        long[] values = new long[chunk.size()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = ((Number) chunk.get(i)).longValue();
+        }
+        // order does not matter for invalidation and sorted ids give small deltas
+        Arrays.sort(values);
+        long previous = 0;
+        // the standard encoding is a null flag plus the fixed width value per id
+        int standardIdSize = (encoding == ENCODING_INT) ? 5 : 9;
+        for (long value : values) {
+          VarInt.writeSigned(os, value - previous);
+          idBytesSaved += standardIdSize - VarInt.sizeOfSigned(value - previous);
+          previous = value;
+        }
+      }
+      os.flush();
+      msgList.add(m);
+
+      if (bytesSaved != null) {
+        // the standard encoding uses 4 bytes each for iudType and count
+        bytesSaved.add(idBytesSaved + 8 - 2 - VarInt.sizeOfUnsigned(chunk.size()));
+      }
+    }
+  }
+
+  private int encoding(List<Object> idList) {
+    boolean allInt = true;
+    boolean allLong = true;
+    for (Object id : idList) {
+      allInt = allInt && (id instanceof Integer);
+      allLong = allLong && (id instanceof Long);
+    }
+    return allInt ? ENCODING_INT : allLong ? ENCODING_LONG : ENCODING_BINDER;
+  }
+
+  /**
+   * Check the id count read from a compact message is valid given each id takes at least one byte.
+   * <p>
+   * Compact messages are read from the received message bytes such that the remaining bytes are known.
+   * </p>
+   */
+  private static int checkCount(long count, DataInput dataInput) throws IOException {
+    long remaining = (dataInput instanceof InputStream) ? ((InputStream) dataInput).available() : Integer.MAX_VALUE;
+    if (count < 0 || count > remaining) {
+      throw new IOException("Invalid id count " + count + " with " + remaining + " bytes remaining");
+    }
+    return (int) count;
+  }
+
   private List<Object> readIdList(DataInput dataInput, IdBinder idBinder) throws IOException {
 
     int count = dataInput.readInt();
@@ -134,7 +274,8 @@ public class BeanPersistIds {
         os.writeInt(BinaryMessage.TYPE_BEANIUD);
         os.writeUTF(descriptorId);
         os.writeInt(iudType);
-        os.writeInt(count);
+        // the number of ids in this message
+        os.writeInt(endOfLoop - i);
 
         for (; i < endOfLoop; i++) {
           idBinder.writeData(os, idList.get(i));
@@ -205,11 +346,72 @@ public class BeanPersistIds {
     deleteIds.add(id);
   }
 
+  /**
+   * Add the ids of the other (for the same bean type) to this.
+   */
+  void merge(BeanPersistIds other) {
+    insertIds = mergeIds(insertIds, other.insertIds);
+    updateIds = mergeIds(updateIds, other.updateIds);
+    deleteIds = mergeIds(deleteIds, other.deleteIds);
+  }
+
+  private List<Object> mergeIds(List<Object> ids, List<Object> otherIds) {
+    if (otherIds == null) {
+      return ids;
+    }
+    if (ids == null) {
+      ids = new ArrayList<Object>(otherIds.size());
+    }
+    ids.addAll(otherIds);
+    return ids;
+  }
+
+  /**
+   * Remove duplicate ids returning the number of ids removed.
+   */
+  int removeDuplicates() {
+    int before = getIdCount();
+    insertIds = distinct(insertIds);
+    updateIds = distinct(updateIds);
+    deleteIds = distinct(deleteIds);
+    return before - getIdCount();
+  }
+
+  private List<Object> distinct(List<Object> ids) {
+    return (ids == null) ? null : new ArrayList<Object>(new LinkedHashSet<Object>(ids));
+  }
+
+  /**
+   * Return the total number of inserted, updated and deleted ids.
+   */
+  int getIdCount() {
+    return size(insertIds) + size(updateIds) + size(deleteIds);
+  }
+
+  private int size(List<Object> ids) {
+    return (ids == null) ? 0 : ids.size();
+  }
+
+  /**
+   * Return the table level event that invalidates the same as this (but for all ids).
+   */
+  TableIUD toTableIUD() {
+    return new TableIUD(beanDescriptor.getBaseTable(), insertIds != null, updateIds != null, deleteIds != null);
+  }
+
   public BeanDescriptor<?> getBeanDescriptor() {
     return beanDescriptor;
   }
 
-  List<Object> getDeleteIds() {
+  public List<Object> getInsertIds() {
+    return insertIds;
+  }
+
+  public List<Object> getUpdateIds() {
+    return updateIds;
+  }
+
+  public List<Object> getDeleteIds() {
     return deleteIds;
   }
 
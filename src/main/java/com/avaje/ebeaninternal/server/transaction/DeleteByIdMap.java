@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.avaje.ebean.annotation.DocStoreMode;
 import com.avaje.ebeanservice.docstore.api.support.DocStoreDeleteEvent;
@@ -25,12 +26,20 @@ public final class DeleteByIdMap {
     return beanMap.toString();
   }
 
+  /**
+   * Add the base tables of the deleted beans.
+   */
+  public void addBaseTables(Set<String> tables) {
+    for (BeanPersistIds deleteIds : beanMap.values()) {
+      tables.add(deleteIds.getBeanDescriptor().getBaseTable());
+    }
+  }
+
   public void notifyCache(CacheChangeSet changeSet) {
     for (BeanPersistIds deleteIds : beanMap.values()) {
       BeanDescriptor<?> d = deleteIds.getBeanDescriptor();
       List<Object> idValues = deleteIds.getDeleteIds();
       if (idValues != null) {
-        d.queryCacheClear(changeSet);
         for (int i = 0; i < idValues.size(); i++) {
           d.cacheHandleDeleteById(idValues.get(i), changeSet);
         }
@@ -240,7 +240,7 @@ public class JdbcTransaction implements SpiTransaction {
   @Override
   public void addBeanChange(BeanChange beanChange) {
     if (changeLogHolder == null) {
-      changeLogHolder = new TChangeLogHolder(this, 100);
+      changeLogHolder = new TChangeLogHolder(this, 100, manager != null && manager.isOutbox());
     }
     changeLogHolder.addBeanChange(beanChange);
   }
@@ -918,6 +918,12 @@ public class JdbcTransaction implements SpiTransaction {
         if (batchControl != null && !batchControl.isEmpty()) {
           batchControl.flush();
         }
+        if (manager != null && manager.isOutbox()) {
+          manager.writeOutbox(this, (changeLogHolder == null) ? null : changeLogHolder.preCommit());
+          if (changeLogHolder != null) {
+            changeLogHolder.outboxWritten();
+          }
+        }
         performCommit();
       }
 
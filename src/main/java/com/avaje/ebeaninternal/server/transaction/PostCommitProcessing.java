@@ -13,7 +13,9 @@ import com.avaje.ebeaninternal.server.deploy.BeanDescriptorManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Performs post commit processing using a background thread.
@@ -86,6 +88,7 @@ public final class PostCommitProcessing {
    */
   void notifyLocalCache() {
     processTableEvents(event.getEventTables());
+    processSqlQueryCache();
     if (manager.localL2Caching) {
       // process l2 cache changes in foreground
       processCacheChanges(event.buildCacheChanges(manager.viewInvalidation));
@@ -110,6 +113,21 @@ public final class PostCommitProcessing {
     }
   }
 
+  /**
+   * Invalidate the SqlQuery and RawSql query cache entries that depend on the tables modified
+   * by the transaction (including beans that are not otherwise notified).
+   */
+  private void processSqlQueryCache() {
+
+    BeanDescriptorManager dm = manager.getBeanDescriptorManager();
+    if (!dm.getSqlQueryCache().isActive()) {
+      return;
+    }
+    Set<String> tables = new HashSet<String>();
+    event.addModifiedTables(tables);
+    dm.sqlQueryCacheInvalidate(tables);
+  }
+
   /**
    * Process any document store updates.
    */
@@ -3,9 +3,12 @@ package com.avaje.ebeaninternal.server.transaction;
 import com.avaje.ebeaninternal.api.SpiEbeanServer;
 import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
 import com.avaje.ebeaninternal.server.cluster.BinaryMessageList;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.util.LongAdder;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public class RemoteTransactionEvent implements Runnable {
@@ -20,6 +23,11 @@ public class RemoteTransactionEvent implements Runnable {
 
   private transient SpiEbeanServer server;
 
+  /**
+   * When set the compact encoding is used with the bytes saved added to this counter.
+   */
+  private transient LongAdder compactBytesSaved;
+
   public RemoteTransactionEvent(String serverName) {
     this.serverName = serverName;
   }
@@ -61,8 +69,94 @@ public class RemoteTransactionEvent implements Runnable {
     }
 
     for (int i = 0; i < beanPersistList.size(); i++) {
-      beanPersistList.get(i).writeBinaryMessage(msgList);
+      if (compactBytesSaved != null) {
+        beanPersistList.get(i).writeCompactBinaryMessage(msgList, compactBytesSaved);
+      } else {
+        beanPersistList.get(i).writeBinaryMessage(msgList);
+      }
+    }
+  }
+
+  /**
+   * Use the compact encoding for the bean ids adding the bytes saved to the given counter.
+   * <p>
+   * Note that the receiving members of the cluster must support TYPE_BEANIUD_COMPACT messages.
+   * </p>
+   */
+  public void setCompactEncoding(LongAdder bytesSaved) {
+    this.compactBytesSaved = bytesSaved;
+  }
+
+  /**
+   * Merge the other event (from a later transaction) into this event.
+   */
+  public void merge(RemoteTransactionEvent other) {
+
+    if (other.tableList != null) {
+      for (TableIUD tableIUD : other.tableList) {
+        mergeTableIUD(tableIUD);
+      }
+    }
+    if (other.deleteByIdMap != null) {
+      for (BeanPersistIds deleteIds : other.deleteByIdMap.values()) {
+        mergeBeanPersistIds(deleteIds);
+      }
+    }
+    for (BeanPersistIds beanPersist : other.beanPersistList) {
+      mergeBeanPersistIds(beanPersist);
+    }
+  }
+
+  private void mergeTableIUD(TableIUD tableIUD) {
+    if (tableList != null) {
+      for (int i = 0; i < tableList.size(); i++) {
+        TableIUD existing = tableList.get(i);
+        if (existing.getTableName().equalsIgnoreCase(tableIUD.getTableName())) {
+          tableList.set(i, new TableIUD(existing.getTableName(),
+              existing.isInsert() || tableIUD.isInsert(),
+              existing.isUpdate() || tableIUD.isUpdate(),
+              existing.isDelete() || tableIUD.isDelete()));
+          return;
+        }
+      }
+    }
+    addTableIUD(tableIUD);
+  }
+
+  private void mergeBeanPersistIds(BeanPersistIds beanPersist) {
+    BeanDescriptor<?> desc = beanPersist.getBeanDescriptor();
+    for (BeanPersistIds existing : beanPersistList) {
+      if (existing.getBeanDescriptor() == desc) {
+        existing.merge(beanPersist);
+        return;
+      }
+    }
+    // copy such that the event of the other transaction is not modified
+    BeanPersistIds copy = new BeanPersistIds(desc);
+    copy.merge(beanPersist);
+    beanPersistList.add(copy);
+  }
+
+  /**
+   * Remove duplicate ids and replace the ids of a bean type by a table level event when there are
+   * more than maxIds of them.
+   *
+   * @return the number of bean types replaced by a table level event
+   */
+  public int coalesce(int maxIds, LongAdder duplicateIds) {
+
+    int collapsed = 0;
+    Iterator<BeanPersistIds> it = beanPersistList.iterator();
+    while (it.hasNext()) {
+      BeanPersistIds beanPersist = it.next();
+      duplicateIds.add(beanPersist.removeDuplicates());
+      if (maxIds > 0 && beanPersist.getIdCount() > maxIds) {
+        it.remove();
+        mergeTableIUD(beanPersist.toTableIUD());
+        collapsed++;
+      }
     }
+    return collapsed;
   }
 
   public boolean isEmpty() {
@@ -5,6 +5,8 @@ import com.avaje.ebean.event.changelog.ChangeSet;
 import com.avaje.ebean.event.changelog.TxnState;
 import com.avaje.ebeaninternal.api.SpiTransaction;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -30,6 +32,21 @@ public class TChangeLogHolder {
    */
   private final int batchSize;
 
+  /**
+   * When true the change sets are held to be written to the transaction outbox.
+   */
+  private final boolean outbox;
+
+  /**
+   * Change sets that hit the batch size held for the outbox.
+   */
+  private List<ChangeSet> pending;
+
+  /**
+   * Set when the change sets have been written to the outbox.
+   */
+  private boolean outboxWritten;
+
   /**
    * The changes we collect to send to the listener.
    */
@@ -46,9 +63,17 @@ public class TChangeLogHolder {
    * Construct with the owning transaction and batch size to use.
    */
   public TChangeLogHolder(SpiTransaction owner, int batchSize) {
+    this(owner, batchSize, false);
+  }
+
+  /**
+   * Construct with the owning transaction, batch size and whether the transaction outbox is used.
+   */
+  public TChangeLogHolder(SpiTransaction owner, int batchSize, boolean outbox) {
     this.owner = owner;
     this.transactionId = UUID.randomUUID().toString();
     this.batchSize = batchSize;
+    this.outbox = outbox;
     this.changes = new ChangeSet(transactionId, 0);
   }
 
@@ -62,17 +87,54 @@ public class TChangeLogHolder {
       // we hit the batch size so send what we have knowing
       // that the transaction has not completed yet and
       // reset the changes and count
-      owner.sendChangeLog(changes);
+      if (outbox) {
+        // hold until commit (or rollback)
+        if (pending == null) {
+          pending = new ArrayList<ChangeSet>();
+        }
+        pending.add(changes);
+      } else {
+        owner.sendChangeLog(changes);
+      }
       changes = new ChangeSet(transactionId, ++batchId);
       count = 0;
     }
   }
 
+  /**
+   * Return all the change sets to write to the transaction outbox prior to commit.
+   * <p>
+   * The change sets are only excluded from post commit once {@link #outboxWritten()} is called.
+   * </p>
+   */
+  public List<ChangeSet> preCommit() {
+    changes.setTxnState(TxnState.COMMITTED);
+    List<ChangeSet> all = new ArrayList<ChangeSet>((pending == null) ? 1 : pending.size() + 1);
+    if (pending != null) {
+      all.addAll(pending);
+    }
+    all.add(changes);
+    return all;
+  }
+
+  /**
+   * The change sets have been successfully written to the outbox so are not sent on post commit.
+   */
+  public void outboxWritten() {
+    pending = null;
+    outboxWritten = true;
+  }
+
   /**
    * On post commit send the changes we have collected.
    */
   public void postCommit() {
+    if (outboxWritten) {
+      // sent via the outbox relay
+      return;
+    }
     changes.setTxnState(TxnState.COMMITTED);
+    sendPending();
     owner.sendChangeLog(changes);
   }
 
@@ -82,7 +144,20 @@ public class TChangeLogHolder {
    */
   public void postRollback() {
     changes.setTxnState(TxnState.ROLLBACK);
+    sendPending();
     owner.sendChangeLog(changes);
   }
 
+  /**
+   * Send the change sets held for the outbox (when not written to the outbox).
+   */
+  private void sendPending() {
+    if (pending != null) {
+      for (ChangeSet changeSet : pending) {
+        owner.sendChangeLog(changeSet);
+      }
+      pending = null;
+    }
+  }
+
 }
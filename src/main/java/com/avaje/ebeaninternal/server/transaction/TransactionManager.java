@@ -1,6 +1,7 @@
 package com.avaje.ebeaninternal.server.transaction;
 
 import com.avaje.ebean.BackgroundExecutor;
+import com.avaje.ebean.annotation.DocStoreMode;
 import com.avaje.ebean.config.PersistBatch;
 import com.avaje.ebean.config.ServerConfig;
 import com.avaje.ebean.config.dbplatform.DatabasePlatform.OnQueryOnly;
@@ -13,6 +14,7 @@ import com.avaje.ebeaninternal.api.SpiTransaction;
 import com.avaje.ebeaninternal.api.TransactionEvent;
 import com.avaje.ebeaninternal.api.TransactionEventTable;
 import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
+import com.avaje.ebeaninternal.server.changelog.AsyncChangeLogListener;
 import com.avaje.ebeaninternal.server.cluster.ClusterManager;
 import com.avaje.ebeaninternal.server.core.bootup.BootupClasses;
 import com.avaje.ebeaninternal.server.deploy.BeanDescriptorManager;
@@ -26,6 +28,8 @@ import javax.persistence.PersistenceException;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
@@ -62,6 +66,21 @@ public class TransactionManager {
    */
   protected final DataSource dataSource;
 
+  /**
+   * The optional read only dataSource used for implicit query transactions.
+   */
+  protected final DataSource readOnlyDataSource;
+
+  /**
+   * Millis after a commit that implicit queries in the same thread use the main dataSource.
+   */
+  protected final long readOnlyAfterCommitMillis;
+
+  /**
+   * The time of the last commit per thread (for read your writes with the read only dataSource).
+   */
+  protected final ThreadLocal<Long> lastCommitTime = new ThreadLocal<Long>();
+
   /**
    * Flag to indicate the default Isolation is READ COMMITTED. This enables us
    * to close queryOnly transactions rather than commit or rollback them.
@@ -105,6 +124,16 @@ public class TransactionManager {
    */
   private final ChangeLogListener changeLogListener;
 
+  /**
+   * True when the listener queues the change sets itself (so is called directly).
+   */
+  private final boolean changeLogAsync;
+
+  /**
+   * The transactional outbox (null when not used).
+   */
+  private final TransactionOutbox outbox;
+
   protected final boolean localL2Caching;
 
   protected final boolean viewInvalidation;
@@ -125,12 +154,16 @@ public class TransactionManager {
     this.viewInvalidation = descMgr.requiresViewEntityCacheInvalidation();
     this.changeLogPrepare = descMgr.getChangeLogPrepare();
     this.changeLogListener = descMgr.getChangeLogListener();
+    this.changeLogAsync = changeLogListener instanceof AsyncChangeLogListener;
     this.clusterManager = clusterManager;
     this.serverName = config.getName();
     this.backgroundExecutor = backgroundExecutor;
     this.dataSource = config.getDataSource();
+    this.readOnlyDataSource = config.getReadOnlyDataSource();
+    this.readOnlyAfterCommitMillis = config.getReadOnlyAfterCommitMillis();
     this.docStoreActive = config.getDocStoreConfig().isActive();
     this.docStoreUpdateProcessor = docStoreUpdateProcessor;
+    this.outbox = config.isTransactionOutbox() ? new TransactionOutbox(changeLogListener, docStoreUpdateProcessor) : null;
     this.bulkEventListenerMap = new BulkEventListenerMap(config.getBulkTableEventListeners());
 
     List<TransactionEventListener> transactionEventListeners = bootupClasses.getTransactionEventListeners();
@@ -143,6 +176,9 @@ public class TransactionManager {
   }
 
   public void shutdown(boolean shutdownDataSource, boolean deregisterDriver) {
+    if (shutdownDataSource && (readOnlyDataSource instanceof DataSourcePool)) {
+      ((DataSourcePool) readOnlyDataSource).shutdown(false);
+    }
     if (shutdownDataSource && (dataSource instanceof DataSourcePool)) {
       ((DataSourcePool) dataSource).shutdown(deregisterDriver);
     }
@@ -152,6 +188,20 @@ public class TransactionManager {
     return docStoreActive;
   }
 
+  /**
+   * Return true if change sets and document store updates are written to the transaction outbox.
+   */
+  public boolean isOutbox() {
+    return outbox != null;
+  }
+
+  /**
+   * Return the transaction outbox (null when not used).
+   */
+  public TransactionOutbox getOutbox() {
+    return outbox;
+  }
+
   public boolean isSkipCacheAfterWrite() {
     return skipCacheAfterWrite;
   }
@@ -245,6 +295,13 @@ public class TransactionManager {
     return dataSource;
   }
 
+  /**
+   * Return the read only DataSource (can be null).
+   */
+  public DataSource getReadOnlyDataSource() {
+    return readOnlyDataSource;
+  }
+
   /**
    * Defines the type of behavior to use when closing a transaction that was used to query data only.
    */
@@ -307,9 +364,18 @@ public class TransactionManager {
   }
 
   public SpiTransaction createQueryTransaction() {
+    return createQueryTransaction(null);
+  }
+
+  /**
+   * Create a transaction used to execute queries (implicit transaction).
+   *
+   * @param useReadOnlyDataSource explicit choice of the read only DataSource or null to use the default
+   */
+  public SpiTransaction createQueryTransaction(Boolean useReadOnlyDataSource) {
     Connection c = null;
     try {
-      c = dataSource.getConnection();
+      c = queryDataSource(useReadOnlyDataSource).getConnection();
       long id = transactionCounter.incrementAndGet();
 
       return createTransaction(false, c, id);
@@ -331,6 +397,30 @@ public class TransactionManager {
     }
   }
 
+  /**
+   * Return the DataSource to use for a query transaction.
+   * <p>
+   * This is the read only DataSource (if configured) unless explicitly not desired
+   * or there was a recent commit in this thread (read your writes).
+   * </p>
+   */
+  protected DataSource queryDataSource(Boolean useReadOnlyDataSource) {
+
+    if (readOnlyDataSource == null || Boolean.FALSE.equals(useReadOnlyDataSource)) {
+      return dataSource;
+    }
+    if (useReadOnlyDataSource == null && readOnlyAfterCommitMillis > 0) {
+      Long commitTime = lastCommitTime.get();
+      if (commitTime != null) {
+        if (System.currentTimeMillis() - commitTime < readOnlyAfterCommitMillis) {
+          return dataSource;
+        }
+        lastCommitTime.remove();
+      }
+    }
+    return readOnlyDataSource;
+  }
+
   /**
    * Create a new transaction.
    */
@@ -401,6 +491,10 @@ public class TransactionManager {
    */
   public void notifyOfCommit(SpiTransaction transaction) {
 
+    if (readOnlyDataSource != null && readOnlyAfterCommitMillis > 0) {
+      // subsequent implicit queries in this thread use the main dataSource for a while
+      lastCommitTime.set(System.currentTimeMillis());
+    }
     try {
       if (TXN_LOGGER.isDebugEnabled()) {
         TXN_LOGGER.debug(transaction.getLogPrefix() + "Commit");
@@ -457,9 +551,13 @@ public class TransactionManager {
     // processes both Bean IUD and DeleteById
     List<BeanPersistIds> beanPersistList = remoteEvent.getBeanPersistList();
     if (beanPersistList != null) {
+      Set<String> tables = new HashSet<String>();
       for (int i = 0; i < beanPersistList.size(); i++) {
-        beanPersistList.get(i).notifyCacheAndListener();
+        BeanPersistIds beanPersist = beanPersistList.get(i);
+        beanPersist.notifyCacheAndListener();
+        tables.add(beanPersist.getBeanDescriptor().getBaseTable());
       }
+      beanDescriptorManager.sqlQueryCacheInvalidate(tables);
     }
   }
 
@@ -470,6 +568,52 @@ public class TransactionManager {
     docStoreUpdateProcessor.process(docStoreUpdates, bulkBatchSize);
   }
 
+  /**
+   * Write the change sets and document store updates of the transaction to the outbox prior to commit.
+   * <p>
+   * These are then sent to the ChangeLogListener and document store by the outbox relay rather
+   * than as part of the post commit processing.
+   * </p>
+   */
+  public void writeOutbox(SpiTransaction transaction, List<ChangeSet> changeSets) {
+
+    List<ChangeSet> prepared = null;
+    if (changeSets != null) {
+      prepared = new ArrayList<ChangeSet>(changeSets.size());
+      for (ChangeSet changeSet : changeSets) {
+        // can set userId, userIpAddress & userContext if desired
+        if (changeLogPrepare.prepare(changeSet)) {
+          prepared.add(changeSet);
+        }
+      }
+    }
+
+    DocStoreUpdates docStoreUpdates = null;
+    DocStoreMode txnDocStoreMode = transaction.getDocStoreMode();
+    if (docStoreActive && txnDocStoreMode != DocStoreMode.IGNORE) {
+      docStoreUpdates = new DocStoreUpdates();
+      TransactionEvent event = transaction.getEvent();
+      event.addDocStoreUpdates(docStoreUpdates);
+      DeleteByIdMap deleteByIdMap = event.getDeleteByIdMap();
+      if (deleteByIdMap != null) {
+        deleteByIdMap.addDocStoreUpdates(docStoreUpdates, txnDocStoreMode);
+      }
+      if (docStoreUpdates.isEmpty()) {
+        docStoreUpdates = null;
+      }
+    }
+
+    if ((prepared == null || prepared.isEmpty()) && docStoreUpdates == null) {
+      // nothing to write
+      return;
+    }
+    outbox.write(transaction, prepared, docStoreUpdates);
+    if (docStoreUpdates != null) {
+      // relayed from the outbox rather than post commit processing
+      transaction.setDocStoreMode(DocStoreMode.IGNORE);
+    }
+  }
+
   /**
    * Prepare and then send/log the changeSet.
    */
@@ -478,6 +622,11 @@ public class TransactionManager {
     // can set userId, userIpAddress & userContext if desired
     if (changeLogPrepare.prepare(changeSet)) {
 
+      if (changeLogAsync) {
+        // just adds to the queue of the change log pipeline
+        changeLogListener.log(changeSet);
+        return;
+      }
       // call the log method in background
       backgroundExecutor.execute(new Runnable() {
         @Override
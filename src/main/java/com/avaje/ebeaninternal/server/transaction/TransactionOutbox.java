@@ -0,0 +1,748 @@
+package com.avaje.ebeaninternal.server.transaction;
+
+import com.avaje.ebean.DocStoreQueueEntry;
+import com.avaje.ebean.SqlUpdate;
+import com.avaje.ebean.config.PersistBatch;
+import com.avaje.ebean.config.dbplatform.DatabasePlatform;
+import com.avaje.ebean.config.dbplatform.DbTypeMap;
+import com.avaje.ebean.event.changelog.ChangeLogListener;
+import com.avaje.ebean.event.changelog.ChangeSet;
+import com.avaje.ebean.plugin.Plugin;
+import com.avaje.ebean.plugin.SpiServer;
+import com.avaje.ebean.text.json.EJson;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.api.SpiTransaction;
+import com.avaje.ebeaninternal.server.changelog.ChangeSetJson;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+import com.avaje.ebeanservice.docstore.api.DocStoreUpdate;
+import com.avaje.ebeanservice.docstore.api.DocStoreUpdateProcessor;
+import com.avaje.ebeanservice.docstore.api.DocStoreUpdates;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transactional outbox for change sets and document store updates.
+ * <p>
+ * Rather than processing the change sets and document store updates in memory after commit they
+ * are written as rows to an outbox table using the connection of the committing transaction
+ * (JDBC batched via BatchControl) such that they are committed atomically with the changes. A
+ * background relay thread drains the outbox table in order sending the change sets to the
+ * ChangeLogListener and the document store updates to the document store, deleting the rows
+ * that were delivered as part of the relay transaction. Delivery is at least once.
+ * </p>
+ * <p>
+ * Rows are relayed in the order of a database assigned id (identity column or sequence) which
+ * follows the order the rows were inserted. Concurrent transactions can commit in a different
+ * order to their inserts so a row with a lower id can become visible after rows with higher ids
+ * have been relayed. Such a row is relayed by the next relay (not lost) but out of order with
+ * respect to those rows so listeners should not assume ordering across concurrent transactions.
+ * </p>
+ * <p>
+ * When delivering a row fails the rows before it are deleted and the relay backs off (doubling
+ * the delay up to maxBackoffMillis) before retrying from the failed row. A row that fails
+ * maxAttempts times is moved aside to the dead table (with the error) such that it does not block
+ * the rows after it. The attempts are counted in memory by the relay.
+ * </p>
+ * <p>
+ * Document store updates are stored as queue entries (bean type, id and action). Entries that
+ * would have been sent directly to the document store are processed via
+ * {@link com.avaje.ebean.DocumentStore#process(List)} which indexes the current committed
+ * state of the beans and entries that would have been queued are sent to the queue.
+ * </p>
+ * <p>
+ * Only one relay should drain an outbox table so with multiple instances set
+ * ebean.outbox.relay=false on all but one instance. Within an instance relays are serialised
+ * (a relay waits for one in progress to complete).
+ * </p>
+ * <p>
+ * Configured by the properties:
+ * </p>
+ * <ul>
+ * <li>ebean.outbox.table - the outbox table name (default ebean_outbox)</li>
+ * <li>ebean.outbox.deadTable - the table rows that fail delivery are moved to (default ebean_outbox_dead)</li>
+ * <li>ebean.outbox.createTable - create the tables when they do not exist (default true)</li>
+ * <li>ebean.outbox.relay - true to run the relay on this instance (default true)</li>
+ * <li>ebean.outbox.relayBatchSize - the maximum rows relayed per relay transaction (default 500)</li>
+ * <li>ebean.outbox.relayMillis - the poll interval when the outbox is empty (default 500)</li>
+ * <li>ebean.outbox.maxRowsPerSecond - limit the relay throughput, 0 for unlimited (default 0)</li>
+ * <li>ebean.outbox.maxAttempts - the delivery attempts before a row is moved to the dead table (default 5)</li>
+ * <li>ebean.outbox.maxBackoffMillis - the maximum delay between attempts when delivery fails (default 30000)</li>
+ * </ul>
+ */
+public class TransactionOutbox implements Plugin {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransactionOutbox.class);
+
+  /**
+   * Row kind for a change set.
+   */
+  static final String CHANGE_SET = "C";
+
+  /**
+   * Row kind for document store entries processed directly.
+   */
+  static final String DOC_STORE = "D";
+
+  /**
+   * Row kind for document store entries sent to the queue.
+   */
+  static final String DOC_STORE_QUEUE = "Q";
+
+  private final ChangeLogListener changeLogListener;
+
+  private final DocStoreUpdateProcessor docStoreUpdateProcessor;
+
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  private final LongAdder writtenCount = new LongAdder();
+  private final LongAdder relayedCount = new LongAdder();
+  private final LongAdder relayBatchCount = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+  private final LongAdder deadCount = new LongAdder();
+
+  /**
+   * Lock held while relaying such that only one relay drains the outbox at a time.
+   */
+  private final ReentrantLock relayLock = new ReentrantLock();
+
+  /**
+   * Delivery attempts of the rows that failed keyed by row id (guarded by relayLock).
+   */
+  private final Map<Long, Integer> attempts = new HashMap<Long, Integer>();
+
+  /**
+   * The number of consecutive relays that failed (guarded by relayLock).
+   */
+  private int failures;
+
+  protected String table = "ebean_outbox";
+
+  protected String deadTable;
+
+  protected boolean createTable = true;
+
+  protected boolean relay = true;
+
+  protected int relayBatchSize = 500;
+
+  protected long relayMillis = 500;
+
+  protected int maxRowsPerSecond;
+
+  protected int maxAttempts = 5;
+
+  protected long maxBackoffMillis = 30000;
+
+  private SpiEbeanServer server;
+
+  /**
+   * True when the id is an identity column rather than assigned from a sequence.
+   */
+  private boolean identity;
+
+  private ChangeSetJson changeSetJson;
+
+  private String insertSql;
+
+  private String selectSql;
+
+  private String deleteSql;
+
+  private String deadSql;
+
+  private volatile boolean running;
+
+  private Thread relayThread;
+
+  public TransactionOutbox(ChangeLogListener changeLogListener, DocStoreUpdateProcessor docStoreUpdateProcessor) {
+    this.changeLogListener = changeLogListener;
+    this.docStoreUpdateProcessor = docStoreUpdateProcessor;
+  }
+
+  @Override
+  public void configure(SpiServer server) {
+
+    this.server = (SpiEbeanServer) server;
+    this.changeSetJson = new ChangeSetJson(server.json());
+
+    Properties properties = server.getServerConfig().getProperties();
+    if (properties == null) {
+      properties = new Properties();
+    }
+    table = properties.getProperty("ebean.outbox.table", table);
+    deadTable = properties.getProperty("ebean.outbox.deadTable", table + "_dead");
+    createTable = Boolean.parseBoolean(properties.getProperty("ebean.outbox.createTable", String.valueOf(createTable)));
+    relay = Boolean.parseBoolean(properties.getProperty("ebean.outbox.relay", String.valueOf(relay)));
+    relayBatchSize = Integer.parseInt(properties.getProperty("ebean.outbox.relayBatchSize", String.valueOf(relayBatchSize)));
+    relayMillis = Long.parseLong(properties.getProperty("ebean.outbox.relayMillis", String.valueOf(relayMillis)));
+    maxRowsPerSecond = Integer.parseInt(properties.getProperty("ebean.outbox.maxRowsPerSecond", String.valueOf(maxRowsPerSecond)));
+    maxAttempts = Integer.parseInt(properties.getProperty("ebean.outbox.maxAttempts", String.valueOf(maxAttempts)));
+    maxBackoffMillis = Long.parseLong(properties.getProperty("ebean.outbox.maxBackoffMillis", String.valueOf(maxBackoffMillis)));
+
+    DatabasePlatform platform = this.server.getDatabasePlatform();
+    identity = platform.getDbIdentity().isSupportsIdentity() && platform.getPlatformDdl() != null;
+    if (identity) {
+      insertSql = "insert into " + table + " (txn_id, seq, event_time, kind, content) values (?,?,?,?,?)";
+    } else {
+      insertSql = "insert into " + table + " (id, txn_id, seq, event_time, kind, content) values (" + sequenceNextVal() + ",?,?,?,?,?)";
+    }
+    selectSql = "select id, txn_id, seq, event_time, kind, content from " + table + " order by id";
+    deleteSql = "delete from " + table + " where id = ?";
+    deadSql = "insert into " + deadTable + " (id, txn_id, seq, event_time, kind, content, failed_time, error) values (?,?,?,?,?,?,?,?)";
+  }
+
+  /**
+   * Return the name of the sequence used to assign the ids when identity is not supported.
+   */
+  protected String sequenceName() {
+    return table + "_seq";
+  }
+
+  /**
+   * Return the SQL expression for the next sequence value when identity is not supported.
+   */
+  protected String sequenceNextVal() {
+    if ("db2".equals(server.getDatabasePlatform().getName())) {
+      return "nextval for " + sequenceName();
+    }
+    return sequenceName() + ".nextval";
+  }
+
+  /**
+   * Create the outbox table if required and start the relay.
+   */
+  @Override
+  public void online(boolean online) {
+
+    if (!online) {
+      return;
+    }
+    if (createTable) {
+      createTableIfRequired();
+    }
+    if (relay) {
+      running = true;
+      relayThread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          relayLoop();
+        }
+      }, "ebean-outbox-" + server.getName());
+      relayThread.setDaemon(true);
+      relayThread.start();
+    }
+  }
+
+  /**
+   * Stop the relay (rows not yet relayed remain in the outbox table).
+   */
+  @Override
+  public void shutdown() {
+
+    running = false;
+    if (relayThread != null) {
+      LockSupport.unpark(relayThread);
+      try {
+        relayThread.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    logger.debug("outbox shutdown {}", this);
+  }
+
+  /**
+   * Return the DDL for the outbox table.
+   */
+  protected String createTableSql() {
+
+    DatabasePlatform platform = server.getDatabasePlatform();
+    DbTypeMap types = platform.getDbTypeMap();
+    String bigint = types.get(Types.BIGINT).renderType(0, 0);
+    String id = identity ? platform.getPlatformDdl().asIdentityColumn(bigint) : bigint;
+    return "create table " + table + " ("
+        + "id " + id + " not null, "
+        + columnsSql(types)
+        + "constraint pk_" + table + " primary key (id))";
+  }
+
+  /**
+   * Return the DDL for the dead table holding the rows that failed delivery.
+   */
+  protected String createDeadTableSql() {
+
+    DbTypeMap types = server.getDatabasePlatform().getDbTypeMap();
+    return "create table " + deadTable + " ("
+        + "id " + types.get(Types.BIGINT).renderType(0, 0) + " not null, "
+        + columnsSql(types)
+        + "failed_time " + types.get(Types.BIGINT).renderType(0, 0) + " not null, "
+        + "error " + types.get(Types.VARCHAR).renderType(1000, 0) + ", "
+        + "constraint pk_" + deadTable + " primary key (id))";
+  }
+
+  private String columnsSql(DbTypeMap types) {
+    return "txn_id " + types.get(Types.VARCHAR).renderType(40, 0) + " not null, "
+        + "seq " + types.get(Types.INTEGER).renderType(0, 0) + " not null, "
+        + "event_time " + types.get(Types.BIGINT).renderType(0, 0) + " not null, "
+        + "kind " + types.get(Types.VARCHAR).renderType(1, 0) + " not null, "
+        + "content " + types.get(Types.CLOB).renderType(0, 0) + " not null, ";
+  }
+
+  private void createTableIfRequired() {
+
+    DataSource dataSource = server.getServerConfig().getDataSource();
+    Connection connection = null;
+    try {
+      connection = dataSource.getConnection();
+      connection.setAutoCommit(true);
+      if (!tableExists(connection, table)) {
+        execute(connection, createTableSql());
+        if (!identity) {
+          execute(connection, "create sequence " + sequenceName());
+        }
+        logger.info("created outbox table {}", table);
+      }
+      if (!tableExists(connection, deadTable)) {
+        execute(connection, createDeadTableSql());
+        logger.info("created outbox dead table {}", deadTable);
+      }
+    } catch (SQLException e) {
+      logger.error("Error creating outbox table " + table, e);
+    } finally {
+      close(connection);
+    }
+  }
+
+  private void execute(Connection connection, String sql) throws SQLException {
+    Statement statement = connection.createStatement();
+    try {
+      statement.execute(sql);
+    } finally {
+      statement.close();
+    }
+  }
+
+  private boolean tableExists(Connection connection, String tableName) {
+    try {
+      Statement statement = connection.createStatement();
+      try {
+        statement.executeQuery("select count(*) from " + tableName + " where 1=0").close();
+        return true;
+      } finally {
+        statement.close();
+      }
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void close(Connection connection) {
+    if (connection != null) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        logger.warn("Error closing connection", e);
+      }
+    }
+  }
+
+  /**
+   * Write the change sets and document store updates to the outbox as part of the transaction.
+   * <p>
+   * The inserts are JDBC batched with the transaction and flushed prior to commit.
+   * </p>
+   */
+  void write(SpiTransaction transaction, List<ChangeSet> changeSets, DocStoreUpdates docStoreUpdates) {
+
+    String txnId = UUID.randomUUID().toString();
+    long eventTime = System.currentTimeMillis();
+    int seq = 0;
+
+    PersistBatch batch = transaction.getBatch();
+    transaction.setBatch(PersistBatch.ALL);
+    try {
+      if (changeSets != null) {
+        for (ChangeSet changeSet : changeSets) {
+          insert(transaction, txnId, seq++, eventTime, CHANGE_SET, changeSetJson.write(changeSet));
+        }
+      }
+      if (docStoreUpdates != null) {
+        List<DocStoreQueueEntry> entries = directEntries(docStoreUpdates);
+        if (!entries.isEmpty()) {
+          insert(transaction, txnId, seq++, eventTime, DOC_STORE, writeEntries(entries));
+        }
+        if (!docStoreUpdates.getQueueEntries().isEmpty()) {
+          insert(transaction, txnId, seq++, eventTime, DOC_STORE_QUEUE, writeEntries(docStoreUpdates.getQueueEntries()));
+        }
+      }
+      transaction.flushBatch();
+      writtenCount.add(seq);
+
+    } catch (IOException e) {
+      throw new IllegalStateException("Error writing to the outbox", e);
+    } finally {
+      transaction.setBatch(batch);
+    }
+  }
+
+  private void insert(SpiTransaction transaction, String txnId, int seq, long eventTime, String kind, String content) {
+
+    SqlUpdate insert = server.createSqlUpdate(insertSql);
+    insert.setParameter(1, txnId);
+    insert.setParameter(2, seq);
+    insert.setParameter(3, eventTime);
+    insert.setParameter(4, kind);
+    insert.setParameter(5, content);
+    server.execute(insert, transaction);
+  }
+
+  /**
+   * Return the bulk updates, deletes and nested updates converted to entries.
+   */
+  private List<DocStoreQueueEntry> directEntries(DocStoreUpdates docStoreUpdates) {
+
+    DocStoreUpdates entries = new DocStoreUpdates();
+    for (DocStoreUpdate persist : docStoreUpdates.getPersistEvents()) {
+      persist.addToQueue(entries);
+    }
+    for (DocStoreUpdate delete : docStoreUpdates.getDeleteEvents()) {
+      delete.addToQueue(entries);
+    }
+    List<DocStoreQueueEntry> list = entries.getQueueEntries();
+    list.addAll(docStoreUpdates.getNestedEvents());
+    return list;
+  }
+
+  private String writeEntries(List<DocStoreQueueEntry> entries) throws IOException {
+
+    StringWriter writer = new StringWriter(entries.size() * 60);
+    JsonGenerator gen = jsonFactory.createGenerator(writer);
+    gen.writeStartArray();
+    for (DocStoreQueueEntry entry : entries) {
+      gen.writeStartObject();
+      gen.writeStringField("type", entry.getType().name());
+      gen.writeStringField("queueId", entry.getQueueId());
+      if (entry.getPath() != null) {
+        gen.writeStringField("path", entry.getPath());
+      }
+      gen.writeFieldName("beanId");
+      server.json().writeScalar(gen, entry.getBeanId());
+      gen.writeEndObject();
+    }
+    gen.writeEndArray();
+    gen.flush();
+    gen.close();
+    return writer.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<DocStoreQueueEntry> readEntries(String content) throws IOException {
+
+    List<Object> list = EJson.parseList(content);
+    List<DocStoreQueueEntry> entries = new ArrayList<DocStoreQueueEntry>(list.size());
+    for (Object element : list) {
+      Map<String, Object> map = (Map<String, Object>) element;
+      String queueId = (String) map.get("queueId");
+      Object beanId = map.get("beanId");
+      BeanDescriptor<?> desc = server.getBeanDescriptorByQueueId(queueId);
+      if (desc != null) {
+        beanId = desc.convertId(beanId);
+      }
+      DocStoreQueueEntry.Action type = DocStoreQueueEntry.Action.valueOf((String) map.get("type"));
+      entries.add(new DocStoreQueueEntry(type, queueId, (String) map.get("path"), beanId));
+    }
+    return entries;
+  }
+
+  private void relayLoop() {
+    while (running) {
+      int count = relay();
+      long backoffMillis = backoffMillis();
+      if (backoffMillis > 0) {
+        // back off while delivery or the relay transaction fails
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+        continue;
+      }
+      if (count < relayBatchSize) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(relayMillis));
+      }
+      if (count > 0 && maxRowsPerSecond > 0) {
+        // throttle to the maximum throughput
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(count) / maxRowsPerSecond);
+      }
+    }
+  }
+
+  /**
+   * Return the delay before the next attempt after consecutive failures (0 when the last relay succeeded).
+   */
+  private long backoffMillis() {
+    relayLock.lock();
+    try {
+      if (failures == 0) {
+        return 0;
+      }
+      long backoff = Math.max(relayMillis, 1) << Math.min(failures - 1, 16);
+      return Math.min(backoff, maxBackoffMillis);
+    } finally {
+      relayLock.unlock();
+    }
+  }
+
+  /**
+   * Relay up to relayBatchSize rows from the outbox returning the number of rows relayed.
+   * <p>
+   * The rows are delivered in order. When delivering a row fails the rows delivered before it
+   * are deleted and the failed row is retried by the next relay or moved to the dead table when
+   * it has failed maxAttempts times.
+   * </p>
+   * <p>
+   * Relays are serialised such that a relay waits for one in progress to complete.
+   * </p>
+   */
+  protected int relay() {
+    relayLock.lock();
+    try {
+      return relayRows();
+    } finally {
+      relayLock.unlock();
+    }
+  }
+
+  private int relayRows() {
+
+    SpiTransaction transaction = (SpiTransaction) server.createTransaction();
+    try {
+      Connection connection = transaction.getConnection();
+      List<Row> rows = readRows(connection);
+
+      int delivered = 0;
+      Row failedRow = null;
+      Exception failure = null;
+      for (Row row : rows) {
+        try {
+          deliver(row);
+        } catch (Exception e) {
+          failedRow = row;
+          failure = e;
+          break;
+        }
+        delivered++;
+      }
+
+      List<Row> deliveredRows = rows.subList(0, delivered);
+      deleteRows(connection, deliveredRows);
+      boolean movedAside = false;
+      if (failedRow != null) {
+        errorCount.increment();
+        movedAside = deliveryFailed(connection, failedRow, failure);
+      }
+      if (delivered > 0 || movedAside) {
+        // commit rather than rollback but without a table event (no cache invalidation or cluster broadcast)
+        transaction.markNotQueryOnly();
+      }
+      transaction.commit();
+
+      for (Row row : deliveredRows) {
+        attempts.remove(row.id);
+      }
+      if (delivered > 0) {
+        relayedCount.add(delivered);
+        relayBatchCount.increment();
+      }
+      failures = (failedRow == null || movedAside) ? 0 : failures + 1;
+      return movedAside ? delivered + 1 : delivered;
+
+    } catch (Exception e) {
+      errorCount.increment();
+      failures++;
+      logger.error("Error relaying the outbox", e);
+      return 0;
+
+    } finally {
+      transaction.end();
+    }
+  }
+
+  /**
+   * Count the failed delivery of the row moving it to the dead table when it has failed maxAttempts times.
+   *
+   * @return true if the row was moved to the dead table
+   */
+  private boolean deliveryFailed(Connection connection, Row row, Exception failure) throws SQLException {
+
+    Integer previous = attempts.get(row.id);
+    int count = (previous == null) ? 1 : previous + 1;
+    if (count < maxAttempts) {
+      attempts.put(row.id, count);
+      logger.warn("Error delivering outbox row " + row.id + " attempt " + count + " of " + maxAttempts, failure);
+      return false;
+    }
+
+    logger.error("Error delivering outbox row " + row.id + ", moving it to " + deadTable + " after " + count + " attempts", failure);
+    PreparedStatement statement = connection.prepareStatement(deadSql);
+    try {
+      statement.setLong(1, row.id);
+      statement.setString(2, row.txnId);
+      statement.setInt(3, row.seq);
+      statement.setLong(4, row.eventTime);
+      statement.setString(5, row.kind);
+      statement.setString(6, row.content);
+      statement.setLong(7, System.currentTimeMillis());
+      statement.setString(8, errorMessage(failure));
+      statement.executeUpdate();
+    } finally {
+      statement.close();
+    }
+    deleteRows(connection, Collections.singletonList(row));
+    attempts.remove(row.id);
+    deadCount.increment();
+    return true;
+  }
+
+  private String errorMessage(Exception failure) {
+    String message = failure.toString();
+    return (message.length() > 1000) ? message.substring(0, 1000) : message;
+  }
+
+  private List<Row> readRows(Connection connection) throws SQLException {
+
+    List<Row> rows = new ArrayList<Row>();
+    PreparedStatement statement = connection.prepareStatement(selectSql);
+    try {
+      statement.setMaxRows(relayBatchSize);
+      ResultSet resultSet = statement.executeQuery();
+      while (resultSet.next()) {
+        rows.add(new Row(resultSet.getLong(1), resultSet.getString(2), resultSet.getInt(3), resultSet.getLong(4), resultSet.getString(5), resultSet.getString(6)));
+      }
+      resultSet.close();
+    } finally {
+      statement.close();
+    }
+    return rows;
+  }
+
+  private void deleteRows(Connection connection, List<Row> rows) throws SQLException {
+
+    if (rows.isEmpty()) {
+      return;
+    }
+    PreparedStatement statement = connection.prepareStatement(deleteSql);
+    try {
+      for (Row row : rows) {
+        statement.setLong(1, row.id);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    } finally {
+      statement.close();
+    }
+  }
+
+  /**
+   * Send the change set to the listener or the document store entries to the document store.
+   */
+  private void deliver(Row row) throws IOException {
+
+    if (CHANGE_SET.equals(row.kind)) {
+      changeLogListener.log(changeSetJson.read(row.content));
+
+    } else if (DOC_STORE.equals(row.kind)) {
+      server.docStore().process(readEntries(row.content));
+
+    } else if (DOC_STORE_QUEUE.equals(row.kind)) {
+      DocStoreUpdates queueUpdates = new DocStoreUpdates();
+      queueUpdates.getQueueEntries().addAll(readEntries(row.content));
+      docStoreUpdateProcessor.process(queueUpdates, 0);
+
+    } else {
+      throw new IllegalStateException("Unknown outbox row kind " + row.kind);
+    }
+  }
+
+  /**
+   * Return the number of rows written to the outbox.
+   */
+  public long getWrittenCount() {
+    return writtenCount.sum();
+  }
+
+  /**
+   * Return the number of rows relayed.
+   */
+  public long getRelayedCount() {
+    return relayedCount.sum();
+  }
+
+  /**
+   * Return the number of relay transactions that relayed rows.
+   */
+  public long getRelayBatchCount() {
+    return relayBatchCount.sum();
+  }
+
+  /**
+   * Return the number of relay attempts that failed (and will be retried).
+   */
+  public long getErrorCount() {
+    return errorCount.sum();
+  }
+
+  /**
+   * Return the number of rows moved to the dead table after failing delivery maxAttempts times.
+   */
+  public long getDeadCount() {
+    return deadCount.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "written:" + getWrittenCount() + " relayed:" + getRelayedCount() + " batches:" + getRelayBatchCount()
+        + " errors:" + getErrorCount() + " dead:" + getDeadCount();
+  }
+
+  /**
+   * A row read from the outbox table.
+   */
+  private static class Row {
+
+    final long id;
+    final String txnId;
+    final int seq;
+    final long eventTime;
+    final String kind;
+    final String content;
+
+    Row(long id, String txnId, int seq, long eventTime, String kind, String content) {
+      this.id = id;
+      this.txnId = txnId;
+      this.seq = seq;
+      this.eventTime = eventTime;
+      this.kind = kind;
+      this.content = content;
+    }
+  }
+}
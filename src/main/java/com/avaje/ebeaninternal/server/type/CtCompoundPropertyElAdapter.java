@@ -1,6 +1,7 @@
 package com.avaje.ebeaninternal.server.type;
 
 import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebean.text.StringFormatter;
 import com.avaje.ebean.text.StringParser;
 import com.avaje.ebeaninternal.api.SpiExpressionRequest;
 import com.avaje.ebeaninternal.server.deploy.BeanProperty;
@@ -78,6 +79,10 @@ public class CtCompoundPropertyElAdapter implements ElPropertyValue {
     return null;
   }
 
+  public StringFormatter getStringFormatter() {
+    return null;
+  }
+
   public boolean isDbEncrypted() {
     return false;
   }
@@ -157,6 +157,11 @@ public final class DefaultTypeManager implements TypeManager, KnownImmutable {
 
   private final boolean postgres;
 
+  /**
+   * When true JSON Map properties parse their content lazily.
+   */
+  private final boolean jsonLazyParse;
+
   private final boolean offlineMigrationGeneration;
 
   // OPTIONAL ScalarTypes registered if Jackson/JsonNode is in the classpath
@@ -201,6 +206,7 @@ public final class DefaultTypeManager implements TypeManager, KnownImmutable {
 
     this.extraTypeFactory = new DefaultTypeFactory(config);
     this.postgres = isPostgres(config.getDatabasePlatform());
+    this.jsonLazyParse = config.isJsonLazyParse();
     this.offlineMigrationGeneration = DbOffline.isGenerateMigration();
 
     initialiseStandard(jsonDateTime, config);
@@ -407,7 +413,7 @@ public final class DefaultTypeManager implements TypeManager, KnownImmutable {
 
     if (type.equals(Map.class)) {
       if (isMapValueTypeObject(genericType)) {
-        return ScalarTypeJsonMap.typeFor(postgres, dbType);
+        return ScalarTypeJsonMap.typeFor(postgres, dbType, jsonLazyParse);
       } else {
         return createJsonObjectMapperType(type, genericType, dbType, DocPropertyType.OBJECT);
       }
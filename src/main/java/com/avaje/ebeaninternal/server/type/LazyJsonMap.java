@@ -0,0 +1,179 @@
+package com.avaje.ebeaninternal.server.type;
+
+import com.avaje.ebean.text.TextException;
+import com.avaje.ebean.text.json.EJson;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map that holds the raw JSON content and only parses it on first access.
+ * <p>
+ * While the content has not been parsed the raw JSON is available via {@link #getRawJson()}
+ * such that it can be written (to JSON output or bound to the database) as is.
+ * Once parsed this behaves as a ModifyAwareMap.
+ * </p>
+ */
+public class LazyJsonMap implements Map<String, Object>, ModifyAwareOwner {
+
+  /**
+   * The raw JSON content (null once parsed).
+   */
+  private volatile String rawJson;
+
+  /**
+   * The modify aware map parsed from the raw JSON (set before rawJson is cleared).
+   */
+  private volatile ModifyAwareMap<String, Object> map;
+
+  public LazyJsonMap(String rawJson) {
+    this.rawJson = rawJson;
+  }
+
+  /**
+   * Return the raw JSON if the value is a LazyJsonMap that has not been parsed (otherwise null).
+   */
+  public static String rawJson(Object value) {
+    return (value instanceof LazyJsonMap) ? ((LazyJsonMap) value).getRawJson() : null;
+  }
+
+  /**
+   * Return the raw JSON content or null if the content has been parsed.
+   */
+  public String getRawJson() {
+    String raw = rawJson;
+    // the map is set before rawJson is cleared so check it after reading rawJson
+    return (map == null) ? raw : null;
+  }
+
+  /**
+   * Return true if the raw JSON content has been parsed.
+   */
+  public boolean isParsed() {
+    return map != null;
+  }
+
+  /**
+   * Return the underlying map parsing the raw JSON content if required.
+   * <p>
+   * Parsing on first access is synchronised such that concurrent readers all see the same map.
+   * </p>
+   */
+  @SuppressWarnings("unchecked")
+  private ModifyAwareMap<String, Object> map() {
+    ModifyAwareMap<String, Object> parsed = map;
+    if (parsed == null) {
+      synchronized (this) {
+        parsed = map;
+        if (parsed == null) {
+          try {
+            parsed = (ModifyAwareMap<String, Object>) EJson.parseObject(rawJson, true);
+          } catch (IOException e) {
+            throw new TextException(e);
+          }
+          map = parsed;
+          rawJson = null;
+        }
+      }
+    }
+    return parsed;
+  }
+
+  public String toString() {
+    String raw = rawJson;
+    ModifyAwareMap<String, Object> parsed = map;
+    return (parsed == null) ? raw : parsed.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this || map().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return map().hashCode();
+  }
+
+  @Override
+  public boolean isMarkedDirty() {
+    ModifyAwareMap<String, Object> parsed = map;
+    return parsed != null && parsed.isMarkedDirty();
+  }
+
+  @Override
+  public void markAsModified() {
+    map().markAsModified();
+  }
+
+  @Override
+  public void resetMarkedDirty() {
+    ModifyAwareMap<String, Object> parsed = map;
+    if (parsed != null) {
+      parsed.resetMarkedDirty();
+    }
+  }
+
+  @Override
+  public int size() {
+    return map().size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map().isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map().containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    return map().containsValue(value);
+  }
+
+  @Override
+  public Object get(Object key) {
+    return map().get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    return map().put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return map().remove(key);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ?> m) {
+    map().putAll(m);
+  }
+
+  @Override
+  public void clear() {
+    map().clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return map().keySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    return map().values();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return map().entrySet();
+  }
+
+}
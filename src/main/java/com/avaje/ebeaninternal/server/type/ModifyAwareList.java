@@ -29,6 +29,16 @@ public class ModifyAwareList<E> implements List<E>, ModifyAwareOwner {
     return list.toString();
   }
 
+  @Override
+  public boolean equals(Object o) {
+    return o == this || list.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return list.hashCode();
+  }
+
   @Override
   public boolean isMarkedDirty() {
     return owner.isMarkedDirty();
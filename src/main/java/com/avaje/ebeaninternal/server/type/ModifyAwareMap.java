@@ -30,6 +30,16 @@ public class ModifyAwareMap<K, V> implements Map<K, V>, ModifyAwareOwner {
     return map.toString();
   }
 
+  @Override
+  public boolean equals(Object o) {
+    return o == this || map.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return map.hashCode();
+  }
+
   @Override
   public boolean isMarkedDirty() {
     return owner.isMarkedDirty();
@@ -29,10 +29,43 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
   private static final ScalarTypeJsonMap JSON = new ScalarTypeJsonMapPostgres.JSON();
   private static final ScalarTypeJsonMap JSONB = new ScalarTypeJsonMapPostgres.JSONB();
 
+  private static final ScalarTypeJsonMap LAZY_CLOB = new ScalarTypeJsonMap.Clob(true);
+  private static final ScalarTypeJsonMap LAZY_VARCHAR = new ScalarTypeJsonMap.Varchar(true);
+  private static final ScalarTypeJsonMap LAZY_JSON = new ScalarTypeJsonMapPostgres.JSON(true);
+  private static final ScalarTypeJsonMap LAZY_JSONB = new ScalarTypeJsonMapPostgres.JSONB(true);
+
   /**
    * Return the ScalarType for the requested dbType and postgres.
    */
   public static ScalarTypeJsonMap typeFor(boolean postgres, int dbType) {
+    return typeFor(postgres, dbType, false);
+  }
+
+  /**
+   * Return the ScalarType for the requested dbType and postgres additionally specifying
+   * if the JSON content is parsed lazily.
+   * <p>
+   * Lazy parsing is not used for Blob storage.
+   * </p>
+   */
+  public static ScalarTypeJsonMap typeFor(boolean postgres, int dbType, boolean lazy) {
+
+    if (lazy) {
+      switch (dbType) {
+        case Types.VARCHAR:
+          return LAZY_VARCHAR;
+        case Types.BLOB:
+          return BLOB;
+        case Types.CLOB:
+          return LAZY_CLOB;
+        case DbType.JSONB:
+          return postgres ? LAZY_JSONB : LAZY_CLOB;
+        case DbType.JSON:
+          return postgres ? LAZY_JSON : LAZY_CLOB;
+        default:
+          throw new IllegalStateException("Unknown dbType " + dbType);
+      }
+    }
 
     switch (dbType) {
       case Types.VARCHAR:
@@ -53,7 +86,11 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
   public static class Clob extends ScalarTypeJsonMap {
 
     public Clob() {
-      super(Types.CLOB);
+      this(false);
+    }
+
+    public Clob(boolean lazy) {
+      super(Types.CLOB, lazy);
     }
 
     @Override
@@ -63,14 +100,18 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
       if (content == null) {
         return null;
       }
-      return parse(content);
+      return readJson(content);
     }
   }
 
   public static class Varchar extends ScalarTypeJsonMap {
 
     public Varchar() {
-      super(Types.VARCHAR);
+      this(false);
+    }
+
+    public Varchar(boolean lazy) {
+      super(Types.VARCHAR, lazy);
     }
   }
 
@@ -110,8 +151,25 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
     }
   }
 
+  /**
+   * When true the raw JSON content is held and only parsed on first access.
+   */
+  final boolean lazy;
+
   public ScalarTypeJsonMap(int jdbcType) {
+    this(jdbcType, false);
+  }
+
+  public ScalarTypeJsonMap(int jdbcType, boolean lazy) {
     super(Map.class, false, jdbcType);
+    this.lazy = lazy;
+  }
+
+  /**
+   * Return the map for the JSON content read from the database (parsed lazily if configured).
+   */
+  protected Map readJson(String rawJson) {
+    return lazy ? new LazyJsonMap(rawJson) : parse(rawJson);
   }
 
   /**
@@ -137,7 +195,7 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
     if (rawJson == null) {
       return null;
     }
-    return parse(rawJson);
+    return readJson(rawJson);
   }
 
   @Override
@@ -163,6 +221,11 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
 
   @Override
   public String formatValue(Map v) {
+    String rawJson = LazyJsonMap.rawJson(v);
+    if (rawJson != null) {
+      // unparsed so use the raw content as is
+      return rawJson;
+    }
     try {
       return EJson.write(v);
     } catch (IOException e) {
@@ -219,7 +282,13 @@ public abstract class ScalarTypeJsonMap extends ScalarTypeBase<Map> {
 
   @Override
   public void jsonWrite(JsonGenerator writer, Map value) throws IOException {
-    EJson.write(value, writer);
+    String rawJson = LazyJsonMap.rawJson(value);
+    if (rawJson != null && !writer.canWriteBinaryNatively()) {
+      // pass through the raw content without parsing it (not for binary formats like Smile)
+      writer.writeRawValue(rawJson);
+    } else {
+      EJson.write(value, writer);
+    }
   }
 
   @Override
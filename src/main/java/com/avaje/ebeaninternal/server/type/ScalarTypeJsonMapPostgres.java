@@ -12,8 +12,8 @@ public abstract class ScalarTypeJsonMapPostgres extends ScalarTypeJsonMap {
 
   final String postgresType;
 
-  ScalarTypeJsonMapPostgres(int jdbcType, String postgresType) {
-    super(jdbcType);
+  ScalarTypeJsonMapPostgres(int jdbcType, String postgresType, boolean lazy) {
+    super(jdbcType, lazy);
     this.postgresType = postgresType;
   }
 
@@ -30,7 +30,11 @@ public abstract class ScalarTypeJsonMapPostgres extends ScalarTypeJsonMap {
   public static class JSON extends ScalarTypeJsonMapPostgres {
 
     public JSON() {
-      super(DbType.JSON, PostgresHelper.JSON_TYPE);
+      this(false);
+    }
+
+    public JSON(boolean lazy) {
+      super(DbType.JSON, PostgresHelper.JSON_TYPE, lazy);
     }
   }
 
@@ -40,7 +44,11 @@ public abstract class ScalarTypeJsonMapPostgres extends ScalarTypeJsonMap {
   public static class JSONB extends ScalarTypeJsonMapPostgres {
 
     public JSONB() {
-      super(DbType.JSONB, PostgresHelper.JSONB_TYPE);
+      this(false);
+    }
+
+    public JSONB(boolean lazy) {
+      super(DbType.JSONB, PostgresHelper.JSONB_TYPE, lazy);
     }
   }
 }
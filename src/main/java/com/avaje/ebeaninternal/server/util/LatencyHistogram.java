@@ -0,0 +1,123 @@
+package com.avaje.ebeaninternal.server.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock free histogram of long values (typically execution times in micros).
+ * <p>
+ * Values are recorded into log2 buckets that are each split into a fixed number of
+ * linear sub buckets (in the style of HDR histogram). With 8 sub buckets the reported
+ * value for a percentile is within 12.5% of the actual recorded value.
+ * </p>
+ * <p>
+ * Recording is a single atomic increment. Reset swaps in a fresh set of counters so that
+ * recording threads are never blocked - a recording that races with a reset can end up
+ * in either window which is near enough for our purposes.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+  /**
+   * Enough buckets to cover all positive long values.
+   */
+  static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicReference<AtomicLongArray> counts = new AtomicReference<AtomicLongArray>(new AtomicLongArray(BUCKET_COUNT));
+
+  /**
+   * Record a value.
+   */
+  public void record(long value) {
+    counts.get().incrementAndGet(bucketIndex(value));
+  }
+
+  /**
+   * Return the current counts optionally resetting the histogram (starting a new window).
+   */
+  public long[] counts(boolean reset) {
+    AtomicLongArray current = reset ? counts.getAndSet(new AtomicLongArray(BUCKET_COUNT)) : counts.get();
+    long[] copy = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      copy[i] = current.get(i);
+    }
+    return copy;
+  }
+
+  /**
+   * Reset the histogram.
+   */
+  public void reset() {
+    counts.set(new AtomicLongArray(BUCKET_COUNT));
+  }
+
+  /**
+   * Return the bucket index for the given value.
+   */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return value < 0 ? 0 : (int) value;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * Return the lowest value that maps to the given bucket.
+   */
+  static long lowestValue(int bucketIndex) {
+    if (bucketIndex < SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+    int subBucket = bucketIndex & SUB_BUCKET_MASK;
+    return ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+  }
+
+  /**
+   * Return the highest value that maps to the given bucket.
+   */
+  static long highestValue(int bucketIndex) {
+    if (bucketIndex >= BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return lowestValue(bucketIndex + 1) - 1;
+  }
+
+  /**
+   * Return the value at the given percentile (0 to 100) for the given bucket counts.
+   * <p>
+   * This returns the highest value of the matching bucket (so errs on the high side)
+   * and returns 0 when there are no recorded values.
+   * </p>
+   */
+  public static long percentile(long[] counts, double percentile) {
+
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    double pct = Math.min(Math.max(percentile, 0d), 100d);
+    long target = Math.max(1, (long) Math.ceil(total * pct / 100d));
+
+    long running = 0;
+    for (int i = 0; i < counts.length; i++) {
+      running += counts[i];
+      if (running >= target) {
+        return highestValue(i);
+      }
+    }
+    return highestValue(counts.length - 1);
+  }
+}
@@ -58,4 +58,19 @@ public class ServerConfigTest {
     assertEquals(PersistBatch.ALL, serverConfig.getPersistBatch());
     assertEquals(PersistBatch.ALL, serverConfig.getPersistBatchOnCascade());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testLoadReadOnlyDataSourceSettings() {
+
+    ServerConfig serverConfig = new ServerConfig();
+    assertNull(serverConfig.getReadOnlyDataSource());
+    assertEquals(1000, serverConfig.getReadOnlyAfterCommitMillis());
+
+    Properties props = new Properties();
+    props.setProperty("readOnlyAfterCommitMillis", "250");
+    serverConfig.loadFromProperties(props);
+
+    assertEquals(250, serverConfig.getReadOnlyAfterCommitMillis());
+    assertNotNull(serverConfig.getReadOnlyDataSourceConfig());
+  }
+}
@@ -155,6 +155,11 @@ public class TDSpiEbeanServer implements SpiEbeanServer {
     return null;
   }
 
+  @Override
+  public SpiTransaction createQueryTransaction(Boolean useReadOnlyDataSource) {
+    return null;
+  }
+
   @Override
   public void remoteTransactionEvent(RemoteTransactionEvent event) {
 
@@ -0,0 +1,72 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.common.BeanList;
+import com.avaje.ebean.common.BeanMap;
+import com.avaje.ebean.common.BeanSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CacheSizeEstimatorTest {
+
+  @Test
+  public void estimate_simpleValues() {
+
+    assertEquals(0, CacheSizeEstimator.estimate(null));
+    assertEquals(0, CacheSizeEstimator.estimate(Boolean.TRUE));
+    assertEquals(16, CacheSizeEstimator.estimate(1));
+    assertEquals(24, CacheSizeEstimator.estimate(1L));
+    assertEquals(40 + 2 * 5, CacheSizeEstimator.estimate("hello"));
+  }
+
+  @Test
+  public void estimate_cachedBeanData() {
+
+    Map<String, Object> data = new LinkedHashMap<String, Object>();
+    data.put("name", "hello");
+    data.put("id", 1L);
+    CachedBeanData beanData = new CachedBeanData(null, null, data, 1);
+
+    long dataBytes = CacheSizeEstimator.estimate(data);
+    assertEquals(48 + dataBytes, CacheSizeEstimator.estimate(beanData));
+    assertTrue(CacheSizeEstimator.estimateEntry(1L, beanData) > CacheSizeEstimator.ENTRY_OVERHEAD + dataBytes);
+  }
+
+  @Test
+  public void estimate_cachedManyIds_sampled() {
+
+    List<Object> ids = new ArrayList<Object>();
+    for (long i = 0; i < 1000; i++) {
+      ids.add(i);
+    }
+    // elements beyond the sample are estimated as the sample average
+    long expected = 16 + 40 + 4 * 1000 + 24 * 1000;
+    assertEquals(expected, CacheSizeEstimator.estimate(new CachedManyIds(ids)));
+  }
+
+  @Test
+  public void estimate_deferredBeanCollection_expect_proxyOnly() {
+
+    // reset to the deferred (not yet lazy loaded) state
+    BeanList<Object> beanList = new BeanList<Object>();
+    beanList.reset(null, "orders");
+    BeanSet<Object> beanSet = new BeanSet<Object>();
+    beanSet.reset(null, "orders");
+    BeanMap<Object, Object> beanMap = new BeanMap<Object, Object>();
+    beanMap.reset(null, "orders");
+
+    assertEquals(48, CacheSizeEstimator.estimate(beanList));
+    assertEquals(48, CacheSizeEstimator.estimate(beanSet));
+    assertEquals(48, CacheSizeEstimator.estimate(beanMap));
+
+    List<Object> list = new ArrayList<Object>();
+    list.add("hello");
+    assertEquals(48 + 40 + 2 * 5, CacheSizeEstimator.estimate(new BeanList<Object>(list)));
+  }
+}
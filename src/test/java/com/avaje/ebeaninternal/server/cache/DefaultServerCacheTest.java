@@ -1,8 +1,20 @@
 package com.avaje.ebeaninternal.server.cache;
 
+import com.avaje.ebean.BackgroundExecutor;
 import com.avaje.ebean.cache.ServerCacheOptions;
+import com.avaje.ebean.cache.ServerCacheRefresher;
+import com.avaje.ebean.cache.ServerCacheStatistics;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.*;
 
 public class DefaultServerCacheTest {
@@ -50,6 +62,126 @@ public class DefaultServerCacheTest {
     assertEquals(0, cache.size());
   }
 
+  @Test
+  public void getAll_putAll() throws Exception {
+
+    DefaultServerCache cache = createCache();
+
+    Map<Object, Object> keyValues = new LinkedHashMap<Object, Object>();
+    keyValues.put("A", "a");
+    keyValues.put("B", "b");
+    cache.putAll(keyValues);
+    assertEquals(2, cache.size());
+
+    Set<Object> keys = new LinkedHashSet<Object>();
+    keys.add("A");
+    keys.add("B");
+    keys.add("C");
+    Map<Object, Object> found = cache.getAll(keys);
+    assertEquals(2, found.size());
+    assertEquals("a", found.get("A"));
+    assertEquals("b", found.get("B"));
+    assertFalse(found.containsKey("C"));
+
+    // hits and misses counted per key
+    assertEquals(66, cache.getHitRatio());
+  }
+
+  @Test
+  public void getStatistics_estimatedBytesAndLatency() throws Exception {
+
+    DefaultServerCache cache = createCache();
+    assertEquals(0, cache.getStatistics(false).getEstimatedBytes());
+
+    cache.put("A", "aaaa");
+    cache.put("B", "bbbb");
+    cache.get("A");
+
+    ServerCacheStatistics statistics = cache.getStatistics(true);
+    assertEquals(2 * CacheSizeEstimator.estimateEntry("A", "aaaa"), statistics.getEstimatedBytes());
+    assertTrue(statistics.getPutNanos() > 0);
+
+    // latency reset but estimated bytes is based on the current content
+    statistics = cache.getStatistics(false);
+    assertEquals(0, statistics.getPutNanos());
+    assertEquals(2 * CacheSizeEstimator.estimateEntry("A", "aaaa"), statistics.getEstimatedBytes());
+  }
+
+  @Test
+  public void runEviction_evictAgeCounts() throws Exception {
+
+    DefaultServerCache cache = new DefaultServerCache("foo", new ConcurrentHashMap<Object, DefaultServerCache.CacheEntry>(), 2, 0, 0, 0);
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, i);
+    }
+    cache.runEviction();
+
+    long[] ageCounts = cache.getStatistics(false).getEvictAgeCounts();
+    assertEquals(ServerCacheStatistics.evictAgeBucketCount(), ageCounts.length);
+    assertEquals(10 - cache.size(), ageCounts[0]);
+  }
+
+  @Test
+  public void refreshAhead_singleFlight() throws Exception {
+
+    ServerCacheOptions cacheOptions = new ServerCacheOptions();
+    cacheOptions.setMaxSecsToLive(60);
+    // every read is within the refresh ahead window
+    cacheOptions.setRefreshAheadSecs(60);
+
+    final DefaultServerCache cache = new DefaultServerCache("foo", cacheOptions);
+    assertTrue(cache.isRefreshAhead());
+
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    cache.setBackgroundExecutor(new BackgroundExecutor() {
+      @Override
+      public void execute(Runnable r) {
+        tasks.add(r);
+      }
+
+      @Override
+      public void executePeriodically(Runnable r, long delay, TimeUnit unit) {
+      }
+    });
+    final List<Object> refreshed = new ArrayList<Object>();
+    cache.setRefresher(new ServerCacheRefresher() {
+      @Override
+      public void refresh(Object key) {
+        refreshed.add(key);
+        cache.put(key, "refreshed");
+      }
+    });
+
+    cache.put("A", "a");
+    // the stale value is returned while the refresh is pending
+    assertEquals("a", cache.get("A"));
+    assertEquals("a", cache.get("A"));
+    assertEquals(1, tasks.size());
+
+    tasks.remove(0).run();
+    assertEquals(1, refreshed.size());
+    assertEquals("refreshed", cache.get("A"));
+    assertEquals(1, tasks.size());
+    assertEquals(2, cache.getStatistics(false).getRefreshCount());
+  }
+
+  @Test
+  public void refreshAhead_notWithoutTimeToLive() throws Exception {
+
+    ServerCacheOptions cacheOptions = new ServerCacheOptions();
+    cacheOptions.setRefreshAheadSecs(60);
+    assertFalse(new DefaultServerCache("foo", cacheOptions).isRefreshAhead());
+  }
+
+  @Test
+  public void evictAgeBucket() {
+
+    assertEquals(0, ServerCacheStatistics.evictAgeBucket(0));
+    assertEquals(1, ServerCacheStatistics.evictAgeBucket(10000));
+    assertEquals(2, ServerCacheStatistics.evictAgeBucket(60000));
+    assertEquals(4, ServerCacheStatistics.evictAgeBucket(3600000));
+  }
+
   @Test
   public void trimFreq_halfIdle() throws Exception {
 
@@ -0,0 +1,152 @@
+package com.avaje.ebeaninternal.server.cache;
+
+import com.avaje.ebean.SqlRow;
+import com.avaje.ebean.cache.ServerCacheOptions;
+import com.avaje.ebeaninternal.server.query.DefaultSqlRow;
+import com.avaje.ebeaninternal.server.querydefn.DefaultRelationalQuery;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class SqlQueryCacheTest {
+
+  private SqlQueryCache createCache() {
+    return new SqlQueryCache(new DefaultServerCache("sqlQuery", new ServerCacheOptions()));
+  }
+
+  @Test
+  public void identifiers() {
+
+    assertThat(SqlQueryCache.identifiers("select o.status, count(*) from dbo.O_Order o join o_customer c on c.id = o.kcustomer_id"))
+        .contains("o_order", "o_customer", "status", "kcustomer_id")
+        .doesNotContain("dbo.o_order", "");
+  }
+
+  @Test
+  public void key_when_differentBindValues() {
+
+    SqlQueryCache cache = createCache();
+
+    DefaultRelationalQuery query0 = new DefaultRelationalQuery(null, "select * from o_order where status = :status");
+    query0.setParameter("status", "NEW");
+    DefaultRelationalQuery query1 = new DefaultRelationalQuery(null, "select * from o_order where status = :status");
+    query1.setParameter("status", "NEW");
+    DefaultRelationalQuery query2 = new DefaultRelationalQuery(null, "select * from o_order where status = :status");
+    query2.setParameter("status", "SHIPPED");
+
+    assertThat(cache.key(query0)).isEqualTo(cache.key(query1));
+    assertThat(cache.key(query0)).isNotEqualTo(cache.key(query2));
+  }
+
+  @Test
+  public void invalidate_when_tableUsed() {
+
+    SqlQueryCache cache = createCache();
+    assertThat(cache.isActive()).isFalse();
+
+    long readEpoch = cache.epoch();
+    assertThat(cache.isActive()).isTrue();
+    cache.put("a", "select * from o_order", new ArrayList<SqlRow>(), readEpoch);
+    cache.put("b", "select * from o_customer", new ArrayList<SqlRow>(), readEpoch);
+
+    cache.invalidate(Arrays.asList("o_country", "O_ADDRESS"));
+    assertThat(cache.get("a")).isNotNull();
+    assertThat(cache.get("b")).isNotNull();
+
+    cache.invalidate("myschema.O_ORDER");
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.get("b")).isNotNull();
+
+    List<String> tables = new ArrayList<String>();
+    tables.add(null);
+    tables.add("o_customer");
+    cache.invalidate(tables);
+    assertThat(cache.get("b")).isNull();
+
+    // table changes are still processed for reads in progress
+    assertThat(cache.isActive()).isTrue();
+  }
+
+  @Test
+  public void put_when_tableInvalidatedAfterRead_expect_rejected() {
+
+    SqlQueryCache cache = createCache();
+
+    long readEpoch = cache.epoch();
+    cache.invalidate("o_order");
+
+    List<SqlRow> rows = cache.put("a", "select * from o_order", new ArrayList<SqlRow>(), readEpoch);
+    assertThat(rows).isNotNull();
+    assertThat(cache.get("a")).isNull();
+
+    // other tables invalidated after the read don't reject the put
+    cache.put("b", "select * from o_customer", new ArrayList<SqlRow>(), readEpoch);
+    assertThat(cache.get("b")).isNotNull();
+
+    // read after the invalidation
+    cache.put("a", "select * from o_order", new ArrayList<SqlRow>(), cache.epoch());
+    assertThat(cache.get("a")).isNotNull();
+  }
+
+  @Test
+  public void put_when_clearedAfterRead_expect_rejected() {
+
+    SqlQueryCache cache = createCache();
+
+    long readEpoch = cache.epoch();
+    cache.clear();
+
+    cache.put("a", "select * from o_order", new ArrayList<SqlRow>(), readEpoch);
+    assertThat(cache.get("a")).isNull();
+
+    cache.put("a", "select * from o_order", new ArrayList<SqlRow>(), cache.epoch());
+    assertThat(cache.get("a")).isNotNull();
+  }
+
+  @Test
+  public void put_expect_rowsReadOnly() {
+
+    SqlQueryCache cache = createCache();
+
+    DefaultSqlRow row = new DefaultSqlRow(16, 0.75f, "true");
+    row.set("total", 10);
+    List<SqlRow> rows = new ArrayList<SqlRow>();
+    rows.add(row);
+
+    List<SqlRow> cached = cache.put("a", "select count(*) as total from o_order", rows, cache.epoch());
+    assertThat(cached.get(0).getInteger("total")).isEqualTo(10);
+    assertThat(row.isReadOnly()).isTrue();
+
+    try {
+      cached.get(0).set("total", 20);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      cached.get(0).keySet().clear();
+      fail("expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    assertThat(cache.get("a").get(0).getInteger("total")).isEqualTo(10);
+  }
+
+  @Test
+  public void when_noSqlQueryCache_expect_disabled() {
+
+    SqlQueryCache cache = new SqlQueryCache(null);
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(createCache().isEnabled()).isTrue();
+
+    // RawSql dependencies are still processed
+    cache.epoch();
+    cache.invalidate("o_order");
+    cache.clear();
+  }
+}
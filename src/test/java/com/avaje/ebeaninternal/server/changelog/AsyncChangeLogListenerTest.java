@@ -0,0 +1,112 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.event.changelog.ChangeLogSink;
+import com.avaje.ebean.text.json.EJson;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncChangeLogListenerTest extends BaseTestCase {
+
+  Helper helper = new Helper();
+
+  @Test
+  public void log_writesJsonLines() throws Exception {
+
+    MemorySink sink = new MemorySink();
+    AsyncChangeLogListener listener = new AsyncChangeLogListener(sink);
+    listener.configure(Ebean.getDefaultServer().getPluginApi());
+
+    for (int i = 0; i < 100; i++) {
+      listener.log(helper.createChangeSet("ASYNC-" + i, i * 10));
+    }
+    listener.shutdown();
+
+    assertTrue(sink.closed);
+    assertEquals(100, listener.getWrittenCount());
+    assertEquals(300, listener.getBeanChangeCount());
+    assertEquals(0, listener.getDroppedCount());
+    assertTrue(listener.getBatchCount() <= 100);
+
+    String[] lines = sink.content().split("\n");
+    assertEquals(300, lines.length);
+    Map<String, Object> first = EJson.parseObject(lines[0]);
+    assertEquals("ASYNC-0", first.get("txnId"));
+    assertEquals("mytable", first.get("object"));
+  }
+
+  @Test
+  public void log_dropWhenFull() throws Exception {
+
+    BlockingSink sink = new BlockingSink();
+    AsyncChangeLogListener listener = new AsyncChangeLogListener(sink);
+    listener.configure(Ebean.getDefaultServer().getPluginApi());
+    listener.queueSize = 2;
+    listener.overflow = AsyncChangeLogListener.Overflow.DROP;
+
+    // the writer takes the first change set and blocks writing it
+    listener.log(helper.createChangeSet("DROP-0", 0));
+    assertTrue(sink.writing.await(5, TimeUnit.SECONDS));
+
+    for (int i = 1; i <= 5; i++) {
+      listener.log(helper.createChangeSet("DROP-" + i, i * 10));
+    }
+    assertEquals(3, listener.getDroppedCount());
+
+    sink.release.countDown();
+    listener.shutdown();
+    assertEquals(3, listener.getWrittenCount());
+  }
+
+  static class MemorySink implements ChangeLogSink {
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    boolean closed;
+
+    @Override
+    public void write(byte[] content, int offset, int length) throws IOException {
+      out.write(content, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+    }
+
+    String content() throws IOException {
+      return out.toString("UTF-8");
+    }
+  }
+
+  static class BlockingSink implements ChangeLogSink {
+
+    final CountDownLatch writing = new CountDownLatch(1);
+
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void write(byte[] content, int offset, int length) throws IOException {
+      writing.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // nothing
+    }
+  }
+}
@@ -2,15 +2,23 @@ package com.avaje.ebeaninternal.server.changelog;
 
 import com.avaje.ebean.BaseTestCase;
 import com.avaje.ebean.Ebean;
+import com.avaje.ebean.ValuePair;
+import com.avaje.ebean.config.ClassLoadConfig;
 import com.avaje.ebean.event.changelog.BeanChange;
 import com.avaje.ebean.event.changelog.ChangeSet;
+import com.avaje.ebean.event.changelog.ChangeType;
+import com.avaje.ebean.text.json.EJson;
 import com.avaje.ebean.text.json.JsonContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
 
 import java.io.StringWriter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-import static org.assertj.core.api.StrictAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 
 public class ChangeJsonBuilderTest extends BaseTestCase {
@@ -38,4 +46,100 @@ public class ChangeJsonBuilderTest extends BaseTestCase {
     }
 
   }
-}
\ No newline at end of file
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testToJson_compact() throws Exception {
+
+    JsonContext jsonContext = Ebean.getDefaultServer().json();
+    ChangeJsonBuilder builder = new ChangeJsonBuilder(jsonContext, true);
+
+    Map<String, Object> oldDoc = EJson.parseObject("{\"a\":1,\"b\":{\"c\":\"x\",\"d\":true},\"gone\":2,\"p/q\":1}");
+    Map<String, Object> newDoc = EJson.parseObject("{\"a\":1,\"b\":{\"c\":\"y\",\"d\":true},\"added\":[1,2],\"p/q\":2}");
+
+    Map<String, ValuePair> values = new LinkedHashMap<String, ValuePair>();
+    values.put("name", new ValuePair("jim", "steve"));
+    values.put("same", new ValuePair("jim", "jim"));
+    values.put("content", new ValuePair(newDoc, oldDoc));
+    BeanChange bean = new BeanChange("mytable", 1L, ChangeType.UPDATE, values);
+
+    ChangeSet changeSet = helper.createChangeSet("ABCD", 10);
+    StringWriter buffer = new StringWriter();
+    builder.writeBeanJson(buffer, bean, changeSet, 0);
+
+    Map<String, Object> map = EJson.parseObject(buffer.toString());
+    Map<String, Object> written = (Map<String, Object>) map.get("values");
+
+    assertThat(written).containsOnlyKeys("name", "content");
+    Map<String, Object> content = (Map<String, Object>) written.get("content");
+    assertThat(content).containsOnlyKeys("patch");
+
+    List<Object> patch = (List<Object>) content.get("patch");
+    assertThat(patch).hasSize(4);
+    assertThat(patch.get(0).toString()).isEqualTo("{op=remove, path=/gone}");
+    assertThat(patch.get(1).toString()).isEqualTo("{op=replace, path=/b/c, value=y}");
+    assertThat(patch.get(2).toString()).isEqualTo("{op=add, path=/added, value=[1, 2]}");
+    assertThat(patch.get(3).toString()).isEqualTo("{op=replace, path=/p~1q, value=2}");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testToJson_compact_jsonNode() throws Exception {
+
+    JsonContext jsonContext = Ebean.getDefaultServer().json();
+    ChangeJsonBuilder builder = new ChangeJsonBuilder(jsonContext, true, new ClassLoadConfig());
+
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode oldDoc = mapper.readTree("{\"a\":1,\"b\":{\"c\":\"x\"},\"gone\":2}");
+    JsonNode newDoc = mapper.readTree("{\"a\":1,\"b\":{\"c\":\"y\"}}");
+
+    Map<String, ValuePair> values = new LinkedHashMap<String, ValuePair>();
+    values.put("content", new ValuePair(newDoc, oldDoc));
+    BeanChange bean = new BeanChange("mytable", 1L, ChangeType.UPDATE, values);
+
+    StringWriter buffer = new StringWriter();
+    builder.writeBeanJson(buffer, bean, helper.createChangeSet("ABCD", 10), 0);
+
+    Map<String, Object> map = EJson.parseObject(buffer.toString());
+    Map<String, Object> content = (Map<String, Object>) ((Map<String, Object>) map.get("values")).get("content");
+    assertThat(content).containsOnlyKeys("patch");
+
+    List<Object> patch = (List<Object>) content.get("patch");
+    assertThat(patch).hasSize(2);
+    assertThat(patch.get(0).toString()).isEqualTo("{op=remove, path=/gone}");
+    assertThat(patch.get(1).toString()).isEqualTo("{op=replace, path=/b/c, value=y}");
+  }
+
+  @Test
+  public void testToJson_jsonNode_notCompact() throws Exception {
+
+    JsonContext jsonContext = Ebean.getDefaultServer().json();
+    ChangeJsonBuilder builder = new ChangeJsonBuilder(jsonContext);
+
+    ObjectMapper mapper = new ObjectMapper();
+    Map<String, ValuePair> values = new LinkedHashMap<String, ValuePair>();
+    values.put("content", new ValuePair(mapper.readTree("{\"a\":2}"), mapper.readTree("{\"a\":1}")));
+    BeanChange bean = new BeanChange("mytable", 1L, ChangeType.UPDATE, values);
+
+    StringWriter buffer = new StringWriter();
+    builder.writeBeanJson(buffer, bean, helper.createChangeSet("ABCD", 10), 0);
+
+    assertThat(buffer.toString()).contains("\"content\":{\"new\":{\"a\":2},\"old\":{\"a\":1}}");
+  }
+
+  @Test
+  public void testToJson_mapValue_notCompact() throws Exception {
+
+    JsonContext jsonContext = Ebean.getDefaultServer().json();
+    ChangeJsonBuilder builder = new ChangeJsonBuilder(jsonContext);
+
+    Map<String, ValuePair> values = new LinkedHashMap<String, ValuePair>();
+    values.put("content", new ValuePair(EJson.parseObject("{\"a\":2}"), EJson.parseObject("{\"a\":1}")));
+    BeanChange bean = new BeanChange("mytable", 1L, ChangeType.UPDATE, values);
+
+    StringWriter buffer = new StringWriter();
+    builder.writeBeanJson(buffer, bean, helper.createChangeSet("ABCD", 10), 0);
+
+    assertThat(buffer.toString()).contains("\"content\":{\"new\":{\"a\":2},\"old\":{\"a\":1}}");
+  }
+}
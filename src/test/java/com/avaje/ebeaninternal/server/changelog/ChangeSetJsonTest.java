@@ -0,0 +1,50 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.event.changelog.BeanChange;
+import com.avaje.ebean.event.changelog.ChangeSet;
+import com.avaje.ebean.event.changelog.ChangeType;
+import com.avaje.ebean.event.changelog.TxnState;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ChangeSetJsonTest extends BaseTestCase {
+
+  Helper helper = new Helper();
+
+  @Test
+  public void writeRead() throws Exception {
+
+    ChangeSetJson changeSetJson = new ChangeSetJson(Ebean.getDefaultServer().json());
+
+    ChangeSet changeSet = helper.createChangeSet("ABCD", 10);
+    String json = changeSetJson.write(changeSet);
+
+    ChangeSet read = changeSetJson.read(json);
+    assertEquals("ABCD", read.getTxnId());
+    assertEquals(TxnState.COMMITTED, read.getTxnState());
+    assertEquals("myApp", read.getSource());
+    assertEquals("user234", read.getUserId());
+    assertEquals("123.4.5.6", read.getUserIpAddress());
+    assertEquals("user defined input", read.getUserContext().get("someKey"));
+    assertEquals(3, read.getChanges().size());
+
+    BeanChange insert = read.getChanges().get(0);
+    assertEquals("mytable", insert.getTable());
+    assertEquals(11L, insert.getId());
+    assertEquals(ChangeType.INSERT, insert.getType());
+    assertEquals(changeSet.getChanges().get(0).getEventTime(), insert.getEventTime());
+    assertEquals("rob", insert.getValues().get("name").getNewValue());
+
+    BeanChange update = read.getChanges().get(1);
+    assertEquals(ChangeType.UPDATE, update.getType());
+    assertEquals("jim", update.getValues().get("name").getNewValue());
+    assertEquals("steve", update.getValues().get("name").getOldValue());
+    assertNull(update.getValues().get("nowNull").getNewValue());
+
+    assertEquals(ChangeType.DELETE, read.getChanges().get(2).getType());
+  }
+}
@@ -0,0 +1,37 @@
+package com.avaje.ebeaninternal.server.changelog;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileChangeLogSinkTest {
+
+  @Test
+  public void write_rolls() throws Exception {
+
+    File directory = new File("target/changelog-test-" + System.nanoTime());
+    FileChangeLogSink sink = new FileChangeLogSink(directory, "changes", 100, FileChangeLogSink.Fsync.BATCH, 0);
+
+    byte[] line = "{\"txnId\":\"T1\",\"object\":\"mytable\"}\n".getBytes(Charset.forName("UTF-8"));
+    for (int i = 0; i < 10; i++) {
+      sink.write(line, 0, line.length);
+      // the rolled file name has millisecond precision
+      Thread.sleep(2);
+    }
+    sink.close();
+
+    File[] files = directory.listFiles();
+    assertTrue(files.length > 1);
+    long total = 0;
+    for (File file : files) {
+      assertTrue(file.length() <= 100);
+      total += file.length();
+    }
+    assertEquals(10L * line.length, total);
+    assertTrue(sink.getFile().exists());
+  }
+}
@@ -0,0 +1,216 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.transaction.BeanPersistIds;
+import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
+import com.avaje.tests.model.basic.EBasicVer;
+import com.avaje.tests.model.basic.EWithInetAddr;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClusterEventCoalescerTest extends BaseTestCase {
+
+  static class CaptureBroadcast implements ClusterBroadcast {
+
+    final List<RemoteTransactionEvent> events = new ArrayList<RemoteTransactionEvent>();
+
+    @Override
+    public void startup() {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public void broadcast(RemoteTransactionEvent remoteTransEvent) {
+      events.add(remoteTransEvent);
+    }
+  }
+
+  private RemoteTransactionEvent event(String serverName, TableIUD tableIUD) {
+    RemoteTransactionEvent event = new RemoteTransactionEvent(serverName);
+    event.addTableIUD(tableIUD);
+    return event;
+  }
+
+  private RemoteTransactionEvent event(BeanPersistIds... beanPersistIds) {
+    RemoteTransactionEvent event = new RemoteTransactionEvent("db");
+    for (BeanPersistIds ids : beanPersistIds) {
+      event.addBeanPersistIds(ids);
+    }
+    return event;
+  }
+
+  /**
+   * Create the ids by reading a message in the standard encoding.
+   */
+  private BeanPersistIds ids(BeanDescriptor<?> desc, int iudType, Object... ids) throws IOException {
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream os = new DataOutputStream(buffer);
+    os.writeUTF(desc.getDescriptorId());
+    os.writeInt(iudType);
+    os.writeInt(ids.length);
+    for (Object id : ids) {
+      desc.getIdBinder().writeData(os, id);
+    }
+    os.flush();
+    return BeanPersistIds.readBinaryMessage(spiEbeanServer(), new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+  }
+
+  /**
+   * Write the event as binary messages and read them back returning the decoded event.
+   */
+  private RemoteTransactionEvent roundTrip(RemoteTransactionEvent event, int expectedBeanMessageType) throws IOException {
+
+    BinaryMessageList messageList = new BinaryMessageList();
+    event.writeBinaryMessage(messageList);
+
+    RemoteTransactionEvent decoded = new RemoteTransactionEvent(spiEbeanServer());
+    for (BinaryMessage message : messageList.getList()) {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getByteArray()));
+      int type = in.readInt();
+      switch (type) {
+        case BinaryMessage.TYPE_TABLEIUD:
+          decoded.addTableIUD(TableIUD.readBinaryMessage(in));
+          break;
+        case BinaryMessage.TYPE_BEANIUD:
+          assertThat(type).isEqualTo(expectedBeanMessageType);
+          decoded.addBeanPersistIds(BeanPersistIds.readBinaryMessage(spiEbeanServer(), in));
+          break;
+        case BinaryMessage.TYPE_BEANIUD_COMPACT:
+          assertThat(type).isEqualTo(expectedBeanMessageType);
+          decoded.addBeanPersistIds(BeanPersistIds.readCompactBinaryMessage(spiEbeanServer(), in));
+          break;
+        default:
+          throw new IllegalStateException("Unexpected message type " + type);
+      }
+      assertThat(in.read()).isEqualTo(-1);
+    }
+    return decoded;
+  }
+
+  @Test
+  public void flush_when_manyEvents_expect_mergedPerServer() {
+
+    CaptureBroadcast broadcast = new CaptureBroadcast();
+    ClusterEventCoalescer coalescer = new ClusterEventCoalescer(broadcast, 60000, 1000, false);
+
+    coalescer.add(event("db", new TableIUD("O_ORDER", true, false, false)));
+    coalescer.add(event("db", new TableIUD("O_ORDER", false, true, false)));
+    coalescer.add(event("db", new TableIUD("O_CUSTOMER", false, false, true)));
+    coalescer.add(event("other", new TableIUD("O_ORDER", true, false, false)));
+    coalescer.flush();
+
+    assertThat(broadcast.events).hasSize(2);
+    List<TableIUD> tables = broadcast.events.get(0).getTableIUDList();
+    assertThat(tables).hasSize(2);
+    assertThat(tables.get(0).getTableName()).isEqualTo("O_ORDER");
+    assertThat(tables.get(0).isInsert()).isTrue();
+    assertThat(tables.get(0).isUpdate()).isTrue();
+    assertThat(tables.get(0).isDelete()).isFalse();
+
+    assertThat(coalescer.getEventCount()).isEqualTo(4);
+    assertThat(coalescer.getBroadcastCount()).isEqualTo(2);
+    assertThat(coalescer.getMessagesSaved()).isEqualTo(2);
+
+    // nothing pending
+    coalescer.flush();
+    assertThat(broadcast.events).hasSize(2);
+    coalescer.shutdown();
+  }
+
+  @Test
+  public void compactEncoding_roundTrip() throws IOException {
+
+    BeanDescriptor<EBasicVer> intDesc = getBeanDescriptor(EBasicVer.class);
+    BeanDescriptor<EWithInetAddr> longDesc = getBeanDescriptor(EWithInetAddr.class);
+
+    CaptureBroadcast broadcast = new CaptureBroadcast();
+    ClusterEventCoalescer coalescer = new ClusterEventCoalescer(broadcast, 60000, 1000, true);
+    coalescer.add(event(ids(intDesc, 1, 1000000, 5, 3, Integer.MAX_VALUE), ids(longDesc, 2, 10L, -2L, Long.MAX_VALUE)));
+    coalescer.add(event(ids(intDesc, 1, 3), ids(intDesc, 0, 7)));
+    coalescer.shutdown();
+
+    assertThat(broadcast.events).hasSize(1);
+    assertThat(coalescer.getDuplicateIdCount()).isEqualTo(1);
+
+    RemoteTransactionEvent decoded = roundTrip(broadcast.events.get(0), BinaryMessage.TYPE_BEANIUD_COMPACT);
+    assertThat(coalescer.getBytesSaved()).isGreaterThan(0);
+
+    List<BeanPersistIds> decodedIds = decoded.getBeanPersistList();
+    assertThat(decodedIds).hasSize(3);
+
+    // ids are sorted by the compact encoding
+    assertThat(decodedIds.get(0).getBeanDescriptor()).isSameAs(intDesc);
+    assertThat(decodedIds.get(0).getInsertIds()).containsExactly(7);
+    assertThat(decodedIds.get(1).getBeanDescriptor()).isSameAs(intDesc);
+    assertThat(decodedIds.get(1).getUpdateIds()).containsExactly(3, 5, 1000000, Integer.MAX_VALUE);
+    assertThat(decodedIds.get(2).getBeanDescriptor()).isSameAs(longDesc);
+    assertThat(decodedIds.get(2).getDeleteIds()).containsExactly(-2L, 10L, Long.MAX_VALUE);
+  }
+
+  @Test
+  public void flush_when_duplicateIds_expect_removed() throws IOException {
+
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+
+    CaptureBroadcast broadcast = new CaptureBroadcast();
+    ClusterEventCoalescer coalescer = new ClusterEventCoalescer(broadcast, 60000, 1000, false);
+    coalescer.add(event(ids(desc, 1, 1, 2, 2)));
+    coalescer.add(event(ids(desc, 1, 2, 3), ids(desc, 2, 1)));
+    coalescer.add(event(ids(desc, 2, 1)));
+    coalescer.flush();
+
+    assertThat(coalescer.getDuplicateIdCount()).isEqualTo(3);
+
+    BeanPersistIds merged = broadcast.events.get(0).getBeanPersistList().get(0);
+    assertThat(merged.getUpdateIds()).containsExactly(1, 2, 3);
+    assertThat(merged.getDeleteIds()).containsExactly(1);
+    assertThat(merged.getInsertIds()).isNull();
+
+    // the standard encoding of the coalesced event
+    BeanPersistIds decoded = roundTrip(broadcast.events.get(0), BinaryMessage.TYPE_BEANIUD).getBeanPersistList().get(0);
+    assertThat(decoded.getUpdateIds()).containsExactly(1, 2, 3);
+    coalescer.shutdown();
+  }
+
+  @Test
+  public void flush_when_moreThanMaxIds_expect_collapsedToTableEvent() throws IOException {
+
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+    BeanDescriptor<EWithInetAddr> otherDesc = getBeanDescriptor(EWithInetAddr.class);
+
+    CaptureBroadcast broadcast = new CaptureBroadcast();
+    ClusterEventCoalescer coalescer = new ClusterEventCoalescer(broadcast, 60000, 3, false);
+    coalescer.add(event(ids(desc, 1, 1, 2), ids(otherDesc, 2, 1L)));
+    coalescer.add(event(ids(desc, 2, 3, 4)));
+    coalescer.flush();
+
+    assertThat(coalescer.getTableCollapseCount()).isEqualTo(1);
+
+    RemoteTransactionEvent event = broadcast.events.get(0);
+    assertThat(event.getBeanPersistList()).hasSize(1);
+    assertThat(event.getBeanPersistList().get(0).getBeanDescriptor()).isSameAs(otherDesc);
+
+    List<TableIUD> tables = event.getTableIUDList();
+    assertThat(tables).hasSize(1);
+    assertThat(tables.get(0).getTableName()).isEqualTo(desc.getBaseTable());
+    assertThat(tables.get(0).isInsert()).isFalse();
+    assertThat(tables.get(0).isUpdate()).isTrue();
+    assertThat(tables.get(0).isDelete()).isTrue();
+    coalescer.shutdown();
+  }
+}
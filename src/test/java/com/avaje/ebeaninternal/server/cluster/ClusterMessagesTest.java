@@ -0,0 +1,63 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.config.ContainerConfig;
+import com.avaje.ebeaninternal.api.TransactionEventTable.TableIUD;
+import com.avaje.ebeaninternal.server.transaction.RemoteTransactionEvent;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ClusterMessagesTest extends BaseTestCase {
+
+  @Test
+  public void encode_when_multiByteServerName_expect_framesWithinMax() throws IOException {
+
+    StringBuilder serverName = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      // 2 bytes each in UTF-8
+      serverName.append('\u00e9');
+    }
+    RemoteTransactionEvent event = new RemoteTransactionEvent(serverName.toString());
+    for (int i = 0; i < 40; i++) {
+      event.addTableIUD(new TableIUD("table_" + i, true, false, false));
+    }
+
+    List<byte[]> frames = ClusterMessages.encode(event, 300);
+    assertThat(frames.size()).isGreaterThan(1);
+    for (byte[] frame : frames) {
+      assertThat(frame.length).isLessThanOrEqualTo(300);
+    }
+  }
+
+  @Test
+  public void receive_when_invalidMessageLength_expect_rejected() throws IOException {
+
+    ContainerConfig config = new ContainerConfig();
+    ClusterManager manager = new ClusterManager(config);
+    manager.registerServer(server());
+
+    for (int length : new int[]{-1, 1000}) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      DataOutputStream os = new DataOutputStream(buffer);
+      os.writeUTF(server().getName());
+      os.writeInt(1);
+      os.writeInt(length);
+      os.writeInt(BinaryMessage.TYPE_TABLEIUD);
+      os.flush();
+      byte[] frame = buffer.toByteArray();
+      try {
+        ClusterMessages.receive(manager, frame, frame.length);
+        fail("expected IOException");
+      } catch (IOException e) {
+        assertThat(e.getMessage()).contains("Invalid cluster message length");
+      }
+    }
+  }
+}
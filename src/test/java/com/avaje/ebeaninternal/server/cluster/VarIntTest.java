@@ -0,0 +1,60 @@
+package com.avaje.ebeaninternal.server.cluster;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VarIntTest {
+
+  private static final long[] VALUES = {0, 1, -1, 63, -64, 127, 128, 300, -300, 16384,
+      Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+
+  @Test
+  public void signed_roundTrip() throws IOException {
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(buffer);
+    int expectedSize = 0;
+    for (long value : VALUES) {
+      VarInt.writeSigned(out, value);
+      expectedSize += VarInt.sizeOfSigned(value);
+    }
+    assertThat(buffer.size()).isEqualTo(expectedSize);
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+    for (long value : VALUES) {
+      assertThat(VarInt.readSigned(in)).isEqualTo(value);
+    }
+  }
+
+  @Test
+  public void unsigned_roundTrip() throws IOException {
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(buffer);
+    VarInt.writeUnsigned(out, 0);
+    VarInt.writeUnsigned(out, 127);
+    VarInt.writeUnsigned(out, 128);
+    VarInt.writeUnsigned(out, Long.MAX_VALUE);
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+    assertThat(VarInt.readUnsigned(in)).isEqualTo(0);
+    assertThat(VarInt.readUnsigned(in)).isEqualTo(127);
+    assertThat(VarInt.readUnsigned(in)).isEqualTo(128);
+    assertThat(VarInt.readUnsigned(in)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void size_when_smallValues() {
+    assertThat(VarInt.sizeOfUnsigned(127)).isEqualTo(1);
+    assertThat(VarInt.sizeOfUnsigned(128)).isEqualTo(2);
+    assertThat(VarInt.sizeOfSigned(-64)).isEqualTo(1);
+    assertThat(VarInt.sizeOfSigned(64)).isEqualTo(2);
+  }
+}
@@ -0,0 +1,156 @@
+package com.avaje.ebeaninternal.server.core;
+
+import com.avaje.ebean.bean.CallStack;
+import com.avaje.ebean.bean.ObjectGraphNode;
+import com.avaje.ebean.bean.ObjectGraphOrigin;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebean.meta.MetaLazyLoadOffender;
+import com.avaje.ebeaninternal.api.SpiQuery;
+import com.avaje.ebeaninternal.server.autotune.AutoTuneService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyLoadDetectorTest {
+
+  private ObjectGraphNode node(String path) {
+    CallStack callStack = new CallStack(new StackTraceElement[0], 1, 2);
+    return new ObjectGraphNode(new ObjectGraphOrigin(42, callStack, "Order"), path);
+  }
+
+  private LazyLoadDetector detector(int threshold) {
+    return detector(threshold, false, null);
+  }
+
+  private LazyLoadDetector detector(int threshold, boolean autoTune, AutoTuneService autoTuneService) {
+    ServerConfig serverConfig = new ServerConfig();
+    serverConfig.setLazyLoadDetectThreshold(threshold);
+    serverConfig.setLazyLoadDetectWindowMillis(60000);
+    serverConfig.setLazyLoadDetectAutoTune(autoTune);
+    return new LazyLoadDetector(serverConfig, autoTuneService);
+  }
+
+  @Test
+  public void collect_when_disabled() {
+
+    LazyLoadDetector detector = detector(0);
+    assertThat(detector.isEnabled()).isFalse();
+
+    for (int i = 0; i < 10; i++) {
+      detector.collect(node("customer"), 1);
+    }
+    assertThat(detector.collectOffenders(false)).isEmpty();
+  }
+
+  @Test
+  public void collect_when_belowThreshold() {
+
+    LazyLoadDetector detector = detector(5);
+    for (int i = 0; i < 4; i++) {
+      detector.collect(node("customer"), 1);
+    }
+    assertThat(detector.collectOffenders(false)).isEmpty();
+  }
+
+  @Test
+  public void collect_when_thresholdReached() {
+
+    LazyLoadDetector detector = detector(5);
+    for (int i = 0; i < 7; i++) {
+      detector.collect(node("customer"), 1);
+    }
+    detector.collect(node("details"), 3);
+
+    List<MetaLazyLoadOffender> offenders = detector.collectOffenders(true);
+    assertThat(offenders).hasSize(1);
+
+    MetaLazyLoadOffender offender = offenders.get(0);
+    assertThat(offender.getNode()).isEqualTo(node("customer"));
+    assertThat(offender.getCount()).isEqualTo(7);
+    assertThat(offender.getTotalBeans()).isEqualTo(7);
+    assertThat(offender.getMaxWindowCount()).isEqualTo(7);
+    assertThat(offender.getDetectedCount()).isEqualTo(1);
+    assertThat(offender.getLastDetected()).isGreaterThan(0);
+
+    // reset so no longer reported
+    assertThat(detector.collectOffenders(false)).isEmpty();
+  }
+
+  @Test
+  public void collect_when_autoTune_expect_offenderPassedToAutoTuneOncePerWindow() {
+
+    TDAutoTuneService autoTuneService = new TDAutoTuneService();
+    LazyLoadDetector detector = detector(5, true, autoTuneService);
+    for (int i = 0; i < 12; i++) {
+      detector.collect(node("customer"), 1);
+    }
+    detector.collect(node("details"), 1);
+
+    assertThat(autoTuneService.offenders).containsExactly(node("customer"));
+  }
+
+  @Test
+  public void collect_when_autoTuneNotEnabled_expect_autoTuneNotNotified() {
+
+    TDAutoTuneService autoTuneService = new TDAutoTuneService();
+    LazyLoadDetector detector = detector(5, false, autoTuneService);
+    for (int i = 0; i < 12; i++) {
+      detector.collect(node("customer"), 1);
+    }
+
+    assertThat(autoTuneService.offenders).isEmpty();
+    assertThat(detector.collectOffenders(false)).hasSize(1);
+  }
+
+  @Test
+  public void collect_when_manyNodes_expect_bounded() {
+
+    LazyLoadDetector detector = detector(5);
+    for (int i = 0; i < 5; i++) {
+      detector.collect(node("customer"), 1);
+    }
+    for (int i = 0; i < LazyLoadDetector.MAX_NODES + 100; i++) {
+      detector.collect(node("path" + i), 1);
+    }
+    assertThat(detector.size()).isLessThanOrEqualTo(LazyLoadDetector.MAX_NODES);
+
+    // the detected node was kept
+    List<MetaLazyLoadOffender> offenders = detector.collectOffenders(false);
+    assertThat(offenders).hasSize(1);
+    assertThat(offenders.get(0).getNode()).isEqualTo(node("customer"));
+  }
+
+  static class TDAutoTuneService implements AutoTuneService {
+
+    final List<ObjectGraphNode> offenders = new ArrayList<ObjectGraphNode>();
+
+    @Override
+    public void collectLazyLoadOffender(ObjectGraphNode node) {
+      offenders.add(node);
+    }
+
+    @Override
+    public void startup() {
+    }
+
+    @Override
+    public boolean tuneQuery(SpiQuery<?> query) {
+      return false;
+    }
+
+    @Override
+    public void collectProfiling() {
+    }
+
+    @Override
+    public void reportProfiling() {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+  }
+}
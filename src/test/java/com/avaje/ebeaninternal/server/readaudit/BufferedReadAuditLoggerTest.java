@@ -0,0 +1,176 @@
+package com.avaje.ebeaninternal.server.readaudit;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.event.readaudit.ReadAuditQueryPlan;
+import com.avaje.ebean.event.readaudit.ReadEvent;
+import com.avaje.ebean.text.json.EJson;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BufferedReadAuditLoggerTest extends BaseTestCase {
+
+  @Test
+  public void queryPlan_writtenOncePerQueryKey() throws IOException {
+
+    TDLogger logger = new TDLogger();
+    logger.configure(Ebean.getDefaultServer().getPluginApi());
+
+    for (int i = 0; i < 10; i++) {
+      logger.queryPlan(new ReadAuditQueryPlan("org.Foo", "key1", "select 1"));
+      logger.queryPlan(new ReadAuditQueryPlan("org.Foo", "key2", "select 2"));
+    }
+    logger.shutdown();
+
+    assertEquals(2, logger.plans.size());
+    assertEquals(2, logger.getQueryPlanCount());
+    Map<String, Object> plan = EJson.parseObject(logger.plans.get(0));
+    assertEquals("key1", plan.get("queryKey"));
+    assertEquals("select 1", plan.get("sql"));
+  }
+
+  @Test
+  public void auditBean_aggregatedBySameContext() throws IOException {
+
+    TDLogger logger = new TDLogger();
+    logger.configure(Ebean.getDefaultServer().getPluginApi());
+    // hold the writer such that all the events are in the one batch
+    logger.block = new CountDownLatch(1);
+
+    logger.queryPlan(new ReadAuditQueryPlan("org.Foo", "hold", "select 0"));
+    for (long i = 0; i < 5; i++) {
+      ReadEvent event = new ReadEvent("org.Foo", "key1", "[1]", i);
+      event.setUserId("rob");
+      event.setEventTime(1000 + i);
+      logger.auditBean(event);
+    }
+    ReadEvent many = new ReadEvent("org.Foo", "key1", "[1]", new ArrayList<Object>(Arrays.<Object>asList(10L, 11L)));
+    many.setUserId("rob");
+    many.setEventTime(2000);
+    logger.auditMany(many);
+
+    ReadEvent other = new ReadEvent("org.Foo", "key1", "[1]", 20L);
+    other.setUserId("jim");
+    logger.auditBean(other);
+
+    logger.block.countDown();
+    logger.shutdown();
+
+    assertEquals(8, logger.getWrittenCount());
+    assertEquals(2, logger.getAggregatedCount());
+    assertEquals(2, logger.events.size());
+
+    Map<String, Object> rob = EJson.parseObject(logger.events.get(0));
+    assertEquals("rob", rob.get("userId"));
+    assertEquals(Arrays.<Object>asList(0L, 1L, 2L, 3L, 4L, 10L, 11L), rob.get("ids"));
+    // the eventTime of the latest merged event
+    assertEquals(2000L, rob.get("eventTime"));
+
+    Map<String, Object> jim = EJson.parseObject(logger.events.get(1));
+    assertEquals("jim", jim.get("userId"));
+    assertEquals(20L, jim.get("id"));
+
+    // the original events are not mutated
+    assertEquals(2, many.getIds().size());
+  }
+
+  @Test
+  public void auditBean_dropWhenFull() throws Exception {
+
+    TDLogger logger = new TDLogger();
+    logger.configure(Ebean.getDefaultServer().getPluginApi());
+    logger.queueSize = 2;
+    logger.block = new CountDownLatch(1);
+
+    // the writer takes the first event and blocks logging it
+    logger.auditBean(new ReadEvent("org.Foo", "key1", null, 0L));
+    assertTrue(logger.writing.await(5, TimeUnit.SECONDS));
+
+    for (long i = 1; i <= 5; i++) {
+      logger.auditBean(new ReadEvent("org.Foo", "key1", null, i));
+    }
+    assertEquals(2, logger.getQueueDepth());
+    assertEquals(3, logger.getDroppedCount());
+
+    logger.block.countDown();
+    logger.shutdown();
+
+    assertEquals(3, logger.getQueuedCount());
+    assertEquals(3, logger.getWrittenCount());
+    assertEquals(0, logger.getQueueDepth());
+  }
+
+  @Test
+  public void queryPlan_when_dropped_expect_queuedAgainWhenNextSeen() throws Exception {
+
+    TDLogger logger = new TDLogger();
+    logger.configure(Ebean.getDefaultServer().getPluginApi());
+    logger.queueSize = 1;
+    logger.block = new CountDownLatch(1);
+
+    // the writer takes the first event and blocks logging it
+    logger.auditBean(new ReadEvent("org.Foo", "key1", null, 0L));
+    assertTrue(logger.writing.await(5, TimeUnit.SECONDS));
+
+    logger.queryPlan(new ReadAuditQueryPlan("org.Foo", "key1", "select 1"));
+    logger.queryPlan(new ReadAuditQueryPlan("org.Foo", "key2", "select 2"));
+    assertEquals(1, logger.getDroppedCount());
+
+    logger.block.countDown();
+    for (int i = 0; i < 50 && logger.getQueueDepth() > 0; i++) {
+      Thread.sleep(100);
+    }
+    assertEquals(0, logger.getQueueDepth());
+
+    logger.queryPlan(new ReadAuditQueryPlan("org.Foo", "key2", "select 2"));
+    logger.shutdown();
+
+    assertEquals(2, logger.plans.size());
+    assertEquals("key2", EJson.parseObject(logger.plans.get(1)).get("queryKey"));
+  }
+
+  static class TDLogger extends BufferedReadAuditLogger {
+
+    final List<String> plans = Collections.synchronizedList(new ArrayList<String>());
+
+    final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+    final CountDownLatch writing = new CountDownLatch(1);
+
+    CountDownLatch block;
+
+    @Override
+    protected void logQueryPlan(String json) {
+      plans.add(json);
+      await();
+    }
+
+    @Override
+    protected void logReadEvent(String json) {
+      events.add(json);
+      await();
+    }
+
+    private void await() {
+      writing.countDown();
+      if (block != null) {
+        try {
+          block.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
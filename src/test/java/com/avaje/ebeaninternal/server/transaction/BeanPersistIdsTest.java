@@ -0,0 +1,134 @@
+package com.avaje.ebeaninternal.server.transaction;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebeaninternal.server.cluster.BinaryMessage;
+import com.avaje.ebeaninternal.server.cluster.BinaryMessageList;
+import com.avaje.ebeaninternal.server.cluster.VarInt;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.ebeaninternal.server.util.LongAdder;
+import com.avaje.tests.model.basic.EBasicVer;
+import com.avaje.tests.model.basic.EWithInetAddr;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class BeanPersistIdsTest extends BaseTestCase {
+
+  /**
+   * Create the ids by reading a message in the standard encoding.
+   */
+  private BeanPersistIds ids(BeanDescriptor<?> desc, int iudType, Object... ids) throws IOException {
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream os = new DataOutputStream(buffer);
+    os.writeUTF(desc.getDescriptorId());
+    os.writeInt(iudType);
+    os.writeInt(ids.length);
+    for (Object id : ids) {
+      desc.getIdBinder().writeData(os, id);
+    }
+    os.flush();
+    return BeanPersistIds.readBinaryMessage(spiEbeanServer(), new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+  }
+
+  /**
+   * Write the ids as binary messages and read them back returning the decoded ids.
+   */
+  private List<BeanPersistIds> roundTrip(RemoteTransactionEvent event, int expectedMessageType) throws IOException {
+
+    BinaryMessageList messageList = new BinaryMessageList();
+    event.writeBinaryMessage(messageList);
+
+    List<BeanPersistIds> decoded = new ArrayList<BeanPersistIds>();
+    for (BinaryMessage message : messageList.getList()) {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getByteArray()));
+      assertThat(in.readInt()).isEqualTo(expectedMessageType);
+      if (expectedMessageType == BinaryMessage.TYPE_BEANIUD_COMPACT) {
+        decoded.add(BeanPersistIds.readCompactBinaryMessage(spiEbeanServer(), in));
+      } else {
+        decoded.add(BeanPersistIds.readBinaryMessage(spiEbeanServer(), in));
+      }
+      assertThat(in.read()).isEqualTo(-1);
+    }
+    return decoded;
+  }
+
+  private RemoteTransactionEvent event(BeanPersistIds ids) {
+    RemoteTransactionEvent event = new RemoteTransactionEvent("db");
+    event.addBeanPersistIds(ids);
+    return event;
+  }
+
+  @Test
+  public void compactEncoding_when_moreThanOneMessageOfIds() throws IOException {
+
+    BeanDescriptor<EWithInetAddr> longDesc = getBeanDescriptor(EWithInetAddr.class);
+    Object[] idValues = new Object[250];
+    for (int i = 0; i < idValues.length; i++) {
+      idValues[i] = (long) (i * 3);
+    }
+    RemoteTransactionEvent event = event(ids(longDesc, 1, idValues));
+    event.setCompactEncoding(new LongAdder());
+
+    List<Object> decodedIds = new ArrayList<Object>();
+    for (BeanPersistIds ids : roundTrip(event, BinaryMessage.TYPE_BEANIUD_COMPACT)) {
+      decodedIds.addAll(ids.getUpdateIds());
+    }
+    assertThat(decodedIds).containsExactly(idValues);
+  }
+
+  @Test
+  public void standardEncoding_when_moreThanOneMessageOfIds() throws IOException {
+
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+    Object[] idValues = new Object[250];
+    for (int i = 0; i < idValues.length; i++) {
+      idValues[i] = 250 - i;
+    }
+
+    // each message holds at most 100 ids with the count of the ids in that message
+    List<BeanPersistIds> decoded = roundTrip(event(ids(desc, 0, idValues)), BinaryMessage.TYPE_BEANIUD);
+    assertThat(decoded).hasSize(3);
+    assertThat(decoded.get(0).getInsertIds()).hasSize(100);
+    assertThat(decoded.get(1).getInsertIds()).hasSize(100);
+    assertThat(decoded.get(2).getInsertIds()).hasSize(50);
+
+    List<Object> decodedIds = new ArrayList<Object>();
+    for (BeanPersistIds ids : decoded) {
+      decodedIds.addAll(ids.getInsertIds());
+    }
+    assertThat(decodedIds).containsExactly(idValues);
+  }
+
+  @Test
+  public void readCompact_when_countExceedsRemainingBytes_expect_rejected() throws IOException {
+
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream os = new DataOutputStream(buffer);
+    os.writeUTF(desc.getDescriptorId());
+    // iudType, encoding and a count of 1 billion ids (varint) without the ids
+    os.writeByte(1);
+    os.writeByte(1);
+    VarInt.writeUnsigned(os, 1000000000L);
+    os.writeByte(0);
+    os.flush();
+
+    try {
+      BeanPersistIds.readCompactBinaryMessage(spiEbeanServer(), new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+      fail("expected IOException");
+    } catch (IOException e) {
+      assertThat(e.getMessage()).contains("Invalid id count");
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.avaje.ebeaninternal.server.type;
+
+import com.avaje.ebean.text.json.EJson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LazyJsonMapTest {
+
+  private static final String RAW = "{\"a\": 1, \"b\": {\"c\": \"x\"}}";
+
+  @Test
+  public void testNotParsed_untilAccess() throws Exception {
+
+    LazyJsonMap map = new LazyJsonMap(RAW);
+    assertFalse(map.isParsed());
+    assertEquals(RAW, map.getRawJson());
+    assertEquals(RAW, LazyJsonMap.rawJson(map));
+    assertFalse(map.isMarkedDirty());
+
+    assertEquals(1L, map.get("a"));
+    assertTrue(map.isParsed());
+    assertNull(map.getRawJson());
+    assertNull(LazyJsonMap.rawJson(map));
+    assertFalse(map.isMarkedDirty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testIsMarkedDirty() throws Exception {
+
+    LazyJsonMap map = new LazyJsonMap(RAW);
+    map.put("d", "new");
+    assertTrue(map.isMarkedDirty());
+
+    map.resetMarkedDirty();
+    assertFalse(map.isMarkedDirty());
+
+    ((Map<String, Object>) map.get("b")).put("c", "y");
+    assertTrue(map.isMarkedDirty());
+  }
+
+  @Test
+  public void testEquals() throws Exception {
+
+    Map<String, Object> expected = EJson.parseObject(RAW);
+
+    LazyJsonMap map = new LazyJsonMap(RAW);
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+
+    LazyJsonMap other = new LazyJsonMap(RAW);
+    assertEquals(map, other);
+    assertEquals(map.hashCode(), other.hashCode());
+
+    other.put("d", 2);
+    assertNotEquals(map, other);
+    assertNotEquals(map, new LazyJsonMap("{\"a\": 1, \"b\": {\"c\": \"y\"}}"));
+  }
+
+  @Test
+  public void testConcurrentFirstAccess() throws Exception {
+
+    for (int i = 0; i < 20; i++) {
+      final LazyJsonMap map = new LazyJsonMap(RAW);
+      final CyclicBarrier barrier = new CyclicBarrier(4);
+      final List<Object> nested = Collections.synchronizedList(new ArrayList<Object>());
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      List<Future<Object>> results = new ArrayList<Future<Object>>();
+      for (int t = 0; t < 4; t++) {
+        results.add(executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            barrier.await();
+            nested.add(map.get("b"));
+            return map.get("a");
+          }
+        }));
+      }
+      for (Future<Object> result : results) {
+        assertEquals(1L, result.get(5, TimeUnit.SECONDS));
+      }
+      executor.shutdown();
+
+      // parsed once such that all threads see the same nested map
+      assertTrue(map.isParsed());
+      assertNull(map.getRawJson());
+      for (Object value : nested) {
+        assertSame(nested.get(0), value);
+      }
+    }
+  }
+
+  @Test
+  public void testRawJson_notLazy() throws Exception {
+
+    assertNull(LazyJsonMap.rawJson(null));
+    assertNull(LazyJsonMap.rawJson(new LinkedHashMap<String, Object>()));
+  }
+
+  @Test
+  public void testEJsonWrite_passThrough() throws Exception {
+
+    assertEquals("{\"x\":" + RAW + "}", EJson.write(singletonMap("x", new LazyJsonMap(RAW))));
+
+    LazyJsonMap parsed = new LazyJsonMap(RAW);
+    parsed.size();
+    assertEquals("{\"a\":1,\"b\":{\"c\":\"x\"}}", EJson.write(parsed));
+  }
+
+  @Test
+  public void testScalarType_lazy() throws Exception {
+
+    ScalarTypeJsonMap type = ScalarTypeJsonMap.typeFor(false, Types.VARCHAR, true);
+    Map map = type.readJson(RAW);
+    assertTrue(map instanceof LazyJsonMap);
+    assertFalse(type.isDirty(map));
+
+    // unparsed content is bound and written as is
+    assertEquals(RAW, type.formatValue(map));
+    assertEquals(RAW, jsonWrite(type, map));
+
+    map.put("d", 2);
+    assertTrue(type.isDirty(map));
+    assertEquals("{\"a\":1,\"b\":{\"c\":\"x\"},\"d\":2}", type.formatValue(map));
+  }
+
+  @Test
+  public void testScalarType_notLazy() throws Exception {
+
+    ScalarTypeJsonMap type = ScalarTypeJsonMap.typeFor(false, Types.VARCHAR);
+    Map map = type.readJson(RAW);
+    assertFalse(map instanceof LazyJsonMap);
+    assertEquals("{\"a\":1,\"b\":{\"c\":\"x\"}}", jsonWrite(type, map));
+  }
+
+  private String jsonWrite(ScalarTypeJsonMap type, Map value) throws Exception {
+    StringWriter writer = new StringWriter();
+    JsonGenerator gen = new JsonFactory().createGenerator(writer);
+    type.jsonWrite(gen, value);
+    gen.flush();
+    return writer.toString();
+  }
+
+  private Map<String, Object> singletonMap(String key, Object value) {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put(key, value);
+    return map;
+  }
+}
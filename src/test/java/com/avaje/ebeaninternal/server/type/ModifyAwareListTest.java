@@ -18,6 +18,17 @@ public class ModifyAwareListTest {
     return new ModifyAwareList<String>(new ArrayList<String>());
   }
 
+  @Test
+  public void testEquals() throws Exception {
+
+    ModifyAwareList<String> list = createList();
+    assertEquals(list.list, list);
+    assertEquals(list, list.list);
+    assertEquals(createList(), list);
+    assertEquals(list.list.hashCode(), list.hashCode());
+    assertNotEquals(createEmptyList(), list);
+  }
+
   @Test
   public void testSize() throws Exception {
 
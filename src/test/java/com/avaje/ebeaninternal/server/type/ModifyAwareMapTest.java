@@ -30,6 +30,17 @@ public class ModifyAwareMapTest {
     assertEquals(map.map.toString(), map.toString());
   }
 
+  @Test
+  public void testEquals() throws Exception {
+
+    ModifyAwareMap<String, String> map = createMap();
+    assertEquals(map.map, map);
+    assertEquals(map, map.map);
+    assertEquals(createMap(), map);
+    assertEquals(map.map.hashCode(), map.hashCode());
+    assertNotEquals(createEmptyMap(), map);
+  }
+
   @Test
   public void testIsMarkedDirty() throws Exception {
 
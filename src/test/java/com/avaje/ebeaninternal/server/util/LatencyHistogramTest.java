@@ -0,0 +1,72 @@
+package com.avaje.ebeaninternal.server.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void bucketIndex_when_small() {
+
+    for (int i = 0; i < 8; i++) {
+      assertThat(LatencyHistogram.bucketIndex(i)).isEqualTo(i);
+    }
+    assertThat(LatencyHistogram.bucketIndex(-1)).isEqualTo(0);
+  }
+
+  @Test
+  public void bucketIndex_lowestValue_roundTrip() {
+
+    for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+      long lowest = LatencyHistogram.lowestValue(i);
+      assertThat(LatencyHistogram.bucketIndex(lowest)).isEqualTo(i);
+      assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.highestValue(i))).isEqualTo(i);
+    }
+    assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+  }
+
+  @Test
+  public void percentile() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+
+    long[] counts = histogram.counts(false);
+    assertThat(LatencyHistogram.percentile(counts, 50)).isBetween(500L, 563L);
+    assertThat(LatencyHistogram.percentile(counts, 99)).isBetween(990L, 1114L);
+    assertThat(LatencyHistogram.percentile(counts, 0)).isEqualTo(1L);
+  }
+
+  @Test
+  public void percentile_when_empty() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertThat(LatencyHistogram.percentile(histogram.counts(false), 99)).isEqualTo(0L);
+  }
+
+  @Test
+  public void counts_when_reset() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(100);
+    histogram.record(200);
+
+    long[] first = histogram.counts(true);
+    assertThat(sum(first)).isEqualTo(2L);
+    assertThat(sum(histogram.counts(false))).isEqualTo(0L);
+
+    histogram.record(300);
+    assertThat(sum(histogram.counts(false))).isEqualTo(1L);
+  }
+
+  private long sum(long[] counts) {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    return total;
+  }
+}
@@ -2,7 +2,11 @@ package com.avaje.tests.cache;
 
 import com.avaje.ebean.BaseTestCase;
 import com.avaje.ebean.Ebean;
+import com.avaje.ebean.bean.EntityBean;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
 import com.avaje.tests.model.basic.OCachedBean;
+import com.avaje.tests.model.basic.cache.CInhOne;
+import com.avaje.tests.model.basic.cache.CInhRoot;
 import org.avaje.ebeantest.LoggedSqlCollector;
 import org.junit.Test;
 
@@ -41,4 +45,61 @@ public class TestBeanCache extends BaseTestCase {
     assertThat(sql).isEmpty();
 
   }
+
+  @Test
+  public void cacheBeanPut_when_readBeforeUpdate_expect_stalePutRejected() {
+
+    OCachedBean bean = new OCachedBean();
+    bean.setName("stalePut");
+    Ebean.save(bean);
+
+    BeanDescriptor<OCachedBean> desc = getBeanDescriptor(OCachedBean.class);
+
+    // read that starts before the update commits
+    long readEpoch = desc.cacheBeanEpoch();
+    OCachedBean staleRead = Ebean.find(OCachedBean.class).setUseCache(false).setId(bean.getId()).findUnique();
+
+    bean.setName("stalePut-modified");
+    Ebean.save(bean);
+    awaitL2Cache();
+
+    long stalePuts = desc.getBeanCacheStalePutCount();
+    desc.cacheBeanPut((EntityBean) staleRead, readEpoch);
+    assertThat(desc.getBeanCacheStalePutCount()).isEqualTo(stalePuts + 1);
+
+    OCachedBean fromCache = Ebean.find(OCachedBean.class, bean.getId());
+    assertThat(fromCache.getName()).isEqualTo("stalePut-modified");
+  }
+
+  @Test
+  public void cacheBeanPut_when_inheritance_readBeforeUpdate_expect_stalePutRejected() {
+
+    CInhOne bean = new CInhOne();
+    bean.setLicenseNumber("stalePut");
+    bean.setDriver("Jim");
+    Ebean.save(bean);
+
+    BeanDescriptor<CInhRoot> rootDesc = getBeanDescriptor(CInhRoot.class);
+    BeanDescriptor<CInhOne> oneDesc = getBeanDescriptor(CInhOne.class);
+
+    // read via the root type that starts before the update (via the sub type) commits
+    long readEpoch = rootDesc.cacheBeanEpoch();
+    CInhRoot staleRead = Ebean.find(CInhRoot.class).setUseCache(false).setId(bean.getId()).findUnique();
+    assertThat(staleRead).isInstanceOf(CInhOne.class);
+
+    bean.setDriver("Jim-modified");
+    Ebean.save(bean);
+    awaitL2Cache();
+
+    // the epoch and invalidations are shared by the hierarchy
+    assertThat(oneDesc.cacheBeanEpoch()).isEqualTo(rootDesc.cacheBeanEpoch());
+
+    long stalePuts = rootDesc.getBeanCacheStalePutCount();
+    rootDesc.cacheBeanPut((EntityBean) staleRead, readEpoch);
+    assertThat(rootDesc.getBeanCacheStalePutCount()).isEqualTo(stalePuts + 1);
+    assertThat(oneDesc.getBeanCacheStalePutCount()).isEqualTo(stalePuts + 1);
+
+    CInhOne fromCache = Ebean.find(CInhOne.class, bean.getId());
+    assertThat(fromCache.getDriver()).isEqualTo("Jim-modified");
+  }
 }
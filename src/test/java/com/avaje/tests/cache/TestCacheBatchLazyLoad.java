@@ -0,0 +1,106 @@
+package com.avaje.tests.cache;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.cache.ServerCacheManager;
+import com.avaje.tests.model.basic.Country;
+import com.avaje.tests.model.basic.OCachedBean;
+import com.avaje.tests.model.basic.ResetBasicData;
+import org.avaje.ebeantest.LoggedSqlCollector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batch lazy loading checking the other beans (and collections) of the batch against the L2 cache.
+ */
+public class TestCacheBatchLazyLoad extends BaseTestCase {
+
+  ServerCacheManager cacheManager = Ebean.getServerCacheManager();
+
+  @Test
+  public void lazyLoadBatch_when_someBeansInCache_expect_loadedFromCache() {
+
+    List<Long> ids = insert("batchBean");
+
+    ServerCache beanCache = cacheManager.getBeanCache(OCachedBean.class);
+    beanCache.clear();
+
+    // load the bean cache with the second and third beans
+    Ebean.find(OCachedBean.class, ids.get(1));
+    Ebean.find(OCachedBean.class, ids.get(2));
+
+    List<OCachedBean> list = Ebean.find(OCachedBean.class)
+        .select("id")
+        .where().idIn(ids)
+        .order().asc("id")
+        .findList();
+
+    assertThat(list).hasSize(3);
+    long hits = beanCache.getStatistics(false).getHitCount();
+
+    // lazy load the first bean, the others are loaded from the cache
+    LoggedSqlCollector.start();
+    assertThat(list.get(0).getName()).isEqualTo("batchBean0");
+    assertThat(list.get(1).getName()).isEqualTo("batchBean1");
+    assertThat(list.get(2).getName()).isEqualTo("batchBean2");
+    List<String> sql = LoggedSqlCollector.stop();
+
+    assertThat(sql).hasSize(1);
+    assertThat(beanCache.getStatistics(false).getHitCount()).isEqualTo(hits + 2);
+  }
+
+  @Test
+  public void lazyLoadManyBatch_when_someCollectionsInCache_expect_loadedFromCache() {
+
+    List<Long> ids = insert("batchMany");
+
+    ServerCache countriesCache = cacheManager.getCollectionIdsCache(OCachedBean.class, "countries");
+    countriesCache.clear();
+
+    // load the collection ids cache for the second and third beans
+    Ebean.find(OCachedBean.class, ids.get(1)).getCountries().size();
+    Ebean.find(OCachedBean.class, ids.get(2)).getCountries().size();
+    assertThat(countriesCache.size()).isEqualTo(2);
+
+    List<OCachedBean> list = Ebean.find(OCachedBean.class)
+        .select("id, name")
+        .where().idIn(ids)
+        .order().asc("id")
+        .findList();
+
+    assertThat(list).hasSize(3);
+    long hits = countriesCache.getStatistics(false).getHitCount();
+
+    // lazy load the first collection, the others are loaded from the cache
+    LoggedSqlCollector.start();
+    assertThat(list.get(0).getCountries()).hasSize(2);
+    List<String> sql = LoggedSqlCollector.stop();
+
+    assertThat(sql).hasSize(1);
+    assertThat(countriesCache.getStatistics(false).getHitCount()).isEqualTo(hits + 2);
+    assertThat(list.get(1).getCountries()).hasSize(2);
+    assertThat(list.get(2).getCountries()).hasSize(2);
+  }
+
+  private List<Long> insert(String prefix) {
+
+    ResetBasicData.reset();
+
+    List<Long> ids = new ArrayList<Long>();
+    for (int i = 0; i < 3; i++) {
+      OCachedBean bean = new OCachedBean();
+      bean.setName(prefix + i);
+      bean.getCountries().add(Ebean.find(Country.class, "NZ"));
+      bean.getCountries().add(Ebean.find(Country.class, "AU"));
+      Ebean.save(bean);
+      ids.add(bean.getId());
+    }
+    awaitL2Cache();
+    return ids;
+  }
+}
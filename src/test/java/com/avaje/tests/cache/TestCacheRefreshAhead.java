@@ -0,0 +1,143 @@
+package com.avaje.tests.cache;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.EbeanServerFactory;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.server.cache.CachedBeanData;
+import com.avaje.tests.model.basic.cache.CInhOne;
+import com.avaje.tests.model.basic.cache.CInhRoot;
+import com.avaje.tests.model.basic.cache.CInhTwo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Refresh ahead of the bean and query caches where every read is within the refresh window.
+ * The rows are modified via JDBC such that only the refresh updates the cache entries.
+ */
+public class TestCacheRefreshAhead extends BaseTestCase {
+
+  EbeanServer server;
+
+  String table;
+
+  @Before
+  public void setup() {
+    server = createServer();
+    table = ((SpiEbeanServer) server).getBeanDescriptor(CInhRoot.class).getBaseTable();
+  }
+
+  @After
+  public void shutdown() {
+    server.shutdown(true, false);
+  }
+
+  @Test
+  public void beanRefresh_when_subtype_expect_refreshedIntoCache() throws Exception {
+
+    CInhOne bean = new CInhOne();
+    bean.setLicenseNumber("refreshBean");
+    bean.setDriver("Jim");
+    server.save(bean);
+
+    // load the bean cache
+    server.find(CInhOne.class, bean.getId());
+
+    executeJdbc("update " + table + " set driver = 'Bob' where id = ?", bean.getId());
+
+    ServerCache beanCache = server.getServerCacheManager().getBeanCache(CInhRoot.class);
+    String driver = null;
+    for (int i = 0; i < 50 && !"Bob".equals(driver); i++) {
+      CachedBeanData data = (CachedBeanData) beanCache.get(bean.getId());
+      driver = (String) data.getData("driver");
+      Thread.sleep(100);
+    }
+    assertEquals("Bob", driver);
+    assertEquals("Bob", server.find(CInhOne.class, bean.getId()).getDriver());
+  }
+
+  @Test
+  public void queryRefresh_when_rowsDeleted_expect_emptyResultCached() throws Exception {
+
+    CInhTwo bean = new CInhTwo();
+    bean.setLicenseNumber("refreshQuery");
+    server.save(bean);
+
+    assertEquals(1, findByLicenseNumber("refreshQuery").size());
+
+    executeJdbc("delete from " + table + " where id = ?", bean.getId());
+
+    int size = 1;
+    for (int i = 0; i < 50 && size > 0; i++) {
+      size = findByLicenseNumber("refreshQuery").size();
+      Thread.sleep(100);
+    }
+    assertEquals(0, size);
+
+    // the empty result is held in the query cache
+    ServerCache queryCache = server.getServerCacheManager().getQueryCache(CInhRoot.class);
+    assertEquals(1, queryCache.size());
+    long hits = queryCache.getStatistics(false).getHitCount();
+    assertTrue(findByLicenseNumber("refreshQuery").isEmpty());
+    assertTrue(queryCache.getStatistics(false).getHitCount() > hits);
+  }
+
+  private List<CInhTwo> findByLicenseNumber(String licenseNumber) {
+    return server.find(CInhTwo.class)
+        .setUseQueryCache(true)
+        .where().eq("licenseNumber", licenseNumber)
+        .findList();
+  }
+
+  private void executeJdbc(String sql, Object id) throws Exception {
+    Connection connection = server.getPluginApi().getDataSource().getConnection();
+    try {
+      PreparedStatement statement = connection.prepareStatement(sql);
+      try {
+        statement.setObject(1, id);
+        assertEquals(1, statement.executeUpdate());
+      } finally {
+        statement.close();
+      }
+      connection.commit();
+    } finally {
+      connection.close();
+    }
+  }
+
+  private EbeanServer createServer() {
+
+    System.setProperty("ebean.ignoreExtraDdl", "true");
+
+    ServerConfig config = new ServerConfig();
+    config.setName("h2other");
+    config.loadFromProperties();
+
+    config.setDdlGenerate(true);
+    config.setDdlRun(true);
+    config.setDefaultServer(false);
+    config.setRegister(false);
+
+    config.addClass(CInhRoot.class);
+    config.addClass(CInhOne.class);
+    config.addClass(CInhTwo.class);
+
+    // every read is within the refresh ahead window
+    config.setCacheMaxTimeToLive(60);
+    config.setCacheRefreshAheadSecs(60);
+    config.setQueryCacheMaxTimeToLive(60);
+    config.setQueryCacheRefreshAheadSecs(60);
+
+    return EbeanServerFactory.create(config);
+  }
+}
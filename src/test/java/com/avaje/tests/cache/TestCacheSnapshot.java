@@ -0,0 +1,156 @@
+package com.avaje.tests.cache;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.server.cache.CacheSnapshot;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.tests.model.basic.EBasicVer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestCacheSnapshot extends BaseTestCase {
+
+  EbeanServer server;
+
+  File directory;
+
+  CacheSnapshot snapshot;
+
+  @Before
+  public void setup() {
+    server = Ebean.getServer(null);
+    directory = new File(System.getProperty("java.io.tmpdir"), "ebean-snapshot-" + System.nanoTime());
+    ServerConfig config = new ServerConfig();
+    config.setCacheSnapshotDirectory(directory.getAbsolutePath());
+    snapshot = new CacheSnapshot((SpiEbeanServer) server, config);
+  }
+
+  @After
+  public void deleteDirectory() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void snapshotAndRestore() throws Exception {
+
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+    ServerCache beanCache = server.getServerCacheManager().getBeanCache(EBasicVer.class);
+
+    EBasicVer bean = createAndLoad("snapshot", beanCache);
+
+    assertEquals(beanCache.size(), snapshot.snapshot(desc));
+    // written via the temporary file
+    assertEquals(1, directory.listFiles().length);
+
+    server.getServerCacheManager().clear(EBasicVer.class);
+    assertNull(beanCache.get(bean.getId()));
+
+    snapshot.restore(desc);
+    assertNotNull(beanCache.get(bean.getId()));
+
+    // change the version in the database (without going through the cache)
+    server.createSqlUpdate("update e_basicver set last_update = :ts where id = :id")
+        .setParameter("ts", new Timestamp(System.currentTimeMillis() + 60000))
+        .setParameter("id", bean.getId())
+        .execute();
+    awaitL2Cache();
+    server.getServerCacheManager().clear(EBasicVer.class);
+
+    // the snapshot entry is stale and not restored
+    snapshot.restore(desc);
+    assertNull(beanCache.get(bean.getId()));
+  }
+
+  @Test
+  public void restoreInBackground_expect_afterRestoreRun() throws Exception {
+
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+    ServerCache beanCache = server.getServerCacheManager().getBeanCache(EBasicVer.class);
+
+    EBasicVer bean = createAndLoad("snapshotBackground", beanCache);
+    snapshot.snapshot(desc);
+    server.getServerCacheManager().clear(EBasicVer.class);
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    snapshot.restoreInBackground(server.getBackgroundExecutor(), new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    });
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertNotNull(beanCache.get(bean.getId()));
+  }
+
+  @Test
+  public void snapshot_when_concurrentAndShutdown_expect_serialised() throws Exception {
+
+    final BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+    ServerCache beanCache = server.getServerCacheManager().getBeanCache(EBasicVer.class);
+    createAndLoad("snapshotConcurrent", beanCache);
+
+    final AtomicInteger errors = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 10; j++) {
+            try {
+              snapshot.snapshot(desc);
+            } catch (Exception e) {
+              errors.incrementAndGet();
+            }
+          }
+        }
+      });
+      threads[i].start();
+    }
+    snapshot.shutdown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, errors.get());
+    // only the snapshot file remains (no temporary file left behind)
+    assertEquals(1, directory.listFiles().length);
+
+    // not written after shutdown
+    assertEquals(0, snapshot.snapshot(desc));
+  }
+
+  private EBasicVer createAndLoad(String name, ServerCache beanCache) {
+
+    EBasicVer bean = new EBasicVer();
+    bean.setName(name);
+    server.save(bean);
+    awaitL2Cache();
+
+    // load into the bean cache
+    server.find(EBasicVer.class, bean.getId());
+    assertNotNull(beanCache.get(bean.getId()));
+    return bean;
+  }
+}
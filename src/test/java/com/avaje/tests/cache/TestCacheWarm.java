@@ -0,0 +1,50 @@
+package com.avaje.tests.cache;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.ebean.cache.ServerCacheManager;
+import com.avaje.ebean.cache.ServerCacheStatistics;
+import com.avaje.ebean.cache.ServerCacheWarmer;
+import com.avaje.tests.model.basic.EBasic;
+import com.avaje.tests.model.basic.OCachedBean;
+import com.avaje.tests.model.basic.OCachedBeanChild;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestCacheWarm extends BaseTestCase {
+
+  @Test
+  public void warm() {
+
+    OCachedBean bean = new OCachedBean();
+    bean.setName("warm");
+    OCachedBeanChild child = new OCachedBeanChild();
+    child.setCachedBean(bean);
+    bean.getChildren().add(child);
+    Ebean.save(bean);
+    awaitL2Cache();
+
+    ServerCacheManager cacheManager = Ebean.getServerCacheManager();
+    cacheManager.clear(OCachedBean.class);
+
+    ServerCache beanCache = cacheManager.getBeanCache(OCachedBean.class);
+    ((ServerCacheWarmer) cacheManager).warm(OCachedBean.class);
+
+    ServerCacheStatistics statistics = beanCache.getStatistics(false);
+    assertTrue(statistics.isWarmComplete());
+    assertTrue(statistics.getWarmLoadCount() > 0);
+    assertEquals(statistics.getWarmTotalCount(), statistics.getWarmLoadCount());
+
+    assertNotNull(beanCache.get(bean.getId()));
+    assertNotNull(cacheManager.getCollectionIdsCache(OCachedBean.class, "children").get(bean.getId()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void warm_when_notBeanCaching() {
+    ((ServerCacheWarmer) Ebean.getServerCacheManager()).warm(EBasic.class);
+  }
+}
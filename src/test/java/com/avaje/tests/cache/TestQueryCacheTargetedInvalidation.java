@@ -0,0 +1,88 @@
+package com.avaje.tests.cache;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.tests.model.basic.EBasicVer;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestQueryCacheTargetedInvalidation extends BaseTestCase {
+
+  private List<EBasicVer> findByName(EbeanServer server, String name) {
+    return server.find(EBasicVer.class)
+        .select("name")
+        .where().eq("name", name)
+        .setUseQueryCache(true)
+        .findList();
+  }
+
+  @Test
+  public void update_when_propertyNotUsedByQuery_expect_entryRetained() {
+
+    EbeanServer server = Ebean.getServer(null);
+    BeanDescriptor<EBasicVer> desc = getBeanDescriptor(EBasicVer.class);
+
+    EBasicVer bean = new EBasicVer();
+    bean.setName("targeted-a");
+    server.save(bean);
+
+    List<EBasicVer> list0 = findByName(server, "targeted-a");
+    assertEquals(1, list0.size());
+
+    long fullClears = desc.getQueryCacheFullClearCount();
+    long targetedClears = desc.getQueryCacheTargetedClearCount();
+
+    bean.setOther("other");
+    server.save(bean);
+    awaitL2Cache();
+
+    // other is not in the select or where clause
+    assertSame(list0, findByName(server, "targeted-a"));
+    assertEquals(fullClears, desc.getQueryCacheFullClearCount());
+    assertTrue(desc.getQueryCacheTargetedClearCount() > targetedClears);
+
+    bean.setName("targeted-b");
+    server.save(bean);
+    awaitL2Cache();
+
+    List<EBasicVer> list1 = findByName(server, "targeted-a");
+    assertNotSame(list0, list1);
+    assertEquals(0, list1.size());
+  }
+
+  @Test
+  public void insertDelete_when_idNotInQuery_expect_entryRetained() {
+
+    EbeanServer server = Ebean.getServer(null);
+
+    EBasicVer bean = new EBasicVer();
+    bean.setName("targeted-id");
+    server.save(bean);
+
+    List<EBasicVer> list0 = server.find(EBasicVer.class).where().idIn(bean.getId()).setUseQueryCache(true).findList();
+    assertEquals(1, list0.size());
+
+    EBasicVer other = new EBasicVer();
+    other.setName("targeted-id");
+    server.save(other);
+    server.delete(other);
+    awaitL2Cache();
+
+    List<EBasicVer> list1 = server.find(EBasicVer.class).where().idIn(bean.getId()).setUseQueryCache(true).findList();
+    assertSame(list0, list1);
+
+    server.delete(bean);
+    awaitL2Cache();
+
+    List<EBasicVer> list2 = server.find(EBasicVer.class).where().idIn(bean.getId()).setUseQueryCache(true).findList();
+    assertEquals(0, list2.size());
+  }
+}
@@ -0,0 +1,87 @@
+package com.avaje.tests.cache;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.SqlRow;
+import com.avaje.ebean.Transaction;
+import com.avaje.tests.model.basic.EBasicVer;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class TestSqlQueryCache extends BaseTestCase {
+
+  private List<SqlRow> findCount() {
+    return Ebean.createSqlQuery("select count(*) as total from e_basicver where name = :name")
+        .setParameter("name", "sqlQueryCache")
+        .setUseQueryCache(true)
+        .findList();
+  }
+
+  @Test
+  public void test() {
+
+    List<SqlRow> rows0 = findCount();
+    long count0 = rows0.get(0).getLong("total");
+
+    // hit the cache
+    assertSame(rows0, findCount());
+
+    // the cached rows are shared and read only
+    try {
+      rows0.get(0).set("total", -1);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    EBasicVer bean = new EBasicVer();
+    bean.setName("sqlQueryCache");
+    Ebean.save(bean);
+    awaitL2Cache();
+
+    // invalidated by the bean insert
+    List<SqlRow> rows1 = findCount();
+    assertNotSame(rows0, rows1);
+    assertEquals(count0 + 1, rows1.get(0).getLong("total").longValue());
+
+    Ebean.createSqlUpdate("delete from e_basicver where id = :id")
+        .setParameter("id", bean.getId())
+        .execute();
+    awaitL2Cache();
+
+    // invalidated by the SqlUpdate table event
+    List<SqlRow> rows2 = findCount();
+    assertNotSame(rows1, rows2);
+    assertEquals(count0, rows2.get(0).getLong("total").longValue());
+  }
+
+  @Test
+  public void transaction_when_modified_expect_cacheSkipped() {
+
+    List<SqlRow> rows0 = findCount();
+    long count0 = rows0.get(0).getLong("total");
+
+    Transaction transaction = Ebean.beginTransaction();
+    try {
+      EBasicVer bean = new EBasicVer();
+      bean.setName("sqlQueryCache");
+      Ebean.save(bean);
+
+      // sees the uncommitted insert rather than the cached result
+      List<SqlRow> rows1 = findCount();
+      assertNotSame(rows0, rows1);
+      assertEquals(count0 + 1, rows1.get(0).getLong("total").longValue());
+    } finally {
+      transaction.end();
+    }
+
+    // the uncommitted result was not put into the cache
+    assertSame(rows0, findCount());
+  }
+}
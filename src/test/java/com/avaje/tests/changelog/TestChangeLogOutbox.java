@@ -0,0 +1,293 @@
+package com.avaje.tests.changelog;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.EbeanServerFactory;
+import com.avaje.ebean.SqlRow;
+import com.avaje.ebean.Transaction;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebean.event.TransactionEventListener;
+import com.avaje.ebean.event.changelog.ChangeLogListener;
+import com.avaje.ebean.event.changelog.ChangeSet;
+import com.avaje.ebean.event.changelog.ChangeType;
+import com.avaje.ebean.event.changelog.TxnState;
+import com.avaje.ebeaninternal.api.SpiEbeanServer;
+import com.avaje.ebeaninternal.api.SpiTransaction;
+import com.avaje.ebeaninternal.api.TransactionEvent;
+import com.avaje.ebeaninternal.api.TransactionEventTable;
+import com.avaje.tests.model.basic.EBasicChangeLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestChangeLogOutbox extends BaseTestCase {
+
+  TDChangeLogListener changeLogListener = new TDChangeLogListener();
+
+  TDTransactionEventListener transactionEventListener = new TDTransactionEventListener();
+
+  SpiEbeanServer server;
+
+  @Before
+  public void setup() {
+    server = getServer(new Properties());
+  }
+
+  @After
+  public void shutdown() {
+    server.shutdown(true, false);
+  }
+
+  @Test
+  public void commit_relayedFromOutbox() throws InterruptedException {
+
+    changeLogListener.latch = new CountDownLatch(1);
+
+    Transaction transaction = server.beginTransaction();
+    try {
+      EBasicChangeLog bean = new EBasicChangeLog();
+      bean.setName("outbox");
+      bean.setShortDescription("hello");
+      server.save(bean);
+      transaction.commit();
+    } finally {
+      transaction.end();
+    }
+
+    assertTrue(changeLogListener.latch.await(5, TimeUnit.SECONDS));
+    ChangeSet changeSet = changeLogListener.changeSets.get(0);
+    assertEquals(TxnState.COMMITTED, changeSet.getTxnState());
+    assertEquals(1, changeSet.getChanges().size());
+    assertEquals(ChangeType.INSERT, changeSet.getChanges().get(0).getType());
+    assertEquals("outbox", changeSet.getChanges().get(0).getValues().get("name").getNewValue());
+
+    awaitOutboxEmpty();
+  }
+
+  @Test
+  public void relay_expect_noTableEventForOutbox() throws InterruptedException {
+
+    changeLogListener.latch = new CountDownLatch(1);
+    insert("noTableEvent");
+    assertTrue(changeLogListener.latch.await(5, TimeUnit.SECONDS));
+    awaitOutboxEmpty();
+
+    // the relay deletes the rows without invalidating caches or broadcasting the outbox table
+    assertTrue(!transactionEventListener.tables.contains("EBEAN_OUTBOX"));
+  }
+
+  @Test
+  public void rollback_notWrittenToOutbox() {
+
+    Transaction transaction = server.beginTransaction();
+    try {
+      EBasicChangeLog bean = new EBasicChangeLog();
+      bean.setName("outboxRollback");
+      server.save(bean);
+      transaction.flushBatch();
+      transaction.rollback();
+    } finally {
+      transaction.end();
+    }
+
+    assertEquals(0, outboxCount());
+  }
+
+  @Test
+  public void commits_relayedInOrder() throws InterruptedException {
+
+    changeLogListener.latch = new CountDownLatch(20);
+    for (int i = 0; i < 20; i++) {
+      insert("order" + i);
+    }
+
+    assertTrue(changeLogListener.latch.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 20; i++) {
+      ChangeSet changeSet = changeLogListener.changeSets.get(i);
+      assertEquals("order" + i, changeSet.getChanges().get(0).getValues().get("name").getNewValue());
+    }
+    awaitOutboxEmpty();
+  }
+
+  @Test
+  public void commit_when_overBatchSize_expect_pendingChangeSetsRelayed() throws InterruptedException {
+
+    changeLogListener.latch = new CountDownLatch(2);
+
+    Transaction transaction = server.beginTransaction();
+    try {
+      for (int i = 0; i < 150; i++) {
+        EBasicChangeLog bean = new EBasicChangeLog();
+        bean.setName("pending" + i);
+        server.save(bean);
+      }
+      transaction.commit();
+    } finally {
+      transaction.end();
+    }
+
+    assertTrue(changeLogListener.latch.await(5, TimeUnit.SECONDS));
+    assertEquals(2, changeLogListener.changeSets.size());
+    ChangeSet first = changeLogListener.changeSets.get(0);
+    ChangeSet last = changeLogListener.changeSets.get(1);
+    assertEquals(100, first.getChanges().size());
+    assertEquals(50, last.getChanges().size());
+    assertEquals(first.getTxnId(), last.getTxnId());
+    assertEquals(TxnState.COMMITTED, last.getTxnState());
+    awaitOutboxEmpty();
+  }
+
+  @Test
+  public void relay_when_maxRowsPerSecond_expect_throttled() throws InterruptedException {
+
+    server.shutdown(true, false);
+    Properties properties = new Properties();
+    properties.setProperty("ebean.outbox.relayBatchSize", "5");
+    properties.setProperty("ebean.outbox.maxRowsPerSecond", "10");
+    server = getServer(properties);
+
+    changeLogListener.latch = new CountDownLatch(10);
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < 10; i++) {
+      insert("throttle" + i);
+    }
+
+    assertTrue(changeLogListener.latch.await(5, TimeUnit.SECONDS));
+    // at least 5 rows were relayed (and throttled) before the last row
+    assertTrue(System.currentTimeMillis() - start >= 400);
+    awaitOutboxEmpty();
+  }
+
+  @Test
+  public void docStoreRows_when_deliveryFails_expect_movedToDeadTable() throws InterruptedException {
+
+    server.shutdown(true, false);
+    Properties properties = new Properties();
+    properties.setProperty("ebean.outbox.maxAttempts", "3");
+    properties.setProperty("ebean.outbox.maxBackoffMillis", "100");
+    server = getServer(properties);
+
+    // the document store is not in the class path so delivering these rows fails
+    String entries = "[{\"type\":\"INDEX\",\"queueId\":\"x\",\"beanId\":1}]";
+    insertRow("D", entries);
+    insertRow("Q", entries);
+
+    changeLogListener.latch = new CountDownLatch(1);
+    insert("afterPoison");
+
+    // the failed rows do not block the change set behind them
+    assertTrue(changeLogListener.latch.await(5, TimeUnit.SECONDS));
+    assertEquals("afterPoison", changeLogListener.changeSets.get(0).getChanges().get(0).getValues().get("name").getNewValue());
+    awaitOutboxEmpty();
+
+    assertEquals(2, count("ebean_outbox_dead"));
+    SqlRow dead = server.createSqlQuery("select kind, error from ebean_outbox_dead order by id").findList().get(0);
+    assertEquals("D", dead.getString("kind"));
+    assertNotNull(dead.getString("error"));
+  }
+
+  private void insert(String name) {
+    EBasicChangeLog bean = new EBasicChangeLog();
+    bean.setName(name);
+    server.save(bean);
+  }
+
+  private void insertRow(String kind, String content) {
+    server.createSqlUpdate("insert into ebean_outbox (txn_id, seq, event_time, kind, content) values (:txnId, 0, 0, :kind, :content)")
+        .setParameter("txnId", kind)
+        .setParameter("kind", kind)
+        .setParameter("content", content)
+        .execute();
+  }
+
+  private void awaitOutboxEmpty() throws InterruptedException {
+    for (int i = 0; i < 50 && outboxCount() > 0; i++) {
+      Thread.sleep(100);
+    }
+    assertEquals(0, outboxCount());
+  }
+
+  private int outboxCount() {
+    return count("ebean_outbox");
+  }
+
+  private int count(String table) {
+    return server.createSqlQuery("select count(*) as c from " + table).findUnique().getInteger("c");
+  }
+
+  private SpiEbeanServer getServer(Properties outboxProperties) {
+
+    System.setProperty("ebean.ignoreExtraDdl", "true");
+
+    ServerConfig config = new ServerConfig();
+    config.setName("h2other");
+    config.loadFromProperties();
+    Properties properties = config.getProperties();
+    properties.setProperty("ebean.outbox.relayMillis", "50");
+    properties.putAll(outboxProperties);
+
+    config.setDdlGenerate(true);
+    config.setDdlRun(true);
+    config.setDefaultServer(false);
+    config.setRegister(false);
+
+    config.addClass(EBasicChangeLog.class);
+
+    config.setChangeLogListener(changeLogListener);
+    config.add(transactionEventListener);
+    config.setTransactionOutbox(true);
+
+    SpiEbeanServer server = (SpiEbeanServer) EbeanServerFactory.create(config);
+    // the h2other database is shared with other tests
+    server.createSqlUpdate("delete from ebean_outbox").execute();
+    server.createSqlUpdate("delete from ebean_outbox_dead").execute();
+    return server;
+  }
+
+  static class TDTransactionEventListener implements TransactionEventListener {
+
+    final Set<String> tables = Collections.synchronizedSet(new HashSet<String>());
+
+    @Override
+    public void postTransactionCommit(Transaction tx) {
+      TransactionEvent event = ((SpiTransaction) tx).getEvent();
+      TransactionEventTable eventTables = (event == null) ? null : event.getEventTables();
+      if (eventTables != null) {
+        for (TransactionEventTable.TableIUD tableIUD : eventTables.values()) {
+          tables.add(tableIUD.getTableName());
+        }
+      }
+    }
+
+    @Override
+    public void postTransactionRollback(Transaction tx, Throwable cause) {
+    }
+  }
+
+  static class TDChangeLogListener implements ChangeLogListener {
+
+    final List<ChangeSet> changeSets = Collections.synchronizedList(new ArrayList<ChangeSet>());
+
+    CountDownLatch latch;
+
+    @Override
+    public void log(ChangeSet changeSet) {
+      changeSets.add(changeSet);
+      if (latch != null) {
+        latch.countDown();
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.avaje.tests.cluster;
+
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.config.ContainerConfig;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebeaninternal.server.core.DefaultContainer;
+import com.avaje.tests.model.basic.EBasicVer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Multiple EbeanServer instances in one JVM (sharing a H2 database) each with their own
+ * ClusterManager such that they behave as separate members of a cluster.
+ */
+class ClusterNodes {
+
+  private final List<DefaultContainer> containers = new ArrayList<DefaultContainer>();
+
+  private final List<EbeanServer> servers = new ArrayList<EbeanServer>();
+
+  /**
+   * Create the nodes using the loopback transport.
+   */
+  static ClusterNodes loopback(String name, int count) {
+    ClusterNodes nodes = new ClusterNodes();
+    for (int i = 0; i < count; i++) {
+      Properties properties = new Properties();
+      properties.setProperty("ebean.cluster.loopback.group", name);
+      nodes.add(name, i, "loopback", properties);
+    }
+    return nodes;
+  }
+
+  /**
+   * Create the nodes using the UDP socket transport on localhost.
+   */
+  static ClusterNodes socket(String name, int count, int basePort) {
+    ClusterNodes nodes = new ClusterNodes();
+    for (int i = 0; i < count; i++) {
+      StringBuilder members = new StringBuilder();
+      for (int j = 0; j < count; j++) {
+        if (j != i) {
+          members.append(members.length() == 0 ? "" : ",").append("127.0.0.1:").append(basePort + j);
+        }
+      }
+      Properties properties = new Properties();
+      properties.setProperty("ebean.cluster.socket.localHost", "127.0.0.1");
+      properties.setProperty("ebean.cluster.socket.localPort", String.valueOf(basePort + i));
+      properties.setProperty("ebean.cluster.socket.members", members.toString());
+      nodes.add(name, i, "socket", properties);
+    }
+    return nodes;
+  }
+
+  private void add(String name, int index, String transport, Properties clusterProperties) {
+
+    ContainerConfig containerConfig = new ContainerConfig();
+    containerConfig.setClusterActive(true);
+    containerConfig.setClusterTransport(transport);
+    containerConfig.setProperties(clusterProperties);
+
+    // the same server name on each node as cluster messages are routed by server name
+    ServerConfig config = new ServerConfig();
+    config.setName(name);
+
+    Properties properties = new Properties();
+    properties.setProperty("datasource." + name + ".username", "sa");
+    properties.setProperty("datasource." + name + ".password", "");
+    properties.setProperty("datasource." + name + ".databaseUrl", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    properties.setProperty("datasource." + name + ".databaseDriver", "org.h2.Driver");
+    config.loadFromProperties(properties);
+
+    config.setRegister(false);
+    config.setDefaultServer(false);
+    // only the first node creates the tables
+    config.setDdlGenerate(index == 0);
+    config.setDdlRun(index == 0);
+    config.addClass(EBasicVer.class);
+
+    DefaultContainer container = new DefaultContainer(containerConfig);
+    containers.add(container);
+
+    // only ignore the extra ddl while creating the server (restoring the prior value)
+    String ignoreExtraDdl = System.getProperty("ebean.ignoreExtraDdl");
+    System.setProperty("ebean.ignoreExtraDdl", "true");
+    try {
+      servers.add(container.createServer(config));
+    } finally {
+      if (ignoreExtraDdl == null) {
+        System.clearProperty("ebean.ignoreExtraDdl");
+      } else {
+        System.setProperty("ebean.ignoreExtraDdl", ignoreExtraDdl);
+      }
+    }
+  }
+
+  EbeanServer get(int index) {
+    return servers.get(index);
+  }
+
+  int size() {
+    return servers.size();
+  }
+
+  void shutdown() {
+    for (EbeanServer server : servers) {
+      // shutdown the DataSource such that the connection pool is closed
+      server.shutdown(true, false);
+    }
+    for (DefaultContainer container : containers) {
+      container.shutdown();
+    }
+  }
+}
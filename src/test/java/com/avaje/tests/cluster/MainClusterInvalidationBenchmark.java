@@ -0,0 +1,91 @@
+package com.avaje.tests.cluster;
+
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.tests.model.basic.EBasicVer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the end to end latency of L2 cache invalidation across several EbeanServer
+ * instances in one JVM.
+ * <p>
+ * Each iteration loads a bean into the bean cache of every other node, updates it on the
+ * first node and measures the time until it has been removed from the caches of all the
+ * other nodes. Run with arguments: transport (loopback or socket), nodes, iterations.
+ * </p>
+ */
+public class MainClusterInvalidationBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+
+    String transport = args.length > 0 ? args[0] : "loopback";
+    int nodeCount = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+    ClusterNodes nodes = "socket".equals(transport)
+        ? ClusterNodes.socket("clusterBench", nodeCount, 9700)
+        : ClusterNodes.loopback("clusterBench", nodeCount);
+
+    try {
+      EbeanServer writer = nodes.get(0);
+      List<ServerCache> remoteCaches = new ArrayList<ServerCache>();
+      for (int i = 1; i < nodes.size(); i++) {
+        remoteCaches.add(nodes.get(i).getServerCacheManager().getBeanCache(EBasicVer.class));
+      }
+
+      EBasicVer bean = new EBasicVer();
+      bean.setName("bench");
+      writer.save(bean);
+
+      long[] latencyMicros = new long[iterations];
+      int timeouts = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (int n = 1; n < nodes.size(); n++) {
+          nodes.get(n).find(EBasicVer.class, bean.getId());
+        }
+
+        bean.setName("bench-" + i);
+        long commitNanos = System.nanoTime();
+        writer.save(bean);
+
+        if (!awaitInvalidation(remoteCaches, bean.getId(), 2000)) {
+          timeouts++;
+        }
+        latencyMicros[i] = (System.nanoTime() - commitNanos) / 1000;
+      }
+      long totalMillis = (System.nanoTime() - start) / 1000000;
+
+      Arrays.sort(latencyMicros);
+      System.out.println("transport:" + transport + " nodes:" + nodeCount + " iterations:" + iterations + " timeouts:" + timeouts);
+      System.out.println("invalidation latency micros p50:" + percentile(latencyMicros, 50)
+          + " p95:" + percentile(latencyMicros, 95) + " p99:" + percentile(latencyMicros, 99)
+          + " max:" + latencyMicros[iterations - 1]);
+      System.out.println("throughput: " + (iterations * 1000L / Math.max(1, totalMillis)) + " updates/sec");
+
+    } finally {
+      nodes.shutdown();
+    }
+  }
+
+  private static boolean awaitInvalidation(List<ServerCache> caches, Object id, long timeoutMillis) throws InterruptedException {
+    long until = System.nanoTime() + timeoutMillis * 1000000L;
+    for (ServerCache cache : caches) {
+      while (cache.get(id) != null) {
+        if (System.nanoTime() > until) {
+          return false;
+        }
+        Thread.yield();
+      }
+    }
+    return true;
+  }
+
+  private static long percentile(long[] sorted, int percentile) {
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, index)];
+  }
+}
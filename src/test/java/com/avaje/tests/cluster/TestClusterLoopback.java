@@ -0,0 +1,44 @@
+package com.avaje.tests.cluster;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.tests.model.basic.EBasicVer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TestClusterLoopback extends BaseTestCase {
+
+  @Test
+  public void update_expect_invalidatedOnOtherNode() throws InterruptedException {
+
+    ClusterNodes nodes = ClusterNodes.loopback("loopbackTest", 2);
+    try {
+      EbeanServer node0 = nodes.get(0);
+      EbeanServer node1 = nodes.get(1);
+
+      EBasicVer bean = new EBasicVer();
+      bean.setName("cluster");
+      node0.save(bean);
+
+      // load into the bean cache of the second node
+      node1.find(EBasicVer.class, bean.getId());
+      ServerCache beanCache = node1.getServerCacheManager().getBeanCache(EBasicVer.class);
+      assertNotNull(beanCache.get(bean.getId()));
+
+      bean.setName("cluster-modified");
+      node0.save(bean);
+
+      long until = System.currentTimeMillis() + 5000;
+      while (beanCache.get(bean.getId()) != null && System.currentTimeMillis() < until) {
+        Thread.sleep(5);
+      }
+      assertNull(beanCache.get(bean.getId()));
+
+    } finally {
+      nodes.shutdown();
+    }
+  }
+}
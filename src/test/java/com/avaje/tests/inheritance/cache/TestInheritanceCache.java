@@ -7,7 +7,9 @@ import com.avaje.tests.model.basic.cache.CInhOne;
 import com.avaje.tests.model.basic.cache.CInhRoot;
 import org.junit.Test;
 
-import static org.assertj.core.api.StrictAssertions.assertThat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class TestInheritanceCache extends BaseTestCase {
 
@@ -39,4 +41,32 @@ public class TestInheritanceCache extends BaseTestCase {
     CInhRoot refOneSub = Ebean.getReference(CInhOne.class, one.getId());
     assertThat(refOneSub).isNotNull();
   }
+
+  @Test
+  public void queryCache_when_subTypeUpdated_expect_rootQueryInvalidated() {
+
+    CInhOne one = new CInhOne();
+    one.setLicenseNumber("Q12");
+    one.setDriver("Jack");
+    Ebean.save(one);
+
+    List<CInhRoot> list0 = findByLicense("Q12");
+    assertThat(list0).hasSize(1);
+    assertThat(findByLicense("Q12")).isSameAs(list0);
+
+    // the query cache is shared by the hierarchy so the update via the sub type invalidates it
+    one.setLicenseNumber("Q13");
+    Ebean.save(one);
+    awaitL2Cache();
+
+    assertThat(findByLicense("Q12")).isEmpty();
+    assertThat(findByLicense("Q13")).hasSize(1);
+  }
+
+  private List<CInhRoot> findByLicense(String licenseNumber) {
+    return Ebean.find(CInhRoot.class)
+        .where().eq("licenseNumber", licenseNumber)
+        .setUseQueryCache(true)
+        .findList();
+  }
 }
@@ -6,7 +6,7 @@ import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 import javax.persistence.Inheritance;
 
-@Cache
+@Cache(enableQueryCache = true)
 @Entity
 @Inheritance
 @DiscriminatorValue("T")
@@ -0,0 +1,83 @@
+package com.avaje.tests.query;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.Query;
+import com.avaje.ebean.Transaction;
+import com.avaje.ebean.cache.ServerCache;
+import com.avaje.tests.model.basic.Country;
+import com.avaje.tests.model.basic.Customer;
+import com.avaje.tests.model.basic.Order;
+import com.avaje.tests.model.basic.ResetBasicData;
+import org.junit.Test;
+
+import javax.persistence.PersistenceException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestQueryFindListBatch extends BaseTestCase {
+
+  @Test
+  public void test_findListBatch() {
+
+    ResetBasicData.reset();
+
+    Query<Order> orderQuery = Ebean.find(Order.class).where().gt("id", 0).query();
+    Query<Customer> customerQuery = Ebean.find(Customer.class).fetch("billingAddress").setMaxRows(2).order("id");
+
+    int orderCount = Ebean.find(Order.class).where().gt("id", 0).findRowCount();
+
+    List<List<?>> results = Ebean.findListBatch(orderQuery, customerQuery);
+
+    assertEquals(2, results.size());
+    assertEquals(orderCount, results.get(0).size());
+    assertEquals(2, results.get(1).size());
+    assertEquals(Order.class, results.get(0).get(0).getClass());
+    assertEquals(Customer.class, results.get(1).get(0).getClass());
+  }
+
+  @Test
+  public void test_findListBatch_queryCache() {
+
+    ResetBasicData.reset();
+
+    ServerCache queryCache = Ebean.getServerCacheManager().getQueryCache(Country.class);
+    queryCache.clear();
+
+    List<List<?>> results0 = Ebean.findListBatch(countryQuery(), Ebean.find(Order.class).where().gt("id", 0).query());
+    assertEquals(1, queryCache.getStatistics(false).getSize());
+
+    List<List<?>> results1 = Ebean.findListBatch(countryQuery(), Ebean.find(Order.class).where().gt("id", 0).query());
+    assertSame(results0.get(0), results1.get(0));
+    assertEquals(1, queryCache.getStatistics(false).getHitCount());
+  }
+
+  @Test
+  public void test_findListBatch_when_queryFails_expect_originalExceptionAndTransactionEnded() {
+
+    ResetBasicData.reset();
+
+    Query<Order> orderQuery = Ebean.find(Order.class).where().gt("id", 0).query();
+    Query<Customer> badQuery = Ebean.find(Customer.class).where().raw("not_a_column = 1").query();
+    try {
+      Ebean.findListBatch(orderQuery, badQuery);
+      fail("expected PersistenceException");
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage(), e.getMessage().toLowerCase().contains("not_a_column"));
+    }
+
+    // no transaction left active and subsequent queries work
+    Transaction current = Ebean.currentTransaction();
+    assertNull(current);
+    assertEquals(2, Ebean.findListBatch(Ebean.find(Order.class), Ebean.find(Customer.class)).size());
+  }
+
+  private Query<Country> countryQuery() {
+    return Ebean.find(Country.class).setUseQueryCache(true).order().asc("name");
+  }
+}
@@ -11,6 +11,7 @@ import com.avaje.ebean.EbeanServer;
 import com.avaje.ebean.meta.MetaInfoManager;
 import com.avaje.ebean.meta.MetaObjectGraphNodeStats;
 import com.avaje.ebean.meta.MetaQueryPlanStatistic;
+import com.avaje.ebean.meta.MetaSlowQuery;
 import com.avaje.tests.model.basic.Address;
 import com.avaje.tests.model.basic.Customer;
 import com.avaje.tests.model.basic.Order;
@@ -44,7 +45,12 @@ public class TestObjectGraphNodeStatsCollection extends BaseTestCase {
     List<MetaQueryPlanStatistic> planStatistics = infoManager.collectQueryPlanStatistics(true);
     for (MetaQueryPlanStatistic planStatistic : planStatistics) {
       planStatistic.getSql();
+      Assert.assertTrue(planStatistic.getPercentileTimeMicros(99) <= planStatistic.getMaxTimeMicros());
     }
+
+    // slow query capture not enabled by default
+    List<MetaSlowQuery> slowQueries = infoManager.collectSlowQueries(true);
+    Assert.assertTrue(slowQueries.isEmpty());
     
   }
 
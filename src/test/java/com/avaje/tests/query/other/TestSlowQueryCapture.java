@@ -0,0 +1,130 @@
+package com.avaje.tests.query.other;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.EbeanServerFactory;
+import com.avaje.ebean.QueryEachConsumer;
+import com.avaje.ebean.Transaction;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.ebean.meta.MetaSlowQuery;
+import com.avaje.tests.model.basic.EBasic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestSlowQueryCapture extends BaseTestCase {
+
+  EbeanServer server;
+
+  @Before
+  public void setup() {
+    server = getServer();
+  }
+
+  @After
+  public void shutdown() {
+    server.shutdown(true, false);
+  }
+
+  @Test
+  public void thresholdZero_expect_queryCapturedWithBindOriginAndExplain() throws InterruptedException {
+
+    server.save(new EBasic("slowQuery"));
+    server.getMetaInfoManager().collectSlowQueries(true);
+
+    Transaction transaction = server.beginTransaction();
+    try {
+      List<EBasic> list = server.find(EBasic.class).where().eq("name", "slowQuery").findList();
+      assertEquals(1, list.size());
+
+      // the explain did not use (or break) the query transaction
+      assertEquals(1, server.find(EBasic.class).where().eq("name", "slowQuery").findRowCount());
+      transaction.commit();
+    } finally {
+      transaction.end();
+    }
+
+    List<MetaSlowQuery> slowQueries = server.getMetaInfoManager().collectSlowQueries(true);
+    assertFalse(slowQueries.isEmpty());
+
+    MetaSlowQuery slowQuery = slowQueries.get(0);
+    assertEquals(EBasic.class, slowQuery.getBeanType());
+    assertTrue(slowQuery.getSql().contains("e_basic"));
+    assertTrue(slowQuery.getBindLog().contains("slowQuery"));
+    assertTrue(slowQuery.getExecutionTimeMicros() >= 0);
+    assertTrue(slowQuery.getCaptureTime() > 0);
+    assertNotNull(slowQuery.getCallStack());
+
+    // explain is obtained in the background
+    String explainPlan = awaitExplain(slowQuery);
+    assertNotNull(explainPlan);
+    assertFalse(explainPlan.startsWith("explain failed"));
+
+    // reset cleared the captured queries
+    assertTrue(server.getMetaInfoManager().collectSlowQueries(false).isEmpty());
+  }
+
+  @Test
+  public void findRowCountAndFindEach_expect_captured() throws InterruptedException {
+
+    server.save(new EBasic("slowRowCount"));
+    server.getMetaInfoManager().collectSlowQueries(true);
+
+    assertEquals(1, server.find(EBasic.class).where().eq("name", "slowRowCount").findRowCount());
+    List<MetaSlowQuery> slowQueries = server.getMetaInfoManager().collectSlowQueries(true);
+    assertEquals(1, slowQueries.size());
+    assertTrue(slowQueries.get(0).getSql().contains("count(*)"));
+    assertTrue(slowQueries.get(0).getBindLog().contains("slowRowCount"));
+    assertNotNull(awaitExplain(slowQueries.get(0)));
+
+    final List<EBasic> found = new ArrayList<EBasic>();
+    server.find(EBasic.class).where().eq("name", "slowRowCount").findEach(new QueryEachConsumer<EBasic>() {
+      @Override
+      public void accept(EBasic bean) {
+        found.add(bean);
+      }
+    });
+    assertEquals(1, found.size());
+
+    slowQueries = server.getMetaInfoManager().collectSlowQueries(true);
+    assertEquals(1, slowQueries.size());
+    assertEquals(EBasic.class, slowQueries.get(0).getBeanType());
+    assertTrue(slowQueries.get(0).getBindLog().contains("slowRowCount"));
+  }
+
+  private String awaitExplain(MetaSlowQuery slowQuery) throws InterruptedException {
+    for (int i = 0; i < 50 && slowQuery.getExplainPlan() == null; i++) {
+      Thread.sleep(20);
+    }
+    return slowQuery.getExplainPlan();
+  }
+
+  private EbeanServer getServer() {
+
+    System.setProperty("ebean.ignoreExtraDdl", "true");
+
+    ServerConfig config = new ServerConfig();
+    config.setName("h2other");
+    config.loadFromProperties();
+
+    config.setDdlGenerate(true);
+    config.setDdlRun(true);
+    config.setDefaultServer(false);
+    config.setRegister(false);
+
+    config.addClass(EBasic.class);
+
+    config.setSlowQueryMicros(0);
+    config.setSlowQueryExplain(true);
+
+    return EbeanServerFactory.create(config);
+  }
+}
@@ -0,0 +1,100 @@
+package com.avaje.tests.text.csv;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.text.csv.CsvErrorRow;
+import com.avaje.ebean.text.csv.CsvImportResult;
+import com.avaje.ebean.text.csv.CsvReader;
+import com.avaje.tests.model.basic.EBasic;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestCsvReaderParallel extends BaseTestCase {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  @Test
+  public void processParallel_file() throws Exception {
+
+    String marker = "parallel-file";
+    File file = File.createTempFile("ebean-csv", ".csv");
+    file.deleteOnExit();
+
+    Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8);
+    try {
+      writer.write(content(marker, true));
+    } finally {
+      writer.close();
+    }
+
+    CsvReader<EBasic> csvReader = Ebean.createCsvReader(EBasic.class);
+    csvReader.setAddPropertiesFromHeader();
+    csvReader.setParallelThreads(3);
+    csvReader.setCommitSize(7);
+    csvReader.setChunkBytes(1024);
+
+    CsvImportResult result = csvReader.processParallel(file, UTF8);
+    assertResult(marker, result);
+  }
+
+  @Test
+  public void processParallel_reader() throws Exception {
+
+    String marker = "parallel-reader";
+
+    CsvReader<EBasic> csvReader = Ebean.createCsvReader(EBasic.class);
+    csvReader.addProperty("status");
+    csvReader.addProperty("name");
+    csvReader.addProperty("description");
+    csvReader.setParallelThreads(2);
+    csvReader.setCommitSize(9);
+
+    CsvImportResult result = csvReader.processParallel(new StringReader(content(marker, false)));
+    assertResult(marker, result);
+  }
+
+  /**
+   * 200 rows where every 50th row has a missing column.
+   */
+  private String content(String marker, boolean header) {
+
+    StringBuilder sb = new StringBuilder();
+    if (header) {
+      sb.append("status,name,description\n");
+    }
+    for (int row = 1; row <= 200; row++) {
+      if (row % 50 == 0) {
+        sb.append("NEW,bad").append(row).append('\n');
+      } else {
+        sb.append(row % 2 == 0 ? "NEW" : "ACTIVE").append(",name").append(row).append(',').append(marker).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  private void assertResult(String marker, CsvImportResult result) {
+
+    assertEquals(200, result.getRowCount());
+    assertEquals(196, result.getSavedCount());
+    assertEquals(4, result.getErrorCount());
+    assertEquals(4, result.getErrors().size());
+
+    int expectedRow = 50;
+    for (CsvErrorRow errorRow : result.getErrors()) {
+      assertEquals(expectedRow, errorRow.getRow());
+      assertEquals("bad" + expectedRow, errorRow.getLine()[1]);
+      expectedRow += 50;
+    }
+
+    int count = Ebean.find(EBasic.class).where().eq("description", marker).findRowCount();
+    assertEquals(196, count);
+  }
+}
@@ -0,0 +1,128 @@
+package com.avaje.tests.text.csv;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebean.text.csv.CsvReader;
+import com.avaje.ebean.text.csv.CsvWriter;
+import com.avaje.ebean.text.csv.DefaultCsvCallback;
+import com.avaje.tests.model.basic.Customer;
+import com.avaje.tests.model.basic.EBasic;
+import com.avaje.tests.model.basic.ResetBasicData;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestCsvWriter extends BaseTestCase {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  @Test
+  public void write_withPathProperties() throws Exception {
+
+    ResetBasicData.reset();
+
+    CsvWriter<Customer> csvWriter = Ebean.createCsvWriter(Customer.class);
+    csvWriter.setPathProperties(PathProperties.parse("(id,name,status,billingAddress(city))"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int rows = csvWriter.write(Ebean.find(Customer.class).order().asc("id"), out, UTF8);
+
+    int expectedRows = Ebean.find(Customer.class).findRowCount();
+    assertEquals(expectedRows, rows);
+
+    String[] lines = new String(out.toByteArray(), UTF8).split("\n");
+    assertEquals(expectedRows + 1, lines.length);
+    assertEquals("id,name,status,billingAddress.city", lines[0]);
+    assertEquals(4, lines[1].split(",", -1).length);
+  }
+
+  @Test
+  public void write_quotedValues() throws Exception {
+
+    EBasic basic = new EBasic("csv, \"quoted\" name");
+    basic.setStatus(EBasic.Status.ACTIVE);
+    basic.setDescription("csv-writer");
+    Ebean.save(basic);
+
+    CsvWriter<EBasic> csvWriter = Ebean.createCsvWriter(EBasic.class);
+    csvWriter.setHeader(false);
+    csvWriter.addProperty("id");
+    csvWriter.addProperty("status");
+    csvWriter.addProperty("name");
+
+    StringWriter writer = new StringWriter();
+    int rows = csvWriter.write(Ebean.find(EBasic.class).where().eq("description", "csv-writer").query(), writer);
+
+    assertEquals(1, rows);
+    assertEquals(basic.getId() + ",ACTIVE,\"csv, \"\"quoted\"\" name\"\n", writer.toString());
+  }
+
+  @Test
+  public void write_then_read_expect_sameValues() throws Exception {
+
+    Timestamp someDate = new Timestamp(System.currentTimeMillis() / 1000 * 1000);
+    EBasic first = new EBasic("round, \"trip\"\nname");
+    first.setStatus(EBasic.Status.NEW);
+    first.setDescription("csv-roundtrip");
+    first.setSomeDate(someDate);
+    Ebean.save(first);
+
+    EBasic second = new EBasic("second");
+    second.setStatus(EBasic.Status.ACTIVE);
+    second.setDescription("csv-roundtrip");
+    Ebean.save(second);
+
+    CsvWriter<EBasic> csvWriter = Ebean.createCsvWriter(EBasic.class);
+    csvWriter.addProperty("status");
+    csvWriter.addProperty("name");
+    csvWriter.addProperty("description");
+    csvWriter.addProperty("someDate");
+
+    StringWriter writer = new StringWriter();
+    csvWriter.write(Ebean.find(EBasic.class).where().eq("description", "csv-roundtrip").order().asc("id"), writer);
+
+    final List<EBasic> read = new ArrayList<EBasic>();
+    CsvReader<EBasic> csvReader = Ebean.createCsvReader(EBasic.class);
+    csvReader.setAddPropertiesFromHeader();
+    csvReader.process(new StringReader(writer.toString()), new DefaultCsvCallback<EBasic>() {
+      @Override
+      public void processBean(int row, String[] line, EBasic bean) {
+        read.add(bean);
+      }
+    });
+
+    assertEquals(2, read.size());
+    assertEquals(EBasic.Status.NEW, read.get(0).getStatus());
+    assertEquals(first.getName(), read.get(0).getName());
+    assertEquals("csv-roundtrip", read.get(0).getDescription());
+    assertEquals(someDate, read.get(0).getSomeDate());
+    assertEquals(EBasic.Status.ACTIVE, read.get(1).getStatus());
+    assertEquals("second", read.get(1).getName());
+    assertNull(read.get(1).getSomeDate());
+  }
+
+  @Test
+  public void write_defaultColumns() throws Exception {
+
+    ResetBasicData.reset();
+
+    CsvWriter<Customer> csvWriter = Ebean.createCsvWriter(Customer.class);
+    StringWriter writer = new StringWriter();
+    csvWriter.write(Ebean.find(Customer.class), writer);
+
+    String header = writer.toString().substring(0, writer.toString().indexOf('\n'));
+    assertTrue(header.startsWith("id,"));
+    assertTrue(header.contains("name"));
+  }
+}
@@ -0,0 +1,59 @@
+package com.avaje.tests.text.json;
+
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebean.text.json.JsonContext;
+import com.avaje.tests.model.basic.Customer;
+import com.avaje.tests.model.basic.ResetBasicData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the throughput of writing beans as JSON with and without PathProperties.
+ * <p>
+ * Run with arguments: beans per list, iterations.
+ * </p>
+ */
+public class MainJsonWriteBenchmark {
+
+  public static void main(String[] args) {
+
+    int listSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+    ResetBasicData.reset();
+    List<Customer> customers = Ebean.find(Customer.class).fetch("billingAddress").findList();
+    List<Customer> list = new ArrayList<Customer>(listSize);
+    while (list.size() < listSize) {
+      list.addAll(customers);
+    }
+
+    JsonContext json = Ebean.json();
+    PathProperties pathProperties = PathProperties.parse("(id,name,status,billingAddress(line1,city))");
+
+    // warm up
+    run(json, list, null, iterations / 4);
+    run(json, list, pathProperties, iterations / 4);
+
+    report("loaded", run(json, list, null, iterations), list.size() * iterations);
+    report("pathProperties", run(json, list, pathProperties, iterations), list.size() * iterations);
+  }
+
+  private static long run(JsonContext json, List<Customer> list, PathProperties pathProperties, int iterations) {
+    long start = System.nanoTime();
+    long length = 0;
+    for (int i = 0; i < iterations; i++) {
+      String asJson = (pathProperties == null) ? json.toJson(list) : json.toJson(list, pathProperties);
+      length += asJson.length();
+    }
+    if (length == 0) {
+      throw new IllegalStateException();
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static void report(String label, long nanos, long beans) {
+    System.out.println(label + " beans/sec:" + (beans * 1000000000L / nanos) + " nanos/bean:" + (nanos / beans));
+  }
+}
@@ -0,0 +1,144 @@
+package com.avaje.tests.text.json;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebean.text.json.JsonContext;
+import com.avaje.ebean.text.json.JsonWriteOptions;
+import com.avaje.ebeaninternal.server.type.LazyJsonMap;
+import com.avaje.tests.model.basic.Customer;
+import com.avaje.tests.model.basic.ResetBasicData;
+import com.avaje.tests.model.json.EBasicJsonMap;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestJsonBinaryFormats extends BaseTestCase {
+
+  @Test
+  public void smile_list() {
+    assertListRoundTrip(new SmileFactory());
+  }
+
+  @Test
+  public void cbor_list() {
+    assertListRoundTrip(new CBORFactory());
+  }
+
+  @Test
+  public void smile_jsonMap() {
+    assertMapRoundTrip(new SmileFactory());
+  }
+
+  @Test
+  public void cbor_jsonMap() {
+    assertMapRoundTrip(new CBORFactory());
+  }
+
+  @Test
+  public void smile_lazyJsonMap() {
+    assertLazyMapRoundTrip(new SmileFactory());
+  }
+
+  @Test
+  public void cbor_lazyJsonMap() {
+    assertLazyMapRoundTrip(new CBORFactory());
+  }
+
+  @Test
+  public void smile_pathProperties() {
+
+    ResetBasicData.reset();
+
+    JsonContext smile = Ebean.json().withFactory(new SmileFactory());
+    List<Customer> customers = Ebean.find(Customer.class).order().asc("id").findList();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    smile.toJson(customers, out, JsonWriteOptions.parsePath("(id,name)"));
+
+    List<Customer> copy = smile.toList(Customer.class, new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(customers.size(), copy.size());
+
+    // same bean semantics as the text format
+    String expected = Ebean.json().toJson(customers, PathProperties.parse("(id,name)"));
+    assertEquals(expected, Ebean.json().toJson(copy));
+  }
+
+  private void assertListRoundTrip(JsonFactory factory) {
+
+    ResetBasicData.reset();
+
+    JsonContext json = Ebean.json();
+    JsonContext binary = json.withFactory(factory);
+
+    List<Customer> customers = Ebean.find(Customer.class).fetch("billingAddress").order().asc("id").findList();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    binary.toJson(customers, out);
+
+    List<Customer> copy = binary.toList(Customer.class, new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(customers.size(), copy.size());
+    assertEquals(json.toJson(customers), json.toJson(copy));
+
+    // more compact than the text format
+    assertTrue(out.size() < json.toJson(customers).length());
+  }
+
+  private void assertMapRoundTrip(JsonFactory factory) {
+
+    Map<String, Object> content = new LinkedHashMap<String, Object>();
+    content.put("name", "rob");
+    content.put("count", 42L);
+    content.put("bytes", new byte[]{1, 2, 3});
+
+    EBasicJsonMap bean = new EBasicJsonMap();
+    bean.setId(1L);
+    bean.setName("binary");
+    bean.setContent(content);
+
+    JsonContext binary = Ebean.json().withFactory(factory);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    binary.toJson(bean, out);
+
+    EBasicJsonMap copy = binary.toBean(EBasicJsonMap.class, new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("binary", copy.getName());
+    assertEquals("rob", copy.getContent().get("name"));
+    assertEquals(42L, copy.getContent().get("count"));
+    byte[] bytes = (byte[]) copy.getContent().get("bytes");
+    assertNotNull(bytes);
+    assertEquals(3, bytes.length);
+  }
+
+  private void assertLazyMapRoundTrip(JsonFactory factory) {
+
+    // not parsed so the text format writes the raw content
+    LazyJsonMap content = new LazyJsonMap("{\"name\":\"rob\",\"nested\":{\"count\":42}}");
+
+    EBasicJsonMap bean = new EBasicJsonMap();
+    bean.setId(1L);
+    bean.setName("lazy");
+    bean.setContent(content);
+
+    JsonContext binary = Ebean.json().withFactory(factory);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    binary.toJson(bean, out);
+
+    EBasicJsonMap copy = binary.toBean(EBasicJsonMap.class, new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("lazy", copy.getName());
+    assertEquals("rob", copy.getContent().get("name"));
+    assertEquals(42L, ((Map<?, ?>) copy.getContent().get("nested")).get("count"));
+  }
+}
@@ -0,0 +1,67 @@
+package com.avaje.tests.text.json;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.Query;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebean.text.json.JsonContext;
+import com.avaje.tests.model.basic.Customer;
+import com.avaje.tests.model.basic.ResetBasicData;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestJsonQueryStream extends BaseTestCase {
+
+  @Test
+  public void toJson_query() {
+
+    ResetBasicData.reset();
+
+    JsonContext json = Ebean.json();
+    Query<Customer> query = Ebean.find(Customer.class).select("id, name").order().asc("id");
+
+    StringWriter writer = new StringWriter();
+    int count = json.toJson(query, writer);
+
+    List<Customer> expected = Ebean.find(Customer.class).select("id, name").order().asc("id").findList();
+    assertEquals(expected.size(), count);
+
+    // same output as writing the materialised list
+    assertEquals(json.toJson(expected), writer.toString());
+    assertFalse(writer.toString().contains("status"));
+  }
+
+  @Test
+  public void toJson_query_withPathProperties() {
+
+    ResetBasicData.reset();
+
+    JsonContext json = Ebean.json();
+    PathProperties pathProperties = PathProperties.parse("(id,status,billingAddress(city))");
+
+    StringWriter writer = new StringWriter();
+    int count = json.toJson(Ebean.find(Customer.class), writer, pathProperties);
+
+    assertTrue(count > 0);
+    String asJson = writer.toString();
+    assertTrue(asJson.startsWith("[{"));
+    assertTrue(asJson.contains("\"status\""));
+    assertFalse(asJson.contains("\"name\""));
+  }
+
+  @Test
+  public void toJson_query_empty() {
+
+    StringWriter writer = new StringWriter();
+    int count = Ebean.json().toJson(Ebean.find(Customer.class).where().eq("name", "DoesNotExist").query(), writer);
+
+    assertEquals(0, count);
+    assertEquals("[]", writer.toString());
+  }
+}
@@ -0,0 +1,50 @@
+package com.avaje.tests.text.json;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.Ebean;
+import com.avaje.ebean.text.PathProperties;
+import com.avaje.ebeaninternal.server.deploy.BeanDescriptor;
+import com.avaje.tests.model.basic.Customer;
+import com.avaje.tests.model.basic.ResetBasicData;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestJsonWritePlan extends BaseTestCase {
+
+  @Test
+  public void plans_cached() {
+
+    BeanDescriptor<Customer> desc = getBeanDescriptor(Customer.class);
+
+    Set<String> props = new HashSet<String>();
+    props.add("id");
+    props.add("name");
+    Set<String> sameProps = new HashSet<String>(props);
+
+    assertSame(desc.jsonWritePlan(false, props), desc.jsonWritePlan(false, sameProps));
+    assertSame(desc.jsonWritePlan(false, null), desc.jsonWritePlan(false, null));
+    assertSame(desc.jsonWritePlan(true, null), desc.jsonWritePlan(true, null));
+    assertNotSame(desc.jsonWritePlan(false, null), desc.jsonWritePlan(true, null));
+  }
+
+  @Test
+  public void write_withPathProperties() {
+
+    ResetBasicData.reset();
+    List<Customer> list = Ebean.find(Customer.class).fetch("billingAddress").findList();
+
+    String asJson = Ebean.json().toJson(list, PathProperties.parse("(id,name,billingAddress(city))"));
+    assertTrue(asJson.contains("\"name\""));
+    assertTrue(asJson.contains("\"city\""));
+    assertFalse(asJson.contains("\"status\""));
+    assertFalse(asJson.contains("\"line1\""));
+  }
+}
@@ -0,0 +1,152 @@
+package com.avaje.tests.transaction;
+
+import com.avaje.ebean.BaseTestCase;
+import com.avaje.ebean.EbeanServer;
+import com.avaje.ebean.EbeanServerFactory;
+import com.avaje.ebean.Query;
+import com.avaje.ebean.QueryBatchFinder;
+import com.avaje.ebean.config.ServerConfig;
+import com.avaje.tests.model.basic.EBasic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Uses a separate database as the read only DataSource such that the rows returned show
+ * which DataSource served the query.
+ */
+public class TestReadOnlyDataSource extends BaseTestCase {
+
+  EbeanServer replica;
+
+  EbeanServer server;
+
+  @Before
+  public void setup() {
+    replica = createServer("h2otherfind", null, 0);
+    replica.save(new EBasic("replica"));
+    server = createServer("h2other", replica.getPluginApi().getDataSource(), 300);
+  }
+
+  @After
+  public void shutdown() {
+    // also shuts down the read only DataSource of the replica
+    server.shutdown(true, false);
+    replica.shutdown(true, false);
+  }
+
+  @Test
+  public void implicitQuery_expect_readOnlyDataSource() {
+
+    assertEquals("replica", findName(null));
+    assertEquals(0, server.find(EBasic.class).setUseReadOnlyDataSource(false).findList().size());
+  }
+
+  @Test
+  public void implicitQuery_when_withinAfterCommitWindow_expect_mainDataSource() throws InterruptedException {
+
+    server.save(new EBasic("main"));
+
+    // read your writes after the commit in this thread
+    assertEquals("main", findName(null));
+    assertEquals("replica", findName(true));
+
+    // back to the read only DataSource after the window
+    Thread.sleep(400);
+    assertEquals("replica", findName(null));
+  }
+
+  @Test
+  public void implicitQuery_when_commitInOtherThread_expect_readOnlyDataSource() throws InterruptedException {
+
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        server.save(new EBasic("main"));
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertEquals("replica", findName(null));
+    assertEquals("main", findName(false));
+  }
+
+  @Test
+  public void bulkUpdateAndDelete_when_readOnlyOverride_expect_mainDataSource() {
+
+    server.save(new EBasic("main"));
+
+    int rows = server.update(EBasic.class).set("description", "updated")
+        .where().eq("name", "main")
+        .query().setUseReadOnlyDataSource(true)
+        .update();
+    assertEquals(1, rows);
+    assertEquals("updated", server.find(EBasic.class).setUseReadOnlyDataSource(false).findUnique().getDescription());
+
+    rows = server.find(EBasic.class).where().eq("name", "main")
+        .query().setUseReadOnlyDataSource(true)
+        .delete();
+    assertEquals(1, rows);
+    assertEquals(0, server.find(EBasic.class).setUseReadOnlyDataSource(false).findRowCount());
+
+    // the replica was not modified
+    assertEquals("replica", findName(true));
+  }
+
+  @Test
+  public void findListBatch_expect_readOnlyOverride() {
+
+    server.save(new EBasic("main"));
+
+    List<Query<?>> queries = new ArrayList<Query<?>>();
+    queries.add(server.find(EBasic.class).setUseReadOnlyDataSource(true));
+    queries.add(server.find(EBasic.class).where().eq("name", "replica").query().setUseReadOnlyDataSource(true));
+    List<List<?>> results = ((QueryBatchFinder) server).findListBatch(queries, null);
+    assertEquals("replica", ((EBasic) results.get(0).get(0)).getName());
+    assertEquals(1, results.get(1).size());
+
+    // the queries share a transaction so any query using the main DataSource wins
+    queries.set(1, server.find(EBasic.class).setUseReadOnlyDataSource(false));
+    results = ((QueryBatchFinder) server).findListBatch(queries, null);
+    assertEquals("main", ((EBasic) results.get(0).get(0)).getName());
+    assertEquals("main", ((EBasic) results.get(1).get(0)).getName());
+  }
+
+  private String findName(Boolean useReadOnly) {
+    Query<EBasic> query = server.find(EBasic.class);
+    if (useReadOnly != null) {
+      query.setUseReadOnlyDataSource(useReadOnly);
+    }
+    List<EBasic> list = query.findList();
+    assertEquals(1, list.size());
+    return list.get(0).getName();
+  }
+
+  private EbeanServer createServer(String name, DataSource readOnlyDataSource, int afterCommitMillis) {
+
+    System.setProperty("ebean.ignoreExtraDdl", "true");
+
+    ServerConfig config = new ServerConfig();
+    config.setName(name);
+    config.loadFromProperties();
+
+    config.setDdlGenerate(true);
+    config.setDdlRun(true);
+    config.setDefaultServer(false);
+    config.setRegister(false);
+    config.addClass(EBasic.class);
+
+    if (readOnlyDataSource != null) {
+      config.setReadOnlyDataSource(readOnlyDataSource);
+      config.setReadOnlyAfterCommitMillis(afterCommitMillis);
+    }
+    return EbeanServerFactory.create(config);
+  }
+}